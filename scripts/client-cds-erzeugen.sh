@@ -0,0 +1,27 @@
+#!/bin/sh
+# Erzeugt das AppCDS-Archiv für den Client (Spiel mit Fenster), damit die Klassen beim Start nicht erst
+# gesucht, geladen und geprüft werden müssen. Muss nach jedem neuen Build des Jars einmal ausgeführt werden
+# (das Archiv passt nur zum selben Jar und JDK).
+#
+# Standard: headless Trainingslauf mit Aufwaermen (Spiel-, Netzwerk- und Java2D-Klassen, ohne Fenster).
+# Mit --gui startet das echte Spiel; nach einer Runde und dem Schließen des Fensters sind auch alle
+# Swing- und Fensterklassen im Archiv.
+#
+# Aufruf: scripts/client-cds-erzeugen.sh [--gui] [pfad/zum/Pong_Spiel_M.jar] [archiv.jsa]
+set -e
+
+GUI=0
+if [ "$1" = "--gui" ]; then
+    GUI=1
+    shift
+fi
+JAR=${1:-out/artifacts/Pong_Spiel_M_jar/Pong_Spiel_M.jar}
+ARCHIV=${2:-pong-client.jsa}
+
+if [ "$GUI" = 1 ]; then
+    java -XX:ArchiveClassesAtExit="$ARCHIV" -jar "$JAR"
+else
+    java -XX:ArchiveClassesAtExit="$ARCHIV" -Djava.awt.headless=true -cp "$JAR" Aufwaermen 3000
+fi
+
+echo "AppCDS-Archiv erzeugt: $ARCHIV"
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Erzeugt das AppCDS-Archiv für den dedizierten Server.
+# Muss nach jedem neuen Build des Jars einmal ausgeführt werden (das Archiv passt nur zum selben Jar und JDK).
+#
+# Aufruf: scripts/server-cds-erzeugen.sh [pfad/zum/Pong_Spiel_M.jar] [archiv.jsa]
+set -e
+
+JAR=${1:-out/artifacts/Pong_Spiel_M_jar/Pong_Spiel_M.jar}
+ARCHIV=${2:-pong-server.jsa}
+
+# Trainingslauf: Server kurz starten (auf einem freien Port) und beim Beenden alle geladenen Klassen archivieren
+java -XX:ArchiveClassesAtExit="$ARCHIV" -Djava.awt.headless=true \
+    -cp "$JAR" DedizierterServer --port=0 --laufzeit=2
+
+echo "AppCDS-Archiv erzeugt: $ARCHIV"
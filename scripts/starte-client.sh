@@ -0,0 +1,16 @@
+#!/bin/sh
+# Startet das Spiel mit AppCDS-Archiv (falls vorhanden, siehe client-cds-erzeugen.sh).
+# Während Menü und Modusauswahl angezeigt werden, wärmt Aufwaermen die Spielschleife auf
+# (Dauer mit PONG_AUFWAERMEN_MS, 0 = aus).
+#
+# Aufruf: scripts/starte-client.sh [weitere JVM-Optionen, z.B. -Dpong.spur=true]
+
+JAR=${PONG_JAR:-out/artifacts/Pong_Spiel_M_jar/Pong_Spiel_M.jar}
+ARCHIV=${PONG_CDS_ARCHIV:-pong-client.jsa}
+
+CDS=""
+if [ -f "$ARCHIV" ]; then
+    CDS="-XX:SharedArchiveFile=$ARCHIV"
+fi
+
+exec java $CDS -Xshare:auto -Dpong.aufwaermen.ms="${PONG_AUFWAERMEN_MS:-1500}" "$@" -jar "$JAR"
@@ -0,0 +1,65 @@
+#!/bin/sh
+# Startet einen SpielRouter und mehrere dedizierte Server (Arbeiter) als eigene Prozesse auf diesem Rechner.
+# Clients verbinden sich mit dem Router (Port 5000), der jedes neue Spiel dem Arbeiter mit der geringsten Last gibt.
+# Arbeiter auf anderen Rechnern melden sich mit --router=<host>:5100 beim selben Router an.
+# Beenden mit Strg+C (stoppt alle Prozesse).
+# Jeder Arbeiter bekommt eine eigene Ergebnisdatei (pong-ergebnisse-<port>.log) und, mit --sicherung=verz,
+# ein eigenes Sicherungsverzeichnis (verz/<port>), damit sich die Prozesse nicht gegenseitig überschreiben.
+#
+# Aufruf: scripts/starte-cluster.sh [arbeiter=2] [--max-spiele=16 ... weitere Server-Argumente]
+
+JAR=${PONG_JAR:-out/artifacts/Pong_Spiel_M_jar/Pong_Spiel_M.jar}
+ROUTER_PORT=${PONG_PORT:-5000}
+STEUER_PORT=${PONG_STEUER_PORT:-5100}
+
+ARBEITER=2
+case "$1" in
+    [0-9]*) ARBEITER=$1; shift ;;
+esac
+
+PIDS=""
+beenden() {
+    kill $PIDS 2>/dev/null
+    wait
+}
+trap beenden INT TERM EXIT
+
+java -XX:+UseSerialGC -Xmx64m -Djava.awt.headless=true -cp "$JAR" SpielRouter \
+    --port="$ROUTER_PORT" --steuer-port="$STEUER_PORT" &
+PIDS="$PIDS $!"
+
+# Arbeiter über das normale Startskript (AppCDS, kleiner Heap), jeder auf einem eigenen Port
+SKRIPT_VERZEICHNIS=$(dirname "$0")
+ERGEBNISSE=${PONG_ERGEBNISSE:-pong-ergebnisse.log}
+SICHERUNG=${PONG_SICHERUNG:-}
+unset PONG_ERGEBNISSE PONG_SICHERUNG # gelten sonst für alle Arbeiter gleich
+
+# Startet einen Arbeiter; --ergebnisse und --sicherung werden um seinen Port ergänzt
+arbeiter_starten() {
+    PORT=$1
+    shift
+    DATEI=$ERGEBNISSE
+    VERZEICHNIS=$SICHERUNG
+    for ARG in "$@"; do
+        shift
+        case "$ARG" in
+            --ergebnisse=*) DATEI=${ARG#--ergebnisse=} ;;
+            --sicherung=*) VERZEICHNIS=${ARG#--sicherung=} ;;
+            *) set -- "$@" "$ARG" ;;
+        esac
+    done
+    if [ -n "$VERZEICHNIS" ]; then
+        set -- "$@" --sicherung="$VERZEICHNIS/$PORT"
+    fi
+    "$SKRIPT_VERZEICHNIS/starte-server.sh" --port="$PORT" --router="localhost:$STEUER_PORT" \
+        --ergebnisse="${DATEI%.log}-$PORT.log" "$@" &
+    PIDS="$PIDS $!"
+}
+
+i=1
+while [ "$i" -le "$ARBEITER" ]; do
+    arbeiter_starten $((ROUTER_PORT + i)) "$@"
+    i=$((i + 1))
+done
+
+wait
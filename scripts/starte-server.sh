@@ -0,0 +1,18 @@
+#!/bin/sh
+# Startet den dedizierten Server headless mit AppCDS-Archiv und kleinem Speicherbedarf (z.B. im Container).
+# Einstellungen per Umgebung (PONG_PORT, PONG_TICKRATE, PONG_MAX_SPIELE, PONG_MODUS) oder Argumenten (--port=5000 ...).
+#
+# Aufruf: scripts/starte-server.sh [--port=5000] [--tickrate=100] [--max-spiele=16] [--modus=MITTEL]
+
+JAR=${PONG_JAR:-out/artifacts/Pong_Spiel_M_jar/Pong_Spiel_M.jar}
+ARCHIV=${PONG_CDS_ARCHIV:-pong-server.jsa}
+
+CDS=""
+if [ -f "$ARCHIV" ]; then
+    CDS="-XX:SharedArchiveFile=$ARCHIV"
+fi
+
+# SerialGC und kleiner Heap: der Server braucht nur wenige MB, ein paralleler GC würde nur Threads und RSS kosten
+exec java $CDS -Xshare:auto -Djava.awt.headless=true \
+    -XX:+UseSerialGC -Xms8m -Xmx64m -Xss256k -XX:TieredStopAtLevel=1 \
+    -cp "$JAR" DedizierterServer "$@"
@@ -0,0 +1,59 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Die Klasse SpielBatchVektor ist der SIMD-Kern für SpielBatch (Modul jdk.incubator.vector).
+ * Bewegung, Wände und die Prüfung, ob ein Ball am Rand ist, laufen über ganze Lanes; nur Spiele mit dem Ball
+ * am Rand gehen einzeln durch SpielBatch.schlaegerPruefen(). Der Rest, der keine volle Lane-Breite mehr füllt,
+ * läuft durch die skalaren Schleifen. Die Ergebnisse sind damit identisch mit SpielBatch und SpielPhysik.
+ *
+ * Liegt in einem eigenen Quellverzeichnis, damit src ohne das Modul übersetzbar bleibt. SpielBatch lädt die Klasse
+ * per Reflection und nimmt sie nur, wenn das Modul zur Laufzeit vorhanden ist.
+ *
+ * Übersetzen: javac --add-modules jdk.incubator.vector -cp out -d out src-vektor/SpielBatchVektor.java
+ * Aufruf: java --add-modules jdk.incubator.vector -cp out SpielBatchBenchmark
+ */
+public class SpielBatchVektor implements SpielBatch.Kern {
+    private static final VectorSpecies<Integer> SPEZIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void schritt(SpielBatch batch, int von, int bis) {
+        int untereWand = batch.getUntereWand();
+        int linkerRand = batch.getLinkerRand();
+        int rechterRand = batch.getRechterRand();
+        int[] ballX = batch.ballX;
+        int[] ballY = batch.ballY;
+        int[] ballXGeschwindigkeit = batch.ballXGeschwindigkeit;
+        int[] ballYGeschwindigkeit = batch.ballYGeschwindigkeit;
+        int[] ereignisse = batch.ereignisse;
+
+        int lanes = SPEZIES.length();
+        int grenze = von + SPEZIES.loopBound(bis - von);
+        for (int i = von; i < grenze; i += lanes) {
+            // Bewegung
+            IntVector x = IntVector.fromArray(SPEZIES, ballX, i).add(IntVector.fromArray(SPEZIES, ballXGeschwindigkeit, i));
+            IntVector vy = IntVector.fromArray(SPEZIES, ballYGeschwindigkeit, i);
+            IntVector y = IntVector.fromArray(SPEZIES, ballY, i).add(vy);
+            x.intoArray(ballX, i);
+            y.intoArray(ballY, i);
+
+            // Kollision mit oberer und unterer Wand
+            VectorMask<Integer> wand = y.compare(VectorOperators.LE, 0).or(y.compare(VectorOperators.GE, untereWand));
+            vy.lanewise(VectorOperators.NEG, wand).intoArray(ballYGeschwindigkeit, i); // Richtung umkehren
+            IntVector.zero(SPEZIES).blend(SpielPhysik.EREIGNIS_WAND, wand).intoArray(ereignisse, i);
+
+            // Schläger und Seitenwände nur für Spiele mit dem Ball am Rand
+            VectorMask<Integer> rand = x.compare(VectorOperators.LE, linkerRand).or(x.compare(VectorOperators.GE, rechterRand));
+            if (rand.anyTrue()) {
+                for (int lane = rand.firstTrue(); lane < lanes; lane++) {
+                    if (rand.laneIsSet(lane)) {
+                        batch.schlaegerPruefen(i + lane);
+                    }
+                }
+            }
+        }
+        batch.skalarerSchritt(grenze, bis);
+    }
+}
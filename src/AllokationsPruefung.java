@@ -0,0 +1,123 @@
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+/**
+ * Die Klasse AllokationsPruefung spielt headless ein Spiel auf dem dedizierten Server (ServerSpiel mit zwei
+ * Verbindungen über WarteschlangenTransport) und misst mit dem ThreadMXBean, wie viele Bytes ein Tick im
+ * Spiel-Thread erzeugt. Liegt der Durchschnitt nach dem Aufwärmen über dem Budget, endet sie mit Exit-Code 1,
+ * damit sich neuer Müll in der Spielschleife nicht unbemerkt einschleicht.
+ *
+ * Ein Tick erzeugt gewollt genau einen Snapshot-String (UPDATE:...) für die Verbindungen, alles andere
+ * (Physik, Prüfsumme, Kodieren, Aufzeichnung ohne laufenden Flight Recorder) soll ohne Objekte auskommen.
+ *
+ * Aufruf: java AllokationsPruefung [ticks=200000] [modus=MITTEL] [budgetBytesProTick]
+ */
+public class AllokationsPruefung {
+    private static final int AUFWAERM_TICKS = 50_000; // bis die JIT-Kompilierung (Escape-Analyse) greift
+    private static final long BUDGET = 112; // Snapshot-String (ca. 80 Bytes) und etwas Spielraum für längere Zahlen
+    private static final long BUDGET_MEHRBALL = 320; // Snapshot mit 20 zusätzlichen Bällen (ca. 240 Bytes)
+
+    public static void main(String[] args) throws Exception {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        SpielModus modus = args.length > 1 ? SpielModus.valueOf(args[1]) : SpielModus.MITTEL;
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : standardBudget(modus);
+
+        java.lang.management.ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        if (!(mxBean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) mxBean).isThreadAllocatedMemorySupported()) {
+            System.out.println("Allokationszähler werden von dieser JVM nicht unterstützt");
+            System.exit(2);
+        }
+        com.sun.management.ThreadMXBean zaehler = (com.sun.management.ThreadMXBean) mxBean;
+        zaehler.setThreadAllocatedMemoryEnabled(true);
+
+        // Spiel mit zwei Clients, die nur lesen (und über ihre Verbindung Herzschläge senden)
+        DedizierterServer server = new DedizierterServer(ServerKonfiguration.lesen(new String[0], Collections.<String, String>emptyMap()));
+        ServerSpiel spiel = new ServerSpiel(1, server, modus);
+        TaktRad taktgeber = new TaktRad(1, TaktRad.STANDARD_SLOT_NANOS);
+        Verbindung[] serverSeite = new Verbindung[2];
+        Verbindung[] clientSeite = new Verbindung[2];
+        for (int i = 0; i < 2; i++) {
+            WarteschlangenTransport[] paar = WarteschlangenTransport.paar();
+            serverSeite[i] = new Verbindung(paar[0]);
+            clientSeite[i] = new Verbindung(paar[1]);
+            clientSeite[i].starten(new NachrichtenEmpfaenger() {
+                @Override
+                public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+                }
+
+                @Override
+                public void verbindungGetrennt(Verbindung verbindung) {
+                }
+            });
+            spiel.spielerHinzufuegen(serverSeite[i], taktgeber, 1); // Ticks kommen von hier, der Taktgeber stört kaum
+        }
+
+        for (int i = 0; i < AUFWAERM_TICKS; i++) {
+            schritt(spiel, serverSeite[0]);
+        }
+
+        // Nur die Ticks selbst messen (nicht den Neustart nach Spielende)
+        long bytes = 0;
+        long maxBytes = 0;
+        long ticksVorher = server.getTicks(); // nur vollständig ausgeführte Ticks werden gezählt
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            if (spiel.getStatus() == SpielStatus.SPIELENDE) {
+                neustarten(spiel, serverSeite[0]);
+            }
+            long vorher = zaehler.getCurrentThreadAllocatedBytes();
+            spiel.tick();
+            long tickBytes = zaehler.getCurrentThreadAllocatedBytes() - vorher;
+            bytes += tickBytes;
+            maxBytes = Math.max(maxBytes, tickBytes);
+        }
+        double sekunden = (System.nanoTime() - start) / 1e9;
+        long gelaufen = server.getTicks() - ticksVorher;
+        boolean beendet = spiel.istBeendet();
+
+        spiel.beenden();
+        for (Verbindung verbindung : clientSeite) {
+            verbindung.schliessen();
+        }
+        taktgeber.stoppen();
+
+        if (beendet || gelaufen < ticks) { // ein beendetes Spiel tickt nicht und erzeugt deshalb auch keinen Müll
+            System.out.println("FEHLER: nur " + gelaufen + " von " + ticks + " Ticks ausgeführt"
+                + (beendet ? ", Spiel wurde beendet" : ""));
+            System.exit(1);
+        }
+        double proTick = (double) bytes / ticks;
+        System.out.printf("%s: %d Ticks in %.2f s, %.1f Bytes/Tick (max. %d), Budget %d Bytes/Tick%n",
+            modus, ticks, sekunden, proTick, maxBytes, budget);
+        if (proTick > budget) {
+            System.out.println("FEHLER: Spielschleife erzeugt mehr Müll als erlaubt");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Budget in Bytes pro Tick, wenn keins angegeben ist (Mehrball-Snapshots sind länger)
+     */
+    private static long standardBudget(SpielModus modus) {
+        return modus == SpielModus.MEHRBALL ? BUDGET_MEHRBALL : BUDGET;
+    }
+
+    /**
+     * Ein Tick, nach Spielende wird neu gestartet (wie ein Spieler mit Enter)
+     */
+    private static void schritt(ServerSpiel spiel, Verbindung spieler) {
+        if (spiel.getStatus() == SpielStatus.SPIELENDE) {
+            neustarten(spiel, spieler);
+        }
+        spiel.tick();
+    }
+
+    /**
+     * Neustart wie MOVE:-1 eines Spielers, aber am EingangsSchutz vorbei (sonst trennt er nach dem Stoß-Budget)
+     */
+    private static void neustarten(ServerSpiel spiel, Verbindung spieler) {
+        spiel.nachrichtVerarbeiten(spieler, "MOVE:-1");
+    }
+}
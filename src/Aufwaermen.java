@@ -0,0 +1,178 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Die Klasse Aufwaermen lässt die heißen Pfade des Spiels headless laufen, während das Menü angezeigt wird:
+ * SpielPhysik mit zwei Bots, Mehrball, Snapshot kodieren und wieder lesen (wie Host und Client), Prüfsummen
+ * und Zeichnen mit denselben Java2D-Aufrufen in ein Bild. Danach sind diese Methoden schon vom JIT kompiliert
+ * und der erste Ballwechsel läuft so gleichmäßig wie der hundertste.
+ *
+ * Dauer mit -Dpong.aufwaermen.ms (Standard 1500, 0 = aus). Der Thread hat niedrige Priorität und hört auf,
+ * sobald das Spiel startet (abbrechen()). Er arbeitet nur auf eigenen Objekten, nie auf dem echten Spiel.
+ *
+ * Aufruf als Trainingslauf für das AppCDS-Archiv des Clients (siehe scripts/client-cds-erzeugen.sh):
+ * java Aufwaermen [ms]
+ */
+public class Aufwaermen implements Runnable {
+    public static final long STANDARD_MS = Long.getLong("pong.aufwaermen.ms", 1500);
+    private static final int TICKS_PRO_RUNDE = 500; // danach nächster Modus, damit alle Modi drankommen
+    private static final int BILD_BREITE = 960; // ungleich der logischen Größe, damit auch das Skalieren mitläuft
+    private static final int BILD_HOEHE = 540;
+    private static final int ZEICHNEN_ALLE_TICKS = 100; // ein Bild kostet so viel wie hunderte Ticks, braucht aber weniger Aufrufe
+    private static final AtomicBoolean gestartet = new AtomicBoolean(false);
+    private static volatile boolean abgebrochen = false;
+    private static volatile long ergebnis; // verhindert, dass der JIT die Arbeit als unbenutzt wegoptimiert
+
+    private final long dauerNanos;
+
+    private Aufwaermen(long dauerMillis) {
+        this.dauerNanos = dauerMillis * 1_000_000L;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : STANDARD_MS;
+        long start = System.nanoTime();
+        long runden = new Aufwaermen(millis).durchlaufen();
+        System.out.printf("Aufwärmen: %d Runden in %d ms%n", runden, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Startet das Aufwärmen einmal pro Prozess im Hintergrund (nichts, wenn abgeschaltet oder schon gestartet)
+     */
+    public static void starten() {
+        if (STANDARD_MS <= 0 || abgebrochen || !gestartet.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(new Aufwaermen(STANDARD_MS), "Aufwaermen");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY); // Menü und Verbindungsaufbau haben Vorrang
+        thread.start();
+    }
+
+    /**
+     * Beendet das Aufwärmen vorzeitig (das Spiel startet und braucht die CPU selbst)
+     */
+    public static void abbrechen() {
+        abgebrochen = true;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long runden = durchlaufen();
+        System.out.println("Aufwärmen: " + runden + " Runden in " + (System.nanoTime() - start) / 1_000_000 + " ms"
+            + (abgebrochen ? " (abgebrochen)" : ""));
+    }
+
+    /**
+     * Spielt Runden, bis die Zeit abgelaufen ist oder abgebrochen wurde
+     * @return Anzahl der Runden
+     */
+    private long durchlaufen() {
+        long ende = System.nanoTime() + dauerNanos;
+        BufferedImage bild = new BufferedImage(BILD_BREITE, BILD_HOEHE, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom zufall = new SplittableRandom(1);
+        long runden = 0;
+        while (!abgebrochen && System.nanoTime() - ende < 0) {
+            SpielModus modus = SpielModus.values()[(int) (runden % SpielModus.values().length)];
+            runde(modus, bild, zufall);
+            runden++;
+        }
+        return runden;
+    }
+
+    /**
+     * Eine Runde: Host-Seite rechnet und kodiert, Client-Seite liest den Snapshot und übernimmt ihn, beide zeichnen
+     */
+    private static void runde(SpielModus modus, BufferedImage bild, SplittableRandom zufall) {
+        int breite = SpielSteuerung.LOGISCHE_BREITE;
+        int hoehe = SpielSteuerung.LOGISCHE_HOEHE;
+        SpielPhysik host = new SpielPhysik(breite, hoehe);
+        SpielPhysik client = new SpielPhysik(breite, hoehe);
+        host.initialisiereModus(modus);
+        client.initialisiereModus(modus);
+        host.neuesSpiel();
+        MehrballPhysik mehrball = null;
+        MehrballPhysik mehrballClient = null;
+        if (modus == SpielModus.MEHRBALL) {
+            int geschwindigkeit = SpielPhysik.ballGeschwindigkeit(modus);
+            mehrball = new MehrballPhysik(20, SpielPhysik.BALL_GROESSE, breite, hoehe, geschwindigkeit);
+            mehrballClient = new MehrballPhysik(20, SpielPhysik.BALL_GROESSE, breite, hoehe, geschwindigkeit);
+        }
+        SpielBot bot1 = new SpielBot(1, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+        SpielBot bot2 = new SpielBot(2, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+        PruefsummenVerlauf pruefsummen = new PruefsummenVerlauf();
+        StringBuilder puffer = new StringBuilder();
+        Befehl befehl = new Befehl();
+        long summe = 0;
+
+        Graphics2D g = bild.createGraphics();
+        try {
+            for (int tick = 1; tick <= TICKS_PRO_RUNDE && !abgebrochen; tick++) {
+                // Host: Bots, Physik, Prüfsumme und Snapshot (wie SpielSteuerung.update und sendeSpielZustand)
+                bot1.steuere(host, zufall);
+                bot2.steuere(host, zufall);
+                int ereignisse = host.schritt();
+                if (mehrball != null) {
+                    ereignisse |= mehrball.schritt(host);
+                }
+                int pruefsumme = SpielPhysik.pruefsumme(tick, host.getBallX(), host.getBallY(), host.getSpieler1Y(),
+                    host.getSpieler2Y(), host.getSpieler1Punkte(), host.getSpieler2Punkte());
+                pruefsummen.merken(tick, pruefsumme);
+                puffer.setLength(0);
+                puffer.append("UPDATE:").append(host.getBallX()).append(',').append(host.getBallY()).append(',')
+                    .append(host.getSpieler1Y()).append(',').append(host.getSpieler2Y()).append(',')
+                    .append(host.getSpieler1Punkte()).append(',').append(host.getSpieler2Punkte()).append(',').append(tick);
+                if (mehrball != null) {
+                    puffer.append(';');
+                    mehrball.kodieren(puffer);
+                }
+                String nachricht = puffer.toString();
+
+                // Client: Snapshot lesen und übernehmen (wie SpielClient und SpielSteuerung.updateSpielZustand)
+                if (befehl.zahlenLesen(nachricht, nachricht.indexOf(':') + 1) && befehl.anzahlWerte >= 7) {
+                    client.setZustand((int) befehl.werte[0], (int) befehl.werte[1], (int) befehl.werte[2],
+                        (int) befehl.werte[3], (int) befehl.werte[4], (int) befehl.werte[5]);
+                    summe += pruefsummen.stimmtUeberein(befehl.werte[6], pruefsumme) ? 1 : 0;
+                }
+                int trenner = nachricht.indexOf(';');
+                if (mehrballClient != null && trenner > 0) {
+                    mehrballClient.dekodieren(nachricht, trenner + 1);
+                }
+
+                if (tick % ZEICHNEN_ALLE_TICKS == 0) {
+                    zeichnen(g, bild, client, mehrballClient, modus);
+                }
+                if ((ereignisse & SpielPhysik.EREIGNIS_PUNKT) != 0 && host.istSpielVorbei()) {
+                    host.neuesSpiel();
+                    if (mehrball != null) {
+                        mehrball.alleZuruecksetzen();
+                    }
+                }
+                summe += ereignisse;
+            }
+        } finally {
+            g.dispose();
+        }
+        ergebnis += summe;
+    }
+
+    /**
+     * Zeichnet mit SpielSteuerung.zeichneFeld, also genau dem Code des Spielfelds (Skalierung, Flächen, Ovale, Text)
+     */
+    private static void zeichnen(Graphics2D bildschirm, BufferedImage bild, SpielPhysik physik, MehrballPhysik mehrball, SpielModus modus) {
+        Graphics2D g = (Graphics2D) bildschirm.create();
+        try {
+            g.transform(SpielSteuerung.darstellungsTransformation(bild.getWidth(), bild.getHeight()));
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, physik.getBreite(), physik.getHoehe());
+            SpielSteuerung.zeichneFeld(g, physik.getBreite(), physik.getHoehe(), physik, mehrball, modus);
+        } finally {
+            g.dispose();
+        }
+    }
+}
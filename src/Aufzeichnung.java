@@ -0,0 +1,184 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Die Klasse Aufzeichnung enthält eigene Ereignisse für den Java Flight Recorder (Tick, Snapshot, Nachricht,
+ * Zeichnen), z.B. mit -XX:StartFlightRecording=filename=pong.jfr. Die ...Beginnen()-Methoden liefern null,
+ * solange das Ereignis nicht aufgezeichnet wird. Ohne Aufzeichnung kostet ein Ereignis also nur eine Abfrage
+ * und erzeugt keine Objekte (wichtig für die Spielschleife, siehe AllokationsPruefung).
+ */
+public class Aufzeichnung {
+    private static final EventType TICK = EventType.getEventType(Tick.class);
+    private static final EventType SNAPSHOT = EventType.getEventType(Snapshot.class);
+    private static final EventType NACHRICHT = EventType.getEventType(Nachricht.class);
+    private static final EventType ZEICHNEN = EventType.getEventType(Zeichnen.class);
+
+    private Aufzeichnung() {
+    }
+
+    @Name("pong.Tick")
+    @Label("Spiel-Tick")
+    @Description("Ein Tick der Spielschleife (Host oder dedizierter Server)")
+    @Category("Pong")
+    @StackTrace(false)
+    public static class Tick extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Verspätung")
+        @Description("Wie spät der Tick nach seinem geplanten Zeitpunkt begonnen hat")
+        @Timespan(Timespan.NANOSECONDS)
+        long verspaetung;
+
+        @Label("Überlauf")
+        @Description("Der Tick hat länger als sein Zeitfenster gedauert")
+        boolean ueberlauf;
+    }
+
+    @Name("pong.Snapshot")
+    @Label("Snapshot senden")
+    @Description("Spielzustand kodieren und an die Verbindung übergeben")
+    @Category("Pong")
+    @StackTrace(false)
+    public static class Snapshot extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Größe")
+        @DataAmount
+        int bytes;
+
+        @Label("Keyframe")
+        boolean keyframe;
+    }
+
+    @Name("pong.Nachricht")
+    @Label("Nachricht empfangen")
+    @Description("Eine empfangene Nachricht zerlegen und als Befehl einreihen (im Lese-Thread)")
+    @Category("Pong")
+    @StackTrace(false)
+    public static class Nachricht extends Event {
+        @Label("Befehl")
+        String befehl;
+
+        @Label("Größe")
+        @DataAmount
+        int bytes;
+    }
+
+    @Name("pong.Zeichnen")
+    @Label("Bild zeichnen")
+    @Description("SpielFeld.paintComponent")
+    @Category("Pong")
+    @StackTrace(false)
+    public static class Zeichnen extends Event {
+    }
+
+    /**
+     * Beginnt ein Tick-Ereignis
+     * @return Das Ereignis oder null, wenn es nicht aufgezeichnet wird
+     */
+    public static Tick tickBeginnen() {
+        if (!TICK.isEnabled()) {
+            return null;
+        }
+        Tick ereignis = new Tick();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet ein Tick-Ereignis (nichts, wenn null)
+     * @param verspaetung Nanosekunden, die der Tick nach seinem geplanten Zeitpunkt begonnen hat
+     */
+    public static void tickBeenden(Tick ereignis, long tick, long verspaetung, boolean ueberlauf) {
+        if (ereignis != null) {
+            ereignis.end();
+            ereignis.tick = tick;
+            ereignis.verspaetung = Math.max(0, verspaetung);
+            ereignis.ueberlauf = ueberlauf;
+            ereignis.commit();
+        }
+    }
+
+    /**
+     * Beginnt ein Snapshot-Ereignis
+     * @return Das Ereignis oder null, wenn es nicht aufgezeichnet wird
+     */
+    public static Snapshot snapshotBeginnen() {
+        if (!SNAPSHOT.isEnabled()) {
+            return null;
+        }
+        Snapshot ereignis = new Snapshot();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet ein Snapshot-Ereignis (nichts, wenn null)
+     */
+    public static void snapshotBeenden(Snapshot ereignis, long tick, int bytes, boolean keyframe) {
+        if (ereignis != null) {
+            ereignis.end();
+            ereignis.tick = tick;
+            ereignis.bytes = bytes;
+            ereignis.keyframe = keyframe;
+            ereignis.commit();
+        }
+    }
+
+    /**
+     * Beginnt ein Nachricht-Ereignis
+     * @return Das Ereignis oder null, wenn es nicht aufgezeichnet wird
+     */
+    public static Nachricht nachrichtBeginnen() {
+        if (!NACHRICHT.isEnabled()) {
+            return null;
+        }
+        Nachricht ereignis = new Nachricht();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet ein Nachricht-Ereignis (nichts, wenn null). Der Befehl (Text vor ':') wird nur bei Aufzeichnung kopiert.
+     */
+    public static void nachrichtBeenden(Nachricht ereignis, String nachricht) {
+        if (ereignis != null) {
+            ereignis.end();
+            int trenner = nachricht.indexOf(':');
+            ereignis.befehl = trenner < 0 ? nachricht : nachricht.substring(0, trenner);
+            ereignis.bytes = nachricht.length() + 1;
+            ereignis.commit();
+        }
+    }
+
+    /**
+     * Beginnt ein Zeichnen-Ereignis
+     * @return Das Ereignis oder null, wenn es nicht aufgezeichnet wird
+     */
+    public static Zeichnen zeichnenBeginnen() {
+        if (!ZEICHNEN.isEnabled()) {
+            return null;
+        }
+        Zeichnen ereignis = new Zeichnen();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet ein Zeichnen-Ereignis (nichts, wenn null)
+     */
+    public static void zeichnenBeenden(Zeichnen ereignis) {
+        if (ereignis != null) {
+            ereignis.commit();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Die Klasse BallBahn beschreibt die Flugbahn des Balls seit der letzten Richtungsänderung: Position und
+ * Geschwindigkeit in einem Start-Tick. Zwischen zwei Abprallern bewegt sich der Ball geradlinig, die Position
+ * in jedem späteren Tick lässt sich also ohne Netzwerk ausrechnen (Bahn-Modus, siehe SpielSteuerung).
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class BallBahn {
+    private long startTick = -1; // -1 = noch keine Bahn
+    private int x;
+    private int y;
+    private int xGeschwindigkeit;
+    private int yGeschwindigkeit;
+
+    /**
+     * Übernimmt eine neue Bahn
+     * @param tick Tick, in dem der Ball an (x, y) ist
+     */
+    public void setzen(long tick, int x, int y, int xGeschwindigkeit, int yGeschwindigkeit) {
+        this.startTick = tick;
+        this.x = x;
+        this.y = y;
+        this.xGeschwindigkeit = xGeschwindigkeit;
+        this.yGeschwindigkeit = yGeschwindigkeit;
+    }
+
+    /**
+     * Ob der Ball in diesem Tick genau auf der Bahn liegt (kein Abpraller, kein Zurücksetzen nach einem Punkt)
+     */
+    public boolean liegtAufBahn(long tick, int x, int y, int xGeschwindigkeit, int yGeschwindigkeit) {
+        return startTick >= 0 && this.xGeschwindigkeit == xGeschwindigkeit && this.yGeschwindigkeit == yGeschwindigkeit
+            && this.x + xGeschwindigkeit * (tick - startTick) == x && this.y + yGeschwindigkeit * (tick - startTick) == y;
+    }
+
+    public boolean istGueltig() {
+        return startTick >= 0;
+    }
+
+    public long getStartTick() {
+        return startTick;
+    }
+
+    /**
+     * X-Position in einem Tick. Fehlt der nächste Abpraller noch (Nachricht unterwegs), bleibt der Ball am Rand.
+     * @param max Größte erlaubte Position (Spielfeldbreite minus Ballgröße)
+     */
+    public int xBei(long tick, int max) {
+        return begrenzen(x + xGeschwindigkeit * (tick - startTick), max);
+    }
+
+    /**
+     * Y-Position in einem Tick (wie xBei)
+     * @param max Größte erlaubte Position (Spielfeldhöhe minus Ballgröße)
+     */
+    public int yBei(long tick, int max) {
+        return begrenzen(y + yGeschwindigkeit * (tick - startTick), max);
+    }
+
+    private static int begrenzen(long wert, int max) {
+        return (int) Math.max(0, Math.min(max, wert));
+    }
+}
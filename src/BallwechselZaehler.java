@@ -0,0 +1,75 @@
+/**
+ * Die Klasse BallwechselZaehler sammelt während eines Spiels Dauer und Ballwechsel-Statistik
+ * und erzeugt am Ende das SpielErgebnis (vom Host und vom dedizierten Server benutzt).
+ */
+public class BallwechselZaehler {
+    public static final int ZUSTAND_LAENGE = 5; // Anzahl der Werte von zustandSpeichern()
+
+    private long start = System.currentTimeMillis();
+    private int ballwechsel;
+    private int laengsterBallwechsel;
+    private long treffer;
+    private boolean erfasst; // Ergebnis des aktuellen Spiels wurde schon erzeugt
+
+    /**
+     * Beginnt ein neues Spiel
+     */
+    public void neuesSpiel() {
+        start = System.currentTimeMillis();
+        ballwechsel = 0;
+        laengsterBallwechsel = 0;
+        treffer = 0;
+        erfasst = false;
+    }
+
+    /**
+     * Wertet die Ereignisse eines Ticks des Hauptballs aus
+     * @param ereignisse Rückgabe von SpielPhysik.schritt()
+     * @param physik Die Physik (für die Länge des beendeten Ballwechsels)
+     */
+    public void schritt(int ereignisse, SpielPhysik physik) {
+        if ((ereignisse & SpielPhysik.EREIGNIS_PUNKT) != 0) {
+            int laenge = physik.getLetzterBallwechsel();
+            ballwechsel++;
+            treffer += laenge;
+            laengsterBallwechsel = Math.max(laengsterBallwechsel, laenge);
+        }
+    }
+
+    /**
+     * Schreibt die Statistik des laufenden Spiels in ein Array (z.B. für eine SpielSicherung)
+     * @param ziel Array mit mindestens ZUSTAND_LAENGE Einträgen
+     */
+    public void zustandSpeichern(long[] ziel) {
+        ziel[0] = start;
+        ziel[1] = ballwechsel;
+        ziel[2] = laengsterBallwechsel;
+        ziel[3] = treffer;
+        ziel[4] = erfasst ? 1 : 0;
+    }
+
+    /**
+     * Übernimmt eine mit zustandSpeichern() gesicherte Statistik
+     */
+    public void zustandLaden(long[] quelle) {
+        start = quelle[0];
+        ballwechsel = (int) quelle[1];
+        laengsterBallwechsel = (int) quelle[2];
+        treffer = quelle[3];
+        erfasst = quelle[4] != 0;
+    }
+
+    /**
+     * Erzeugt das Ergebnis des beendeten Spiels, höchstens einmal pro Spiel
+     * @return Das Ergebnis oder null, wenn es für dieses Spiel schon erzeugt wurde
+     */
+    public SpielErgebnis ergebnis(SpielModus modus, String spieler1, String spieler2, SpielPhysik physik) {
+        if (erfasst) {
+            return null;
+        }
+        erfasst = true;
+        long jetzt = System.currentTimeMillis();
+        return new SpielErgebnis(jetzt, modus, spieler1, spieler2, physik.getSpieler1Punkte(), physik.getSpieler2Punkte(),
+            jetzt - start, ballwechsel, laengsterBallwechsel, treffer);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Die Klasse Befehl ist ein vorab angelegter, wiederverwendbarer Befehl für die Spielschleife
+ * (siehe BefehlsWarteschlange). Der Lese-Thread zerlegt eine Netzwerknachricht in Art und Zahlenwerte
+ * (bzw. der Event-Dispatch-Thread meldet eine Eingabe), die Spielschleife führt den Befehl aus.
+ */
+public class Befehl {
+    // Arten der Befehle
+    public static final int BEWEGUNG = 1; // werte[0] = Y-Position des gegnerischen Schlägers, ggf. werte[1..2] = Spur-ID, Empfangszeit
+    public static final int PAUSE = 2; // Gegner hat pausiert, text = anzuzeigende Nachricht
+    public static final int NEUSTART = 3; // Gegner hat neu gestartet
+    public static final int FORTSETZEN = 4; // Gegner hat fortgesetzt
+    public static final int VERSTECKE_NACHRICHT = 5; // Pause-Nachricht schließen
+    public static final int PRUEFSUMME = 6; // werte[0] = Tick, werte[1] = Prüfsumme des Clients
+    public static final int RESYNC = 7; // Client fordert den vollständigen Zustand an
+    public static final int MODUS = 8; // text = Spielmodus des Hosts
+    public static final int UPDATE = 9; // werte[0..6] = Spielzustand, ggf. werte[7..8] = Spur-ID, Host-Zeit, text = Nachricht (für zusätzliche Bälle)
+    public static final int ROLLE = 10; // werte[0] = eigener Schläger
+    public static final int LOCKSTEP = 11; // werte[0..2] = Eingabeverzögerung, Breite, Höhe
+    public static final int LOCKSTEP_NACHRICHT = 12; // text = Nachricht für den Lockstep
+    public static final int EIGENE_BEWEGUNG = 13; // werte[0] = Richtung eines Tastendrucks des lokalen Spielers, werte[1] = Spur-ID
+    public static final int PAUSE_SIGNAL = 14; // Gegner verlangt eine Pause mit Pausenmenü
+    public static final int EIGENER_NEUSTART = 15; // lokaler Spieler startet neu (Enter oder Pausenmenü)
+    public static final int EIGENES_FORTSETZEN = 16; // lokaler Spieler setzt fort (Pausenmenü)
+    public static final int GETRENNT = 17; // Verbindung zum Gegner ist beendet (EOF, Fehler oder Timeout)
+    public static final int VERBUNDEN = 18; // Host: ein (neuer) Client hat sich verbunden
+    public static final int NAME = 19; // text = Name des Gegners (für die Ergebnisse)
+    public static final int BAHNMODUS = 20; // Host sendet die Ballbahn statt des Zustands in jedem Tick
+    public static final int BAHN = 21; // werte[0..8] = Tick, Ball x/y, Geschwindigkeit x/y, Schläger 1/2, Punkte 1/2
+    public static final int SCHLAEGER = 22; // werte[0..2] = Tick, Schläger 1/2
+    public static final int BEWEGUNG_ZUSAMMENGEFASST = 23; // Bewegungen über dem Budget, Position bei SpielServer.zusammengefassteBewegung()
+    public static final int EIGENE_PAUSE = 24; // lokaler Spieler pausiert (Leertaste)
+
+    public static final int MAX_WERTE = 10;
+
+    int art;
+    final long[] werte = new long[MAX_WERTE];
+    int anzahlWerte;
+    String text;
+    long position; // Position in der Warteschlange (nur für BefehlsWarteschlange)
+
+    /**
+     * Liest durch Komma getrennte Zahlen ab einer Position bis zum Ende oder bis ';' in werte, ohne Zwischen-Strings
+     * @param nachricht Die Nachricht
+     * @param start Position der ersten Ziffer
+     * @return false, wenn die Zahlen fehlerhaft sind
+     */
+    boolean zahlenLesen(String nachricht, int start) {
+        anzahlWerte = 0;
+        int i = start;
+        while (i < nachricht.length() && anzahlWerte < MAX_WERTE) {
+            boolean negativ = nachricht.charAt(i) == '-';
+            if (negativ) {
+                i++;
+            }
+            long zahl = 0;
+            int ziffern = 0;
+            while (i < nachricht.length() && nachricht.charAt(i) != ',' && nachricht.charAt(i) != ';') {
+                char c = nachricht.charAt(i++);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+                zahl = zahl * 10 + (c - '0');
+                ziffern++;
+            }
+            if (ziffern == 0) {
+                return false;
+            }
+            werte[anzahlWerte++] = negativ ? -zahl : zahl;
+            if (i >= nachricht.length() || nachricht.charAt(i) == ';') {
+                break;
+            }
+            i++; // Komma überspringen
+        }
+        return true;
+    }
+}
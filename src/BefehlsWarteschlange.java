@@ -0,0 +1,117 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse BefehlsWarteschlange ist eine begrenzte, sperrfreie Warteschlange mit mehreren Schreibern
+ * (Lese-Threads der Verbindungen, Event-Dispatch-Thread) und genau einem Leser (Spielschleife).
+ * Alle Befehl-Objekte werden beim Anlegen erzeugt und danach nur wiederverwendet.
+ *
+ * Ablauf beim Schreiben: reservieren() -> Felder des Befehls setzen -> veroeffentlichen().
+ * Jeder Platz hat eine Sequenznummer, die anzeigt, ob er frei, reserviert oder lesbar ist.
+ */
+public class BefehlsWarteschlange {
+    private final Befehl[] befehle;
+    private final AtomicLongArray sequenzen; // Zustand je Platz: position = frei, position + 1 = lesbar
+    private final int maske;
+    private final AtomicLong schreibPosition = new AtomicLong();
+    private long lesePosition = 0; // nur vom Leser benutzt
+    private volatile Thread leser; // wird nach dem Veröffentlichen aufgeweckt
+
+    /**
+     * Konstruktor für die BefehlsWarteschlange
+     * @param kapazitaet Anzahl der Plätze (Zweierpotenz)
+     */
+    public BefehlsWarteschlange(int kapazitaet) {
+        if (Integer.bitCount(kapazitaet) != 1) {
+            throw new IllegalArgumentException("Kapazität muss eine Zweierpotenz sein: " + kapazitaet);
+        }
+        befehle = new Befehl[kapazitaet];
+        sequenzen = new AtomicLongArray(kapazitaet);
+        maske = kapazitaet - 1;
+        for (int i = 0; i < kapazitaet; i++) {
+            befehle[i] = new Befehl();
+            sequenzen.set(i, i);
+        }
+    }
+
+    /**
+     * Legt den Thread fest, der nach jedem veröffentlichten Befehl aufgeweckt wird
+     */
+    public void setLeser(Thread leser) {
+        this.leser = leser;
+    }
+
+    /**
+     * Reserviert einen freien Platz. Ist die Warteschlange voll, wartet der Schreiber kurz
+     * (Gegendruck auf den Lese-Thread bzw. den Socket statt verlorener Befehle).
+     * @param art Art des Befehls (Konstanten aus Befehl)
+     * @return Der reservierte Befehl, dessen Felder bis zum Veröffentlichen beschrieben werden dürfen
+     */
+    public Befehl reservieren(int art) {
+        while (true) {
+            Befehl befehl = versuchen(art);
+            if (befehl != null) {
+                return befehl;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    /**
+     * Reserviert einen freien Platz, ohne zu warten (für den Event-Dispatch-Thread, der nie blockieren darf)
+     * @param art Art des Befehls (Konstanten aus Befehl)
+     * @return Der reservierte Befehl oder null, wenn die Warteschlange voll ist
+     */
+    public Befehl versuchen(int art) {
+        while (true) {
+            long position = schreibPosition.get();
+            long sequenz = sequenzen.get((int) (position & maske));
+            if (sequenz == position) {
+                if (schreibPosition.compareAndSet(position, position + 1)) {
+                    Befehl befehl = befehle[(int) (position & maske)];
+                    befehl.position = position;
+                    befehl.art = art;
+                    befehl.anzahlWerte = 0;
+                    befehl.text = null;
+                    return befehl;
+                }
+            } else if (sequenz < position) { // voll: Leser hat diesen Platz noch nicht freigegeben
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Macht einen reservierten Befehl für den Leser sichtbar und weckt ihn auf
+     */
+    public void veroeffentlichen(Befehl befehl) {
+        sequenzen.lazySet((int) (befehl.position & maske), befehl.position + 1);
+        Thread t = leser;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Liefert den nächsten lesbaren Befehl (nur vom Leser aufzurufen)
+     * @return Der Befehl oder null, wenn die Warteschlange leer ist. Er bleibt bis freigeben() gültig.
+     */
+    public Befehl naechster() {
+        int index = (int) (lesePosition & maske);
+        if (sequenzen.get(index) != lesePosition + 1) {
+            return null;
+        }
+        return befehle[index];
+    }
+
+    /**
+     * Gibt den zuletzt mit naechster() gelesenen Befehl wieder frei
+     */
+    public void freigeben() {
+        int index = (int) (lesePosition & maske);
+        befehle[index].text = null; // keine alten Nachrichten festhalten
+        sequenzen.lazySet(index, lesePosition + befehle.length);
+        lesePosition++;
+    }
+}
@@ -0,0 +1,447 @@
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse DedizierterServer ist ein eigenständiger, headless Spielserver ohne AWT/Swing.
+ * Je zwei verbundene Clients bilden ein ServerSpiel. Konfiguration siehe ServerKonfiguration.
+ * Mit --router meldet der Server seine Last an einen SpielRouter und arbeitet als einer von mehreren Prozessen.
+ * Mit --sicherung=verzeichnis sichert er alle Spiele regelmäßig und beim Beenden (SpielSicherung); ein neu
+ * gestarteter Server stellt sie wieder her, und die Clients kehren mit ihrer Sitzung zurück (WIEDER:sitzung als
+ * erste Zeile). Jede neue Verbindung wird deshalb erst nach ihrer ersten Zeile einem Spiel zugeordnet.
+ *
+ * Aufruf: java DedizierterServer [--port=5000] [--tickrate=100] [--max-spiele=16] [--modus=MITTEL]
+ *                               [--min-senderate=20] [--max-senderate=100] [--laufzeit=0] [--router=host:5100]
+ *                               [--arbeiter=Kerne] [--bericht=0] [--sicherung=verzeichnis] [--sicherung-intervall=5]
+ */
+public class DedizierterServer {
+    private static final long RUECKKEHR_NANOS = Long.getLong("pong.sicherung.warten.s", 60) * 1_000_000_000L; // Wartezeit auf die Spieler wiederhergestellter Spiele
+
+    private final ServerKonfiguration konfiguration;
+    private final TaktRad taktgeber; // führt die Ticks aller Spiele auf festen Arbeiter-Threads aus
+    private final Set<ServerSpiel> spiele = new HashSet<>(); // laufende und wartende Spiele
+    private ServerSpiel wartendesSpiel; // Spiel, dem noch der zweite Spieler fehlt
+    private int naechsteSpielNummer = 1;
+    private ServerSocket serverSocket;
+    private volatile boolean isRunning = false;
+    private volatile ErgebnisSpeicher ergebnisse; // beendete Spiele und Bestenliste (null, wenn nicht geöffnet)
+    private final LongAdder ticks = new LongAdder(); // Ticks aller Spiele (für die Lastmeldung an den Router)
+    private final LongAdder ueberlaeufe = new LongAdder(); // davon zu spät oder zu lang
+    private LastMelder lastMelder; // meldet die Last an den SpielRouter (null = kein Router)
+    private ServerSuche suche; // beantwortet Suchanfragen aus dem LAN (nicht hinter einem Router)
+    private final Map<Long, ServerSpiel> rueckkehr = new HashMap<>(); // Sitzungen wiederhergestellter Spiele, deren Spieler noch fehlen
+    private Path sicherungsDatei; // null = keine Sicherungen
+    private FileLock sicherungsBelegung; // hält die Sicherungsdatei für diesen Prozess (siehe SpielSicherung.belegen)
+    private final CountDownLatch gestoppt = new CountDownLatch(1); // stoppen() ist fertig (letzte Sicherung geschrieben)
+    private final Object sicherungsSperre = new Object(); // nur ein Schreiber der Sicherungsdatei
+    private Thread sicherer; // schreibt die Sicherungen regelmäßig (nie im Takt)
+
+    // Empfänger für die erste Zeile einer neuen Verbindung (siehe verbindungAnnehmen)
+    private final NachrichtenEmpfaenger anmeldung = new NachrichtenEmpfaenger() {
+        @Override
+        public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+            if (nachricht.startsWith("WIEDER:")) {
+                sitzungFortsetzen(verbindung, nachricht.substring(7));
+                return;
+            }
+            ServerSpiel spiel = spielZuordnen(verbindung);
+            if (spiel != null) {
+                spiel.nachrichtEmpfangen(verbindung, nachricht); // Clients schicken zuerst ihren NAME
+            }
+        }
+
+        @Override
+        public void verbindungGetrennt(Verbindung verbindung) {
+            // noch keinem Spiel zugeordnet
+        }
+    };
+
+    public static void main(String[] args) {
+        // Sicherstellen, dass auch indirekt keine Fenster-Ressourcen angefordert werden
+        System.setProperty("java.awt.headless", "true");
+
+        ServerKonfiguration konfiguration;
+        try {
+            konfiguration = ServerKonfiguration.lesen(args, System.getenv());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Fehlerhafte Konfiguration: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        DedizierterServer server = new DedizierterServer(konfiguration);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.stoppen();
+            }
+        }));
+
+        try {
+            server.starten();
+        } catch (IOException e) {
+            System.out.println("Fehler beim Starten des Servers: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Konstruktor für den DedizierterServer
+     * @param konfiguration Die Server-Einstellungen
+     */
+    public DedizierterServer(ServerKonfiguration konfiguration) {
+        this.konfiguration = konfiguration;
+        this.taktgeber = new TaktRad(konfiguration.getArbeiter(), TaktRad.STANDARD_SLOT_NANOS);
+    }
+
+    /**
+     * Startet den Server und nimmt Verbindungen an, bis der Server gestoppt wird (blockiert)
+     * @throws IOException wenn der Port nicht geöffnet werden kann
+     */
+    public void starten() throws IOException {
+        try {
+            ergebnisse = ErgebnisSpeicher.oeffnen(Path.of(konfiguration.getErgebnisse()));
+        } catch (IOException e) {
+            System.out.println("Ergebnisse werden nicht gespeichert: " + e.getMessage());
+        }
+        if (konfiguration.getSicherung() != null) {
+            Path datei = Path.of(konfiguration.getSicherung(), SpielSicherung.DATEI);
+            sicherungsBelegung = SpielSicherung.belegen(datei); // zweiter Server mit derselben Sicherung startet nicht
+            sicherungsDatei = datei;
+            wiederherstellen(); // bevor neue Spieler angenommen werden
+        }
+        serverSocket = new ServerSocket(konfiguration.getPort());
+        isRunning = true;
+        System.out.println("Dedizierter Server gestartet auf Port " + serverSocket.getLocalPort() + " (" + konfiguration + ")");
+        if (konfiguration.getRouterHost() != null) {
+            lastMelder = new LastMelder(this, konfiguration.getRouterHost(), konfiguration.getRouterPort(), serverSocket.getLocalPort());
+            lastMelder.starten();
+        } else { // hinter einem Router finden Clients nur den Router
+            suche = ServerSuche.antworten(serverSocket.getLocalPort(), "Dedizierter Server (" + konfiguration.getModus() + ")",
+                new ServerSuche.Belegung() {
+                    @Override
+                    public boolean hatPlatz() {
+                        return hatWartendesSpiel() || getSpielAnzahl() < konfiguration.getMaxSpiele();
+                    }
+                });
+        }
+
+        if (konfiguration.getLaufzeitSekunden() > 0) {
+            taktgeber.einmal(new Runnable() {
+                @Override
+                public void run() {
+                    stoppen();
+                }
+            }, TimeUnit.SECONDS.toNanos(konfiguration.getLaufzeitSekunden()));
+        }
+        if (konfiguration.getBerichtSekunden() > 0) {
+            taktgeber.periodisch(new Runnable() {
+                @Override
+                public void run() {
+                    System.out.print(taktgeber.bericht());
+                    System.out.println(EingangsSchutz.bericht());
+                }
+            }, TimeUnit.SECONDS.toNanos(konfiguration.getBerichtSekunden()));
+        }
+
+        if (sicherungsDatei != null && konfiguration.getSicherungSekunden() > 0) {
+            sicherer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long abstand = TimeUnit.SECONDS.toNanos(konfiguration.getSicherungSekunden());
+                    while (isRunning) {
+                        LockSupport.parkNanos(this, abstand);
+                        sichern(false);
+                    }
+                }
+            }, "Sicherung");
+            sicherer.setDaemon(true);
+            sicherer.start();
+        }
+
+        while (isRunning) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (isRunning) {
+                    System.out.println("Verbindungsfehler: " + e.getMessage());
+                }
+                continue;
+            }
+            verbindungAnnehmen(socket);
+        }
+
+        // stoppen() läuft z.B. bei --laufzeit in einem anderen Thread: erst zurückkehren (und damit die JVM beenden),
+        // wenn die letzte Sicherung und die Ergebnisse geschrieben sind
+        try {
+            gestoppt.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ordnet eine neue TCP-Verbindung einem Spiel zu
+     */
+    private void verbindungAnnehmen(Socket socket) {
+        try {
+            verbindungAnnehmen(new SocketTransport(socket, EingangsSchutz.MAX_ZEILE));
+        } catch (IOException e) {
+            System.out.println("Verbindungsfehler: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Nimmt eine neue Verbindung an (auch ohne Netzwerk, z.B. Bots mit WarteschlangenTransport). Mit ihrer ersten
+     * Zeile kehrt sie in ein wiederhergestelltes Spiel zurück oder wird einem neuen Spiel zugeordnet.
+     * @param transport Der verbundene Transport
+     */
+    public void verbindungAnnehmen(Transport transport) {
+        Verbindung verbindung = new Verbindung(transport, konfiguration.getMinSenderate(), konfiguration.getMaxSenderate());
+        verbindung.starten(anmeldung);
+    }
+
+    /**
+     * Ordnet eine Verbindung einem wartenden oder neuen Spiel zu
+     * @return Das Spiel oder null, wenn der Server voll ist (die Verbindung ist dann geschlossen)
+     */
+    private synchronized ServerSpiel spielZuordnen(Verbindung verbindung) {
+        if (wartendesSpiel == null) {
+            if (spiele.size() >= konfiguration.getMaxSpiele()) {
+                verbindung.abschliessen("VOLL:Maximale Anzahl an Spielen erreicht");
+                return null;
+            }
+            wartendesSpiel = new ServerSpiel(naechsteSpielNummer++, this, konfiguration.getModus());
+            spiele.add(wartendesSpiel);
+        }
+
+        ServerSpiel spiel = wartendesSpiel;
+        if (spiel.spielerHinzufuegen(verbindung, taktgeber, konfiguration.getTickRate())) {
+            wartendesSpiel = null; // Spiel ist voll und läuft
+        }
+        return spiel;
+    }
+
+    /**
+     * Führt eine Verbindung mit ihrer Sitzung in ihr wiederhergestelltes Spiel zurück
+     * @param text Die Sitzung (hexadezimal, wie in SITZUNG gesendet)
+     */
+    private synchronized void sitzungFortsetzen(Verbindung verbindung, String text) {
+        long sitzung = 0;
+        ServerSpiel spiel = null;
+        try {
+            sitzung = Long.parseUnsignedLong(text, 16);
+            spiel = rueckkehr.remove(sitzung);
+        } catch (NumberFormatException e) {
+            // unbekannt
+        }
+        if (spiel == null) { // Spiel ist vorbei oder wurde nicht auf diesem Server gesichert
+            verbindung.abschliessen("SITZUNG_UNBEKANNT:");
+            return;
+        }
+        spiel.spielerZurueck(verbindung, sitzung, taktgeber, konfiguration.getTickRate());
+    }
+
+    /**
+     * Stellt die Spiele aus der Sicherungsdatei wieder her. Sie warten höchstens RUECKKEHR_NANOS auf ihre Spieler.
+     */
+    private void wiederherstellen() {
+        List<SpielSicherung> gesichert;
+        try {
+            gesichert = SpielSicherung.lesen(sicherungsDatei);
+        } catch (IOException e) {
+            System.out.println("Sicherung konnte nicht gelesen werden: " + e.getMessage());
+            return;
+        }
+        for (SpielSicherung sicherung : gesichert) {
+            ServerSpiel spiel = new ServerSpiel(this, sicherung);
+            synchronized (this) {
+                spiele.add(spiel);
+                rueckkehr.put(sicherung.sitzungen[0], spiel);
+                rueckkehr.put(sicherung.sitzungen[1], spiel);
+                naechsteSpielNummer = Math.max(naechsteSpielNummer, sicherung.nummer + 1);
+            }
+            taktgeber.einmal(new Runnable() {
+                @Override
+                public void run() {
+                    spiel.rueckkehrAbgelaufen();
+                }
+            }, RUECKKEHR_NANOS);
+        }
+        if (!gesichert.isEmpty()) {
+            System.out.println(gesichert.size() + " Spiele aus " + sicherungsDatei + " wiederhergestellt, warte "
+                + RUECKKEHR_NANOS / 1_000_000_000L + " s auf die Spieler");
+        }
+    }
+
+    /**
+     * Sichert alle Spiele in die Sicherungsdatei. Jedes Spiel ist nur zum Kopieren seiner Werte gesperrt; die
+     * Datei wird in diesem Thread geschrieben, nie im Takt.
+     * @param beimBeenden true für die letzte Sicherung in stoppen() (sonst nur, solange der Server läuft)
+     */
+    private void sichern(boolean beimBeenden) {
+        synchronized (sicherungsSperre) {
+            if (!beimBeenden && !isRunning) { // die letzte Sicherung ist schon geschrieben
+                return;
+            }
+            long start = System.nanoTime();
+            ServerSpiel[] offeneSpiele;
+            synchronized (this) {
+                offeneSpiele = spiele.toArray(new ServerSpiel[0]);
+            }
+            List<SpielSicherung> gesichert = new ArrayList<>();
+            for (ServerSpiel spiel : offeneSpiele) {
+                SpielSicherung sicherung = spiel.sichern();
+                if (sicherung != null) {
+                    gesichert.add(sicherung);
+                }
+            }
+            try {
+                SpielSicherung.schreiben(sicherungsDatei, gesichert);
+                if (beimBeenden) {
+                    System.out.println(gesichert.size() + " Spiele gesichert in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+            } catch (IOException e) {
+                System.out.println("Sicherung fehlgeschlagen: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wird von jedem ServerSpiel nach einem Tick aufgerufen (ohne Sperre, mehrere Taktgeber-Threads gleichzeitig)
+     * @param ueberlauf ob der Tick zu spät begonnen oder länger als sein Zeitfenster gedauert hat
+     */
+    public void tickGemessen(boolean ueberlauf) {
+        ticks.increment();
+        if (ueberlauf) {
+            ueberlaeufe.increment();
+        }
+    }
+
+    /**
+     * Anzahl der bisher ausgeführten Ticks aller Spiele
+     */
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    /**
+     * Anzahl der Ticks, die zu spät begonnen oder zu lang gedauert haben
+     */
+    public long getUeberlaeufe() {
+        return ueberlaeufe.sum();
+    }
+
+    /**
+     * Anzahl der laufenden und wartenden Spiele
+     */
+    public synchronized int getSpielAnzahl() {
+        return spiele.size();
+    }
+
+    /**
+     * Ob ein Spiel auf seinen zweiten Spieler wartet
+     */
+    public synchronized boolean hatWartendesSpiel() {
+        return wartendesSpiel != null;
+    }
+
+    public ServerKonfiguration getKonfiguration() {
+        return konfiguration;
+    }
+
+    /**
+     * Speichert das Ergebnis eines beendeten Spiels (ohne Datei-Ein-/Ausgabe im Takt, siehe ErgebnisSpeicher)
+     * @param ergebnis Das Ergebnis
+     */
+    public void ergebnisEintragen(SpielErgebnis ergebnis) {
+        ErgebnisSpeicher speicher = ergebnisse;
+        if (speicher != null) {
+            speicher.eintragen(ergebnis);
+        }
+    }
+
+    /**
+     * Wird von einem ServerSpiel aufgerufen, wenn es beendet wurde
+     * @param spiel Das beendete Spiel
+     */
+    public synchronized void spielBeendet(ServerSpiel spiel) {
+        spiele.remove(spiel);
+        if (spiel == wartendesSpiel) {
+            wartendesSpiel = null;
+        }
+        for (int i = 0; i < 2; i++) {
+            rueckkehr.remove(spiel.getSitzung(i), spiel);
+        }
+    }
+
+    /**
+     * Stoppt den Server und beendet alle Spiele (mit --sicherung werden sie vorher gesichert)
+     */
+    public void stoppen() {
+        if (!isRunning) {
+            return;
+        }
+        isRunning = false;
+        try {
+            stoppenAusfuehren();
+        } finally {
+            gestoppt.countDown();
+        }
+    }
+
+    /**
+     * Die eigentliche Arbeit von stoppen() (nur einmal)
+     */
+    private void stoppenAusfuehren() {
+        if (lastMelder != null) {
+            lastMelder.stoppen(); // Router schickt keine neuen Spieler mehr
+        }
+        if (suche != null) {
+            suche.stoppen();
+        }
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Fehler beim Schließen des Servers: " + e.getMessage());
+        }
+
+        if (sicherungsDatei != null) {
+            if (sicherer != null) {
+                LockSupport.unpark(sicherer);
+            }
+            sichern(true); // bevor die Clients getrennt werden und zum neuen Server zurückkehren
+            try {
+                sicherungsBelegung.channel().close(); // gibt die Sperre frei
+            } catch (IOException e) {
+                System.out.println("Fehler beim Freigeben der Sicherung: " + e.getMessage());
+            }
+        }
+        ServerSpiel[] offeneSpiele;
+        synchronized (this) {
+            offeneSpiele = spiele.toArray(new ServerSpiel[0]);
+        }
+        for (ServerSpiel spiel : offeneSpiele) {
+            spiel.beenden();
+        }
+        taktgeber.stoppen();
+        ErgebnisSpeicher speicher = ergebnisse;
+        if (speicher != null) {
+            speicher.schliessen(); // ausstehende Ergebnisse noch schreiben
+        }
+        System.out.println("Dedizierter Server gestoppt");
+    }
+}
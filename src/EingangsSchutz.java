@@ -0,0 +1,152 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Die Klasse EingangsSchutz begrenzt, wie viele Nachrichten ein Client schicken darf (Token Bucket), getrennt für
+ * Bewegungen (MOVE mit Position, Lockstep-EINGABE) und alle übrigen Nachrichten (Pause, Neustart, Fortsetzen,
+ * Prüfsumme, Name, Ping, ...). Ein fehlerhafter oder böswilliger Client kann so die Spielschleife nicht fluten.
+ *
+ * - Bewegungen über dem Budget werden nicht einzeln ausgeführt, sondern zur neuesten Position zusammengefasst
+ *   (ZUSAMMENFASSEN, der Empfänger führt höchstens eine ausstehende Bewegung aus). Kommen selbst dafür zu viele,
+ *   wird die Verbindung getrennt. Lockstep-Eingaben lassen sich nicht zusammenfassen und trennen sofort.
+ * - Steuer-Nachrichten über dem Budget trennen die Verbindung (die Budgets liegen weit über dem, was ein Mensch
+ *   mit der Tastatur erzeugt).
+ * - Zu lange Zeilen bricht schon der ZeilenLeser ab (MAX_ZEILE für Verbindungen von Clients).
+ *
+ * Eine Instanz gehört zu einer Verbindung und wird nur in deren Lese-Thread benutzt; die Zähler gelten für den
+ * ganzen Prozess (bericht()).
+ * Einstellungen (pro Sekunde bzw. Stoß): -Dpong.eingang.bewegung=60, -Dpong.eingang.bewegung.stoss=30,
+ * -Dpong.eingang.steuerung=20, -Dpong.eingang.steuerung.stoss=40, -Dpong.eingang.zusammenfassen=1000,
+ * -Dpong.eingang.zeile.max=4096 (Bytes). Eine Rate von 0 schaltet die jeweilige Grenze ab.
+ */
+public class EingangsSchutz {
+    public static final int ERLAUBT = 0; // Nachricht normal verarbeiten
+    public static final int ZUSAMMENFASSEN = 1; // Bewegung nur als neueste Position merken
+    public static final int GETRENNT = 2; // Budget überschritten, Verbindung ist geschlossen
+    public static final int MAX_ZEILE = Integer.getInteger("pong.eingang.zeile.max", 4096);
+    private static final int BEWEGUNG_RATE = Integer.getInteger("pong.eingang.bewegung", 60); // Client schickt höchstens 20 pro Sekunde (50ms Tastendruck-Verzögerung)
+    private static final int BEWEGUNG_STOSS = Integer.getInteger("pong.eingang.bewegung.stoss", 30);
+    private static final int STEUERUNG_RATE = Integer.getInteger("pong.eingang.steuerung", 20); // Prüfsumme 2 pro Sekunde, Ping 1 pro Sekunde
+    private static final int STEUERUNG_STOSS = Integer.getInteger("pong.eingang.steuerung.stoss", 40);
+    private static final int ZUSAMMENFASSEN_RATE = Integer.getInteger("pong.eingang.zusammenfassen", 1000);
+
+    private static final AtomicLong zusammengefasst = new AtomicLong(); // Bewegungen, die nur als neueste Position zählten
+    private static final AtomicLong bewegungenZuViel = new AtomicLong(); // getrennt wegen Bewegungen
+    private static final AtomicLong steuerungZuViel = new AtomicLong(); // getrennt wegen Steuer-Nachrichten
+    private static final AtomicLong zeilenZuLang = new AtomicLong(); // getrennt wegen zu langer Zeile
+
+    private final Verbindung verbindung;
+    private final Eimer bewegungen;
+    private final Eimer steuerung;
+    private final Eimer ueberschuss; // Bewegungen über dem Budget, die noch zusammengefasst werden
+
+    /**
+     * Konstruktor für den EingangsSchutz (Budgets aus den System-Properties, Eimer anfangs voll)
+     * @param verbindung Die Verbindung, die bei Überschreitung getrennt wird
+     */
+    public EingangsSchutz(Verbindung verbindung) {
+        this.verbindung = verbindung;
+        long jetzt = System.nanoTime();
+        bewegungen = new Eimer(BEWEGUNG_RATE, BEWEGUNG_STOSS, jetzt);
+        steuerung = new Eimer(STEUERUNG_RATE, STEUERUNG_STOSS, jetzt);
+        ueberschuss = new Eimer(ZUSAMMENFASSEN_RATE, ZUSAMMENFASSEN_RATE, jetzt);
+    }
+
+    /**
+     * Prüft eine eingehende Nachricht gegen das Budget und trennt die Verbindung, wenn es überschritten ist
+     * @param nachricht Die Nachricht ("BEFEHL:DATEN", Herzschläge kommen hier nicht an)
+     * @return ERLAUBT, ZUSAMMENFASSEN (nur MOVE mit Position, siehe position()) oder GETRENNT
+     */
+    public int pruefen(String nachricht) {
+        long jetzt = System.nanoTime();
+        boolean bewegung = istBewegung(nachricht);
+        if (!bewegung && !nachricht.startsWith("EINGABE:")) {
+            if (steuerung.nehmen(jetzt)) {
+                return ERLAUBT;
+            }
+            steuerungZuViel.incrementAndGet();
+            trennen("zu viele Steuer-Nachrichten");
+            return GETRENNT;
+        }
+        if (bewegungen.nehmen(jetzt)) {
+            return ERLAUBT;
+        }
+        if (bewegung && ueberschuss.nehmen(jetzt)) {
+            zusammengefasst.incrementAndGet();
+            return ZUSAMMENFASSEN;
+        }
+        bewegungenZuViel.incrementAndGet();
+        trennen("zu viele Bewegungen");
+        return GETRENNT;
+    }
+
+    /**
+     * Ob die Nachricht eine Bewegung mit Position ist (MOVE mit negativem Wert sind Signale wie Pause oder Neustart)
+     */
+    public static boolean istBewegung(String nachricht) {
+        return nachricht.startsWith("MOVE:") && !nachricht.startsWith("-", 5);
+    }
+
+    /**
+     * Liest die Position einer MOVE-Nachricht (eine angehängte Spur-ID wird ignoriert)
+     * @return Die Position oder -1, wenn die Nachricht ungültig ist
+     */
+    public static int position(String nachricht) {
+        int komma = nachricht.indexOf(',', 5);
+        try {
+            return Math.max(-1, Integer.parseInt(komma < 0 ? nachricht.substring(5) : nachricht.substring(5, komma)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Zählt eine zu lange Zeile (die Verbindung trennt sich danach selbst, siehe Verbindung.run)
+     */
+    public static void zeileZuLang() {
+        zeilenZuLang.incrementAndGet();
+    }
+
+    private void trennen(String grund) {
+        System.out.println("Client " + verbindung.getAdresse() + " schickt " + grund + ", Verbindung wird getrennt (" + bericht() + ")");
+        verbindung.schliessen();
+    }
+
+    /**
+     * Zähler des Prozesses in einer Zeile
+     */
+    public static String bericht() {
+        return "Eingang: " + zusammengefasst.get() + " Bewegungen zusammengefasst, getrennt wegen Bewegungen "
+            + bewegungenZuViel.get() + ", Steuer-Nachrichten " + steuerungZuViel.get() + ", zu langer Zeile " + zeilenZuLang.get();
+    }
+
+    /**
+     * Ein Token Bucket: füllt sich mit rate Token pro Sekunde bis stoss Token; jede Nachricht kostet ein Token.
+     * Gerechnet wird in Nanosekunden Guthaben, damit keine Rundungsfehler entstehen.
+     */
+    private static class Eimer {
+        private final long nanosProToken; // 0 = unbegrenzt
+        private final long voll;
+        private long guthaben;
+        private long letzte; // letzte Aktualisierung (System.nanoTime())
+
+        Eimer(int rate, int stoss, long jetzt) {
+            this.nanosProToken = rate > 0 ? 1_000_000_000L / rate : 0;
+            this.voll = nanosProToken * Math.max(1, stoss);
+            this.guthaben = voll;
+            this.letzte = jetzt;
+        }
+
+        boolean nehmen(long jetzt) {
+            if (nanosProToken == 0) {
+                return true;
+            }
+            guthaben = Math.min(voll, guthaben + (jetzt - letzte));
+            letzte = jetzt;
+            if (guthaben < nanosProToken) {
+                return false;
+            }
+            guthaben -= nanosProToken;
+            return true;
+        }
+    }
+}
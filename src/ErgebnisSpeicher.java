@@ -0,0 +1,239 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Die Klasse ErgebnisSpeicher speichert beendete Spiele in einer Datei, an die nur angehängt wird (eine Zeile pro
+ * Spiel, siehe SpielErgebnis). Geschrieben wird von einem eigenen Thread in Stapeln; eintragen() aus der
+ * Spielschleife legt das Ergebnis nur in eine Warteschlange und macht nie Datei-Ein-/Ausgabe.
+ * Die Datei ist mit APPEND geöffnet, jeder Stapel landet also am aktuellen Dateiende, auch wenn mehrere Prozesse
+ * in dieselbe Datei schreiben (der Index enthält trotzdem nur die eigenen und die beim Öffnen gelesenen Spiele).
+ *
+ * Daneben hält der Speicher einen Index im Speicher: Statistik pro Spieler (HashMap) und die Bestenliste
+ * (sortiert nach SpielerStatistik.RANGFOLGE). Beim Öffnen wird der Index aus der Datei neu aufgebaut;
+ * beschädigte Zeilen (z.B. nach einem Absturz) werden übersprungen.
+ */
+public class ErgebnisSpeicher {
+    public static final String STANDARD_DATEI = System.getProperty("pong.ergebnisse.datei", "pong-ergebnisse.log");
+    private static final int WARTESCHLANGE = 1024; // mehr ungeschriebene Ergebnisse -> neue verwerfen
+    private static final int MAX_STAPEL = 256; // Ergebnisse pro Schreibvorgang
+    private static final SpielErgebnis ENDE = new SpielErgebnis(0, SpielModus.EINFACH, "", "", 0, 0, 0, 0, 0, 0);
+
+    private final Path datei;
+    private final FileChannel kanal;
+    private final ArrayBlockingQueue<SpielErgebnis> ausstehend = new ArrayBlockingQueue<>(WARTESCHLANGE);
+    private final Thread schreiber;
+
+    // Index (geschützt durch this)
+    private final Map<String, SpielerStatistik> spieler = new HashMap<>();
+    private final TreeSet<SpielerStatistik> bestenliste = new TreeSet<>(SpielerStatistik.RANGFOLGE);
+    private long spieleGesamt = 0;
+
+    private ErgebnisSpeicher(Path datei, FileChannel kanal) {
+        this.datei = datei;
+        this.kanal = kanal;
+        this.schreiber = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                schreibSchleife();
+            }
+        }, "Ergebnis-Schreiber");
+        schreiber.setDaemon(true);
+    }
+
+    /**
+     * Öffnet (oder erzeugt) die Datei, baut den Index auf und startet den Schreib-Thread
+     * @param datei Pfad der Datei
+     * @return Der geöffnete Speicher
+     * @throws IOException wenn die Datei nicht gelesen oder geöffnet werden kann
+     */
+    public static ErgebnisSpeicher oeffnen(Path datei) throws IOException {
+        FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        ErgebnisSpeicher speicher = new ErgebnisSpeicher(datei, kanal);
+        try {
+            speicher.indexAufbauen();
+            speicher.zeilenendeSicherstellen();
+        } catch (IOException e) {
+            kanal.close();
+            throw e;
+        }
+        speicher.schreiber.start();
+        return speicher;
+    }
+
+    /**
+     * Liest alle Zeilen der Datei in den Index
+     */
+    private void indexAufbauen() throws IOException {
+        long start = System.nanoTime();
+        int gelesen = 0;
+        int beschaedigt = 0;
+        try (BufferedReader in = Files.newBufferedReader(datei, StandardCharsets.UTF_8)) {
+            String zeile;
+            while ((zeile = in.readLine()) != null) {
+                if (zeile.isEmpty()) {
+                    continue;
+                }
+                SpielErgebnis ergebnis = SpielErgebnis.ausZeile(zeile);
+                if (ergebnis == null) {
+                    beschaedigt++;
+                    continue;
+                }
+                indexEintragen(ergebnis);
+                gelesen++;
+            }
+        }
+        System.out.println("Ergebnisse: " + gelesen + " Spiele aus " + datei + " geladen in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms" + (beschaedigt > 0 ? ", " + beschaedigt + " beschädigte Zeilen übersprungen" : ""));
+    }
+
+    /**
+     * Endet die Datei mitten in einer Zeile (Absturz beim Schreiben), beginnt das nächste Ergebnis in einer neuen Zeile
+     */
+    private void zeilenendeSicherstellen() throws IOException {
+        ByteBuffer letztes = ByteBuffer.allocate(1);
+        try (FileChannel lesen = FileChannel.open(datei, StandardOpenOption.READ)) { // APPEND-Kanal kann nicht lesen
+            long groesse = lesen.size();
+            if (groesse == 0) {
+                return;
+            }
+            lesen.read(letztes, groesse - 1);
+        }
+        if (letztes.get(0) != '\n') {
+            kanal.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+    }
+
+    /**
+     * Trägt ein beendetes Spiel ein: sofort in den Index, in die Datei später durch den Schreib-Thread
+     * @param ergebnis Das Ergebnis
+     * @return false, wenn die Warteschlange voll war; das Ergebnis wird dann weder gespeichert noch in den Index übernommen
+     */
+    public boolean eintragen(SpielErgebnis ergebnis) {
+        if (!ausstehend.offer(ergebnis)) {
+            System.out.println("Ergebnis-Warteschlange voll, Ergebnis wird nicht gespeichert");
+            return false;
+        }
+        synchronized (this) {
+            indexEintragen(ergebnis);
+        }
+        return true;
+    }
+
+    /**
+     * Aktualisiert Spielerstatistik und Bestenliste (Aufrufer hält die Sperre bzw. ist der einzige Thread)
+     */
+    private void indexEintragen(SpielErgebnis ergebnis) {
+        spielerEintragen(ergebnis.getSpieler1(), ergebnis.getPunkte1(), ergebnis.getPunkte2(), ergebnis.getLaengsterBallwechsel());
+        if (!ergebnis.getSpieler2().equals(ergebnis.getSpieler1())) {
+            spielerEintragen(ergebnis.getSpieler2(), ergebnis.getPunkte2(), ergebnis.getPunkte1(), ergebnis.getLaengsterBallwechsel());
+        }
+        spieleGesamt++;
+    }
+
+    private void spielerEintragen(String name, int eigenePunkte, int gegnerPunkte, int ballwechsel) {
+        SpielerStatistik statistik = spieler.get(name);
+        if (statistik == null) {
+            statistik = new SpielerStatistik(name);
+            spieler.put(name, statistik);
+        } else {
+            bestenliste.remove(statistik); // Sortierschlüssel ändert sich
+        }
+        statistik.eintragen(eigenePunkte, gegnerPunkte, ballwechsel);
+        bestenliste.add(statistik);
+    }
+
+    /**
+     * Die besten Spieler
+     * @param anzahl Höchstens so viele Einträge
+     * @return Kopien der Statistiken in der Reihenfolge der Bestenliste
+     */
+    public synchronized List<SpielerStatistik> bestenliste(int anzahl) {
+        List<SpielerStatistik> liste = new ArrayList<>(Math.min(anzahl, bestenliste.size()));
+        Iterator<SpielerStatistik> it = bestenliste.iterator();
+        while (it.hasNext() && liste.size() < anzahl) {
+            liste.add(it.next().kopie());
+        }
+        return liste;
+    }
+
+    /**
+     * Statistik eines Spielers
+     * @return Kopie der Statistik oder null, wenn der Spieler noch nicht gespielt hat
+     */
+    public synchronized SpielerStatistik statistik(String name) {
+        SpielerStatistik statistik = spieler.get(SpielErgebnis.nameBereinigen(name));
+        return statistik == null ? null : statistik.kopie();
+    }
+
+    public synchronized long getSpieleGesamt() {
+        return spieleGesamt;
+    }
+
+    /**
+     * Schreib-Thread: wartet auf Ergebnisse und schreibt alle gerade vorhandenen in einem Rutsch
+     */
+    private void schreibSchleife() {
+        List<SpielErgebnis> stapel = new ArrayList<>(MAX_STAPEL);
+        StringBuilder zeilen = new StringBuilder();
+        boolean beenden = false;
+        while (!beenden) {
+            try {
+                stapel.add(ausstehend.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            ausstehend.drainTo(stapel, MAX_STAPEL - 1);
+
+            zeilen.setLength(0);
+            for (SpielErgebnis ergebnis : stapel) {
+                if (ergebnis == ENDE) {
+                    beenden = true;
+                } else {
+                    zeilen.append(ergebnis.zeile());
+                }
+            }
+            stapel.clear();
+            if (zeilen.length() > 0) {
+                try {
+                    ByteBuffer bytes = ByteBuffer.wrap(zeilen.toString().getBytes(StandardCharsets.UTF_8));
+                    while (bytes.hasRemaining()) {
+                        kanal.write(bytes); // APPEND: immer am aktuellen Dateiende, auch bei mehreren Prozessen
+                    }
+                    kanal.force(false); // ein Sync pro Stapel statt pro Spiel
+                } catch (IOException e) {
+                    System.out.println("Fehler beim Speichern der Ergebnisse: " + e.getMessage());
+                }
+            }
+        }
+        try {
+            kanal.close();
+        } catch (IOException e) {
+            System.out.println("Fehler beim Schließen der Ergebnisdatei: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schreibt alle ausstehenden Ergebnisse und schließt die Datei
+     */
+    public void schliessen() {
+        try {
+            ausstehend.put(ENDE);
+            schreiber.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
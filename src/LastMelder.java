@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse LastMelder verbindet einen DedizierterServer mit dem Steuer-Port eines SpielRouters und meldet
+ * regelmäßig seine Last. Bricht die Verbindung ab (oder läuft der Router noch nicht), wird es jede Sekunde
+ * erneut versucht.
+ *
+ * Protokoll (Zeilen wie zwischen Client und Server, Herzschläge über die Verbindung):
+ * ANMELDEN:port (Port, auf dem der Server Spieler annimmt) und danach LAST:spiele,maxSpiele,wartend,ueberlaufPromille
+ */
+public class LastMelder implements Runnable, NachrichtenEmpfaenger {
+    private static final long MELDE_NANOS = Long.getLong("pong.router.melden.ms", 250) * 1_000_000L; // Abstand der Lastmeldungen
+    private static final long WIEDERHOLEN_NANOS = 1_000_000_000L; // Wartezeit vor einem neuen Verbindungsversuch
+    private static final int VERBINDEN_TIMEOUT_MS = 2000;
+
+    private final DedizierterServer server;
+    private final String routerHost;
+    private final int routerPort;
+    private final int spielPort; // Port, auf dem der Server Spieler annimmt
+    private volatile boolean aktiv = false;
+    private volatile Verbindung verbindung;
+    private Thread thread;
+    private long letzteTicks = 0; // für die Überlaufrate seit der letzten Meldung
+    private long letzteUeberlaeufe = 0;
+
+    /**
+     * Konstruktor für den LastMelder
+     * @param server Der Server, dessen Last gemeldet wird
+     * @param routerHost Host des SpielRouters
+     * @param routerPort Steuer-Port des SpielRouters
+     * @param spielPort Port, auf dem der Server Spieler annimmt
+     */
+    public LastMelder(DedizierterServer server, String routerHost, int routerPort, int spielPort) {
+        this.server = server;
+        this.routerHost = routerHost;
+        this.routerPort = routerPort;
+        this.spielPort = spielPort;
+    }
+
+    /**
+     * Startet das Melden in einem eigenen Daemon-Thread
+     */
+    public void starten() {
+        aktiv = true;
+        thread = new Thread(this, "LastMelder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Beendet das Melden und trennt die Verbindung zum Router (der Router nimmt den Server aus der Verteilung)
+     */
+    public void stoppen() {
+        aktiv = false;
+        Verbindung v = verbindung;
+        if (v != null) {
+            v.schliessen();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (aktiv) {
+            try {
+                Socket socket = new Socket();
+                socket.connect(new InetSocketAddress(routerHost, routerPort), VERBINDEN_TIMEOUT_MS);
+                Verbindung v = new Verbindung(new SocketTransport(socket));
+                verbindung = v;
+                v.starten(this);
+                v.senden("ANMELDEN:" + spielPort);
+                System.out.println("Beim Router " + routerHost + ":" + routerPort + " angemeldet");
+                while (aktiv && v.istVerbunden()) {
+                    v.sendeSnapshot(lastNachricht(), false); // ältere, noch nicht gesendete Meldung wird ersetzt
+                    LockSupport.parkNanos(this, MELDE_NANOS);
+                }
+                v.schliessen();
+            } catch (IOException e) {
+                System.out.println("Router " + routerHost + ":" + routerPort + " nicht erreichbar: " + e.getMessage());
+            }
+            if (aktiv) {
+                LockSupport.parkNanos(this, WIEDERHOLEN_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Baut die aktuelle Lastmeldung (Überlaufrate in Promille der Ticks seit der letzten Meldung)
+     */
+    private String lastNachricht() {
+        long ticks = server.getTicks();
+        long ueberlaeufe = server.getUeberlaeufe();
+        long neueTicks = ticks - letzteTicks;
+        long promille = neueTicks > 0 ? (ueberlaeufe - letzteUeberlaeufe) * 1000 / neueTicks : 0;
+        letzteTicks = ticks;
+        letzteUeberlaeufe = ueberlaeufe;
+        return "LAST:" + server.getSpielAnzahl() + "," + server.getKonfiguration().getMaxSpiele() + ","
+            + (server.hatWartendesSpiel() ? 1 : 0) + "," + promille;
+    }
+
+    /**
+     * Der Router sendet (außer Herzschlägen) nichts
+     */
+    @Override
+    public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+    }
+
+    /**
+     * Verbindung zum Router verloren -> Melde-Thread aufwecken, damit er neu verbindet
+     */
+    @Override
+    public void verbindungGetrennt(Verbindung verbindung) {
+        if (aktiv) {
+            System.out.println("Verbindung zum Router verloren");
+        }
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.PrintWriter;
+
+/**
+ * Die Klasse LatenzHistogramm zählt Dauern in logarithmischen Klassen (8 Unterklassen pro Zweierpotenz,
+ * also höchstens etwa 12% Abweichung) von 1 Mikrosekunde bis etwa 2 Minuten.
+ * Das Eintragen erzeugt keine Objekte; Eintragen und Ausgeben sind synchronisiert.
+ */
+public class LatenzHistogramm {
+    private static final int UNTERKLASSEN_BITS = 3;
+    private static final int UNTERKLASSEN = 1 << UNTERKLASSEN_BITS;
+    private static final int KLASSEN = 25 * UNTERKLASSEN; // bis 2^27 Mikrosekunden
+
+    private final long[] zaehler = new long[KLASSEN];
+    private long anzahl = 0;
+    private long summe = 0; // Mikrosekunden
+    private long maximum = 0;
+
+    /**
+     * Trägt eine Dauer ein
+     * @param nanos Dauer in Nanosekunden (negative Werte zählen als 0)
+     */
+    public synchronized void eintragen(long nanos) {
+        long mikros = Math.max(0, nanos / 1000);
+        zaehler[klasse(mikros)]++;
+        anzahl++;
+        summe += mikros;
+        maximum = Math.max(maximum, mikros);
+    }
+
+    /**
+     * Klasse einer Dauer: Werte unter 8 exakt, darüber Exponent und die 3 Bits nach der höchsten Eins
+     */
+    private static int klasse(long mikros) {
+        if (mikros < UNTERKLASSEN) {
+            return (int) mikros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(mikros);
+        int unterklasse = (int) (mikros >>> (exponent - UNTERKLASSEN_BITS)) & (UNTERKLASSEN - 1);
+        return Math.min(KLASSEN - 1, (exponent - UNTERKLASSEN_BITS + 1) * UNTERKLASSEN + unterklasse);
+    }
+
+    /**
+     * Untere Grenze einer Klasse in Mikrosekunden (Umkehrung von klasse())
+     */
+    private static long untereGrenze(int klasse) {
+        if (klasse < UNTERKLASSEN) {
+            return klasse;
+        }
+        int exponent = klasse / UNTERKLASSEN + UNTERKLASSEN_BITS - 1;
+        long unterklasse = klasse % UNTERKLASSEN;
+        return (UNTERKLASSEN + unterklasse) << (exponent - UNTERKLASSEN_BITS);
+    }
+
+    /**
+     * Perzentil in Mikrosekunden (untere Grenze der Klasse, in der es liegt)
+     * @param p Perzentil zwischen 0 und 100
+     */
+    public synchronized long perzentil(double p) {
+        if (anzahl == 0) {
+            return 0;
+        }
+        long ziel = (long) Math.ceil(anzahl * p / 100.0);
+        long gezaehlt = 0;
+        for (int i = 0; i < KLASSEN; i++) {
+            gezaehlt += zaehler[i];
+            if (gezaehlt >= ziel && zaehler[i] > 0) {
+                return untereGrenze(i);
+            }
+        }
+        return maximum;
+    }
+
+    /**
+     * Zählt alle Einträge eines anderen Histogramms hinzu (z.B. eines pro Thread, am Ende zusammengefasst)
+     */
+    public synchronized void zusammenfuehren(LatenzHistogramm andere) {
+        synchronized (andere) {
+            for (int i = 0; i < KLASSEN; i++) {
+                zaehler[i] += andere.zaehler[i];
+            }
+            anzahl += andere.anzahl;
+            summe += andere.summe;
+            maximum = Math.max(maximum, andere.maximum);
+        }
+    }
+
+    public synchronized long getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * Mittelwert in Mikrosekunden
+     */
+    public synchronized long getMittelwert() {
+        return anzahl == 0 ? 0 : summe / anzahl;
+    }
+
+    public synchronized long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Schreibt alle belegten Klassen (untere Grenze in Mikrosekunden und Anzahl)
+     */
+    public synchronized void klassenAusgeben(PrintWriter aus) {
+        for (int i = 0; i < KLASSEN; i++) {
+            if (zaehler[i] > 0) {
+                aus.printf("  >= %8d us: %d%n", untereGrenze(i), zaehler[i]);
+            }
+        }
+    }
+}
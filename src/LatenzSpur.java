@@ -0,0 +1,124 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Die Klasse LatenzSpur misst beim Client, wo die Zeit zwischen Tastendruck und sichtbarem Bild bleibt
+ * (aktivieren mit -Dpong.spur=true). Ein Tastendruck bekommt eine Spur-ID, die mit MOVE zum Host geht.
+ * Der Host schickt sie mit seiner Bearbeitungszeit im nächsten UPDATE zurück.
+ *
+ * Stufen: Eingabe (Tastendruck bis Versand) | Netzwerk (Hin- und Rückweg ohne Host) | Host (MOVE empfangen bis
+ * UPDATE erzeugt) | Übernahme (UPDATE empfangen bis in der Spielschleife übernommen) | Bild (übernommen bis
+ * fertig gezeichnet). Es ist immer nur eine Spur unterwegs, weitere Tastendrücke werden solange nicht verfolgt.
+ * Alle Zeiten werden auf der Uhr des Clients gemessen, nur die Host-Zeit kommt als Dauer vom Host.
+ */
+public class LatenzSpur {
+    public static final boolean AKTIV = Boolean.getBoolean("pong.spur");
+    private static final long ZEITLIMIT_NANOS = 2_000_000_000L; // Spur ohne Antwort wird danach verworfen
+    private static final String[] STUFEN = {"Eingabe", "Netzwerk", "Host", "Uebernahme", "Bild", "Gesamt"};
+
+    private final LatenzHistogramm[] histogramme = new LatenzHistogramm[STUFEN.length];
+    private long naechsteId = 1;
+
+    // Offene Spur (geschrieben von EDT, Spielschleife und Lese-Thread, immer in dieser Reihenfolge)
+    private volatile long offeneId = 0; // 0 = keine Spur unterwegs
+    private volatile long eingabe, versand, empfang, hostNanos, uebernahme;
+
+    /**
+     * Konstruktor für die LatenzSpur
+     */
+    public LatenzSpur() {
+        for (int i = 0; i < STUFEN.length; i++) {
+            histogramme[i] = new LatenzHistogramm();
+        }
+    }
+
+    /**
+     * Beginnt eine Spur für einen Tastendruck (im Event-Dispatch-Thread)
+     * @return Die Spur-ID oder 0, wenn schon eine Spur unterwegs ist
+     */
+    public long starten() {
+        long jetzt = System.nanoTime();
+        if (offeneId != 0 && jetzt - eingabe < ZEITLIMIT_NANOS) {
+            return 0;
+        }
+        eingabe = jetzt;
+        versand = 0;
+        empfang = 0;
+        uebernahme = 0;
+        offeneId = naechsteId++;
+        return offeneId;
+    }
+
+    /**
+     * Die Bewegung wurde an den Host gesendet (Spielschleife)
+     */
+    public void versendet(long id) {
+        if (id != 0 && id == offeneId) {
+            versand = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ein UPDATE mit einer Spur-ID ist angekommen (Lese-Thread)
+     * @param id Vom Host zurückgeschickte Spur-ID
+     * @param hostMikros Zeit beim Host zwischen MOVE und UPDATE
+     */
+    public void empfangen(long id, long hostMikros) {
+        if (id == offeneId && versand != 0 && empfang == 0) { // nur das erste UPDATE mit dieser ID zählt
+            hostNanos = hostMikros * 1000;
+            empfang = System.nanoTime();
+        }
+    }
+
+    /**
+     * Das UPDATE wurde in der Spielschleife übernommen
+     */
+    public void uebernommen(long id) {
+        if (id == offeneId && empfang != 0 && uebernahme == 0) {
+            uebernahme = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ein Bild wurde fertig gezeichnet (Event-Dispatch-Thread). Hat das Zeichnen nach der Übernahme begonnen,
+     * ist die Spur vollständig und wird eingetragen.
+     * @param start Beginn des Zeichnens (System.nanoTime())
+     * @param ende Ende des Zeichnens (System.nanoTime())
+     */
+    public void gezeichnet(long start, long ende) {
+        long u = uebernahme;
+        if (offeneId == 0 || u == 0 || start < u) {
+            return;
+        }
+        long netzwerk = empfang - versand - hostNanos;
+        histogramme[0].eintragen(versand - eingabe);
+        histogramme[1].eintragen(netzwerk);
+        histogramme[2].eintragen(hostNanos);
+        histogramme[3].eintragen(u - empfang);
+        histogramme[4].eintragen(ende - u);
+        histogramme[5].eintragen(ende - eingabe);
+        offeneId = 0;
+    }
+
+    /**
+     * Schreibt die Histogramme aller Stufen in eine Datei
+     * @param datei Pfad der Datei
+     * @throws IOException wenn die Datei nicht geschrieben werden kann
+     */
+    public void speichern(String datei) throws IOException {
+        try (PrintWriter aus = new PrintWriter(new FileWriter(datei))) {
+            aus.printf("%-11s %8s %10s %10s %10s %10s %10s%n", "Stufe", "Anzahl", "Mittel", "p50", "p90", "p99", "Max");
+            for (int i = 0; i < STUFEN.length; i++) {
+                LatenzHistogramm h = histogramme[i];
+                aus.printf("%-11s %8d %8dus %8dus %8dus %8dus %8dus%n", STUFEN[i], h.getAnzahl(), h.getMittelwert(),
+                    h.perzentil(50), h.perzentil(90), h.perzentil(99), h.getMaximum());
+            }
+            for (int i = 0; i < STUFEN.length; i++) {
+                aus.println();
+                aus.println(STUFEN[i] + ":");
+                histogramme[i].klassenAusgeben(aus);
+            }
+        }
+    }
+}
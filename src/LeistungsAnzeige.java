@@ -0,0 +1,143 @@
+import java.awt.*;
+
+/**
+ * Die Klasse LeistungsAnzeige zeichnet die Leistungsanzeige (HUD) über das Spielfeld.
+ * Texte werden in einen vorab angelegten char-Puffer geschrieben und mit drawChars gezeichnet,
+ * damit das Einschalten der Anzeige keine zusätzlichen Objekte pro Frame erzeugt.
+ */
+public class LeistungsAnzeige {
+    private static final Font SCHRIFT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color HINTERGRUND = new Color(0, 0, 0, 180);
+    private static final Color TEXT_FARBE = Color.GREEN;
+    private static final Color GRAPH_FARBE = new Color(0, 200, 255);
+    private static final Color ZIEL_FARBE = new Color(255, 80, 80); // Linie bei 16,7ms (60 FPS)
+    private static final int BREITE = 250;
+    private static final int ZEILEN_HOEHE = 14;
+    private static final int GRAPH_HOEHE = 40;
+    private static final int RAND = 6;
+
+    private final char[] puffer = new char[64]; // Textpuffer für eine Zeile
+
+    /**
+     * Zeichnet die Anzeige in die rechte obere Ecke
+     * @param g Das Graphics-Objekt zum Zeichnen
+     * @param messung Die anzuzeigenden Messwerte
+     * @param feldBreite Breite des Spielfelds
+     */
+    public void zeichnen(Graphics g, LeistungsMessung messung, int feldBreite) {
+        int x = feldBreite - BREITE - 10;
+        int y = 30;
+        int hoehe = 5 * ZEILEN_HOEHE + GRAPH_HOEHE + 3 * RAND;
+
+        g.setColor(HINTERGRUND);
+        g.fillRect(x, y, BREITE, hoehe);
+        g.setFont(SCHRIFT);
+        g.setColor(TEXT_FARBE);
+
+        int textX = x + RAND;
+        int zeile = y + RAND + ZEILEN_HOEHE - 3;
+
+        // Rendering
+        int n = text(0, "Render ");
+        n = zahl(n, messung.getFps());
+        n = text(n, " FPS  Zeichnen ");
+        n = millis(n, messung.getLetzteZeichenDauer());
+        n = text(n, " ms");
+        g.drawChars(puffer, 0, n, textX, zeile);
+        zeile += ZEILEN_HOEHE;
+
+        // Simulation
+        n = text(0, "Sim    ");
+        n = zahl(n, messung.getTickRate());
+        n = text(n, " Ticks/s  Ueberlauf ");
+        n = zahl(n, messung.getUeberlaeufe());
+        g.drawChars(puffer, 0, n, textX, zeile);
+        zeile += ZEILEN_HOEHE;
+
+        // Netzwerk
+        n = text(0, "Snap/s ein ");
+        n = zahl(n, messung.getSnapshotsEinProSekunde());
+        n = text(n, "  aus ");
+        n = zahl(n, messung.getSnapshotsAusProSekunde());
+        g.drawChars(puffer, 0, n, textX, zeile);
+        zeile += ZEILEN_HOEHE;
+
+        n = text(0, "Bytes/s ein ");
+        n = zahl(n, messung.getBytesEinProSekunde());
+        n = text(n, "  aus ");
+        n = zahl(n, messung.getBytesAusProSekunde());
+        g.drawChars(puffer, 0, n, textX, zeile);
+        zeile += ZEILEN_HOEHE;
+
+        n = text(0, "RTT    ");
+        long rtt = messung.getLetzteRtt();
+        n = rtt < 0 ? text(n, "-") : millis(n, rtt);
+        n = text(n, " ms");
+        g.drawChars(puffer, 0, n, textX, zeile);
+
+        // Graph der Frame-Abstände (1 Pixel Höhe = 1 ms, max. GRAPH_HOEHE ms)
+        int graphUnten = y + hoehe - RAND;
+        int graphX = x + RAND;
+        g.setColor(ZIEL_FARBE);
+        g.drawLine(graphX, graphUnten - 17, graphX + LeistungsMessung.VERLAUF_LAENGE * 2, graphUnten - 17);
+        g.setColor(GRAPH_FARBE);
+        for (int i = 0; i < LeistungsMessung.VERLAUF_LAENGE; i++) {
+            int balken = (int) Math.min(GRAPH_HOEHE, messung.getFrameAbstand(i) / 1_000_000L);
+            g.drawLine(graphX + i * 2, graphUnten, graphX + i * 2, graphUnten - balken);
+        }
+    }
+
+    /**
+     * Schreibt einen festen Text in den Puffer
+     * @return neue Position im Puffer
+     */
+    private int text(int position, String text) {
+        int laenge = Math.min(text.length(), puffer.length - position);
+        text.getChars(0, laenge, puffer, position);
+        return position + laenge;
+    }
+
+    /**
+     * Schreibt eine nicht-negative Zahl in den Puffer (ohne String-Umwandlung)
+     * @return neue Position im Puffer
+     */
+    private int zahl(int position, long zahl) {
+        if (zahl == 0) {
+            return zeichen(position, '0');
+        }
+        int start = position;
+        while (zahl > 0 && position < puffer.length) {
+            puffer[position++] = (char) ('0' + zahl % 10);
+            zahl /= 10;
+        }
+        // Ziffern wurden rückwärts geschrieben -> umdrehen
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            char c = puffer[i];
+            puffer[i] = puffer[j];
+            puffer[j] = c;
+        }
+        return position;
+    }
+
+    /**
+     * Schreibt Nanosekunden als Millisekunden mit einer Nachkommastelle in den Puffer
+     * @return neue Position im Puffer
+     */
+    private int millis(int position, long nanos) {
+        long zehntel = nanos / 100_000L;
+        position = zahl(position, zehntel / 10);
+        position = zeichen(position, '.');
+        return zahl(position, zehntel % 10);
+    }
+
+    /**
+     * Schreibt ein einzelnes Zeichen in den Puffer
+     * @return neue Position im Puffer
+     */
+    private int zeichen(int position, char zeichen) {
+        if (position < puffer.length) {
+            puffer[position++] = zeichen;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Die Klasse LeistungsMessung sammelt Messwerte für die Leistungsanzeige (Rendering, Simulation, Netzwerk).
+ * Alle Puffer sind vorab angelegt, damit das Messen selbst keinen Müll erzeugt und die Werte nicht verfälscht.
+ */
+public class LeistungsMessung {
+    public static final int VERLAUF_LAENGE = 120; // Anzahl der gespeicherten Frame-Zeiten für den Graphen
+
+    // Rendering (nur im Event-Dispatch-Thread geschrieben)
+    private final long[] frameAbstaende = new long[VERLAUF_LAENGE]; // Nanosekunden zwischen zwei Frames (Ringpuffer)
+    private int frameIndex = 0;
+    private long letzterFrame = 0;
+    private volatile long letzteZeichenDauer = 0; // Nanosekunden für den letzten paintComponent-Aufruf
+
+    // Zähler (aus Spielschleife, Lese- und Sende-Threads geschrieben)
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong ueberlaeufe = new AtomicLong(); // Ticks, die länger als ihr Zeitfenster gedauert haben
+    private final AtomicLong snapshotsEin = new AtomicLong();
+    private final AtomicLong snapshotsAus = new AtomicLong();
+    private final AtomicLong bytesEin = new AtomicLong();
+    private final AtomicLong bytesAus = new AtomicLong();
+    private volatile long letzteRtt = -1; // Round-Trip-Time in Nanosekunden (-1 = noch nicht gemessen)
+
+    // Raten pro Sekunde (von ratenAktualisieren() berechnet)
+    private final long[] letzteStaende = new long[6];
+    private long letzteAktualisierung = System.nanoTime();
+    private volatile int fps, tickRate, snapshotsEinProSekunde, snapshotsAusProSekunde;
+    private volatile long bytesEinProSekunde, bytesAusProSekunde;
+
+    /**
+     * Meldet einen gezeichneten Frame (wird aus paintComponent aufgerufen)
+     * @param start Beginn des Zeichnens (System.nanoTime())
+     * @param ende Ende des Zeichnens (System.nanoTime())
+     */
+    public void frameGezeichnet(long start, long ende) {
+        if (letzterFrame != 0) {
+            frameAbstaende[frameIndex] = start - letzterFrame;
+            frameIndex = (frameIndex + 1) % VERLAUF_LAENGE;
+        }
+        letzterFrame = start;
+        letzteZeichenDauer = ende - start;
+        frames.incrementAndGet();
+    }
+
+    /**
+     * Meldet einen Spiel-Tick
+     * @param ueberlauf true, wenn der Tick sein Zeitfenster überschritten hat
+     */
+    public void tick(boolean ueberlauf) {
+        ticks.incrementAndGet();
+        if (ueberlauf) {
+            ueberlaeufe.incrementAndGet();
+        }
+    }
+
+    /**
+     * Meldet eine empfangene Nachricht
+     * @param bytes Länge der Nachricht inklusive Zeilenumbruch
+     * @param snapshot true, wenn es ein Spielzustand (UPDATE) war
+     */
+    public void empfangen(int bytes, boolean snapshot) {
+        bytesEin.addAndGet(bytes);
+        if (snapshot) {
+            snapshotsEin.incrementAndGet();
+        }
+    }
+
+    /**
+     * Meldet eine gesendete Nachricht
+     * @param bytes Länge der Nachricht inklusive Zeilenumbruch
+     * @param snapshot true, wenn es ein Spielzustand (UPDATE) war
+     */
+    public void gesendet(int bytes, boolean snapshot) {
+        bytesAus.addAndGet(bytes);
+        if (snapshot) {
+            snapshotsAus.incrementAndGet();
+        }
+    }
+
+    /**
+     * Meldet eine gemessene Round-Trip-Time (PING/PONG)
+     * @param nanos Dauer in Nanosekunden
+     */
+    public void rttGemessen(long nanos) {
+        letzteRtt = nanos;
+    }
+
+    /**
+     * Berechnet die Raten pro Sekunde seit dem letzten Aufruf (etwa einmal pro Sekunde aufrufen)
+     */
+    public void ratenAktualisieren() {
+        long jetzt = System.nanoTime();
+        double sekunden = (jetzt - letzteAktualisierung) / 1e9;
+        if (sekunden <= 0) {
+            return;
+        }
+        fps = (int) Math.round(differenz(0, frames.get()) / sekunden);
+        tickRate = (int) Math.round(differenz(1, ticks.get()) / sekunden);
+        snapshotsEinProSekunde = (int) Math.round(differenz(2, snapshotsEin.get()) / sekunden);
+        snapshotsAusProSekunde = (int) Math.round(differenz(3, snapshotsAus.get()) / sekunden);
+        bytesEinProSekunde = Math.round(differenz(4, bytesEin.get()) / sekunden);
+        bytesAusProSekunde = Math.round(differenz(5, bytesAus.get()) / sekunden);
+        letzteAktualisierung = jetzt;
+    }
+
+    /**
+     * Differenz eines Zählers zum letzten Stand, merkt sich den neuen Stand
+     */
+    private long differenz(int index, long stand) {
+        long differenz = stand - letzteStaende[index];
+        letzteStaende[index] = stand;
+        return differenz;
+    }
+
+    /**
+     * Frame-Abstand (Nanosekunden) des i-ten Frames im Verlauf, 0 = ältester
+     */
+    public long getFrameAbstand(int i) {
+        return frameAbstaende[(frameIndex + i) % VERLAUF_LAENGE];
+    }
+
+    public long getLetzteZeichenDauer() {
+        return letzteZeichenDauer;
+    }
+
+    public int getFps() {
+        return fps;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getUeberlaeufe() {
+        return ueberlaeufe.get();
+    }
+
+    public int getSnapshotsEinProSekunde() {
+        return snapshotsEinProSekunde;
+    }
+
+    public int getSnapshotsAusProSekunde() {
+        return snapshotsAusProSekunde;
+    }
+
+    public long getBytesEinProSekunde() {
+        return bytesEinProSekunde;
+    }
+
+    public long getBytesAusProSekunde() {
+        return bytesAusProSekunde;
+    }
+
+    public long getLetzteRtt() {
+        return letzteRtt;
+    }
+}
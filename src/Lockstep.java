@@ -0,0 +1,305 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Die Klasse Lockstep lässt Host und Client dieselbe deterministische Simulation rechnen (nur Ganzzahlen,
+ * feste Spielfeldgröße) und tauscht statt des Spielzustands nur Schläger-Eingaben mit Tick-Nummer aus.
+ * Eigene Eingaben gelten erst einige Ticks später (Eingabeverzögerung). Trifft eine Eingabe des Gegners zu spät ein,
+ * wird auf den gespeicherten Zustand vor diesem Tick zurückgesetzt und bis zum aktuellen Tick neu gerechnet (Rollback).
+ * Der Host ist maßgeblich: Der Client meldet Prüfsummen bestätigter Ticks, bei einer Abweichung sendet der Host
+ * den vollständigen Zustand (ZUSTAND).
+ *
+ * Nachrichten: EINGABE:tick,richtung | TAKT:tick (Host) | PRUEFSUMME:tick,summe (Client) | ZUSTAND:tick,werte... (Host)
+ *
+ * Alle Methoden außer eingabe(), neustartAnfordern() und empfangen() laufen im Thread der Spielschleife.
+ */
+public class Lockstep {
+    public static final int STANDARD_VERZOEGERUNG = Integer.getInteger("pong.lockstep.verzoegerung", 3); // Eingabeverzögerung in Ticks
+    public static final int EREIGNIS_ZUSTAND = 8; // schritt(): vollständiger Zustand vom Host übernommen
+
+    private static final int HISTORIE = 128; // Ticks, die zurückgerollt werden können
+    private static final int EINGABE_PUFFER = 1024; // Ticks, für die Eingaben im Voraus gespeichert werden (Zweierpotenz)
+    private static final int TAKT_INTERVALL = 10; // Host meldet alle 10 Ticks seinen Fortschritt
+    private static final int AUFHOL_SCHWELLE = 25; // Client rechnet Ticks nach, wenn er so weit hinter dem Host liegt
+
+    /**
+     * Schnittstelle zum Senden von Nachrichten an den anderen Spieler
+     */
+    public interface Ausgang {
+        void senden(String nachricht);
+    }
+
+    private final SpielPhysik physik;
+    private final int lokalerSpieler; // 1 = links (Host), 2 = rechts (Client)
+    private final boolean istHost;
+    private final int verzoegerung;
+    private final Ausgang ausgang;
+
+    private final ConcurrentLinkedQueue<String> eingang = new ConcurrentLinkedQueue<>(); // Nachrichten des Gegners
+    private volatile boolean neustartFaellig = false;
+
+    private long tick = 0; // nächster zu simulierender Tick
+    private long aeltesterTick = 0; // ältester Tick, zu dem zurückgerollt werden kann (z.B. nach Neustart)
+    private long rollbackAb = Long.MAX_VALUE; // frühester Tick mit nachträglich eingetroffener Eingabe
+    private final int[] zustaende = new int[HISTORIE * SpielPhysik.ZUSTAND_LAENGE]; // Zustand vor jedem Tick
+    private final long[] eingabeTicks = new long[2 * EINGABE_PUFFER]; // Tick je Eingabe-Platz (pro Spieler)
+    private final int[] eingaben = new int[2 * EINGABE_PUFFER]; // Richtung je Eingabe-Platz
+    private final PruefsummenVerlauf pruefsummen = new PruefsummenVerlauf(); // Prüfsumme nach jedem Tick
+    private boolean zustandFaellig; // Host: vollständigen Zustand senden
+    private long hostTakt = -1; // Client: zuletzt gemeldeter Tick des Hosts
+    private long naechstePruefung = 0; // Client: nächster Tick, für den eine Prüfsumme gemeldet wird
+
+    /**
+     * Konstruktor für den Lockstep
+     * @param physik Die Spielphysik (mit fester Spielfeldgröße)
+     * @param lokalerSpieler Schläger dieses Spielers (1 oder 2)
+     * @param istHost ob dieser Spieler maßgeblich ist
+     * @param verzoegerung Eingabeverzögerung in Ticks
+     * @param ausgang Sendet Nachrichten an den anderen Spieler
+     */
+    public Lockstep(SpielPhysik physik, int lokalerSpieler, boolean istHost, int verzoegerung, Ausgang ausgang) {
+        this.physik = physik;
+        this.lokalerSpieler = lokalerSpieler;
+        this.istHost = istHost;
+        this.verzoegerung = verzoegerung;
+        this.ausgang = ausgang;
+        this.zustandFaellig = istHost; // Client startet mit dem Zustand des Hosts
+        java.util.Arrays.fill(eingabeTicks, -1);
+    }
+
+    /**
+     * Ob eine Nachricht zum Lockstep gehört
+     * @param nachricht Die empfangene Nachricht
+     */
+    public static boolean istLockstepNachricht(String nachricht) {
+        return nachricht.startsWith("EINGABE:") || nachricht.startsWith("TAKT:")
+            || nachricht.startsWith("PRUEFSUMME:") || nachricht.startsWith("ZUSTAND:");
+    }
+
+    /**
+     * Nimmt eine Nachricht des anderen Spielers entgegen (aus dem Lese-Thread), verarbeitet wird sie im nächsten Tick
+     */
+    public void empfangen(String nachricht) {
+        eingang.add(nachricht);
+    }
+
+    /**
+     * Verteilt einen Tastendruck des lokalen Spielers auf einen zukünftigen Tick und sendet ihn an den Gegner
+     * (aus der Spielschleife, zwischen zwei Aufrufen von schritt())
+     * @param richtung -1 für nach oben, 1 für nach unten
+     */
+    public void eingabe(int richtung) {
+        long zielTick = tick + verzoegerung;
+        while (eingabeTicks[platz(lokalerSpieler, zielTick)] == zielTick) { // ein Tastendruck pro Tick
+            zielTick++;
+        }
+        eingabeSpeichern(lokalerSpieler, zielTick, richtung);
+        ausgang.senden("EINGABE:" + zielTick + "," + richtung);
+    }
+
+    /**
+     * Setzt das Spiel beim nächsten Tick zurück (nur Host, der Client bekommt den neuen Zustand)
+     */
+    public void neustartAnfordern() {
+        neustartFaellig = true;
+    }
+
+    /**
+     * Host: sendet sofort den vollständigen Zustand (z.B. bei Spielende, danach ruht die Spielschleife)
+     */
+    public void zustandSenden() {
+        if (istHost) {
+            zustandVersenden();
+        }
+    }
+
+    /**
+     * Ein Tick der Spielschleife: Nachrichten und Eingaben verarbeiten, ggf. zurückrollen, dann einen Tick rechnen
+     * @return Bitmaske der Ereignisse (wie SpielPhysik.schritt(), zusätzlich EREIGNIS_ZUSTAND)
+     */
+    public int schritt() {
+        int ereignisse = nachrichtenVerarbeiten();
+
+        if (istHost && neustartFaellig) {
+            neustartFaellig = false;
+            physik.neuesSpiel();
+            aeltesterTick = tick; // vor den Neustart darf nicht zurückgerollt werden
+            rollbackAb = Long.MAX_VALUE;
+            zustandFaellig = true;
+        }
+        if (rollbackAb < tick) {
+            nachrechnen(rollbackAb);
+        }
+        rollbackAb = Long.MAX_VALUE;
+        if (zustandFaellig) {
+            zustandVersenden();
+        }
+
+        ereignisse |= tickSimulieren();
+        if (!istHost && hostTakt - tick > AUFHOL_SCHWELLE) { // Client liegt zu weit zurück -> einen Tick nachholen
+            ereignisse |= tickSimulieren();
+        }
+
+        if (istHost && tick % TAKT_INTERVALL == 0) {
+            ausgang.senden("TAKT:" + tick);
+        } else if (!istHost) {
+            pruefsummeMelden();
+        }
+        return ereignisse;
+    }
+
+    /**
+     * Rechnet einen Tick: Zustand sichern, Eingaben anwenden, Ball bewegen, Prüfsumme merken
+     */
+    private int tickSimulieren() {
+        physik.zustandSpeichern(zustaende, (int) (tick % HISTORIE) * SpielPhysik.ZUSTAND_LAENGE);
+        int richtung1 = eingabeLesen(1, tick);
+        int richtung2 = eingabeLesen(2, tick);
+        if (richtung1 != 0) {
+            physik.bewegeSpieler1(richtung1);
+        }
+        if (richtung2 != 0) {
+            physik.bewegeSpieler2(richtung2);
+        }
+        int ereignisse = physik.schritt();
+        pruefsummen.merken(tick, SpielPhysik.pruefsumme(tick, physik.getBallX(), physik.getBallY(),
+            physik.getSpieler1Y(), physik.getSpieler2Y(), physik.getSpieler1Punkte(), physik.getSpieler2Punkte()));
+        tick++;
+        return ereignisse;
+    }
+
+    /**
+     * Rollback: Zustand vor dem Tick 'ab' laden und bis zum aktuellen Tick neu rechnen
+     */
+    private void nachrechnen(long ab) {
+        if (ab < aeltesterTick || tick - ab > HISTORIE) {
+            return; // zu alt, eine Abweichung wird über die Prüfsumme erkannt
+        }
+        long ziel = tick;
+        physik.zustandLaden(zustaende, (int) (ab % HISTORIE) * SpielPhysik.ZUSTAND_LAENGE);
+        tick = ab;
+        while (tick < ziel) {
+            tickSimulieren();
+        }
+    }
+
+    /**
+     * Verarbeitet die Nachrichten des Gegners
+     * @return EREIGNIS_ZUSTAND, wenn ein vollständiger Zustand übernommen wurde, sonst 0
+     */
+    private int nachrichtenVerarbeiten() {
+        int ereignisse = 0;
+        String nachricht;
+        while ((nachricht = eingang.poll()) != null) {
+            int trenner = nachricht.indexOf(':');
+            String[] werte = nachricht.substring(trenner + 1).split(",");
+            try {
+                switch (nachricht.substring(0, trenner)) {
+                    case "EINGABE": // Eingabe des Gegners; liegt der Tick zurück, muss nachgerechnet werden
+                        long eingabeTick = Long.parseLong(werte[0]);
+                        eingabeSpeichern(3 - lokalerSpieler, eingabeTick, Integer.parseInt(werte[1]));
+                        if (eingabeTick < tick) {
+                            rollbackAb = Math.min(rollbackAb, eingabeTick);
+                        }
+                        break;
+                    case "TAKT":
+                        hostTakt = Long.parseLong(werte[0]);
+                        break;
+                    case "PRUEFSUMME": // nur Host: Abweichung beim Client -> vollständigen Zustand senden
+                        long pruefTick = Long.parseLong(werte[0]);
+                        if (pruefTick >= aeltesterTick // Ticks vor einem Neustart sind nicht mehr vergleichbar
+                                && !pruefsummen.stimmtUeberein(pruefTick, Integer.parseInt(werte[1]))) {
+                            System.out.println("Lockstep: Abweichung beim Client in Tick " + werte[0] + ", sende Zustand");
+                            zustandFaellig = true;
+                        }
+                        break;
+                    case "ZUSTAND": // nur Client: Zustand des Hosts übernehmen
+                        zustandUebernehmen(werte);
+                        ereignisse |= EREIGNIS_ZUSTAND;
+                        break;
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                System.out.println("Lockstep: Ungültige Nachricht " + nachricht);
+            }
+        }
+        return ereignisse;
+    }
+
+    /**
+     * Host: sendet Tick und vollständigen Zustand vor diesem Tick
+     */
+    private void zustandVersenden() {
+        zustandFaellig = false;
+        int[] zustand = new int[SpielPhysik.ZUSTAND_LAENGE];
+        physik.zustandSpeichern(zustand, 0);
+        StringBuilder nachricht = new StringBuilder("ZUSTAND:").append(tick);
+        for (int wert : zustand) {
+            nachricht.append(',').append(wert);
+        }
+        ausgang.senden(nachricht.toString());
+    }
+
+    /**
+     * Client: übernimmt den Zustand des Hosts und rechnet ab dessen Tick weiter
+     */
+    private void zustandUebernehmen(String[] werte) {
+        int[] zustand = new int[SpielPhysik.ZUSTAND_LAENGE];
+        for (int i = 0; i < zustand.length; i++) {
+            zustand[i] = Integer.parseInt(werte[i + 1]);
+        }
+        physik.zustandLaden(zustand, 0);
+        tick = Long.parseLong(werte[0]);
+        aeltesterTick = tick;
+        rollbackAb = Long.MAX_VALUE;
+        naechstePruefung = tick;
+    }
+
+    /**
+     * Client: meldet die Prüfsumme des neuesten Ticks, für den alle Eingaben des Hosts bekannt sind
+     */
+    private void pruefsummeMelden() {
+        long bestaetigt = Math.min(hostTakt, tick) - 1;
+        if (bestaetigt < naechstePruefung || bestaetigt < aeltesterTick || tick - bestaetigt > HISTORIE) {
+            return;
+        }
+        ausgang.senden("PRUEFSUMME:" + bestaetigt + "," + pruefsummeVon(bestaetigt));
+        naechstePruefung = bestaetigt + PruefsummenVerlauf.PRUEF_INTERVALL_TICKS;
+    }
+
+    /**
+     * Prüfsumme des Zustands nach einem Tick (aus dem Zustand vor dem Folgetick)
+     */
+    private int pruefsummeVon(long t) {
+        if (t + 1 == tick) {
+            return SpielPhysik.pruefsumme(t, physik.getBallX(), physik.getBallY(), physik.getSpieler1Y(),
+                physik.getSpieler2Y(), physik.getSpieler1Punkte(), physik.getSpieler2Punkte());
+        }
+        int basis = (int) ((t + 1) % HISTORIE) * SpielPhysik.ZUSTAND_LAENGE;
+        return SpielPhysik.pruefsumme(t, zustaende[basis], zustaende[basis + 1], zustaende[basis + 4],
+            zustaende[basis + 5], zustaende[basis + 6], zustaende[basis + 7]);
+    }
+
+    private int platz(int spieler, long t) {
+        return (spieler - 1) * EINGABE_PUFFER + (int) (t & (EINGABE_PUFFER - 1));
+    }
+
+    private void eingabeSpeichern(int spieler, long t, int richtung) {
+        int platz = platz(spieler, t);
+        eingabeTicks[platz] = t;
+        eingaben[platz] = richtung;
+    }
+
+    /**
+     * Eingabe eines Spielers für einen Tick; ohne Eingabe wird "keine Bewegung" angenommen
+     */
+    private int eingabeLesen(int spieler, long t) {
+        int platz = platz(spieler, t);
+        return eingabeTicks[platz] == t ? eingaben[platz] : 0;
+    }
+
+    /**
+     * Nächster zu simulierender Tick
+     */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Die Klasse MehrballBenchmark misst headless, wie die MehrballPhysik mit der Anzahl der Bälle skaliert:
+ * Zeit pro Tick, Ball-Ball-Tests pro Tick (Gitter statt alle Paare) sowie Zeit und Größe eines Snapshots.
+ *
+ * Aufruf: java MehrballBenchmark [anzahl...] (Standard: 10 100 1000 10000 50000)
+ */
+public class MehrballBenchmark {
+    private static final int FELD_BREITE = 800; // Größe des simulierten Spielfelds
+    private static final int FELD_HOEHE = 600;
+    private static final double BELEGUNG = 0.2; // Anteil der Spielfeldfläche, den alle Bälle zusammen bedecken
+    private static final long MESSDAUER_NANOS = 1_000_000_000L; // Messzeit pro Anzahl
+    private static final int AUFWAERM_TICKS = 200;
+
+    public static void main(String[] args) {
+        int[] anzahlen = {10, 100, 1_000, 10_000, 50_000};
+        if (args.length > 0) {
+            anzahlen = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                anzahlen[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println("   Baelle  Groesse   us/Tick   Tests/Tick  AllePaare/Tick  us/Snapshot  Bytes/Snapshot");
+        StringBuilder puffer = new StringBuilder();
+        for (int anzahl : anzahlen) {
+            // Ballgröße so wählen, dass die Dichte für alle Anzahlen vergleichbar bleibt
+            int groesse = (int) Math.max(2, Math.min(SpielPhysik.BALL_GROESSE,
+                Math.sqrt(BELEGUNG * FELD_BREITE * FELD_HOEHE / anzahl)));
+            SpielPhysik physik = new SpielPhysik(FELD_BREITE, FELD_HOEHE);
+            physik.initialisiereModus(SpielModus.MEHRBALL);
+            MehrballPhysik mehrball = new MehrballPhysik(anzahl, groesse, FELD_BREITE, FELD_HOEHE,
+                SpielPhysik.ballGeschwindigkeit(SpielModus.MEHRBALL));
+
+            for (int i = 0; i < AUFWAERM_TICKS; i++) {
+                mehrball.schritt(physik);
+            }
+
+            long pruefungenVorher = mehrball.getPaarPruefungen();
+            long ticks = 0;
+            long start = System.nanoTime();
+            long ende = start + MESSDAUER_NANOS;
+            do {
+                mehrball.schritt(physik);
+                ticks++;
+            } while (System.nanoTime() - ende < 0);
+            double nanosProTick = (double) (System.nanoTime() - start) / ticks;
+            long tests = (mehrball.getPaarPruefungen() - pruefungenVorher) / ticks;
+
+            // Snapshot kodieren (gleiches Format wie im Spiel)
+            long snapshots = 0;
+            start = System.nanoTime();
+            ende = start + MESSDAUER_NANOS / 4;
+            do {
+                puffer.setLength(0);
+                mehrball.kodieren(puffer);
+                snapshots++;
+            } while (System.nanoTime() - ende < 0);
+            double nanosProSnapshot = (double) (System.nanoTime() - start) / snapshots;
+
+            System.out.printf("%9d  %7d  %8.1f  %11d  %14d  %11.1f  %14d%n",
+                anzahl, groesse, nanosProTick / 1e3, tests, (long) anzahl * (anzahl - 1) / 2,
+                nanosProSnapshot / 1e3, puffer.length());
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/**
+ * Die Klasse MehrballPhysik bewegt viele zusätzliche Bälle (Mehrball-Modus und Stresstest).
+ * Die Bälle liegen in primitiven Arrays. Für Ball-Ball- und Ball-Schläger-Kollisionen wird ein gleichmäßiges
+ * Gitter als Vorauswahl (Broadphase) genutzt: jeder Ball wird pro Tick in seine Zelle einsortiert
+ * (Counting Sort) und nur gegen Bälle derselben bzw. benachbarter Zellen geprüft statt gegen alle anderen.
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class MehrballPhysik {
+    private final int anzahl; // Anzahl der Bälle
+    private final int groesse; // Durchmesser der Bälle
+    private final int breite; // Breite des Spielfelds
+    private final int hoehe; // Höhe des Spielfelds
+    private final int geschwindigkeit; // Startgeschwindigkeit der Bälle
+
+    private final int[] x, y, vx, vy; // Position und Geschwindigkeit je Ball
+
+    // Gitter: Zellen sind mindestens so groß wie ein Ball, daher können sich nur Bälle benachbarter Zellen berühren
+    private final int zellenGroesse;
+    private final int spalten;
+    private final int zeilen;
+    private final int[] zelleVonBall; // Zellenindex je Ball
+    private final int[] zellenStart; // Beginn jeder Zelle in 'sortiert' (Länge: Zellen + 1)
+    private final int[] sortiert; // Ballindizes, nach Zellen sortiert
+
+    private int zufall = 0x2545F491; // Zustand des Zufallsgenerators (xorshift), damit keine Objekte entstehen
+    private long paarPruefungen = 0; // Anzahl der Ball-Ball-Tests (für Benchmarks)
+
+    /**
+     * Konstruktor für die MehrballPhysik
+     * @param anzahl Anzahl der Bälle
+     * @param groesse Durchmesser der Bälle
+     * @param breite Breite des Spielfelds
+     * @param hoehe Höhe des Spielfelds
+     * @param geschwindigkeit Startgeschwindigkeit der Bälle in Pixel pro Tick
+     */
+    public MehrballPhysik(int anzahl, int groesse, int breite, int hoehe, int geschwindigkeit) {
+        this.anzahl = anzahl;
+        this.groesse = groesse;
+        this.breite = breite;
+        this.hoehe = hoehe;
+        this.geschwindigkeit = geschwindigkeit;
+        x = new int[anzahl];
+        y = new int[anzahl];
+        vx = new int[anzahl];
+        vy = new int[anzahl];
+
+        zellenGroesse = Math.max(groesse, 4);
+        spalten = breite / zellenGroesse + 1;
+        zeilen = hoehe / zellenGroesse + 1;
+        zelleVonBall = new int[anzahl];
+        zellenStart = new int[spalten * zeilen + 1];
+        sortiert = new int[anzahl];
+
+        alleZuruecksetzen();
+    }
+
+    /**
+     * Verteilt alle Bälle zufällig im mittleren Drittel des Spielfelds
+     */
+    public void alleZuruecksetzen() {
+        for (int i = 0; i < anzahl; i++) {
+            ballZuruecksetzen(i, breite / 3 + zufall(breite / 3), zufall(hoehe - groesse));
+        }
+    }
+
+    /**
+     * Setzt einen Ball an eine Position und gibt ihm eine zufällige Richtung
+     */
+    private void ballZuruecksetzen(int i, int startX, int startY) {
+        x[i] = startX;
+        y[i] = startY;
+        vx[i] = (zufall(2) == 0 ? -1 : 1) * geschwindigkeit;
+        vy[i] = (zufall(2) == 0 ? -1 : 1) * (1 + zufall(geschwindigkeit));
+    }
+
+    /**
+     * Bewegt alle Bälle um einen Tick und prüft Kollisionen mit Wänden, Schlägern und untereinander.
+     * Erreicht ein Ball eine Seitenwand, bekommt der Gegner einen Punkt (wie beim normalen Ball).
+     *
+     * @param physik Die Spielphysik mit den Schlägerpositionen und dem Punktestand
+     * @return SpielPhysik.EREIGNIS_PUNKT, wenn ein Punkt gefallen ist, sonst 0
+     */
+    public int schritt(SpielPhysik physik) {
+        // Bewegung und Kollision mit oberer und unterer Wand
+        for (int i = 0; i < anzahl; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            if (y[i] <= 0) {
+                y[i] = 0;
+                vy[i] = Math.abs(vy[i]);
+            } else if (y[i] >= hoehe - groesse) {
+                y[i] = hoehe - groesse;
+                vy[i] = -Math.abs(vy[i]);
+            }
+        }
+
+        gitterAufbauen();
+        ballKollisionen();
+        return schlaegerUndTore(physik);
+    }
+
+    /**
+     * Sortiert alle Bälle per Counting Sort in ihre Gitterzellen
+     */
+    private void gitterAufbauen() {
+        java.util.Arrays.fill(zellenStart, 0);
+        for (int i = 0; i < anzahl; i++) {
+            int zelle = zelle(spalte(x[i]), zeile(y[i]));
+            zelleVonBall[i] = zelle;
+            zellenStart[zelle + 1]++;
+        }
+        for (int z = 1; z < zellenStart.length; z++) { // Präfixsumme -> Beginn jeder Zelle
+            zellenStart[z] += zellenStart[z - 1];
+        }
+        // Einsortieren: zellenStart[z] dient dabei als Schreibposition und wird danach wiederhergestellt
+        for (int i = 0; i < anzahl; i++) {
+            sortiert[zellenStart[zelleVonBall[i]]++] = i;
+        }
+        for (int z = zellenStart.length - 1; z > 0; z--) {
+            zellenStart[z] = zellenStart[z - 1];
+        }
+        zellenStart[0] = 0;
+    }
+
+    /**
+     * Prüft jeden Ball gegen Bälle derselben Zelle und der Nachbarzellen "vorwärts"
+     * (rechts, unten links, unten, unten rechts), damit jedes Paar nur einmal geprüft wird
+     */
+    private void ballKollisionen() {
+        for (int zy = 0; zy < zeilen; zy++) {
+            for (int zx = 0; zx < spalten; zx++) {
+                int zelle = zelle(zx, zy);
+                int anfang = zellenStart[zelle];
+                int ende = zellenStart[zelle + 1];
+                for (int a = anfang; a < ende; a++) {
+                    int i = sortiert[a];
+                    for (int b = a + 1; b < ende; b++) {
+                        paarPruefen(i, sortiert[b]);
+                    }
+                    zellePruefen(i, zx + 1, zy);
+                    zellePruefen(i, zx - 1, zy + 1);
+                    zellePruefen(i, zx, zy + 1);
+                    zellePruefen(i, zx + 1, zy + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prüft Ball i gegen alle Bälle einer Nachbarzelle
+     */
+    private void zellePruefen(int i, int zx, int zy) {
+        if (zx < 0 || zx >= spalten || zy >= zeilen) {
+            return;
+        }
+        int zelle = zelle(zx, zy);
+        for (int b = zellenStart[zelle]; b < zellenStart[zelle + 1]; b++) {
+            paarPruefen(i, sortiert[b]);
+        }
+    }
+
+    /**
+     * Stoßen zwei Bälle zusammen und bewegen sich aufeinander zu, tauschen sie ihre Geschwindigkeiten
+     * (elastischer Stoß gleich schwerer Bälle)
+     */
+    private void paarPruefen(int i, int j) {
+        paarPruefungen++;
+        int dx = x[j] - x[i];
+        int dy = y[j] - y[i];
+        if (dx * dx + dy * dy >= groesse * groesse) {
+            return;
+        }
+        if (dx * (vx[j] - vx[i]) + dy * (vy[j] - vy[i]) >= 0) {
+            return; // bewegen sich bereits auseinander
+        }
+        int tausch = vx[i];
+        vx[i] = vx[j];
+        vx[j] = tausch;
+        tausch = vy[i];
+        vy[i] = vy[j];
+        vy[j] = tausch;
+    }
+
+    /**
+     * Prüft nur die Bälle in den Randspalten des Gitters gegen Schläger und Seitenwände
+     * @return SpielPhysik.EREIGNIS_PUNKT, wenn ein Punkt gefallen ist, sonst 0
+     */
+    private int schlaegerUndTore(SpielPhysik physik) {
+        int ereignisse = 0;
+        int linkeGrenze = SpielPhysik.SCHLAEGER_ABSTAND + SpielPhysik.SCHLAEGER_BREITE;
+        int rechteGrenze = physik.rechterSchlaegerX() - groesse;
+
+        for (int zx = 0; zx <= spalte(linkeGrenze); zx++) {
+            for (int zy = 0; zy < zeilen; zy++) {
+                int zelle = zelle(zx, zy);
+                for (int b = zellenStart[zelle]; b < zellenStart[zelle + 1]; b++) {
+                    ereignisse |= linkeSeitePruefen(sortiert[b], physik, linkeGrenze);
+                }
+            }
+        }
+        for (int zx = spalte(rechteGrenze); zx < spalten; zx++) {
+            for (int zy = 0; zy < zeilen; zy++) {
+                int zelle = zelle(zx, zy);
+                for (int b = zellenStart[zelle]; b < zellenStart[zelle + 1]; b++) {
+                    ereignisse |= rechteSeitePruefen(sortiert[b], physik, rechteGrenze);
+                }
+            }
+        }
+        return ereignisse;
+    }
+
+    /**
+     * Ballkollision mit Schläger-Links (spieler1) bzw. linker Wand, wie in SpielPhysik
+     */
+    private int linkeSeitePruefen(int i, SpielPhysik physik, int linkeGrenze) {
+        int schlaegerY = physik.getSpieler1Y();
+        if (x[i] <= linkeGrenze && y[i] + groesse >= schlaegerY && y[i] <= schlaegerY + physik.getSchlaegerHoehe()) {
+            vx[i] = Math.abs(vx[i]); // Ball nach rechts bewegen
+        } else if (x[i] <= 0) { // linke Wand berührt
+            physik.punktHinzufuegen(2);
+            ballZuruecksetzen(i, breite / 2 - groesse / 2, zufall(hoehe - groesse));
+            return SpielPhysik.EREIGNIS_PUNKT;
+        }
+        return 0;
+    }
+
+    /**
+     * Ballkollision mit Schläger-Rechts (spieler2) bzw. rechter Wand, wie in SpielPhysik
+     */
+    private int rechteSeitePruefen(int i, SpielPhysik physik, int rechteGrenze) {
+        int schlaegerY = physik.getSpieler2Y();
+        if (x[i] >= rechteGrenze && y[i] + groesse >= schlaegerY && y[i] <= schlaegerY + physik.getSchlaegerHoehe()) {
+            vx[i] = -Math.abs(vx[i]); // Ball nach links bewegen
+        } else if (x[i] >= breite - groesse) { // rechte Wand berührt
+            physik.punktHinzufuegen(1);
+            ballZuruecksetzen(i, breite / 2 - groesse / 2, zufall(hoehe - groesse));
+            return SpielPhysik.EREIGNIS_PUNKT;
+        }
+        return 0;
+    }
+
+    private int spalte(int px) {
+        return Math.min(spalten - 1, Math.max(0, px / zellenGroesse));
+    }
+
+    private int zeile(int py) {
+        return Math.min(zeilen - 1, Math.max(0, py / zellenGroesse));
+    }
+
+    private int zelle(int zx, int zy) {
+        return zy * spalten + zx;
+    }
+
+    /**
+     * Zufallszahl in [0, grenze) per xorshift (erzeugt keine Objekte)
+     */
+    private int zufall(int grenze) {
+        zufall ^= zufall << 13;
+        zufall ^= zufall >>> 17;
+        zufall ^= zufall << 5;
+        return grenze <= 0 ? 0 : (zufall >>> 1) % grenze;
+    }
+
+    /**
+     * Hängt die Ballpositionen an einen Snapshot an (Format: anzahl,x0,y0,x1,y1,...)
+     * @param ziel Wiederverwendeter Puffer für den Snapshot
+     */
+    public void kodieren(StringBuilder ziel) {
+        ziel.append(anzahl);
+        for (int i = 0; i < anzahl; i++) {
+            ziel.append(',').append(x[i]).append(',').append(y[i]);
+        }
+    }
+
+    /**
+     * Übernimmt Ballpositionen aus einem Snapshot (Gegenstück zu kodieren), ohne Zwischen-Strings zu erzeugen
+     * @param text Der Snapshot
+     * @param start Position des ersten Zeichens der Balldaten
+     * @return false, wenn die Anzahl nicht passt oder die Daten fehlerhaft sind
+     */
+    public boolean dekodieren(CharSequence text, int start) {
+        int[] position = {start};
+        if (leseZahl(text, position) != anzahl) {
+            return false;
+        }
+        for (int i = 0; i < anzahl; i++) {
+            x[i] = leseZahl(text, position);
+            y[i] = leseZahl(text, position);
+        }
+        return position[0] >= text.length();
+    }
+
+    /**
+     * Schreibt die Ballpositionen in ein Array (x0, y0, x1, y1, ...), z.B. für eine Wiederholung
+     * @param ziel Array mit mindestens offset + 2 * anzahl Einträgen
+     * @param offset Erster Index im Array
+     */
+    public void positionenSpeichern(int[] ziel, int offset) {
+        for (int i = 0; i < anzahl; i++) {
+            ziel[offset + 2 * i] = x[i];
+            ziel[offset + 2 * i + 1] = y[i];
+        }
+    }
+
+    /**
+     * Übernimmt mit positionenSpeichern() gesicherte Ballpositionen
+     * @param quelle Array mit den Positionen
+     * @param offset Erster Index im Array
+     */
+    public void positionenLaden(int[] quelle, int offset) {
+        for (int i = 0; i < anzahl; i++) {
+            x[i] = quelle[offset + 2 * i];
+            y[i] = quelle[offset + 2 * i + 1];
+        }
+    }
+
+    /**
+     * Anzahl der Werte von zustandSpeichern()
+     */
+    public int zustandLaenge() {
+        return 4 * anzahl + 1;
+    }
+
+    /**
+     * Schreibt den vollständigen Zustand (Positionen, Geschwindigkeiten, Zufallsgenerator) in ein Array,
+     * z.B. für eine SpielSicherung
+     * @param ziel Array mit mindestens offset + zustandLaenge() Einträgen
+     * @param offset Erster Index im Array
+     */
+    public void zustandSpeichern(int[] ziel, int offset) {
+        for (int i = 0; i < anzahl; i++) {
+            ziel[offset + 4 * i] = x[i];
+            ziel[offset + 4 * i + 1] = y[i];
+            ziel[offset + 4 * i + 2] = vx[i];
+            ziel[offset + 4 * i + 3] = vy[i];
+        }
+        ziel[offset + 4 * anzahl] = zufall;
+    }
+
+    /**
+     * Übernimmt einen mit zustandSpeichern() gesicherten Zustand
+     * @param quelle Array mit dem Zustand
+     * @param offset Erster Index im Array
+     */
+    public void zustandLaden(int[] quelle, int offset) {
+        for (int i = 0; i < anzahl; i++) {
+            x[i] = quelle[offset + 4 * i];
+            y[i] = quelle[offset + 4 * i + 1];
+            vx[i] = quelle[offset + 4 * i + 2];
+            vy[i] = quelle[offset + 4 * i + 3];
+        }
+        zufall = quelle[offset + 4 * anzahl];
+    }
+
+    /**
+     * Liest die Anzahl der Bälle am Anfang der Balldaten eines Snapshots
+     */
+    public static int anzahlLesen(CharSequence text, int start) {
+        return leseZahl(text, new int[] {start});
+    }
+
+    /**
+     * Liest eine (ggf. negative) Zahl bis zum nächsten Komma
+     * @param position aktuelle Leseposition, wird hinter das Komma verschoben
+     */
+    private static int leseZahl(CharSequence text, int[] position) {
+        int i = position[0];
+        boolean negativ = i < text.length() && text.charAt(i) == '-';
+        if (negativ) {
+            i++;
+        }
+        int zahl = 0;
+        while (i < text.length() && text.charAt(i) != ',') {
+            char c = text.charAt(i++);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Ungültige Balldaten: " + c);
+            }
+            zahl = zahl * 10 + (c - '0');
+        }
+        position[0] = i + 1; // Komma überspringen
+        return negativ ? -zahl : zahl;
+    }
+
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    public int getGroesse() {
+        return groesse;
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    public long getPaarPruefungen() {
+        return paarPruefungen;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Das Interface NachrichtenEmpfaenger wird von allen Klassen implementiert, die Nachrichten
+ * einer Verbindung verarbeiten (z.B. ein Spiel auf dem dedizierten Server).
+ */
+public interface NachrichtenEmpfaenger {
+    /**
+     * Wird für jede empfangene Zeile aufgerufen (im Lese-Thread der Verbindung)
+     * @param verbindung Die Verbindung, über die die Nachricht kam
+     * @param nachricht Die empfangene Nachricht
+     */
+    void nachrichtEmpfangen(Verbindung verbindung, String nachricht);
+
+    /**
+     * Wird einmalig aufgerufen, wenn die Verbindung beendet wurde
+     * @param verbindung Die getrennte Verbindung
+     */
+    void verbindungGetrennt(Verbindung verbindung);
+}
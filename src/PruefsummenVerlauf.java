@@ -0,0 +1,37 @@
+/**
+ * Die Klasse PruefsummenVerlauf merkt sich die Prüfsummen der letzten Ticks (Ringpuffer), damit eine
+ * Prüfsumme des Clients mit dem Zustand verglichen werden kann, den der Host zu diesem Tick gesendet hat.
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class PruefsummenVerlauf {
+    public static final int PRUEF_INTERVALL_TICKS = 50; // Client meldet seine Prüfsumme höchstens alle 50 Ticks (0,5 s)
+    private static final int LAENGE = 256; // Ticks, die zurückverfolgt werden können (Zweierpotenz)
+
+    private final long[] ticks = new long[LAENGE];
+    private final int[] pruefsummen = new int[LAENGE];
+
+    /**
+     * Konstruktor für den PruefsummenVerlauf
+     */
+    public PruefsummenVerlauf() {
+        java.util.Arrays.fill(ticks, -1);
+    }
+
+    /**
+     * Merkt sich die Prüfsumme eines Ticks
+     */
+    public synchronized void merken(long tick, int pruefsumme) {
+        int index = (int) (tick & (LAENGE - 1));
+        ticks[index] = tick;
+        pruefsummen[index] = pruefsumme;
+    }
+
+    /**
+     * Vergleicht eine empfangene Prüfsumme mit der gespeicherten
+     * @return false nur bei einer echten Abweichung; ist der Tick zu alt oder unbekannt, gilt er als in Ordnung
+     */
+    public synchronized boolean stimmtUeberein(long tick, int pruefsumme) {
+        int index = (int) (tick & (LAENGE - 1));
+        return ticks[index] != tick || pruefsummen[index] == pruefsumme;
+    }
+}
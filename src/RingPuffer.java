@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse RingPuffer ist ein Ringpuffer mit genau einem Schreiber und genau einem Leser in einem (z.B. per
+ * Memory-Mapping geteilten) ByteBuffer. Nachrichten sind Bytes mit vorangestellter Länge (int).
+ * Schreib- und Leseposition sind fortlaufende longs auf eigenen Cache-Lines; der Schreiber veröffentlicht
+ * mit Release-Semantik, der Leser liest mit Acquire-Semantik, es gibt keine Sperren.
+ *
+ * Aufbau ab versatz: [0] Schreibposition | [64] Leseposition | [128] geschlossen | [KOPF..] Daten (kapazitaet Bytes)
+ */
+public class RingPuffer {
+    public static final int KOPF = 192; // Bytes vor den Daten
+    private static final int SCHREIB_POSITION = 0;
+    private static final int LESE_POSITION = 64;
+    private static final int GESCHLOSSEN = 128;
+    // so lange aktiv warten (kurze Latenz), danach schlafen; mit nur einem Kern würde Warten die Gegenseite blockieren
+    private static final int SPIN_RUNDEN = Runtime.getRuntime().availableProcessors() > 1 ? 2_000 : 0;
+    private static final long MAX_SCHLAF_NANOS = 1_000_000L; // längster Schlaf beim Warten
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer puffer;
+    private final int versatz; // Beginn des Ringpuffers im ByteBuffer
+    private final int daten; // Beginn der Daten
+    private final int kapazitaet; // Zweierpotenz
+    private final int maske;
+    private long bekannteLesePosition = 0; // Schreiber: zuletzt gelesene Leseposition (spart Zugriffe auf fremde Cache-Line)
+    private long bekannteSchreibPosition = 0; // Leser: entsprechend
+    private final byte[] laengePuffer = new byte[4]; // nur vom Schreiber benutzt
+
+    /**
+     * Konstruktor für den RingPuffer
+     * @param puffer Gemeinsamer Speicher (direkt, z.B. MappedByteBuffer)
+     * @param versatz Beginn des Ringpuffers (Vielfaches von 64)
+     * @param kapazitaet Größe des Datenbereichs (Zweierpotenz)
+     */
+    public RingPuffer(ByteBuffer puffer, int versatz, int kapazitaet) {
+        if (Integer.bitCount(kapazitaet) != 1 || versatz % 64 != 0) {
+            throw new IllegalArgumentException("Kapazität muss eine Zweierpotenz und der Versatz ein Vielfaches von 64 sein");
+        }
+        this.puffer = puffer;
+        this.versatz = versatz;
+        this.daten = versatz + KOPF;
+        this.kapazitaet = kapazitaet;
+        this.maske = kapazitaet - 1;
+    }
+
+    /**
+     * Gesamtgröße eines Ringpuffers mit Kopf
+     */
+    public static int groesse(int kapazitaet) {
+        return KOPF + kapazitaet;
+    }
+
+    /**
+     * Schreibt eine Nachricht (nur vom Schreiber aufzurufen). Ist nicht genug Platz, wird gewartet.
+     * @return false, wenn der Ringpuffer geschlossen ist
+     * @throws IOException wenn die Nachricht länger als maxNachricht() ist
+     */
+    public boolean schreiben(byte[] nachricht, int laenge) throws IOException {
+        int benoetigt = 4 + laenge;
+        if (laenge > maxNachricht()) {
+            throw new IOException("Nachricht zu lang für den Ringpuffer: " + laenge + " Bytes (höchstens " + maxNachricht() + ")");
+        }
+        long schreibPosition = (long) LONG.get(puffer, versatz + SCHREIB_POSITION); // nur dieser Thread schreibt sie
+        int runde = 0;
+        while (schreibPosition + benoetigt - bekannteLesePosition > kapazitaet) {
+            bekannteLesePosition = (long) LONG.getAcquire(puffer, versatz + LESE_POSITION);
+            if (schreibPosition + benoetigt - bekannteLesePosition <= kapazitaet) {
+                break;
+            }
+            if (istGeschlossen()) {
+                return false;
+            }
+            warten(runde++);
+        }
+        if (istGeschlossen()) {
+            return false;
+        }
+
+        kopieren(schreibPosition, laengeBytes(laenge), 4);
+        kopieren(schreibPosition + 4, nachricht, laenge);
+        LONG.setRelease(puffer, versatz + SCHREIB_POSITION, schreibPosition + benoetigt); // Daten vor der Position sichtbar
+        return true;
+    }
+
+    /**
+     * Größte Nachricht, die in den Ringpuffer passt
+     */
+    public int maxNachricht() {
+        return kapazitaet - 4;
+    }
+
+    /**
+     * Liest die nächste Nachricht (nur vom Leser aufzurufen) und wartet, bis eine vorhanden ist
+     * @param ziel Puffer für die Nachricht, wird bei Bedarf vergrößert
+     * @param maxLaenge Höchstlänge einer Nachricht in Bytes (höchstens maxNachricht())
+     * @return [0] = Länge, oder -1 wenn der Ringpuffer geschlossen und leer ist
+     * @throws IOException wenn die Länge im (geteilten) Speicher ungültig ist
+     * @throws ZeilenLeser.ZeileZuLang wenn die Nachricht länger als maxLaenge ist
+     */
+    public int lesen(byte[][] ziel, int maxLaenge) throws IOException {
+        long lesePosition = (long) LONG.get(puffer, versatz + LESE_POSITION);
+        int runde = 0;
+        while (lesePosition == bekannteSchreibPosition) {
+            bekannteSchreibPosition = (long) LONG.getAcquire(puffer, versatz + SCHREIB_POSITION);
+            if (lesePosition != bekannteSchreibPosition) {
+                break;
+            }
+            if (istGeschlossen()) {
+                // Schreibposition erneut lesen: Nachrichten vor dem Schließen noch zustellen
+                bekannteSchreibPosition = (long) LONG.getAcquire(puffer, versatz + SCHREIB_POSITION);
+                if (lesePosition == bekannteSchreibPosition) {
+                    return -1;
+                }
+                break;
+            }
+            warten(runde++);
+        }
+
+        int laenge = 0;
+        for (int i = 0; i < 4; i++) {
+            laenge |= (puffer.get(daten + (int) ((lesePosition + i) & maske)) & 0xFF) << (8 * i);
+        }
+        // Die Länge kommt aus der geteilten Datei und wird wie eine Zeile vom Socket geprüft
+        if (laenge < 0 || laenge > maxNachricht() || lesePosition + 4 + laenge > bekannteSchreibPosition) {
+            throw new IOException("Ungültige Nachrichtenlänge im Ringpuffer: " + laenge);
+        }
+        if (laenge > maxLaenge) {
+            throw new ZeilenLeser.ZeileZuLang(maxLaenge);
+        }
+        if (ziel[0].length < laenge) {
+            ziel[0] = new byte[Math.max(laenge, ziel[0].length * 2)];
+        }
+        int start = (int) ((lesePosition + 4) & maske);
+        int ersterTeil = Math.min(laenge, kapazitaet - start);
+        puffer.get(daten + start, ziel[0], 0, ersterTeil);
+        puffer.get(daten, ziel[0], ersterTeil, laenge - ersterTeil);
+        LONG.setRelease(puffer, versatz + LESE_POSITION, lesePosition + 4 + laenge); // Platz freigeben
+        return laenge;
+    }
+
+    /**
+     * Markiert den Ringpuffer als geschlossen (beide Seiten dürfen das)
+     */
+    public void schliessen() {
+        LONG.setVolatile(puffer, versatz + GESCHLOSSEN, 1L);
+    }
+
+    public boolean istGeschlossen() {
+        return (long) LONG.getVolatile(puffer, versatz + GESCHLOSSEN) != 0;
+    }
+
+    /**
+     * Kopiert Bytes an eine fortlaufende Position (mit Umbruch am Ende des Datenbereichs)
+     */
+    private void kopieren(long position, byte[] quelle, int laenge) {
+        int start = (int) (position & maske);
+        int ersterTeil = Math.min(laenge, kapazitaet - start);
+        puffer.put(daten + start, quelle, 0, ersterTeil);
+        puffer.put(daten, quelle, ersterTeil, laenge - ersterTeil);
+    }
+
+    /**
+     * Länge als 4 Bytes (Little Endian) im wiederverwendeten Puffer
+     */
+    private byte[] laengeBytes(int laenge) {
+        for (int i = 0; i < 4; i++) {
+            laengePuffer[i] = (byte) (laenge >>> (8 * i));
+        }
+        return laengePuffer;
+    }
+
+    /**
+     * Wartestrategie: erst aktiv warten (Latenz im Sub-Mikrosekundenbereich), dann mit wachsender Dauer schlafen,
+     * damit eine ruhende Verbindung kaum CPU verbraucht
+     */
+    static void warten(int runde) {
+        if (runde < SPIN_RUNDEN) {
+            Thread.onSpinWait();
+        } else if (runde < SPIN_RUNDEN + 100) {
+            Thread.yield();
+        } else {
+            long schlaf = Math.min(MAX_SCHLAF_NANOS, 1_000L << Math.min(20, (runde - SPIN_RUNDEN - 100) / 10));
+            LockSupport.parkNanos(schlaf);
+        }
+    }
+}
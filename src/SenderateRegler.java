@@ -0,0 +1,90 @@
+/**
+ * Die Klasse SenderateRegler bestimmt, wie viele Snapshots pro Sekunde an eine Verbindung gesendet werden.
+ * Sie misst den tatsächlichen Durchsatz sowie wie lange das Schreiben in den Socket blockiert (Gegendruck)
+ * und wie voll die Sende-Warteschlange ist. Bei Stau wird die Rate halbiert, sonst langsam erhöht (AIMD).
+ */
+public class SenderateRegler {
+    private static final long MESS_FENSTER_NANOS = 250_000_000L; // Messwerte werden alle 250ms ausgewertet
+    private static final long STAU_SCHREIBDAUER_NANOS = 2_000_000L; // Schreiben blockiert > 2ms -> Sendepuffer des Sockets ist voll
+    private static final int STAU_WARTESCHLANGE = 4; // So viele wartende Vorrang-Nachrichten gelten als Stau
+
+    private final int minRate; // Untergrenze in Snapshots pro Sekunde
+    private final int maxRate; // Obergrenze in Snapshots pro Sekunde
+    private volatile double rate; // aktuelle Rate in Snapshots pro Sekunde
+
+    private long fensterStart = System.nanoTime();
+    private long bytesImFenster = 0;
+    private long maxSchreibdauerImFenster = 0;
+    private int maxWarteschlangeImFenster = 0;
+    private volatile double durchsatz = 0; // gemessene Bytes pro Sekunde (geglättet)
+
+    /**
+     * Konstruktor für den SenderateRegler
+     * @param minRate Untergrenze in Snapshots pro Sekunde
+     * @param maxRate Obergrenze in Snapshots pro Sekunde (Startwert)
+     */
+    public SenderateRegler(int minRate, int maxRate) {
+        if (minRate < 1 || maxRate < minRate) {
+            throw new IllegalArgumentException("Ungültige Senderate: min=" + minRate + ", max=" + maxRate);
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = maxRate;
+    }
+
+    /**
+     * Liefert den aktuellen Mindestabstand zwischen zwei Snapshots
+     * @return Abstand in Nanosekunden
+     */
+    public long intervallNanos() {
+        return (long) (1_000_000_000L / rate);
+    }
+
+    /**
+     * Meldet einen abgeschlossenen Schreibvorgang (wird vom Sende-Thread aufgerufen)
+     * @param bytes Anzahl geschriebener Bytes
+     * @param schreibdauer Wie lange das Schreiben gedauert hat (Nanosekunden)
+     * @param warteschlange Anzahl der danach noch wartenden Vorrang-Nachrichten
+     * @param jetzt Aktueller Zeitpunkt (System.nanoTime())
+     */
+    public void geschrieben(int bytes, long schreibdauer, int warteschlange, long jetzt) {
+        bytesImFenster += bytes;
+        maxSchreibdauerImFenster = Math.max(maxSchreibdauerImFenster, schreibdauer);
+        maxWarteschlangeImFenster = Math.max(maxWarteschlangeImFenster, warteschlange);
+
+        long dauer = jetzt - fensterStart;
+        if (dauer < MESS_FENSTER_NANOS) {
+            return;
+        }
+
+        // Durchsatz exponentiell glätten, damit einzelne Ausreißer die Rate nicht springen lassen
+        double gemessen = bytesImFenster * 1e9 / dauer;
+        durchsatz = durchsatz == 0 ? gemessen : 0.7 * durchsatz + 0.3 * gemessen;
+
+        boolean stau = maxSchreibdauerImFenster > STAU_SCHREIBDAUER_NANOS || maxWarteschlangeImFenster >= STAU_WARTESCHLANGE;
+        if (stau) {
+            rate = Math.max(minRate, rate / 2); // schnell zurücknehmen
+        } else {
+            rate = Math.min(maxRate, rate + Math.max(1, maxRate / 20.0)); // vorsichtig erhöhen
+        }
+
+        fensterStart = jetzt;
+        bytesImFenster = 0;
+        maxSchreibdauerImFenster = 0;
+        maxWarteschlangeImFenster = 0;
+    }
+
+    /**
+     * Aktuelle Rate in Snapshots pro Sekunde
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Gemessener Durchsatz der Verbindung in Bytes pro Sekunde
+     */
+    public double getDurchsatz() {
+        return durchsatz;
+    }
+}
@@ -0,0 +1,211 @@
+import java.util.Map;
+
+/**
+ * Die Klasse ServerKonfiguration enthält die Einstellungen des dedizierten Servers.
+ * Werte kommen aus Umgebungsvariablen (z.B. PONG_PORT) und können per Kommandozeile (z.B. --port=5000) überschrieben werden.
+ */
+public class ServerKonfiguration {
+    private int port = 5000; // Port auf dem der Server auf Verbindungen lauscht
+    private int tickRate = 100; // Spiel-Ticks pro Sekunde (100 = alle 10ms wie im Host-Modus)
+    private int maxSpiele = 16; // Maximale Anzahl gleichzeitiger Spiele
+    private SpielModus modus = SpielModus.MITTEL; // Spielmodus aller Spiele
+    private int minSenderate = Verbindung.STANDARD_MIN_SENDERATE; // Snapshots pro Sekunde bei schlechter Leitung
+    private int maxSenderate = Verbindung.STANDARD_MAX_SENDERATE; // Snapshots pro Sekunde bei guter Leitung
+    private int laufzeitSekunden = 0; // Server nach dieser Zeit beenden (0 = unbegrenzt, z.B. für AppCDS-Trainingsläufe)
+    private String routerHost = null; // SpielRouter, dem die Last gemeldet wird (null = kein Router)
+    private int routerPort = 0;
+    private int arbeiter = Runtime.getRuntime().availableProcessors(); // Threads, die die Ticks aller Spiele ausführen (siehe TaktRad)
+    private int berichtSekunden = 0; // Last der Arbeiter in diesem Abstand ausgeben (0 = nie)
+    private String sicherung = null; // Verzeichnis für SpielSicherungen (null = Spiele überleben keinen Neustart)
+    private int sicherungSekunden = 5; // Abstand der Sicherungen im laufenden Betrieb (0 = nur beim Beenden)
+    private String ergebnisse = ErgebnisSpeicher.STANDARD_DATEI; // Datei für beendete Spiele (siehe ErgebnisSpeicher)
+
+    /**
+     * Liest die Konfiguration aus Umgebungsvariablen und Kommandozeilenargumenten
+     * @param args Kommandozeilenargumente im Format --name=wert
+     * @param umgebung Umgebungsvariablen (System.getenv())
+     * @return Die fertige Konfiguration
+     * @throws IllegalArgumentException bei unbekannten oder ungültigen Argumenten
+     */
+    public static ServerKonfiguration lesen(String[] args, Map<String, String> umgebung) {
+        ServerKonfiguration konfiguration = new ServerKonfiguration();
+
+        // Umgebungsvariablen zuerst, damit die Kommandozeile sie überschreiben kann
+        String[][] zuordnung = {
+            {"PONG_PORT", "port"},
+            {"PONG_TICKRATE", "tickrate"},
+            {"PONG_MAX_SPIELE", "max-spiele"},
+            {"PONG_MODUS", "modus"},
+            {"PONG_MIN_SENDERATE", "min-senderate"},
+            {"PONG_MAX_SENDERATE", "max-senderate"},
+            {"PONG_LAUFZEIT", "laufzeit"},
+            {"PONG_ROUTER", "router"},
+            {"PONG_ARBEITER", "arbeiter"},
+            {"PONG_BERICHT", "bericht"},
+            {"PONG_SICHERUNG", "sicherung"},
+            {"PONG_SICHERUNG_INTERVALL", "sicherung-intervall"},
+            {"PONG_ERGEBNISSE", "ergebnisse"}
+        };
+        for (String[] eintrag : zuordnung) {
+            String wert = umgebung.get(eintrag[0]);
+            if (wert != null && !wert.isEmpty()) {
+                konfiguration.setzen(eintrag[1], wert);
+            }
+        }
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ungültiges Argument: " + arg + " (erwartet --name=wert)");
+            }
+            int trenner = arg.indexOf('=');
+            konfiguration.setzen(arg.substring(2, trenner), arg.substring(trenner + 1));
+        }
+        if (konfiguration.minSenderate > konfiguration.maxSenderate) {
+            throw new IllegalArgumentException("min-senderate darf nicht größer als max-senderate sein");
+        }
+        return konfiguration;
+    }
+
+    /**
+     * Setzt einen einzelnen Wert anhand seines Namens
+     */
+    private void setzen(String name, String wert) {
+        switch (name) {
+            case "port":
+                port = zahl(name, wert, 0, 65535);
+                break;
+            case "tickrate":
+                tickRate = zahl(name, wert, 1, 1000);
+                break;
+            case "max-spiele":
+                maxSpiele = zahl(name, wert, 1, 100_000);
+                break;
+            case "modus":
+                modus = SpielModus.valueOf(wert.toUpperCase());
+                break;
+            case "min-senderate":
+                minSenderate = zahl(name, wert, 1, 1000);
+                break;
+            case "max-senderate":
+                maxSenderate = zahl(name, wert, 1, 1000);
+                break;
+            case "laufzeit":
+                laufzeitSekunden = zahl(name, wert, 0, Integer.MAX_VALUE);
+                break;
+            case "router": { // host:steuerport
+                int trenner = wert.lastIndexOf(':');
+                if (trenner <= 0) {
+                    throw new IllegalArgumentException("router muss das Format host:port haben: " + wert);
+                }
+                routerHost = wert.substring(0, trenner);
+                routerPort = zahl(name, wert.substring(trenner + 1), 1, 65535);
+                break;
+            }
+            case "arbeiter":
+                arbeiter = zahl(name, wert, 1, 1024);
+                break;
+            case "bericht":
+                berichtSekunden = zahl(name, wert, 0, 86_400);
+                break;
+            case "sicherung":
+                sicherung = wert.isEmpty() ? null : wert;
+                break;
+            case "sicherung-intervall":
+                sicherungSekunden = zahl(name, wert, 0, 86_400);
+                break;
+            case "ergebnisse":
+                if (wert.isEmpty()) {
+                    throw new IllegalArgumentException("ergebnisse darf nicht leer sein");
+                }
+                ergebnisse = wert;
+                break;
+            default:
+                throw new IllegalArgumentException("Unbekannte Einstellung: " + name);
+        }
+    }
+
+    /**
+     * Liest eine ganze Zahl und prüft den erlaubten Bereich
+     */
+    private static int zahl(String name, String wert, int min, int max) {
+        int zahl = Integer.parseInt(wert.trim());
+        if (zahl < min || zahl > max) {
+            throw new IllegalArgumentException(name + " muss zwischen " + min + " und " + max + " liegen: " + wert);
+        }
+        return zahl;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getMaxSpiele() {
+        return maxSpiele;
+    }
+
+    public SpielModus getModus() {
+        return modus;
+    }
+
+    public int getMinSenderate() {
+        return minSenderate;
+    }
+
+    public int getMaxSenderate() {
+        return maxSenderate;
+    }
+
+    public int getLaufzeitSekunden() {
+        return laufzeitSekunden;
+    }
+
+    /**
+     * Host des SpielRouters (null = Server arbeitet allein)
+     */
+    public String getRouterHost() {
+        return routerHost;
+    }
+
+    public int getRouterPort() {
+        return routerPort;
+    }
+
+    public int getArbeiter() {
+        return arbeiter;
+    }
+
+    public int getBerichtSekunden() {
+        return berichtSekunden;
+    }
+
+    /**
+     * Verzeichnis für SpielSicherungen (null = keine Sicherungen)
+     */
+    public String getSicherung() {
+        return sicherung;
+    }
+
+    public int getSicherungSekunden() {
+        return sicherungSekunden;
+    }
+
+    /**
+     * Datei für beendete Spiele und Bestenliste (jeder Server im Cluster eine eigene, siehe starte-cluster.sh)
+     */
+    public String getErgebnisse() {
+        return ergebnisse;
+    }
+
+    @Override
+    public String toString() {
+        return "port=" + port + ", tickrate=" + tickRate + ", max-spiele=" + maxSpiele
+            + ", modus=" + modus + ", senderate=" + minSenderate + "-" + maxSenderate + ", laufzeit=" + laufzeitSekunden
+            + ", arbeiter=" + arbeiter + (routerHost != null ? ", router=" + routerHost + ":" + routerPort : "")
+            + (sicherung != null ? ", sicherung=" + sicherung + " alle " + sicherungSekunden + " s" : "")
+            + ", ergebnisse=" + ergebnisse;
+    }
+}
@@ -0,0 +1,447 @@
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Die Klasse ServerSpiel repräsentiert ein Spiel auf dem dedizierten Server.
+ * Beide Spieler sind Clients; der Server berechnet die Spiellogik und sendet den Spielzustand an beide.
+ * Jeder Spieler bekommt eine geheime Sitzung (SITZUNG:hex); ein aus einer SpielSicherung wiederhergestelltes Spiel
+ * wartet, bis beide Spieler damit zurückgekehrt sind (WIEDER:hex, siehe DedizierterServer).
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class ServerSpiel implements NachrichtenEmpfaenger {
+    private static final long COUNTDOWN_NANOS = 3_000_000_000L; // 3 Sekunden, wie der Countdown beim Fortsetzen im Client
+    private static final SecureRandom SITZUNGEN = new SecureRandom(); // Sitzungen dürfen nicht zu erraten sein
+
+    private final int nummer; // Nummer des Spiels (für Log-Ausgaben)
+    private final DedizierterServer server;
+    private final SpielModus modus;
+    private final SpielPhysik physik = new SpielPhysik(SpielPhysik.STANDARD_BREITE, SpielPhysik.STANDARD_HOEHE);
+    private final MehrballPhysik mehrball; // zusätzliche Bälle im Mehrball-Modus (sonst null)
+    private final StringBuilder snapshotPuffer = new StringBuilder(); // wiederverwendet für Snapshots
+    private final Verbindung[] spieler = new Verbindung[2]; // Index 0 = Spieler 1, Index 1 = Spieler 2
+    private final EingangsSchutz[] schutz = new EingangsSchutz[2]; // Budget je Spieler (nur im jeweiligen Lese-Thread)
+    private final AtomicIntegerArray ausstehend = new AtomicIntegerArray(new int[] {-1, -1}); // zusammengefasste Bewegung je Spieler, -1 = keine
+    private final String[] namen = {"Spieler 1", "Spieler 2"}; // von den Clients per NAME gemeldet
+    private final long[] sitzungen = new long[2]; // Sitzung je Spieler (0 = noch kein Spieler)
+    private final BallwechselZaehler zaehler = new BallwechselZaehler(); // Statistik für das SpielErgebnis
+
+    private SpielStatus status = SpielStatus.WARTEN;
+    private long countdownEnde; // System.nanoTime(), ab dem nach dem Countdown weitergespielt wird
+    private boolean keyframeFaellig = true; // nächster Snapshot muss sicher ankommen (Start, Neustart)
+    private final boolean[] resyncFaellig = new boolean[2]; // nächster Snapshot an diesen Spieler als Keyframe (Abweichung)
+    private long tick = 0; // Nummer des aktuellen Spiel-Ticks, wird im UPDATE mitgesendet
+    private final PruefsummenVerlauf pruefsummen = new PruefsummenVerlauf();
+    private boolean beendet = false;
+    private TaktRad.Takt takt; // periodischer Spiel-Tick
+    private long naechsterTick; // geplanter Zeitpunkt des nächsten Ticks (System.nanoTime(), für die Aufzeichnung)
+    private long periode; // Nanosekunden pro Tick
+
+    /**
+     * Konstruktor für das ServerSpiel
+     * @param nummer Nummer des Spiels
+     * @param server Der Server, der über das Spielende informiert wird
+     * @param modus Der Spielmodus
+     */
+    public ServerSpiel(int nummer, DedizierterServer server, SpielModus modus) {
+        this.nummer = nummer;
+        this.server = server;
+        this.modus = modus;
+        this.mehrball = modus == SpielModus.MEHRBALL
+            ? new MehrballPhysik(Integer.getInteger("pong.mehrball.anzahl", 20), SpielPhysik.BALL_GROESSE,
+                SpielPhysik.STANDARD_BREITE, SpielPhysik.STANDARD_HOEHE, SpielPhysik.ballGeschwindigkeit(modus))
+            : null;
+    }
+
+    /**
+     * Konstruktor für ein aus einer SpielSicherung wiederhergestelltes Spiel. Es tickt erst, wenn beide Spieler mit
+     * ihrer Sitzung zurückgekehrt sind (siehe spielerZurueck).
+     * @param server Der Server, der über das Spielende informiert wird
+     * @param sicherung Der gesicherte Zustand
+     */
+    public ServerSpiel(DedizierterServer server, SpielSicherung sicherung) {
+        this(sicherung.nummer, server, sicherung.modus);
+        physik.initialisiereModus(modus);
+        physik.zustandLaden(sicherung.physik, 0);
+        if (mehrball != null && sicherung.mehrball.length == mehrball.zustandLaenge()) { // sonst neu verteilte Bälle
+            mehrball.zustandLaden(sicherung.mehrball, 0);
+        }
+        zaehler.zustandLaden(sicherung.zaehler);
+        status = sicherung.status;
+        tick = sicherung.tick;
+        for (int i = 0; i < 2; i++) {
+            namen[i] = sicherung.namen[i];
+            sitzungen[i] = sicherung.sitzungen[i];
+        }
+    }
+
+    /**
+     * Fügt einen Spieler hinzu. Sobald beide Spieler da sind, startet das Spiel.
+     * @param verbindung Die Verbindung des neuen Spielers
+     * @param taktgeber Führt die Spiel-Ticks aus
+     * @param tickRate Ticks pro Sekunde
+     * @return true, wenn das Spiel jetzt voll ist
+     */
+    public synchronized boolean spielerHinzufuegen(Verbindung verbindung, TaktRad taktgeber, int tickRate) {
+        int index = spieler[0] == null ? 0 : 1;
+        spieler[index] = verbindung;
+        schutz[index] = new EingangsSchutz(verbindung);
+        long sitzung;
+        do {
+            sitzung = SITZUNGEN.nextLong();
+        } while (sitzung == 0);
+        sitzungen[index] = sitzung;
+        verbindung.uebergeben(this);
+        verbindung.senden("ROLLE:" + (index + 1)); // Client steuert Schläger 1 oder 2
+        verbindung.senden("SITZUNG:" + Long.toHexString(sitzung)); // für die Rückkehr nach einem Serverneustart
+        System.out.println("Spiel " + nummer + ": Spieler " + (index + 1) + " verbunden (" + verbindung.getAdresse() + ")");
+
+        if (spieler[0] == null || spieler[1] == null) {
+            return false;
+        }
+
+        // Beide Spieler verbunden -> Spiel starten
+        physik.initialisiereModus(modus);
+        physik.schlaegerZentrieren();
+        physik.neuesSpiel();
+        zaehler.neuesSpiel();
+        status = SpielStatus.LAEUFT;
+        sendeAnBeide("MODUS:" + modus.name()); // Clients starten das Spiel, sobald sie den Modus erhalten
+        taktStarten(taktgeber, tickRate);
+        return true;
+    }
+
+    /**
+     * Ein Spieler kehrt mit seiner Sitzung in ein wiederhergestelltes Spiel zurück. Sind beide zurück, bekommen sie
+     * den Modus und den vollständigen Zustand; ein laufendes Spiel geht nach dem Countdown weiter, ein pausiertes
+     * bleibt pausiert.
+     * @param verbindung Die neue Verbindung des Spielers
+     * @param sitzung Seine Sitzung (eine der beiden aus der SpielSicherung)
+     * @param taktgeber Führt die Spiel-Ticks aus
+     * @param tickRate Ticks pro Sekunde
+     * @return true, wenn jetzt beide Spieler zurück sind
+     */
+    public synchronized boolean spielerZurueck(Verbindung verbindung, long sitzung, TaktRad taktgeber, int tickRate) {
+        int index = sitzung == sitzungen[0] ? 0 : 1;
+        if (beendet || spieler[index] != null || sitzung != sitzungen[index]) {
+            verbindung.abschliessen("SITZUNG_UNBEKANNT:");
+            return false;
+        }
+        spieler[index] = verbindung;
+        schutz[index] = new EingangsSchutz(verbindung);
+        verbindung.uebergeben(this);
+        verbindung.senden("ROLLE:" + (index + 1));
+        System.out.println("Spiel " + nummer + ": Spieler " + (index + 1) + " zurückgekehrt (" + verbindung.getAdresse() + ")");
+        if (spieler[1 - index] == null) {
+            return false;
+        }
+
+        sendeAnBeide("VERSTECKE_NACHRICHT:"); // Hinweis auf die unterbrochene Verbindung entfernen
+        sendeAnBeide("MODUS:" + modus.name());
+        snapshotBauen();
+        sendeSnapshotAnBeide(true, snapshotPuffer.toString());
+        if (status == SpielStatus.PAUSIERT) {
+            sendeAnBeide("PAUSE_NACHRICHT:Spiel ist pausiert");
+        } else if (status == SpielStatus.LAEUFT || status == SpielStatus.COUNTDOWN) {
+            sendeAnBeide("PAUSE_NACHRICHT:Spiel wird fortgesetzt"); // Clients pausieren, damit FORTSETZEN den Countdown startet
+            status = SpielStatus.COUNTDOWN;
+            countdownEnde = System.nanoTime() + COUNTDOWN_NANOS;
+            sendeAnBeide("FORTSETZEN:");
+        }
+        taktStarten(taktgeber, tickRate);
+        return true;
+    }
+
+    /**
+     * Beendet ein wiederhergestelltes Spiel, wenn nicht beide Spieler rechtzeitig zurückgekehrt sind
+     */
+    public void rueckkehrAbgelaufen() {
+        synchronized (this) {
+            if (takt != null || beendet) { // beide Spieler sind zurück
+                return;
+            }
+        }
+        System.out.println("Spiel " + nummer + ": nicht beide Spieler sind zurückgekehrt");
+        beenden();
+    }
+
+    /**
+     * Meldet den periodischen Spiel-Tick beim Taktgeber an (Sperre des Spiels wird gehalten)
+     */
+    private void taktStarten(TaktRad taktgeber, int tickRate) {
+        if (beendet) { // ein Spieler war schon bei der Übergabe getrennt
+            return;
+        }
+        periode = 1_000_000_000L / tickRate;
+        naechsterTick = System.nanoTime() + periode;
+        takt = taktgeber.periodisch(new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, periode);
+    }
+
+    /**
+     * Ob das Spiel beendet ist (ein Spieler wurde getrennt oder der Server gestoppt)
+     */
+    public synchronized boolean istBeendet() {
+        return beendet;
+    }
+
+    /**
+     * Sichert den Zustand für einen neuen Serverprozess. Hält die Sperre nur zum Kopieren der Werte; das Schreiben
+     * übernimmt der Aufrufer außerhalb des Takts (siehe DedizierterServer).
+     * @return Die Sicherung oder null, wenn das Spiel beendet ist oder noch auf seinen zweiten Spieler wartet
+     */
+    public synchronized SpielSicherung sichern() {
+        if (beendet || sitzungen[0] == 0 || sitzungen[1] == 0) {
+            return null;
+        }
+        int[] physikZustand = new int[SpielPhysik.ZUSTAND_LAENGE];
+        physik.zustandSpeichern(physikZustand, 0);
+        int[] baelle = new int[mehrball != null ? mehrball.zustandLaenge() : 0];
+        if (mehrball != null) {
+            mehrball.zustandSpeichern(baelle, 0);
+        }
+        long[] statistik = new long[BallwechselZaehler.ZUSTAND_LAENGE];
+        zaehler.zustandSpeichern(statistik);
+        return new SpielSicherung(nummer, modus, status, tick, physikZustand, baelle, statistik, namen.clone(), sitzungen.clone());
+    }
+
+    /**
+     * Sitzung eines Spielers (0 = noch kein Spieler)
+     * @param index 0 für Spieler 1, 1 für Spieler 2
+     */
+    public synchronized long getSitzung(int index) {
+        return sitzungen[index];
+    }
+
+    /**
+     * Ein Spiel-Tick: Ball bewegen und Spielzustand an beide Clients senden.
+     * Paketsichtbar, damit die AllokationsPruefung Ticks ohne Taktgeber ausführen kann.
+     */
+    synchronized void tick() {
+        long beginn = System.nanoTime();
+        long verspaetung = beginn - naechsterTick;
+        naechsterTick += periode;
+        if (verspaetung > periode) { // großer Rückstand (Taktgeber überlastet): ab jetzt neu messen
+            naechsterTick = beginn + periode;
+        }
+        Aufzeichnung.Tick tickEreignis = Aufzeichnung.tickBeginnen();
+        // Bewegungen über dem Budget: nur die neueste Position zählt. Übernommen wird sie hier unter der Sperre
+        // des Ticks; nur das Merken im Lese-Thread (nachrichtEmpfangen) kommt ohne Sperre aus.
+        for (int i = 0; i < 2; i++) {
+            if (ausstehend.get(i) >= 0) {
+                physik.setSpielerY(i + 1, ausstehend.getAndSet(i, -1));
+            }
+        }
+        if (status == SpielStatus.COUNTDOWN && System.nanoTime() - countdownEnde >= 0) {
+            status = SpielStatus.LAEUFT; // Countdown nach dem Fortsetzen ist abgelaufen
+        }
+        if (status != SpielStatus.LAEUFT || beendet) {
+            return;
+        }
+
+        tick++;
+        int ereignisse = physik.schritt();
+        zaehler.schritt(ereignisse, physik);
+        if (mehrball != null) {
+            ereignisse |= mehrball.schritt(physik);
+        }
+        boolean keyframe = (ereignisse & SpielPhysik.EREIGNIS_PUNKT) != 0 || keyframeFaellig;
+        keyframeFaellig = false;
+        snapshotBauen();
+        pruefsummen.merken(tick, SpielPhysik.pruefsumme(tick, physik.getBallX(), physik.getBallY(),
+            physik.getSpieler1Y(), physik.getSpieler2Y(), physik.getSpieler1Punkte(), physik.getSpieler2Punkte()));
+        Aufzeichnung.Snapshot snapshotEreignis = Aufzeichnung.snapshotBeginnen();
+        sendeSnapshotAnBeide(keyframe, snapshotPuffer.toString());
+        Aufzeichnung.snapshotBeenden(snapshotEreignis, tick, snapshotPuffer.length() + 1, keyframe);
+
+        if (physik.istSpielVorbei()) {
+            status = SpielStatus.SPIELENDE; // Warten bis ein Spieler mit Enter neu startet
+            SpielErgebnis ergebnis = zaehler.ergebnis(modus, namen[0], namen[1], physik);
+            if (ergebnis != null) {
+                server.ergebnisEintragen(ergebnis);
+            }
+        }
+        boolean ueberlauf = verspaetung > periode / 2 || System.nanoTime() - beginn > periode;
+        server.tickGemessen(ueberlauf);
+        Aufzeichnung.tickBeenden(tickEreignis, tick, verspaetung, ueberlauf);
+    }
+
+    /**
+     * Schreibt den aktuellen Spielzustand als UPDATE-Nachricht in den snapshotPuffer
+     */
+    private void snapshotBauen() {
+        snapshotPuffer.setLength(0);
+        snapshotPuffer.append("UPDATE:").append(physik.getBallX()).append(',').append(physik.getBallY())
+            .append(',').append(physik.getSpieler1Y()).append(',').append(physik.getSpieler2Y())
+            .append(',').append(physik.getSpieler1Punkte()).append(',').append(physik.getSpieler2Punkte())
+            .append(',').append(tick);
+        if (mehrball != null) { // zusätzliche Bälle nach ';' anhängen (siehe MehrballPhysik.kodieren)
+            snapshotPuffer.append(';');
+            mehrball.kodieren(snapshotPuffer);
+        }
+    }
+
+    /**
+     * Aktueller Zustand des Spiels (z.B. SPIELENDE, bis ein Spieler neu startet)
+     */
+    public synchronized SpielStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Verarbeitet eingehende Nachrichten eines Clients (gleiches Protokoll wie beim SpielServer).
+     * Das Budget wird vor der Sperre geprüft: zusammengefasste Bewegungen warten ohne Sperre auf den nächsten Tick.
+     */
+    @Override
+    public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+        Aufzeichnung.Nachricht ereignis = Aufzeichnung.nachrichtBeginnen();
+        int index = verbindung == spieler[0] ? 0 : 1;
+        int pruefung = schutz[index].pruefen(nachricht);
+        if (pruefung == EingangsSchutz.ZUSAMMENFASSEN
+                || pruefung == EingangsSchutz.ERLAUBT && ausstehend.get(index) >= 0 && EingangsSchutz.istBewegung(nachricht)) {
+            int position = EingangsSchutz.position(nachricht);
+            if (position >= 0) {
+                ausstehend.set(index, position); // nicht an einer ausstehenden Bewegung vorbei
+            }
+        } else if (pruefung == EingangsSchutz.ERLAUBT) {
+            nachrichtVerarbeiten(verbindung, nachricht);
+        }
+        Aufzeichnung.nachrichtBeenden(ereignis, nachricht);
+    }
+
+    /**
+     * Zerlegt eine Nachricht eines Clients und führt sie aus (ohne EingangsSchutz).
+     * Paketsichtbar, damit die AllokationsPruefung beliebig oft neu starten kann.
+     */
+    synchronized void nachrichtVerarbeiten(Verbindung verbindung, String nachricht) {
+        int index = verbindung == spieler[0] ? 0 : 1;
+        int andere = 1 - index;
+
+        // VERSTECKE_NACHRICHT wird ignoriert, der Server schickt sie beim Weiterleiten von NEUSTART/FORTSETZEN selbst mit
+        String[] teile = nachricht.split(":");
+        if (teile[0].equals("PING") && teile.length == 2) { // Laufzeitmessung des Clients beantworten
+            sendeAn(index, "PONG:" + teile[1]);
+            return;
+        }
+        if (teile[0].equals("PRUEFSUMME") && teile.length == 2) { // Abweichung -> nur diesem Spieler den vollständigen Zustand senden
+            String[] werte = teile[1].split(",");
+            try {
+                if (!pruefsummen.stimmtUeberein(Long.parseLong(werte[0]), Integer.parseInt(werte[1]))) {
+                    System.out.println("Spiel " + nummer + ": Abweichung bei Spieler " + (index + 1) + " in Tick " + werte[0]);
+                    resyncFaellig[index] = true;
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                resyncFaellig[index] = true;
+            }
+            return;
+        }
+        if (teile[0].equals("RESYNC")) {
+            resyncFaellig[index] = true;
+            return;
+        }
+        if (teile[0].equals("NAME") && teile.length == 2) { // Name für die Ergebnisse
+            namen[index] = SpielErgebnis.nameBereinigen(teile[1]);
+            return;
+        }
+        if (!teile[0].equals("MOVE") || teile.length < 2) {
+            return;
+        }
+
+        int position;
+        try {
+            int komma = teile[1].indexOf(','); // eine angehängte Spur-ID (LatenzSpur) wird hier nicht zurückgeschickt
+            position = Integer.parseInt(komma < 0 ? teile[1] : teile[1].substring(0, komma));
+        } catch (NumberFormatException e) {
+            return; // Ungültige Nachricht ignorieren
+        }
+
+        if (position == -5) { // Pause (Spiel von einem Client pausiert)
+            status = SpielStatus.PAUSIERT;
+            sendeAn(andere, "PAUSE_NACHRICHT:Spieler " + (index + 1) + " hat das Spiel pausiert");
+        } else if (position == -1) { // Neustart
+            physik.neuesSpiel();
+            zaehler.neuesSpiel();
+            if (mehrball != null) {
+                mehrball.alleZuruecksetzen();
+            }
+            status = SpielStatus.LAEUFT;
+            keyframeFaellig = true;
+            sendeAn(andere, "NEUSTART:");
+        } else if (position == -4) { // Fortsetzen
+            if (status == SpielStatus.PAUSIERT) {
+                status = SpielStatus.COUNTDOWN;
+                countdownEnde = System.nanoTime() + COUNTDOWN_NANOS;
+                sendeAn(andere, "FORTSETZEN:");
+            }
+        } else if (position >= 0) { // Normale Bewegung
+            physik.setSpielerY(index + 1, position);
+        }
+    }
+
+    /**
+     * Verlässt ein Spieler das Spiel, wird das Spiel für beide beendet
+     */
+    @Override
+    public void verbindungGetrennt(Verbindung verbindung) {
+        beenden();
+    }
+
+    /**
+     * Beendet das Spiel und schließt beide Verbindungen
+     */
+    public void beenden() {
+        synchronized (this) {
+            if (beendet) {
+                return;
+            }
+            beendet = true;
+            if (takt != null) {
+                takt.abmelden();
+            }
+        }
+        for (Verbindung verbindung : spieler) {
+            if (verbindung != null) {
+                verbindung.schliessen();
+            }
+        }
+        System.out.println("Spiel " + nummer + " beendet");
+        server.spielBeendet(this);
+    }
+
+    /**
+     * Sendet eine Nachricht an einen Spieler
+     */
+    private void sendeAn(int index, String nachricht) {
+        if (spieler[index] == null) {
+            return;
+        }
+        // Bei FORTSETZEN oder NEUSTART auch die Pause-Nachricht entfernen (wie beim SpielServer)
+        if (nachricht.startsWith("FORTSETZEN:") || nachricht.startsWith("NEUSTART:")) {
+            spieler[index].senden("VERSTECKE_NACHRICHT:");
+        }
+        spieler[index].senden(nachricht);
+    }
+
+    /**
+     * Sendet einen Snapshot an beide Spieler (die Verbindungen passen die Rate an ihre Leitung an)
+     */
+    private void sendeSnapshotAnBeide(boolean keyframe, String nachricht) {
+        for (int i = 0; i < spieler.length; i++) {
+            if (spieler[i] != null) {
+                spieler[i].sendeSnapshot(nachricht, keyframe || resyncFaellig[i]);
+                resyncFaellig[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Sendet eine Nachricht an beide Spieler
+     */
+    private void sendeAnBeide(String nachricht) {
+        sendeAn(0, nachricht);
+        sendeAn(1, nachricht);
+    }
+}
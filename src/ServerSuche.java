@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Die Klasse ServerSuche findet Spiele im lokalen Netz per UDP, damit Spieler einen Server aus einer Liste wählen
+ * statt eine IP-Adresse einzutippen. Ein Server (Host, dedizierter Server oder Router) beantwortet Suchanfragen
+ * auf dem Such-Port (-Dpong.suche.port, Standard 5050) mit seinem TCP-Port, Namen und ob er noch Platz hat.
+ *
+ * Die Suche sendet an die Multicast-Gruppe (-Dpong.suche.gruppe, Standard 239.255.80.78) über jedes Netzwerk
+ * einschließlich Loopback, an die Broadcast-Adresse jedes Netzwerks und an 127.0.0.1. Alle Server treten der
+ * Gruppe bei; anders als ein Unicast an 127.0.0.1, den bei mehreren Sockets auf demselben Port nur einer bekommt,
+ * erreicht die Gruppe (mit IP_MULTICAST_LOOP) jeden Server auf diesem Rechner, auch ganz ohne Netzwerk.
+ *
+ * Protokoll (eine Zeile pro Datagramm): PONG_SUCHE:1 und Antwort PONG_SERVER:tcpPort,frei,name
+ *
+ * Aufruf zum Testen: java ServerSuche [millis=1000]
+ */
+public class ServerSuche implements Runnable {
+    public static final int SUCH_PORT = Integer.getInteger("pong.suche.port", 5050);
+    public static final String GRUPPE = System.getProperty("pong.suche.gruppe", "239.255.80.78"); // organisationslokal
+    private static final String ANFRAGE = "PONG_SUCHE:1";
+    private static final String ANTWORT = "PONG_SERVER:";
+    private static final int MAX_DATAGRAMM = 512;
+
+    private final DatagramSocket socket;
+    private final int tcpPort;
+    private final String name;
+    private final Belegung belegung;
+    private volatile boolean aktiv = true;
+
+    /**
+     * Liefert, ob der Server gerade noch Spieler annimmt
+     */
+    public interface Belegung {
+        boolean hatPlatz();
+    }
+
+    /**
+     * Ein gefundener Server
+     */
+    public static class Eintrag {
+        private final String adresse;
+        private final int port;
+        private final String name;
+        private final boolean frei;
+
+        Eintrag(String adresse, int port, String name, boolean frei) {
+            this.adresse = adresse;
+            this.port = port;
+            this.name = name;
+            this.frei = frei;
+        }
+
+        /**
+         * Adresse im Format host:port (so kann sie ins IP-Feld übernommen werden)
+         */
+        public String getZiel() {
+            return adresse + ":" + port;
+        }
+
+        public boolean istFrei() {
+            return frei;
+        }
+
+        boolean istLoopback() {
+            return adresse.startsWith("127.") || adresse.equals("0:0:0:0:0:0:0:1");
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + getZiel() + (frei ? "" : ", voll") + ")";
+        }
+    }
+
+    private ServerSuche(DatagramSocket socket, int tcpPort, String name, Belegung belegung) {
+        this.socket = socket;
+        this.tcpPort = tcpPort;
+        this.name = SpielErgebnis.nameBereinigen(name);
+        this.belegung = belegung;
+    }
+
+    /**
+     * Beantwortet ab jetzt Suchanfragen in einem Daemon-Thread
+     * @param tcpPort Port, auf dem der Server Spieler annimmt
+     * @param name Angezeigter Name des Servers
+     * @param belegung Ob der Server noch Platz hat
+     * @return Die laufende Antwort (zum Stoppen) oder null, wenn der Such-Port nicht geöffnet werden kann
+     */
+    public static ServerSuche antworten(int tcpPort, String name, Belegung belegung) {
+        try {
+            MulticastSocket socket = new MulticastSocket(null);
+            socket.setReuseAddress(true); // mehrere Server auf einem Rechner (Broadcasts und die Gruppe erreichen alle)
+            socket.bind(new InetSocketAddress(SUCH_PORT));
+            InetSocketAddress gruppe = new InetSocketAddress(InetAddress.getByName(GRUPPE), 0);
+            int beigetreten = 0;
+            for (NetworkInterface netzwerk : netzwerke()) {
+                try {
+                    socket.joinGroup(gruppe, netzwerk);
+                    beigetreten++;
+                } catch (IOException e) {
+                    // Netzwerk ohne Multicast -> Broadcast bzw. die anderen Netzwerke reichen
+                }
+            }
+            if (beigetreten == 0) {
+                System.out.println("Server-Suche: keiner Multicast-Gruppe beigetreten, nur Broadcast");
+            }
+            ServerSuche suche = new ServerSuche(socket, tcpPort, name, belegung);
+            Thread thread = new Thread(suche, "ServerSuche");
+            thread.setDaemon(true);
+            thread.start();
+            return suche;
+        } catch (IOException e) {
+            System.out.println("Server ist im LAN nicht auffindbar (UDP-Port " + SUCH_PORT + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Beantwortet Suchanfragen, bis stoppen() aufgerufen wird
+     */
+    @Override
+    public void run() {
+        byte[] puffer = new byte[MAX_DATAGRAMM];
+        while (aktiv) {
+            DatagramPacket paket = new DatagramPacket(puffer, puffer.length);
+            try {
+                socket.receive(paket);
+                String anfrage = new String(paket.getData(), 0, paket.getLength(), StandardCharsets.UTF_8);
+                if (!anfrage.equals(ANFRAGE)) {
+                    continue; // fremde Datagramme ignorieren
+                }
+                byte[] antwort = (ANTWORT + tcpPort + "," + (belegung.hatPlatz() ? 1 : 0) + "," + name)
+                    .getBytes(StandardCharsets.UTF_8);
+                socket.send(new DatagramPacket(antwort, antwort.length, paket.getSocketAddress()));
+            } catch (IOException e) {
+                if (aktiv) {
+                    System.out.println("Fehler bei der Server-Suche: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Beantwortet keine Suchanfragen mehr
+     */
+    public void stoppen() {
+        aktiv = false;
+        socket.close();
+    }
+
+    /**
+     * Sucht Server im lokalen Netz und über Loopback (blockiert für die angegebene Dauer)
+     * @param dauerMillis Wie lange auf Antworten gewartet wird
+     * @return Gefundene Server (ohne doppelte Einträge, in der Reihenfolge der Antworten)
+     * @throws IOException wenn kein UDP-Socket geöffnet werden kann
+     */
+    public static List<Eintrag> suchen(long dauerMillis) throws IOException {
+        Map<String, Eintrag> gefunden = new LinkedHashMap<>();
+        try (MulticastSocket socket = new MulticastSocket()) {
+            socket.setBroadcast(true);
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true); // Server auf diesem Rechner
+            byte[] anfrage = ANFRAGE.getBytes(StandardCharsets.UTF_8);
+            InetAddress gruppe = InetAddress.getByName(GRUPPE);
+            for (NetworkInterface netzwerk : netzwerke()) { // die Gruppe über jedes Netzwerk, auch Loopback
+                try {
+                    socket.setOption(StandardSocketOptions.IP_MULTICAST_IF, netzwerk);
+                    socket.send(new DatagramPacket(anfrage, anfrage.length, gruppe, SUCH_PORT));
+                } catch (IOException e) {
+                    // Netzwerk ohne Multicast -> die anderen Netzwerke und Broadcast reichen
+                }
+            }
+            for (InetAddress ziel : suchAdressen()) {
+                try {
+                    socket.send(new DatagramPacket(anfrage, anfrage.length, ziel, SUCH_PORT));
+                } catch (IOException e) {
+                    // Netzwerk ohne Broadcast oder nicht erreichbar -> die anderen Adressen reichen
+                }
+            }
+
+            byte[] puffer = new byte[MAX_DATAGRAMM];
+            long ende = System.nanoTime() + dauerMillis * 1_000_000L;
+            while (true) {
+                long rest = (ende - System.nanoTime()) / 1_000_000L;
+                if (rest <= 0) {
+                    break;
+                }
+                socket.setSoTimeout((int) rest);
+                DatagramPacket paket = new DatagramPacket(puffer, puffer.length);
+                try {
+                    socket.receive(paket);
+                } catch (SocketTimeoutException e) {
+                    break;
+                }
+                Eintrag eintrag = antwortLesen(paket);
+                if (eintrag != null) {
+                    gefunden.putIfAbsent(eintrag.getZiel(), eintrag);
+                }
+            }
+        }
+        // Ein Server auf diesem Rechner antwortet über das Netzwerk und über Loopback -> nur einmal anzeigen
+        List<Eintrag> liste = new ArrayList<>();
+        for (Eintrag eintrag : gefunden.values()) {
+            if (!eintrag.istLoopback() || !hatDoppel(gefunden.values(), eintrag)) {
+                liste.add(eintrag);
+            }
+        }
+        return liste;
+    }
+
+    /**
+     * Ob derselbe Server (Port und Name) auch unter einer anderen Adresse geantwortet hat
+     */
+    private static boolean hatDoppel(Iterable<Eintrag> eintraege, Eintrag loopback) {
+        for (Eintrag eintrag : eintraege) {
+            if (!eintrag.istLoopback() && eintrag.port == loopback.port && eintrag.name.equals(loopback.name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zerlegt eine Antwort (null, wenn sie nicht zum Protokoll passt)
+     */
+    private static Eintrag antwortLesen(DatagramPacket paket) {
+        String text = new String(paket.getData(), 0, paket.getLength(), StandardCharsets.UTF_8);
+        if (!text.startsWith(ANTWORT)) {
+            return null;
+        }
+        String[] teile = text.substring(ANTWORT.length()).split(",", 3);
+        if (teile.length != 3) {
+            return null;
+        }
+        try {
+            return new Eintrag(paket.getAddress().getHostAddress(), Integer.parseInt(teile[0]), teile[2], teile[1].equals("1"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Alle aktiven Netzwerke mit IPv4-Adresse, einschließlich Loopback
+     */
+    private static List<NetworkInterface> netzwerke() throws SocketException {
+        List<NetworkInterface> liste = new ArrayList<>();
+        Enumeration<NetworkInterface> netzwerke = NetworkInterface.getNetworkInterfaces();
+        while (netzwerke != null && netzwerke.hasMoreElements()) {
+            NetworkInterface netzwerk = netzwerke.nextElement();
+            if (!netzwerk.isUp()) {
+                continue;
+            }
+            for (InterfaceAddress adresse : netzwerk.getInterfaceAddresses()) {
+                if (adresse.getAddress() instanceof Inet4Address) { // die Gruppe ist eine IPv4-Adresse
+                    liste.add(netzwerk);
+                    break;
+                }
+            }
+        }
+        return liste;
+    }
+
+    /**
+     * Broadcast-Adressen aller aktiven Netzwerke, die allgemeine Broadcast-Adresse und Loopback
+     */
+    private static List<InetAddress> suchAdressen() throws SocketException {
+        List<InetAddress> adressen = new ArrayList<>();
+        Enumeration<NetworkInterface> netzwerke = NetworkInterface.getNetworkInterfaces();
+        while (netzwerke != null && netzwerke.hasMoreElements()) {
+            NetworkInterface netzwerk = netzwerke.nextElement();
+            if (!netzwerk.isUp() || netzwerk.isLoopback()) {
+                continue;
+            }
+            for (InterfaceAddress adresse : netzwerk.getInterfaceAddresses()) {
+                if (adresse.getBroadcast() != null && !adressen.contains(adresse.getBroadcast())) {
+                    adressen.add(adresse.getBroadcast());
+                }
+            }
+        }
+        try {
+            adressen.add(InetAddress.getByName("255.255.255.255"));
+        } catch (IOException e) {
+            // kann bei einer festen Adresse nicht passieren
+        }
+        adressen.add(InetAddress.getLoopbackAddress());
+        return adressen;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        List<Eintrag> server = suchen(millis);
+        System.out.println(server.size() + " Server gefunden");
+        for (Eintrag eintrag : server) {
+            System.out.println("  " + eintrag);
+        }
+    }
+}
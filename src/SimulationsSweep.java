@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Die Klasse SimulationsSweep spielt headless sehr viele Bot-gegen-Bot-Spiele parallel
+ * (Fork-Join) und gibt pro Konfiguration (Ballgeschwindigkeit, Schlägergeschwindigkeit,
+ * Schlägerhöhe) die Ballwechsel-Länge und die Siegquote aus.
+ *
+ * Aufruf: java SimulationsSweep [spieleProKonfiguration] [threads]
+ */
+public class SimulationsSweep {
+    private static final int FELD_BREITE = 800; // Größe des simulierten Spielfelds
+    private static final int FELD_HOEHE = 600;
+    private static final int MAX_TICKS_PRO_SPIEL = 60_000; // 10 Minuten Spielzeit, Schutz vor endlosen Ballwechseln
+    private static final int SPIELE_PRO_TEILAUFGABE = 64; // ab dieser Größe wird eine Aufgabe nicht weiter geteilt
+
+    private static final int[] BALL_GESCHWINDIGKEITEN = {2, 3, 4, 5, 6, 7, 8};
+    private static final int[] SCHLAEGER_GESCHWINDIGKEITEN = {5, 10, 15, 20, 25};
+    private static final int[] SCHLAEGER_HOEHEN = {60, 80, 100, 120, 140};
+
+    public static void main(String[] args) {
+        int spieleProKonfiguration = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // Alle Konfigurationen als eigene Aufgaben anlegen, damit sich die Threads per Work-Stealing verteilen
+        List<SpielAufgabe> aufgaben = new ArrayList<>();
+        for (int ball : BALL_GESCHWINDIGKEITEN) {
+            for (int schlaegerGeschwindigkeit : SCHLAEGER_GESCHWINDIGKEITEN) {
+                for (int schlaegerHoehe : SCHLAEGER_HOEHEN) {
+                    Konfiguration konfiguration = new Konfiguration(aufgaben.size(), ball, schlaegerGeschwindigkeit, schlaegerHoehe);
+                    aufgaben.add(new SpielAufgabe(konfiguration, 0, spieleProKonfiguration));
+                }
+            }
+        }
+
+        System.out.println("Simuliere " + aufgaben.size() + " Konfigurationen mit je " + spieleProKonfiguration
+            + " Spielen auf " + threads + " Threads...");
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Statistik> ergebnisse = pool.invoke(new RecursiveTask<List<Statistik>>() {
+            @Override
+            protected List<Statistik> compute() {
+                invokeAll(aufgaben);
+                List<Statistik> liste = new ArrayList<>();
+                for (SpielAufgabe aufgabe : aufgaben) {
+                    liste.add(aufgabe.join());
+                }
+                return liste;
+            }
+        });
+        pool.shutdown();
+
+        double sekunden = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Ball  SchlGeschw  SchlHoehe    Spiele  Sieg-S1%  Ballwechsel(avg)  Ballwechsel(max)  Ticks/Spiel  Abgebrochen");
+        long ticksGesamt = 0;
+        long spieleGesamt = 0;
+        for (int i = 0; i < aufgaben.size(); i++) {
+            Konfiguration k = aufgaben.get(i).konfiguration;
+            Statistik s = ergebnisse.get(i);
+            System.out.printf("%4d  %10d  %9d  %8d  %8.2f  %16.2f  %16d  %11.0f  %11d%n",
+                k.ballGeschwindigkeit, k.schlaegerGeschwindigkeit, k.schlaegerHoehe,
+                s.spiele, 100.0 * s.siegeSpieler1 / Math.max(1, s.spiele - s.abgebrochen),
+                (double) s.trefferGesamt / Math.max(1, s.ballwechsel), s.laengsterBallwechsel,
+                (double) s.ticks / Math.max(1, s.spiele), s.abgebrochen);
+            ticksGesamt += s.ticks;
+            spieleGesamt += s.spiele;
+        }
+        System.out.printf("%d Spiele (%d Ticks) in %.2f s -> %.0f Spiele/s, %.1f Mio. Ticks/s%n",
+            spieleGesamt, ticksGesamt, sekunden, spieleGesamt / sekunden, ticksGesamt / sekunden / 1e6);
+    }
+
+    /**
+     * Eine Parameterkombination des Sweeps
+     */
+    private static class Konfiguration {
+        final int index;
+        final int ballGeschwindigkeit;
+        final int schlaegerGeschwindigkeit;
+        final int schlaegerHoehe;
+
+        Konfiguration(int index, int ballGeschwindigkeit, int schlaegerGeschwindigkeit, int schlaegerHoehe) {
+            this.index = index;
+            this.ballGeschwindigkeit = ballGeschwindigkeit;
+            this.schlaegerGeschwindigkeit = schlaegerGeschwindigkeit;
+            this.schlaegerHoehe = schlaegerHoehe;
+        }
+    }
+
+    /**
+     * Aufsummierte Ergebnisse mehrerer Spiele
+     */
+    private static class Statistik {
+        long spiele;
+        long siegeSpieler1;
+        long abgebrochen; // Spiele, die MAX_TICKS_PRO_SPIEL erreicht haben
+        long ballwechsel;
+        long trefferGesamt;
+        long laengsterBallwechsel;
+        long ticks;
+
+        void hinzufuegen(Statistik andere) {
+            spiele += andere.spiele;
+            siegeSpieler1 += andere.siegeSpieler1;
+            abgebrochen += andere.abgebrochen;
+            ballwechsel += andere.ballwechsel;
+            trefferGesamt += andere.trefferGesamt;
+            laengsterBallwechsel = Math.max(laengsterBallwechsel, andere.laengsterBallwechsel);
+            ticks += andere.ticks;
+        }
+    }
+
+    /**
+     * Spielt die Spiele [von, bis) einer Konfiguration. Große Bereiche werden geteilt (Fork-Join).
+     */
+    private static class SpielAufgabe extends RecursiveTask<Statistik> {
+        private static final long serialVersionUID = 1L;
+        private final Konfiguration konfiguration;
+        private final int von;
+        private final int bis;
+
+        SpielAufgabe(Konfiguration konfiguration, int von, int bis) {
+            this.konfiguration = konfiguration;
+            this.von = von;
+            this.bis = bis;
+        }
+
+        @Override
+        protected Statistik compute() {
+            if (bis - von <= SPIELE_PRO_TEILAUFGABE) {
+                return spieleSpiele();
+            }
+            int mitte = (von + bis) >>> 1;
+            SpielAufgabe links = new SpielAufgabe(konfiguration, von, mitte);
+            links.fork();
+            Statistik ergebnis = new SpielAufgabe(konfiguration, mitte, bis).compute();
+            ergebnis.hinzufuegen(links.join());
+            return ergebnis;
+        }
+
+        /**
+         * Spielt die Spiele dieses Bereichs nacheinander. Der Seed hängt nur von Konfiguration und
+         * Bereich ab, damit die Ergebnisse unabhängig von der Thread-Anzahl reproduzierbar sind.
+         */
+        private Statistik spieleSpiele() {
+            Statistik statistik = new Statistik();
+            SplittableRandom zufall = new SplittableRandom(((long) konfiguration.index << 32) ^ von);
+            SpielPhysik physik = new SpielPhysik(FELD_BREITE, FELD_HOEHE);
+            physik.setSchlaeger(konfiguration.schlaegerHoehe, konfiguration.schlaegerGeschwindigkeit);
+
+            for (int spiel = von; spiel < bis; spiel++) {
+                SpielBot bot1 = new SpielBot(1, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+                SpielBot bot2 = new SpielBot(2, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+                physik.setBallGeschwindigkeit(konfiguration.ballGeschwindigkeit);
+                physik.schlaegerZentrieren();
+                physik.neuesSpiel();
+
+                int ticks = 0;
+                while (!physik.istSpielVorbei() && ticks < MAX_TICKS_PRO_SPIEL) {
+                    bot1.steuere(physik, zufall);
+                    bot2.steuere(physik, zufall);
+                    if ((physik.schritt() & SpielPhysik.EREIGNIS_PUNKT) != 0) {
+                        int treffer = physik.getLetzterBallwechsel();
+                        statistik.ballwechsel++;
+                        statistik.trefferGesamt += treffer;
+                        statistik.laengsterBallwechsel = Math.max(statistik.laengsterBallwechsel, treffer);
+                    }
+                    ticks++;
+                }
+
+                statistik.spiele++;
+                statistik.ticks += ticks;
+                if (!physik.istSpielVorbei()) {
+                    statistik.abgebrochen++;
+                } else if (physik.getSpieler1Punkte() >= SpielPhysik.SIEG_PUNKTE) {
+                    statistik.siegeSpieler1++;
+                }
+            }
+            return statistik;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.Charset;
+
+/**
+ * Die Klasse SocketTransport überträgt Zeilen über eine TCP-Verbindung (Standard, siehe Transport)
+ */
+public class SocketTransport implements Transport {
+    public static final int STANDARD_MAX_ZEILE = Integer.getInteger("pong.zeile.max", 1 << 20); // Bytes, auch große Mehrball-Snapshots passen
+    private final Socket socket;
+    private final Writer out; // zum Senden von Ausgaben an die Gegenseite
+    private final ZeilenLeser in; // zum Empfangen von Eingaben von der Gegenseite
+
+    /**
+     * Konstruktor für den SocketTransport mit der Standard-Höchstlänge für eingehende Zeilen
+     * @param socket Der bereits verbundene Socket
+     * @throws IOException wenn die Streams nicht geöffnet werden können
+     */
+    public SocketTransport(Socket socket) throws IOException {
+        this(socket, STANDARD_MAX_ZEILE);
+    }
+
+    /**
+     * Konstruktor für den SocketTransport
+     * @param socket Der bereits verbundene Socket
+     * @param maxZeile Höchstlänge einer eingehenden Zeile in Bytes (Server: siehe EingangsSchutz.MAX_ZEILE)
+     * @throws IOException wenn die Streams nicht geöffnet werden können
+     */
+    public SocketTransport(Socket socket, int maxZeile) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true); // Kleine Nachrichten sofort senden (keine Verzögerung durch Nagle-Algorithmus)
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+        in = new ZeilenLeser(socket.getInputStream(), Charset.defaultCharset(), maxZeile);
+    }
+
+    @Override
+    public String zeileLesen() throws IOException {
+        return in.zeileLesen(); // liefert null, sobald die Gegenseite die Verbindung geschlossen hat
+    }
+
+    @Override
+    public void zeileSchreiben(String zeile) throws IOException {
+        out.write(zeile);
+        out.write('\n');
+    }
+
+    @Override
+    public void leeren() throws IOException {
+        out.flush(); // blockiert, wenn der Sendepuffer des Sockets voll ist
+    }
+
+    @Override
+    public void schliessen() {
+        try {
+            socket.close(); // schließt auch die Streams und beendet ein blockierendes zeileLesen()
+        } catch (IOException e) {
+            System.out.println("Fehler beim Schließen der Verbindung: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean istGeschlossen() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public String getAdresse() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse SpeicherTransport verbindet Host und Client auf demselben Rechner über eine Datei, die beide
+ * in den Speicher abbilden (siehe Transport). Die Datei enthält zwei RingPuffer (Host -> Client und
+ * Client -> Host) mit jeweils genau einem Schreiber und einem Leser, daher ohne Sperren und ohne Systemaufrufe.
+ *
+ * Aufbau: [0] Kennung | [8] Client verbunden | [64] RingPuffer Host -> Client | danach RingPuffer Client -> Host
+ * Stirbt ein Prozess, ohne zu schließen, trennt der Lese-Timeout der Verbindung (keine Herzschläge mehr).
+ */
+public class SpeicherTransport implements Transport {
+    public static final boolean AKTIV = "shm".equals(System.getProperty("pong.transport")); // Host und Client mit -Dpong.transport=shm
+    // pro Richtung; jede Nachricht bis SocketTransport.STANDARD_MAX_ZEILE passt (z.B. große Mehrball-Snapshots)
+    public static final int RING_KAPAZITAET = Integer.highestOneBit(Math.min(SocketTransport.STANDARD_MAX_ZEILE + 4, 1 << 28)) << 1;
+    private static final long KENNUNG = 0x504F4E4753484D31L; // "PONGSHM1"
+    private static final int KOPF = 64;
+    private static final int KENNUNG_POSITION = 0;
+    private static final int CLIENT_POSITION = 8;
+    private static final long CLIENT_WARTEN_NANOS = 50_000_000L; // Host prüft so oft, ob ein Client da ist
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer puffer;
+    private final RingPuffer eingang; // wird gelesen (nur Lese-Thread)
+    private final RingPuffer ausgang; // wird geschrieben (nur Sende-Thread)
+    private final String name;
+    private final int maxZeile; // Höchstlänge einer eingehenden Nachricht (Host: wie bei Socket-Clients)
+    private volatile boolean geschlossen = false;
+    private final byte[][] lesePuffer = {new byte[256]};
+    private byte[] schreibPuffer = new byte[256];
+
+    private SpeicherTransport(MappedByteBuffer puffer, boolean istHost, String name) {
+        this.puffer = puffer;
+        RingPuffer zumClient = new RingPuffer(puffer, KOPF, RING_KAPAZITAET);
+        RingPuffer zumHost = new RingPuffer(puffer, KOPF + RingPuffer.groesse(RING_KAPAZITAET), RING_KAPAZITAET);
+        this.eingang = istHost ? zumHost : zumClient;
+        this.ausgang = istHost ? zumClient : zumHost;
+        this.name = name;
+        this.maxZeile = Math.min(eingang.maxNachricht(), istHost ? EingangsSchutz.MAX_ZEILE : SocketTransport.STANDARD_MAX_ZEILE);
+    }
+
+    /**
+     * Standard-Datei für einen Port (System-Property pong.shm.datei, sonst im temporären Verzeichnis)
+     */
+    public static Path standardDatei(int port) {
+        String datei = System.getProperty("pong.shm.datei");
+        return datei != null ? Path.of(datei) : Path.of(System.getProperty("java.io.tmpdir"), "pong-" + port + ".shm");
+    }
+
+    /**
+     * Legt die Datei neu an (Host). Ein Client, der noch die alte Datei abgebildet hat, ist davon nicht betroffen.
+     * @param datei Pfad der Datei
+     * @return Der Transport des Hosts, danach warteAufClient() aufrufen
+     * @throws IOException wenn die Datei nicht angelegt werden kann
+     */
+    public static SpeicherTransport anbieten(Path datei) throws IOException {
+        Files.deleteIfExists(datei);
+        MappedByteBuffer puffer;
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0, dateiGroesse()); // neue Datei ist mit Nullen gefüllt
+        }
+        LONG.setRelease(puffer, KENNUNG_POSITION, KENNUNG); // erst jetzt dürfen sich Clients verbinden
+        return new SpeicherTransport(puffer, true, "shm:" + datei);
+    }
+
+    /**
+     * Verbindet sich mit der Datei eines Hosts (Client). Es kann sich nur ein Client verbinden.
+     * @param datei Pfad der Datei
+     * @return Der Transport des Clients
+     * @throws IOException wenn die Datei fehlt, ungültig ist oder schon ein Client verbunden ist
+     */
+    public static SpeicherTransport verbinden(Path datei) throws IOException {
+        MappedByteBuffer puffer;
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (kanal.size() != dateiGroesse()) {
+                throw new IOException("Ungültige Datei für den Speicher-Transport: " + datei);
+            }
+            puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0, dateiGroesse());
+        }
+        if ((long) LONG.getAcquire(puffer, KENNUNG_POSITION) != KENNUNG) {
+            throw new IOException("Host ist noch nicht bereit: " + datei);
+        }
+        if (!LONG.compareAndSet(puffer, CLIENT_POSITION, 0L, 1L)) {
+            throw new IOException("Es ist bereits ein Client verbunden: " + datei);
+        }
+        return new SpeicherTransport(puffer, false, "shm:" + datei);
+    }
+
+    private static int dateiGroesse() {
+        return KOPF + 2 * RingPuffer.groesse(RING_KAPAZITAET);
+    }
+
+    /**
+     * Wartet, bis sich ein Client verbunden hat (Host)
+     * @return false, wenn der Transport vorher geschlossen wurde
+     */
+    public boolean warteAufClient() {
+        while (!geschlossen) {
+            if ((long) LONG.getAcquire(puffer, CLIENT_POSITION) != 0) {
+                return true;
+            }
+            LockSupport.parkNanos(CLIENT_WARTEN_NANOS);
+        }
+        return false;
+    }
+
+    @Override
+    public String zeileLesen() throws IOException {
+        int laenge = eingang.lesen(lesePuffer, maxZeile);
+        if (laenge < 0) {
+            if (geschlossen) {
+                throw new IOException("Transport geschlossen");
+            }
+            return null; // Gegenseite hat geschlossen
+        }
+        return new String(lesePuffer[0], 0, laenge, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void zeileSchreiben(String zeile) throws IOException {
+        int laenge = zeile.length();
+        byte[] bytes = schreibPuffer;
+        if (bytes.length < laenge) {
+            bytes = schreibPuffer = new byte[Math.max(laenge, bytes.length * 2)];
+        }
+        for (int i = 0; i < laenge; i++) { // Nachrichten sind fast immer ASCII, dann ohne Zwischenobjekte
+            char c = zeile.charAt(i);
+            if (c >= 0x80) {
+                bytes = zeile.getBytes(StandardCharsets.UTF_8);
+                laenge = bytes.length;
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        if (!ausgang.schreiben(bytes, laenge)) {
+            throw new IOException("Transport geschlossen");
+        }
+    }
+
+    @Override
+    public void leeren() {
+        // Nachrichten sind nach zeileSchreiben() sofort sichtbar
+    }
+
+    @Override
+    public void schliessen() {
+        geschlossen = true;
+        ausgang.schliessen(); // Gegenseite liest EOF, sobald sie alles gelesen hat
+        eingang.schliessen(); // eigenes zeileLesen() beenden, Gegenseite kann nicht mehr schreiben
+    }
+
+    @Override
+    public boolean istGeschlossen() {
+        return geschlossen;
+    }
+
+    @Override
+    public String getAdresse() {
+        return name;
+    }
+}
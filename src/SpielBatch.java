@@ -0,0 +1,321 @@
+/**
+ * Die Klasse SpielBatch simuliert viele voneinander unabhängige Spiele gleichzeitig (z.B. für Training und Analysen).
+ * Der Zustand liegt spaltenweise in primitiven Arrays (ein Array pro Größe, ein Index pro Spiel), damit ein Tick
+ * aller Spiele aus kurzen, gleichförmigen Schleifen besteht.
+ * Ist das Modul jdk.incubator.vector vorhanden (java --add-modules jdk.incubator.vector) und SpielBatchVektor
+ * übersetzt, rechnet dieser Kern mit SIMD-Lanes; sonst laufen die skalaren Schleifen unten.
+ * Die Ergebnisse sind identisch mit SpielPhysik (gleiche Reihenfolge der Prüfungen wie in kollisionPruefen()).
+ * Alle Spiele haben dieselbe Spielfeldgröße, Schlägerhöhe und Schlägergeschwindigkeit.
+ */
+public class SpielBatch {
+    /**
+     * Rechenkern für einen Tick der Spiele [von, bis) (siehe SpielBatchVektor)
+     */
+    interface Kern {
+        void schritt(SpielBatch batch, int von, int bis);
+    }
+
+    private static final Kern VEKTOR_KERN = vektorKernLaden(); // null = Modul fehlt
+
+    private final int anzahl; // Anzahl der Spiele
+    private final int breite; // Breite des Spielfelds
+    private final int hoehe; // Höhe des Spielfelds
+    private final int schlaegerHoehe;
+    private final int schlaegerGeschwindigkeit;
+    private Kern kern = VEKTOR_KERN; // null = skalare Schleifen
+
+    // Paketsichtbar, damit SpielBatchVektor direkt auf den Arrays rechnet
+    final int[] ballX, ballY; // Ballposition je Spiel
+    final int[] ballXGeschwindigkeit, ballYGeschwindigkeit; // Ballgeschwindigkeit je Spiel
+    private final int[] spieler1Y, spieler2Y; // Schlägerpositionen je Spiel
+    private final int[] spieler1Punkte, spieler2Punkte; // Punktestand je Spiel
+    private final int[] ballwechselTreffer; // Schlägertreffer im aktuellen Ballwechsel
+    private final int[] letzterBallwechsel; // Schlägertreffer des zuletzt beendeten Ballwechsels
+    final int[] ereignisse; // Ereignisse des letzten Ticks (Bitmaske wie SpielPhysik.schritt())
+
+    /**
+     * Konstruktor für den SpielBatch
+     * @param anzahl Anzahl der Spiele
+     * @param breite Breite des Spielfelds
+     * @param hoehe Höhe des Spielfelds
+     * @param schlaegerHoehe Höhe der Schläger
+     * @param schlaegerGeschwindigkeit Pixel pro Schlägerbewegung
+     */
+    public SpielBatch(int anzahl, int breite, int hoehe, int schlaegerHoehe, int schlaegerGeschwindigkeit) {
+        this.anzahl = anzahl;
+        this.breite = breite;
+        this.hoehe = hoehe;
+        this.schlaegerHoehe = schlaegerHoehe;
+        this.schlaegerGeschwindigkeit = schlaegerGeschwindigkeit;
+        ballX = new int[anzahl];
+        ballY = new int[anzahl];
+        ballXGeschwindigkeit = new int[anzahl];
+        ballYGeschwindigkeit = new int[anzahl];
+        spieler1Y = new int[anzahl];
+        spieler2Y = new int[anzahl];
+        spieler1Punkte = new int[anzahl];
+        spieler2Punkte = new int[anzahl];
+        ballwechselTreffer = new int[anzahl];
+        letzterBallwechsel = new int[anzahl];
+        ereignisse = new int[anzahl];
+    }
+
+    /**
+     * Startet ein neues Spiel (entspricht setBallGeschwindigkeit, schlaegerZentrieren und neuesSpiel der SpielPhysik)
+     * @param i Index des Spiels
+     * @param ballGeschwindigkeit Ballgeschwindigkeit in Pixel pro Tick
+     */
+    public void neuesSpiel(int i, int ballGeschwindigkeit) {
+        ballXGeschwindigkeit[i] = ballGeschwindigkeit;
+        ballYGeschwindigkeit[i] = ballGeschwindigkeit;
+        spieler1Y[i] = hoehe / 2 - schlaegerHoehe / 2;
+        spieler2Y[i] = hoehe / 2 - schlaegerHoehe / 2;
+        spieler1Punkte[i] = 0;
+        spieler2Punkte[i] = 0;
+        ballwechselTreffer[i] = 0;
+        letzterBallwechsel[i] = 0;
+        ereignisse[i] = 0;
+        ballZuruecksetzen(i);
+    }
+
+    /**
+     * Bewegt alle Spiele um einen Tick
+     */
+    public void schritt() {
+        schritt(0, anzahl);
+    }
+
+    /**
+     * Bewegt die Spiele [von, bis) um einen Tick (mit dem Vektor-Kern, falls verwendet).
+     * Spiele, deren Sieger feststeht, laufen wie in SpielPhysik weiter; der Aufrufer entscheidet, ob er sie neu startet.
+     */
+    public void schritt(int von, int bis) {
+        if (kern != null) {
+            kern.schritt(this, von, bis);
+        } else {
+            skalarerSchritt(von, bis);
+        }
+    }
+
+    /**
+     * Skalarer Kern für die Spiele [von, bis). Die Arbeit ist in Durchläufe aufgeteilt:
+     * Bewegung und Wände sind reine Array-Arithmetik ohne Verzweigungen,
+     * Schläger und Punkte werden danach nur für Spiele mit dem Ball am Rand geprüft.
+     * Der Vektor-Kern rechnet hiermit den Rest, der keine volle Lane-Breite mehr füllt.
+     */
+    void skalarerSchritt(int von, int bis) {
+        int untereWand = getUntereWand();
+        int linkerRand = getLinkerRand();
+        int rechterRand = getRechterRand();
+
+        // Durchlauf 1: Bewegung
+        for (int i = von; i < bis; i++) {
+            ballX[i] += ballXGeschwindigkeit[i];
+            ballY[i] += ballYGeschwindigkeit[i];
+        }
+
+        // Durchlauf 2: Kollision mit oberer und unterer Wand
+        for (int i = von; i < bis; i++) {
+            int y = ballY[i];
+            int wand = y <= 0 || y >= untereWand ? 1 : 0;
+            ballYGeschwindigkeit[i] = ballYGeschwindigkeit[i] * (1 - 2 * wand); // Richtung umkehren
+            ereignisse[i] = wand * SpielPhysik.EREIGNIS_WAND;
+        }
+
+        // Durchlauf 3: Schläger und Seitenwände (seltene Fälle, daher pro Spiel)
+        for (int i = von; i < bis; i++) {
+            int x = ballX[i];
+            if (x <= linkerRand || x >= rechterRand) {
+                schlaegerPruefen(i);
+            }
+        }
+    }
+
+    /**
+     * Ball berührt bei y &lt;= 0 oder y &gt;= diesem Wert eine Wand
+     */
+    int getUntereWand() {
+        return hoehe - SpielPhysik.BALL_GROESSE;
+    }
+
+    /**
+     * Größte x-Position, bei der der linke Schläger oder die linke Wand getroffen werden kann
+     */
+    int getLinkerRand() {
+        return SpielPhysik.SCHLAEGER_ABSTAND + SpielPhysik.SCHLAEGER_BREITE;
+    }
+
+    /**
+     * Kleinste x-Position, bei der der rechte Schläger oder die rechte Wand getroffen werden kann
+     */
+    int getRechterRand() {
+        return Math.min(rechterSchlaegerX(), breite) - SpielPhysik.BALL_GROESSE;
+    }
+
+    /**
+     * Schlägerkollisionen und Punkte eines Spiels, in derselben Reihenfolge wie SpielPhysik.kollisionPruefen()
+     */
+    void schlaegerPruefen(int i) {
+        int x = ballX[i];
+        int y = ballY[i];
+
+        // Ballkollision mit Schläger-Links (spieler1)
+        if (x <= SpielPhysik.SCHLAEGER_ABSTAND + SpielPhysik.SCHLAEGER_BREITE
+                && y + SpielPhysik.BALL_GROESSE >= spieler1Y[i] && y <= spieler1Y[i] + schlaegerHoehe) {
+            if (ballXGeschwindigkeit[i] < 0) { // Nur echte Richtungswechsel als Treffer zählen
+                ballwechselTreffer[i]++;
+                ereignisse[i] |= SpielPhysik.EREIGNIS_SCHLAEGER;
+            }
+            ballXGeschwindigkeit[i] = Math.abs(ballXGeschwindigkeit[i]);
+        } else if (x <= 0) { // linke Wand berührt
+            spieler2Punkte[i]++;
+            ballwechselBeenden(i);
+        }
+
+        // Position neu lesen, der Ball wurde ggf. zurückgesetzt
+        x = ballX[i];
+        y = ballY[i];
+
+        // Ballkollision mit Schläger-Rechts (spieler2)
+        if (x + SpielPhysik.BALL_GROESSE >= rechterSchlaegerX()
+                && y + SpielPhysik.BALL_GROESSE >= spieler2Y[i] && y <= spieler2Y[i] + schlaegerHoehe) {
+            if (ballXGeschwindigkeit[i] > 0) {
+                ballwechselTreffer[i]++;
+                ereignisse[i] |= SpielPhysik.EREIGNIS_SCHLAEGER;
+            }
+            ballXGeschwindigkeit[i] = -Math.abs(ballXGeschwindigkeit[i]);
+        } else if (x >= breite - SpielPhysik.BALL_GROESSE) { // rechte Wand berührt
+            spieler1Punkte[i]++;
+            ballwechselBeenden(i);
+        }
+    }
+
+    /**
+     * Merkt sich die Länge des beendeten Ballwechsels und setzt den Ball zurück
+     */
+    private void ballwechselBeenden(int i) {
+        letzterBallwechsel[i] = ballwechselTreffer[i];
+        ballwechselTreffer[i] = 0;
+        ereignisse[i] |= SpielPhysik.EREIGNIS_PUNKT;
+        ballZuruecksetzen(i);
+    }
+
+    /**
+     * Setzt den Ball eines Spiels zurück (wie SpielPhysik.ballZuruecksetzen())
+     */
+    private void ballZuruecksetzen(int i) {
+        ballX[i] = breite / 2 - SpielPhysik.BALL_GROESSE / 2;
+        ballY[i] = hoehe / 2 - SpielPhysik.BALL_GROESSE / 2;
+        ballXGeschwindigkeit[i] = Math.abs(ballXGeschwindigkeit[i]) * (spieler1Punkte[i] > spieler2Punkte[i] ? -1 : 1);
+        ballYGeschwindigkeit[i] = Math.abs(ballYGeschwindigkeit[i]);
+    }
+
+    /**
+     * Berechnet die x-Koordinate des rechten Schlägers auf Basis der Spielfeldbreite
+     */
+    public int rechterSchlaegerX() {
+        return breite - SpielPhysik.SCHLAEGER_ABSTAND - SpielPhysik.SCHLAEGER_BREITE;
+    }
+
+    /**
+     * Bewegt einen Schläger um einen Schritt (wie SpielPhysik.bewegeSpieler1/2)
+     * @param i Index des Spiels
+     * @param spieler 1 oder 2
+     * @param richtung -1 für nach oben, 1 für nach unten, 0 für keine Bewegung
+     */
+    public void bewegeSpieler(int i, int spieler, int richtung) {
+        int[] schlaeger = spieler == 1 ? spieler1Y : spieler2Y;
+        int y = schlaeger[i] + richtung * schlaegerGeschwindigkeit;
+        schlaeger[i] = Math.max(0, Math.min(hoehe - schlaegerHoehe, y));
+    }
+
+    /**
+     * Wählt zwischen Vektor-Kern und skalaren Schleifen (z.B. zum Vergleichen im SpielBatchBenchmark)
+     * @param verwenden ob der Vektor-Kern verwendet werden soll
+     * @return ob der Vektor-Kern jetzt verwendet wird (false, wenn das Modul fehlt)
+     */
+    public boolean vektorKernVerwenden(boolean verwenden) {
+        kern = verwenden ? VEKTOR_KERN : null;
+        return kern != null;
+    }
+
+    /**
+     * Ob der Vektor-Kern verfügbar ist (Modul jdk.incubator.vector geladen und SpielBatchVektor übersetzt)
+     */
+    public static boolean istVektorKernVerfuegbar() {
+        return VEKTOR_KERN != null;
+    }
+
+    /**
+     * Lädt SpielBatchVektor per Reflection, damit SpielBatch auch ohne das Modul jdk.incubator.vector läuft
+     */
+    private static Kern vektorKernLaden() {
+        try {
+            return (Kern) Class.forName("SpielBatchVektor").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // Modul nicht geladen oder Klasse nicht übersetzt -> skalare Schleifen
+        }
+    }
+
+    /**
+     * Ob in einem Spiel ein Spieler die nötigen Punkte zum Sieg erreicht hat
+     */
+    public boolean istSpielVorbei(int i) {
+        return spieler1Punkte[i] >= SpielPhysik.SIEG_PUNKTE || spieler2Punkte[i] >= SpielPhysik.SIEG_PUNKTE;
+    }
+
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    public int getHoehe() {
+        return hoehe;
+    }
+
+    public int getSchlaegerHoehe() {
+        return schlaegerHoehe;
+    }
+
+    public int getBallX(int i) {
+        return ballX[i];
+    }
+
+    public int getBallY(int i) {
+        return ballY[i];
+    }
+
+    public int getBallXGeschwindigkeit(int i) {
+        return ballXGeschwindigkeit[i];
+    }
+
+    public int getBallYGeschwindigkeit(int i) {
+        return ballYGeschwindigkeit[i];
+    }
+
+    public int getSpieler1Y(int i) {
+        return spieler1Y[i];
+    }
+
+    public int getSpieler2Y(int i) {
+        return spieler2Y[i];
+    }
+
+    public int getSpieler1Punkte(int i) {
+        return spieler1Punkte[i];
+    }
+
+    public int getSpieler2Punkte(int i) {
+        return spieler2Punkte[i];
+    }
+
+    public int getLetzterBallwechsel(int i) {
+        return letzterBallwechsel[i];
+    }
+
+    /**
+     * Ereignisse des letzten Ticks eines Spiels (Bitmaske wie SpielPhysik.schritt())
+     */
+    public int getEreignisse(int i) {
+        return ereignisse[i];
+    }
+}
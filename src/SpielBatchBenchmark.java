@@ -0,0 +1,214 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Die Klasse SpielBatchBenchmark prüft zuerst, dass SpielBatch mit beiden Kernen (skalar und, falls vorhanden,
+ * SpielBatchVektor) exakt dieselben Ergebnisse liefert wie SpielPhysik, und misst danach den Durchsatz
+ * in Spiel-Ticks pro Sekunde für SpielPhysik und die Kerne.
+ *
+ * Aufruf: java [--add-modules jdk.incubator.vector] SpielBatchBenchmark [spiele=8192] [ticks=20000] [threads]
+ */
+public class SpielBatchBenchmark {
+    private static final int FELD_BREITE = 800; // Größe des simulierten Spielfelds
+    private static final int FELD_HOEHE = 600;
+    private static final int VERGLEICH_SPIELE = 256; // Spiele für den Vergleich mit SpielPhysik
+    private static final int VERGLEICH_TICKS = 50_000;
+    private static final int TICKS_PRO_BLOCK = 1_000; // nach so vielen Ticks werden beendete Spiele neu gestartet
+    private static final int AUFWAERM_TICKS = 10_000; // der Vektor-Kern ist erst nach der C2-Kompilierung schnell
+
+    /**
+     * Simuliert die Spiele [von, bis) für eine Anzahl an Ticks (ein Teil der Messung)
+     */
+    private interface Simulation {
+        void simulieren(int von, int bis, int ticks);
+    }
+
+    public static void main(String[] args) {
+        int spiele = args.length > 0 ? Integer.parseInt(args[0]) : 8_192;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        if (!vergleichen(false)) {
+            System.exit(1);
+        }
+        if (!SpielBatch.istVektorKernVerfuegbar()) {
+            System.out.println("Vektor-Kern nicht verfügbar (java --add-modules jdk.incubator.vector, SpielBatchVektor übersetzt?)");
+        } else if (!vergleichen(true)) {
+            System.exit(1);
+        }
+
+        SplittableRandom zufall = new SplittableRandom(42);
+        int[] geschwindigkeiten = new int[spiele];
+        for (int i = 0; i < spiele; i++) {
+            geschwindigkeiten[i] = 2 + zufall.nextInt(7);
+        }
+
+        final SpielPhysik[] referenz = new SpielPhysik[spiele];
+        for (int i = 0; i < spiele; i++) {
+            referenz[i] = new SpielPhysik(FELD_BREITE, FELD_HOEHE);
+            referenz[i].setBallGeschwindigkeit(geschwindigkeiten[i]);
+            referenz[i].schlaegerZentrieren();
+            referenz[i].neuesSpiel();
+        }
+        messen("SpielPhysik", spiele, ticks, threads, new Simulation() {
+            @Override
+            public void simulieren(int von, int bis, int anzahlTicks) {
+                SpielBatchBenchmark.simulieren(referenz, von, bis, anzahlTicks);
+            }
+        });
+
+        for (boolean vektor : new boolean[] {false, true}) {
+            final SpielBatch batch = new SpielBatch(spiele, FELD_BREITE, FELD_HOEHE,
+                SpielPhysik.STANDARD_SCHLAEGER_HOEHE, SpielPhysik.STANDARD_SCHLAEGER_GESCHWINDIGKEIT);
+            if (batch.vektorKernVerwenden(vektor) != vektor) {
+                continue; // Vektor-Kern nicht verfügbar
+            }
+            for (int i = 0; i < spiele; i++) {
+                batch.neuesSpiel(i, geschwindigkeiten[i]);
+            }
+            messen(vektor ? "SpielBatch (Vektor)" : "SpielBatch (skalar)", spiele, ticks, threads, new Simulation() {
+                @Override
+                public void simulieren(int von, int bis, int anzahlTicks) {
+                    SpielBatchBenchmark.simulieren(batch, von, bis, anzahlTicks);
+                }
+            });
+        }
+    }
+
+    /**
+     * Misst den Durchsatz einer Simulation, die Spiele werden gleichmäßig auf die Threads verteilt
+     */
+    private static void messen(String name, int spiele, int ticks, int threads, Simulation simulation) {
+        // Aufwärmen, damit die JIT-Kompilierung nicht mitgemessen wird
+        simulation.simulieren(0, spiele, AUFWAERM_TICKS);
+
+        System.out.println(name + ": simuliere " + spiele + " Spiele x " + ticks + " Ticks auf " + threads + " Threads...");
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<RecursiveAction> aufgaben = new ArrayList<>();
+        int proThread = (spiele + threads - 1) / threads;
+        for (int von = 0; von < spiele; von += proThread) {
+            final int anfang = von;
+            final int ende = Math.min(spiele, von + proThread);
+            aufgaben.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    simulation.simulieren(anfang, ende, ticks); // Spiele sind unabhängig, daher keine Synchronisation pro Tick
+                }
+            });
+        }
+        for (RecursiveAction aufgabe : aufgaben) {
+            pool.execute(aufgabe);
+        }
+        for (RecursiveAction aufgabe : aufgaben) {
+            aufgabe.join();
+        }
+        pool.shutdown();
+
+        double sekunden = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%.2f s -> %.1f Mio. Spiel-Ticks/s%n", sekunden, (double) spiele * ticks / sekunden / 1e6);
+    }
+
+    /**
+     * Simuliert die Spiele [von, bis) mit SpielPhysik (ein Objekt pro Spiel) ohne Schlägerbewegung;
+     * beendete Spiele werden wie beim SpielBatch blockweise neu gestartet
+     */
+    private static void simulieren(SpielPhysik[] spiele, int von, int bis, int ticks) {
+        for (int i = von; i < bis; i++) {
+            SpielPhysik spiel = spiele[i];
+            for (int tick = 0; tick < ticks; tick += TICKS_PRO_BLOCK) {
+                int block = Math.min(TICKS_PRO_BLOCK, ticks - tick);
+                for (int t = 0; t < block; t++) {
+                    spiel.schritt();
+                }
+                if (spiel.istSpielVorbei()) {
+                    spiel.setBallGeschwindigkeit(Math.abs(spiel.getBallYGeschwindigkeit()));
+                    spiel.schlaegerZentrieren();
+                    spiel.neuesSpiel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Simuliert die Spiele [von, bis) ohne Schlägerbewegung; beendete Spiele werden blockweise neu gestartet
+     */
+    private static void simulieren(SpielBatch batch, int von, int bis, int ticks) {
+        for (int tick = 0; tick < ticks; tick += TICKS_PRO_BLOCK) {
+            int block = Math.min(TICKS_PRO_BLOCK, ticks - tick);
+            for (int t = 0; t < block; t++) {
+                batch.schritt(von, bis);
+            }
+            for (int i = von; i < bis; i++) {
+                if (batch.istSpielVorbei(i)) {
+                    batch.neuesSpiel(i, Math.abs(batch.getBallYGeschwindigkeit(i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lässt SpielBatch und SpielPhysik mit denselben zufälligen Schlägerbewegungen laufen und vergleicht jeden Tick
+     * @param vektor ob der SpielBatch den Vektor-Kern verwendet
+     * @return true, wenn alle Zustände identisch waren
+     */
+    private static boolean vergleichen(boolean vektor) {
+        String kern = vektor ? "Vektor-Kern" : "skalarer Kern";
+        SpielBatch batch = new SpielBatch(VERGLEICH_SPIELE, FELD_BREITE, FELD_HOEHE,
+            SpielPhysik.STANDARD_SCHLAEGER_HOEHE, SpielPhysik.STANDARD_SCHLAEGER_GESCHWINDIGKEIT);
+        batch.vektorKernVerwenden(vektor);
+        SpielPhysik[] referenz = new SpielPhysik[VERGLEICH_SPIELE];
+        for (int i = 0; i < VERGLEICH_SPIELE; i++) {
+            referenz[i] = new SpielPhysik(FELD_BREITE, FELD_HOEHE);
+            int geschwindigkeit = 2 + i % 7;
+            referenz[i].setBallGeschwindigkeit(geschwindigkeit);
+            referenz[i].schlaegerZentrieren();
+            referenz[i].neuesSpiel();
+            batch.neuesSpiel(i, geschwindigkeit);
+        }
+
+        SplittableRandom zufall = new SplittableRandom(1);
+        for (int tick = 0; tick < VERGLEICH_TICKS; tick++) {
+            for (int i = 0; i < VERGLEICH_SPIELE; i++) {
+                int richtung1 = zufall.nextInt(3) - 1;
+                int richtung2 = zufall.nextInt(3) - 1;
+                referenz[i].bewegeSpieler1(richtung1);
+                referenz[i].bewegeSpieler2(richtung2);
+                batch.bewegeSpieler(i, 1, richtung1);
+                batch.bewegeSpieler(i, 2, richtung2);
+            }
+
+            int[] ereignisse = new int[VERGLEICH_SPIELE];
+            for (int i = 0; i < VERGLEICH_SPIELE; i++) {
+                ereignisse[i] = referenz[i].schritt();
+            }
+            batch.schritt();
+
+            for (int i = 0; i < VERGLEICH_SPIELE; i++) {
+                SpielPhysik r = referenz[i];
+                if (r.getBallX() != batch.getBallX(i) || r.getBallY() != batch.getBallY(i)
+                        || r.getBallXGeschwindigkeit() != batch.getBallXGeschwindigkeit(i)
+                        || r.getBallYGeschwindigkeit() != batch.getBallYGeschwindigkeit(i)
+                        || r.getSpieler1Y() != batch.getSpieler1Y(i) || r.getSpieler2Y() != batch.getSpieler2Y(i)
+                        || r.getSpieler1Punkte() != batch.getSpieler1Punkte(i) || r.getSpieler2Punkte() != batch.getSpieler2Punkte(i)
+                        || r.getLetzterBallwechsel() != batch.getLetzterBallwechsel(i)
+                        || ereignisse[i] != batch.getEreignisse(i)) {
+                    System.out.println(kern + ": Abweichung in Spiel " + i + " bei Tick " + tick);
+                    return false;
+                }
+                if (r.istSpielVorbei()) {
+                    int geschwindigkeit = Math.abs(r.getBallYGeschwindigkeit());
+                    r.setBallGeschwindigkeit(geschwindigkeit);
+                    r.schlaegerZentrieren();
+                    r.neuesSpiel();
+                    batch.neuesSpiel(i, geschwindigkeit);
+                }
+            }
+        }
+        System.out.println(kern + ", Vergleich mit SpielPhysik: " + VERGLEICH_SPIELE + " Spiele x " + VERGLEICH_TICKS + " Ticks identisch");
+        return true;
+    }
+}
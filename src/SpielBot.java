@@ -0,0 +1,75 @@
+import java.util.SplittableRandom;
+
+/**
+ * Die Klasse SpielBot steuert einen Schläger automatisch (z.B. für headless Simulationen).
+ * Der Bot "drückt" wie ein Mensch höchstens alle paar Ticks eine Taste und zielt mit einem
+ * zufälligen Fehler auf den Ball, damit Ballwechsel auch enden können.
+ */
+public class SpielBot {
+    public static final int STANDARD_REAKTIONS_TICKS = 5; // entspricht der Tastendruck-Verzögerung von 50ms bei 10ms-Ticks
+    public static final int STANDARD_FEHLER_SPANNE = 60; // max. Abweichung vom Ball in Pixeln
+
+    private final int spieler; // 1 = linker Schläger, 2 = rechter Schläger
+    private final int reaktionsTicks; // Ticks zwischen zwei Tastendrücken
+    private final int fehlerSpanne; // max. Zielabweichung in Pixeln
+    private int wartezeit = 0; // verbleibende Ticks bis zum nächsten Tastendruck
+    private int zielFehler = 0; // aktuelle Zielabweichung
+    private boolean ballKamZuletzt = false; // ob der Ball beim letzten Tick auf den Bot zukam
+
+    /**
+     * Konstruktor für den SpielBot
+     * @param spieler 1 für den linken, 2 für den rechten Schläger
+     * @param reaktionsTicks Ticks zwischen zwei Tastendrücken
+     * @param fehlerSpanne max. Zielabweichung in Pixeln
+     */
+    public SpielBot(int spieler, int reaktionsTicks, int fehlerSpanne) {
+        this.spieler = spieler;
+        this.reaktionsTicks = reaktionsTicks;
+        this.fehlerSpanne = fehlerSpanne;
+    }
+
+    /**
+     * Bewegt den Schläger des Bots (höchstens ein Schritt pro Reaktionszeit)
+     * @param physik Die Spielphysik, in der der Schläger bewegt wird
+     * @param zufall Zufallsquelle für den Zielfehler
+     */
+    public void steuere(SpielPhysik physik, SplittableRandom zufall) {
+        int richtung = naechsteRichtung(physik, zufall);
+        if (richtung == 0) {
+            return;
+        }
+        if (spieler == 1) {
+            physik.bewegeSpieler1(richtung);
+        } else {
+            physik.bewegeSpieler2(richtung);
+        }
+    }
+
+    /**
+     * Berechnet die Richtung des nächsten Tastendrucks, ohne den Schläger zu bewegen
+     * @return -1 für nach oben, 1 für nach unten, 0 für keine Bewegung
+     */
+    public int naechsteRichtung(SpielPhysik physik, SplittableRandom zufall) {
+        boolean ballKommt = spieler == 1 ? physik.getBallXGeschwindigkeit() < 0 : physik.getBallXGeschwindigkeit() > 0;
+        if (ballKommt && !ballKamZuletzt) { // Neuer Anflug -> neuer Zielfehler
+            zielFehler = zufall.nextInt(2 * fehlerSpanne + 1) - fehlerSpanne;
+        }
+        ballKamZuletzt = ballKommt;
+
+        if (--wartezeit > 0) {
+            return 0;
+        }
+        wartezeit = reaktionsTicks;
+
+        int schlaegerY = spieler == 1 ? physik.getSpieler1Y() : physik.getSpieler2Y();
+        int ziel = ballKommt
+            ? physik.getBallY() + SpielPhysik.BALL_GROESSE / 2 + zielFehler // Ball verfolgen
+            : physik.getHoehe() / 2; // Zurück zur Mitte
+        int abstand = ziel - (schlaegerY + physik.getSchlaegerHoehe() / 2);
+
+        if (Math.abs(abstand) <= physik.getSchlaegerGeschwindigkeit() / 2) {
+            return 0;
+        }
+        return abstand < 0 ? -1 : 1;
+    }
+}
@@ -1,140 +1,393 @@
 import java.io.*;
 import java.net.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Die Klasse SpielClient repräsentiert den Client für das Pong-Spiel
+ * Die Klasse SpielClient repräsentiert den Client für das Pong-Spiel.
+ * Lesen, Senden, Herzschlag und Timeouts übernimmt eine Verbindung (wie beim Server).
+ * Der Verbindungsaufbau läuft in einem eigenen Thread (nie im Event-Dispatch-Thread) mit Timeout und
+ * Wiederholungen mit wachsender Wartezeit; der Fortschritt wird über die SpielSteuerung angezeigt.
+ * Bricht die Verbindung zu einem dedizierten Server ab, kehrt der Client mit seiner Sitzung (SITZUNG) zurück:
+ * Nach einem Neustart stellt der Server das Spiel aus seiner SpielSicherung wieder her.
  */
-public class SpielClient implements Runnable {
-    private Socket socket; // für die Verbindung zum Server
-    private PrintWriter out; // zum Senden von Ausgaben an den Server
-    private BufferedReader in; // zum Empfangen von Eingaben vom Sever
+public class SpielClient implements NachrichtenEmpfaenger {
+    private static final int VERBINDEN_TIMEOUT_MS = Integer.getInteger("pong.verbinden.timeout.ms", 3000); // pro Versuch
+    private static final int VERBINDEN_VERSUCHE = Integer.getInteger("pong.verbinden.versuche", 5);
+    private static final long ERSTE_WARTEZEIT_MS = Long.getLong("pong.verbinden.wartezeit.ms", 500); // verdoppelt sich pro Versuch
+    private static final long MAX_WARTEZEIT_MS = 8000;
+
+    private volatile Verbindung verbindung; // für die Verbindung zum Server (Lesen und Senden)
     private SpielSteuerung spielSteuerung;
-    private boolean isRunning = false; // ob Client aktiv läuft
     private String serverIP; // IP-Adresse des Servers
+    private final int port; // Port des Servers (Standard 5000, sonst aus "host:port")
     private static final int PORT = 5000; // Port auf dem Server auf Verbindung lauscht
+    private volatile boolean abgebrochen = false; // Verbindungsaufbau abbrechen (Spiel wurde beendet)
+    private volatile Socket verbindungsVersuch; // Socket des laufenden Versuchs (zum Abbrechen schließen)
+    private volatile String sitzung; // vom dedizierten Server (SITZUNG), null = keine Rückkehr möglich
+    private volatile boolean rueckkehrLaeuft = false; // neu verbunden, aber noch nicht wieder im Spiel (ROLLE)
 
     /**
      * Konstruktor für den SpielClient
      * @param spielSteuerung Die Spielsteuerung des Clients
-     * @param serverIP Die IP-Adresse des Servers
+     * @param serverIP Die IP-Adresse des Servers, optional mit Port ("host:port", z.B. aus der ServerSuche)
      */
     public SpielClient(SpielSteuerung spielSteuerung, String serverIP) {
         this.spielSteuerung = spielSteuerung;
+        int trenner = serverIP.lastIndexOf(':');
+        int gelesenerPort = PORT;
+        if (trenner > 0 && serverIP.indexOf(':') == trenner) { // genau ein ':' -> Port angegeben (IPv6 ohne Port bleibt unverändert)
+            try {
+                gelesenerPort = Integer.parseInt(serverIP.substring(trenner + 1));
+                serverIP = serverIP.substring(0, trenner);
+            } catch (NumberFormatException e) {
+                gelesenerPort = PORT;
+            }
+        }
         this.serverIP = serverIP;
+        this.port = gelesenerPort;
     }
 
     /**
-     * Verbindet den Client mit dem Server
+     * Verbindet den Client mit dem Server in einem eigenen Thread (kehrt sofort zurück).
+     * Fortschritt und Ergebnis meldet die SpielSteuerung dem Spielfeld.
      */
     public void verbindeMitServer() {
-        try {
-            socket = new Socket(serverIP, PORT);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            isRunning = true;
-            
-            // Client in einem separaten Thread starten
-            Thread thread = new Thread(this);
-            thread.start();
-        } catch (IOException e) {
-            System.out.println("Verbindungsfehler: " + e.getMessage());
-        }
+        verbindungAufbauenImHintergrund(null);
     }
 
     /**
-     * Client-Hauptschleife, die im separaten Thread läuft
+     * Startet den Verbindungsaufbau in einem eigenen Daemon-Thread
+     * @param rueckkehr Sitzung für die Rückkehr in ein laufendes Spiel (null = neues Spiel)
      */
-    @Override
-    public void run() {
-        try {
-            while (isRunning) {
-                // Nachrichten vom Server empfangen
-                String inputLine = in.readLine();
-                if (inputLine != null) {
-                    verarbeiteServerNachricht(inputLine);
+    private void verbindungAufbauenImHintergrund(final String rueckkehr) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                verbindungAufbauen(rueckkehr);
+            }
+        }, rueckkehr == null ? "Verbindungsaufbau" : "Rueckkehr");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Versucht mehrmals zu verbinden, mit verdoppelter Wartezeit nach jedem Fehlschlag
+     * @param rueckkehr Sitzung für die Rückkehr (der Fortschritt erscheint dann nur im Log, das Spielfeld zeigt
+     *                  schon die Unterbrechung)
+     */
+    private void verbindungAufbauen(String rueckkehr) {
+        long wartezeit = ERSTE_WARTEZEIT_MS;
+        for (int versuch = 1; versuch <= VERBINDEN_VERSUCHE && !abgebrochen; versuch++) {
+            fortschritt("Verbinde mit " + serverIP + ":" + port
+                + (versuch > 1 ? " (Versuch " + versuch + " von " + VERBINDEN_VERSUCHE + ")" : "") + "...", false, rueckkehr);
+            try {
+                if (SpeicherTransport.AKTIV) { // Host auf demselben Rechner über gemeinsamen Speicher
+                    verbindeMit(SpeicherTransport.verbinden(SpeicherTransport.standardDatei(port)), rueckkehr);
+                } else {
+                    Socket socket = new Socket();
+                    verbindungsVersuch = socket;
+                    socket.connect(new InetSocketAddress(serverIP, port), VERBINDEN_TIMEOUT_MS);
+                    verbindungsVersuch = null;
+                    if (abgebrochen) {
+                        socket.close();
+                        return;
+                    }
+                    verbindeMit(new SocketTransport(socket), rueckkehr);
+                }
+                fortschritt(rueckkehr == null ? "Verbunden, warte auf den Spielmodus des Hosts..."
+                    : "Verbunden, kehre ins Spiel zurück...", false, rueckkehr);
+                return;
+            } catch (IOException e) {
+                System.out.println("Verbindungsfehler (Versuch " + versuch + "): " + e.getMessage());
+                if (abgebrochen) {
+                    return;
+                }
+                if (versuch == VERBINDEN_VERSUCHE) {
+                    fortschritt("Keine Verbindung zu " + serverIP + ":" + port + " (" + e.getMessage() + ")", true, rueckkehr);
+                    sitzung = null;
+                    return;
                 }
+                // Zufällige Abweichung, damit viele Clients nach einem Serverneustart nicht im Gleichtakt wiederkommen
+                long warten = wartezeit / 2 + ThreadLocalRandom.current().nextLong(wartezeit / 2 + 1);
+                fortschritt("Keine Verbindung (" + e.getMessage() + "), neuer Versuch in "
+                    + (warten + 999) / 1000 + " s...", false, rueckkehr);
+                LockSupport.parkNanos(this, warten * 1_000_000L);
+                wartezeit = Math.min(MAX_WARTEZEIT_MS, wartezeit * 2);
             }
-        } catch (IOException e) {
-            System.out.println("Verbindungsfehler: " + e.getMessage());
-        } finally {
-            verbindungSchliessen();
         }
     }
 
     /**
-     * Verarbeitet eingehende Nachrichten vom Server
+     * Zeigt den Fortschritt des Verbindungsaufbaus an (bei einer Rückkehr nur im Log)
+     */
+    private void fortschritt(String text, boolean fehlgeschlagen, String rueckkehr) {
+        if (rueckkehr == null) {
+            spielSteuerung.verbindungsFortschritt(text, fehlgeschlagen);
+        } else {
+            System.out.println(text);
+        }
+    }
+
+    /**
+     * Verbindet den Client über einen bereits verbundenen Transport (z.B. WarteschlangenTransport im selben Prozess)
+     * @param transport Der Transport zum Server
+     */
+    public void verbindeMit(Transport transport) {
+        verbindeMit(transport, null);
+    }
+
+    /**
+     * Verbindet den Client über einen Transport
+     * @param rueckkehr Sitzung für die Rückkehr in ein laufendes Spiel (null = neues Spiel)
+     */
+    private void verbindeMit(Transport transport, String rueckkehr) {
+        Verbindung neueVerbindung = new Verbindung(transport);
+        neueVerbindung.setMessung(spielSteuerung.getMessung());
+        verbindung = neueVerbindung;
+        neueVerbindung.starten(this); // Lesen und Senden in eigenen Threads
+        if (rueckkehr != null) {
+            senden("WIEDER:" + rueckkehr); // muss die erste Zeile sein (siehe DedizierterServer)
+        }
+        senden("NAME:" + SpielSteuerung.SPIELER_NAME); // für die Ergebnisse beim Host bzw. Server
+    }
+
+    /**
+     * Wird von der Verbindung für jede Nachricht des Servers aufgerufen (im Lese-Thread)
+     */
+    @Override
+    public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+        Aufzeichnung.Nachricht ereignis = Aufzeichnung.nachrichtBeginnen();
+        spielSteuerung.getMessung().empfangen(nachricht.length() + 1, nachricht.startsWith("UPDATE:"));
+        verarbeiteServerNachricht(nachricht);
+        Aufzeichnung.nachrichtBeenden(ereignis, nachricht);
+    }
+
+    /**
+     * Wird einmalig aufgerufen, wenn die Verbindung beendet ist (EOF, Fehler, Timeout oder eigenes Schließen)
+     */
+    @Override
+    public void verbindungGetrennt(Verbindung verbindung) {
+        if (verbindung != this.verbindung) { // frühere Verbindung vor einer Rückkehr
+            return;
+        }
+        String s = sitzung;
+        if (s != null && !abgebrochen && !rueckkehrLaeuft) {
+            System.out.println("Verbindung zum Server unterbrochen, kehre mit der Sitzung zurück");
+            rueckkehrLaeuft = true;
+            spielSteuerung.verbindungGetrennt(); // pausiert mit Hinweis, bis der Server den Zustand schickt
+            verbindungAufbauenImHintergrund(s);
+            return;
+        }
+        sitzung = null;
+        System.out.println("Verbindung zum Server beendet");
+        spielSteuerung.verbindungGetrennt();
+    }
+
+    /**
+     * Verarbeitet eingehende Nachrichten vom Server. Der Lese-Thread ändert keinen Spielzustand: Nachrichten werden
+     * in Befehle zerlegt und von der Spielschleife ausgeführt (siehe SpielSteuerung.befehleAusfuehren).
      * @param nachricht Die empfangene Nachricht
      */
     private void verarbeiteServerNachricht(String nachricht) {
-        String[] teile = nachricht.split(":");
-        if (teile.length < 1) return;
+        int trenner = nachricht.indexOf(':');
+        if (trenner < 0) return;
 
-        String befehl = teile[0];
+        String befehl = nachricht.substring(0, trenner);
         
-        // Ohne dem würde die Pause-Nachricht beim Client nicht entfernt werden
-        if (befehl.equals("VERSTECKE_NACHRICHT")) {
-            spielSteuerung.versteckePauseNachricht();
+        // Antwort auf eine Laufzeitmessung des Hosts
+        if (befehl.equals("PING")) {
+            senden("PONG:" + nachricht.substring(trenner + 1));
             return;
         }
-        
-        if (teile.length < 2) return;
 
-        String daten = teile[1];
-        
+        BefehlsWarteschlange befehle = spielSteuerung.getBefehle();
+        Befehl b;
         switch (befehl) {
             case "MODUS": // Modus (der vom Host gewählt wurde) beim Client setzten
-                SpielModus modus = SpielModus.valueOf(daten);
-                spielSteuerung.setModusUndStarteSpiel(modus);
+                b = befehle.reservieren(Befehl.MODUS);
+                b.text = nachricht.substring(trenner + 1);
+                befehle.veroeffentlichen(b);
                 break;
             case "UPDATE": // Spielstand updaten
-                spielSteuerung.updateSpielZustand(nachricht);
+                b = befehle.reservieren(Befehl.UPDATE);
+                if (!b.zahlenLesen(nachricht, trenner + 1) || b.anzahlWerte < 6) { // Fehlerhafter Snapshot -> vollständigen Zustand neu anfordern
+                    System.out.println("Fehlerhafter Spielzustand: " + nachricht);
+                    b.art = Befehl.RESYNC;
+                } else if (b.anzahlWerte == 9 && spielSteuerung.getSpur() != null) { // zurückgeschickte Spur-ID
+                    spielSteuerung.getSpur().empfangen(b.werte[7], b.werte[8]);
+                }
+                b.text = nachricht; // enthält ggf. zusätzliche Bälle
+                befehle.veroeffentlichen(b);
                 break;
             case "NEUSTART": // Spiel neustarten
-                spielSteuerung.spielNeustarten();
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.NEUSTART));
                 break;
             case "PAUSE": // Spiel pausieren
-                spielSteuerung.pauseSpiel();
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.PAUSE_SIGNAL));
                 break;
-            case "FORTSETZEN": // Spiel pausieren
-                spielSteuerung.fortsetzenSpiel();
+            case "FORTSETZEN": // Spiel fortsetzen
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.FORTSETZEN));
+                break;
+            case "VERSTECKE_NACHRICHT": // Ohne dem würde die Pause-Nachricht beim Client nicht entfernt werden
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.VERSTECKE_NACHRICHT));
                 break;
             case "PAUSE_NACHRICHT": // Pause-Nachricht beim Client anzeigen 
-                spielSteuerung.zeigePauseNachricht(daten);
+                b = befehle.reservieren(Befehl.PAUSE);
+                b.text = nachricht.substring(trenner + 1);
+                befehle.veroeffentlichen(b);
+                break;
+            case "PONG": // Antwort auf sendePing() -> Round-Trip-Time
+                try {
+                    spielSteuerung.getMessung().rttGemessen(System.nanoTime() - Long.parseLong(nachricht.substring(trenner + 1)));
+                } catch (NumberFormatException e) {
+                    // fehlerhafte Antwort ignorieren, der Lese-Thread läuft weiter
+                }
+                break;
+            case "ROLLE": // Schläger, den der Client steuert (nur vom dedizierten Server)
+                rueckkehrLaeuft = false; // auch nach einer Rückkehr wieder im Spiel
+                b = befehle.reservieren(Befehl.ROLLE);
+                b.zahlenLesen(nachricht, trenner + 1);
+                befehle.veroeffentlichen(b);
+                break;
+            case "LOCKSTEP": // Host spielt im Lockstep-Modus (Format: verzoegerung,breite,hoehe)
+                b = befehle.reservieren(Befehl.LOCKSTEP);
+                b.zahlenLesen(nachricht, trenner + 1);
+                befehle.veroeffentlichen(b);
+                break;
+            case "EINGABE": // Eingaben, Takt und Zustand im Lockstep-Modus
+            case "TAKT":
+            case "ZUSTAND":
+                b = befehle.reservieren(Befehl.LOCKSTEP_NACHRICHT);
+                b.text = nachricht;
+                befehle.veroeffentlichen(b);
+                break;
+            case "BAHNMODUS": // Host sendet ab jetzt Ballbahnen (BAHN) und Schlägerpositionen (SCHLAEGER) statt UPDATE
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.BAHNMODUS));
+                break;
+            case "BAHN": // neue Ballbahn
+                b = befehle.reservieren(Befehl.BAHN);
+                if (!b.zahlenLesen(nachricht, trenner + 1) || b.anzahlWerte != 9) {
+                    System.out.println("Fehlerhafte Bahn: " + nachricht);
+                    b.art = Befehl.RESYNC;
+                }
+                befehle.veroeffentlichen(b);
+                break;
+            case "SCHLAEGER": // Schlägerpositionen
+                b = befehle.reservieren(Befehl.SCHLAEGER);
+                if (!b.zahlenLesen(nachricht, trenner + 1) || b.anzahlWerte != 3) {
+                    b.art = Befehl.RESYNC;
+                }
+                befehle.veroeffentlichen(b);
+                break;
+            case "SITZUNG": // Sitzung für die Rückkehr nach einem Neustart des dedizierten Servers
+                sitzung = nachricht.substring(trenner + 1);
+                break;
+            case "SITZUNG_UNBEKANNT": // Spiel gibt es nicht mehr, keine weitere Rückkehr versuchen
+                System.out.println("Server kennt die Sitzung nicht (Spiel beendet oder nicht gesichert)");
+                sitzung = null;
+                break;
+            case "VOLL": // Dedizierter Server hat keinen Platz mehr
+                System.out.println("Server voll: " + nachricht.substring(trenner + 1));
                 break;
         }
     }
 
     /**
-     * Sendet die Position des Spieler 2 an den Server
+     * Sendet die Position des Spieler 2 an den Server (am dedizierten Server die Position des eigenen Schlägers)
      * @param position Die Y-Position des Schlägers
      */
     public void sendeSpieler2Position(int position) {
-        if (out != null) {
+        if (verbindung != null) {
             // Spezielles Signal
             if (position == -5) { // Spezielles Signal - Pause-Nachricht (Spiel von Client pausiert)
-                out.println("MOVE:" + position);
+                senden("MOVE:" + position);
             } else if (position == -4 || position == -1) { // Spezielles Signal - Fortsetzen oder Neustart (Spiel von Client fortgesetzt bzw. neugestartet)
                                                            // Erst Verstecken-Signal senden, sonst würde das PausenMenü beim Host nicht geschlossen werden
-                out.println("VERSTECKE_NACHRICHT:");
+                senden("VERSTECKE_NACHRICHT:");
                 // Dann das eigentliche Signal
-                out.println("MOVE:" + position);
+                senden("MOVE:" + position);
             } else { // Normale Bewegung (von Spieler2)
-                out.println("MOVE:" + position);
+                senden("MOVE:" + position);
             }
         }
     }
 
+    /**
+     * Sendet die Position des eigenen Schlägers mit einer Spur-ID, die der Host im nächsten UPDATE zurückschickt
+     * @param position Die Y-Position des Schlägers
+     * @param spurId Spur-ID (siehe LatenzSpur), 0 = keine
+     */
+    public void sendeSpieler2Position(int position, long spurId) {
+        if (spurId == 0) {
+            sendeSpieler2Position(position);
+        } else if (verbindung != null) {
+            senden("MOVE:" + position + "," + spurId);
+        }
+    }
+
+    /**
+     * Sendet eine Laufzeitmessung an den Server (die Antwort PONG enthält den Sendezeitpunkt)
+     */
+    public void sendePing() {
+        if (verbindung != null) {
+            senden("PING:" + System.nanoTime());
+        }
+    }
+
+    /**
+     * Meldet die Prüfsumme des zuletzt übernommenen Spielzustands an den Server
+     * @param tick Tick des Spielzustands
+     * @param pruefsumme Prüfsumme (siehe SpielPhysik.pruefsumme)
+     */
+    public void sendePruefsumme(long tick, int pruefsumme) {
+        if (verbindung != null) {
+            senden("PRUEFSUMME:" + tick + "," + pruefsumme);
+        }
+    }
+
+    /**
+     * Fordert den vollständigen Spielzustand an (z.B. nach einem fehlerhaften Snapshot)
+     */
+    public void sendeResync() {
+        if (verbindung != null) {
+            senden("RESYNC:");
+        }
+    }
+
+    /**
+     * Sendet eine beliebige Nachricht an den Server (z.B. für den Lockstep-Modus)
+     * @param nachricht Die Nachricht im Format BEFEHL:DATEN
+     */
+    public void sendeNachricht(String nachricht) {
+        if (verbindung != null) {
+            senden(nachricht);
+        }
+    }
+
+    /**
+     * Sendet eine Nachricht an den Server (die Verbindung zählt sie für die Leistungsanzeige)
+     */
+    private void senden(String nachricht) {
+        verbindung.senden(nachricht);
+    }
+
     /**
      * Schließt die Verbindung zum Server
      */
     public void verbindungSchliessen() {
-        isRunning = false;
-        try {
-            if (in != null) in.close();
-            if (out != null) out.close();
-            if (socket != null) socket.close();
-        } catch (IOException e) {
-            System.out.println("Fehler beim Schließen der Verbindung: " + e.getMessage());
+        abgebrochen = true;
+        Socket versuch = verbindungsVersuch;
+        if (versuch != null) {
+            try {
+                versuch.close(); // bricht ein laufendes connect() ab
+            } catch (IOException e) {
+                // bereits geschlossen
+            }
+        }
+        Verbindung v = verbindung;
+        if (v != null) {
+            v.schliessen();
         }
     }
 
@@ -143,7 +396,8 @@ public class SpielClient implements Runnable {
      * @return true wenn verbunden, sonst false
      */
     public boolean istVerbunden() {
-        return socket != null && socket.isConnected();
+        Verbindung v = verbindung;
+        return v != null && v.istVerbunden();
     }
 }
 
@@ -0,0 +1,139 @@
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Die Klasse SpielErgebnis beschreibt ein beendetes Spiel (unveränderlich).
+ * Im ErgebnisSpeicher steht jedes Ergebnis als eine Zeile mit Prüfsumme:
+ * zeit;modus;spieler1;spieler2;punkte1;punkte2;dauerMs;ballwechsel;laengsterBallwechsel;treffer#crc32
+ */
+public class SpielErgebnis {
+    private static final int MAX_NAMENSLAENGE = 32;
+
+    private final long zeit; // Spielende (Millisekunden seit 1970)
+    private final SpielModus modus;
+    private final String spieler1, spieler2;
+    private final int punkte1, punkte2;
+    private final long dauerMillis;
+    private final int ballwechsel; // Anzahl der Ballwechsel (= Punkte des Hauptballs)
+    private final int laengsterBallwechsel; // meiste Schlägertreffer in einem Ballwechsel
+    private final long treffer; // Schlägertreffer in allen beendeten Ballwechseln
+
+    /**
+     * Konstruktor für das SpielErgebnis
+     */
+    public SpielErgebnis(long zeit, SpielModus modus, String spieler1, String spieler2, int punkte1, int punkte2,
+                         long dauerMillis, int ballwechsel, int laengsterBallwechsel, long treffer) {
+        this.zeit = zeit;
+        this.modus = modus;
+        this.spieler1 = nameBereinigen(spieler1);
+        this.spieler2 = nameBereinigen(spieler2);
+        this.punkte1 = punkte1;
+        this.punkte2 = punkte2;
+        this.dauerMillis = dauerMillis;
+        this.ballwechsel = ballwechsel;
+        this.laengsterBallwechsel = laengsterBallwechsel;
+        this.treffer = treffer;
+    }
+
+    /**
+     * Entfernt Trennzeichen und Steuerzeichen aus einem Spielernamen und kürzt ihn
+     */
+    public static String nameBereinigen(String name) {
+        if (name == null || name.isBlank()) {
+            return "Unbekannt";
+        }
+        StringBuilder sauber = new StringBuilder();
+        for (int i = 0; i < name.length() && sauber.length() < MAX_NAMENSLAENGE; i++) {
+            char c = name.charAt(i);
+            if (c != ';' && c != '#' && c != ':' && !Character.isISOControl(c)) {
+                sauber.append(c);
+            }
+        }
+        return sauber.length() == 0 ? "Unbekannt" : sauber.toString().trim();
+    }
+
+    /**
+     * Die Zeile für den ErgebnisSpeicher (mit Zeilenumbruch)
+     */
+    public String zeile() {
+        String daten = zeit + ";" + modus.name() + ";" + spieler1 + ";" + spieler2 + ";" + punkte1 + ";" + punkte2 + ";"
+            + dauerMillis + ";" + ballwechsel + ";" + laengsterBallwechsel + ";" + treffer;
+        return daten + "#" + Long.toHexString(pruefsumme(daten)) + "\n";
+    }
+
+    /**
+     * Liest ein Ergebnis aus einer Zeile des ErgebnisSpeichers
+     * @return Das Ergebnis oder null, wenn die Zeile beschädigt ist (z.B. beim Absturz nur halb geschrieben)
+     */
+    public static SpielErgebnis ausZeile(String zeile) {
+        int raute = zeile.lastIndexOf('#');
+        if (raute < 0) {
+            return null;
+        }
+        String daten = zeile.substring(0, raute);
+        String[] teile = daten.split(";", -1);
+        try {
+            if (Long.parseLong(zeile.substring(raute + 1), 16) != pruefsumme(daten) || teile.length != 10) {
+                return null;
+            }
+            return new SpielErgebnis(Long.parseLong(teile[0]), SpielModus.valueOf(teile[1]), teile[2], teile[3],
+                Integer.parseInt(teile[4]), Integer.parseInt(teile[5]), Long.parseLong(teile[6]),
+                Integer.parseInt(teile[7]), Integer.parseInt(teile[8]), Long.parseLong(teile[9]));
+        } catch (IllegalArgumentException e) { // auch NumberFormatException und unbekannter Modus
+            return null;
+        }
+    }
+
+    private static long pruefsumme(String daten) {
+        CRC32 crc = new CRC32();
+        crc.update(daten.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Name des Siegers (bei Gleichstand null)
+     */
+    public String getSieger() {
+        return punkte1 > punkte2 ? spieler1 : punkte2 > punkte1 ? spieler2 : null;
+    }
+
+    public long getZeit() {
+        return zeit;
+    }
+
+    public SpielModus getModus() {
+        return modus;
+    }
+
+    public String getSpieler1() {
+        return spieler1;
+    }
+
+    public String getSpieler2() {
+        return spieler2;
+    }
+
+    public int getPunkte1() {
+        return punkte1;
+    }
+
+    public int getPunkte2() {
+        return punkte2;
+    }
+
+    public long getDauerMillis() {
+        return dauerMillis;
+    }
+
+    public int getBallwechsel() {
+        return ballwechsel;
+    }
+
+    public int getLaengsterBallwechsel() {
+        return laengsterBallwechsel;
+    }
+
+    public long getTreffer() {
+        return treffer;
+    }
+}
@@ -8,13 +8,17 @@ import java.awt.event.*;
  */
 public class SpielFeld extends JPanel {
     private SpielSteuerung steuerung; // Steuerung des Spiels
-    private JButton einfachButton, mittelButton, schwerButton; // Buttons für die verschiedenen Schwierigkeitsgrade
-    private JButton hostButton, clientButton; // Buttons für Host/Client-Auswahl
+    private JButton einfachButton, mittelButton, schwerButton, mehrballButton; // Buttons für die verschiedenen Schwierigkeitsgrade
+    private JButton hostButton, clientButton, suchenButton; // Buttons für Host/Client-Auswahl und Server-Suche
     private JTextField ipTextField; // Textfeld für Eingabe der IP-Adresse
+    private JComboBox<ServerSuche.Eintrag> serverListe; // im LAN gefundene Server (Auswahl füllt das IP-Feld)
     private JLabel titelLabel, infoLabel, verbindungsLabel; // Labels für Hauptmenü
-    private Thread spielThread; // Thread für die Spielausführung, der die Spiellogik in einem separaten Thread ausführt
-    private JFrame pauseNachrichtFrame; // Fenster wenn Spiel pausiert wird
+    private final SpielOverlay overlay = new SpielOverlay(); // Pausenmenü, Pause-Nachricht und Countdown im Spielfeld
     private boolean spielGestartet = false; // Status, ob das Spiel gestartet ist    
+    private final LeistungsAnzeige leistungsAnzeige = new LeistungsAnzeige(); // Leistungsanzeige (HUD), Umschalten mit F3
+    private boolean leistungsAnzeigeSichtbar = false;
+    private Timer leistungsTimer; // aktualisiert die Raten der Leistungsanzeige einmal pro Sekunde
+    private Rectangle fensterVorVollbild; // Fensterposition und -größe vor dem Vollbild (null = kein Vollbild)
 
     /**
      * Konstruktor für das SpielFeld.
@@ -22,6 +26,7 @@ public class SpielFeld extends JPanel {
      */
     public SpielFeld() {
         setBackground(Color.BLACK); // Setzt den Hintergrund auf Schwarz
+        setPreferredSize(new Dimension(SpielSteuerung.LOGISCHE_BREITE, SpielSteuerung.LOGISCHE_HOEHE)); // Startgröße: 1 Pixel pro logischer Einheit
         setFocusable(true); // dadurch ist das Panel in der Lage, auf Tastatureingaben
         // zu reagieren, die zur Steuerung des Spiels verwendet werden. Ohne diese Einstellung
         // könnte das Panel keine Tastaturereignisse empfangen, und alle hinzugefügten
@@ -45,12 +50,16 @@ public class SpielFeld extends JPanel {
         hostButton = new JButton("Als Host spielen"); // Host = der Server startet + 1.Client (spieler1)
         clientButton = new JButton("Als Client verbinden"); // Client = verbindet sich mit Server -> 2.Client (spieler2)
         ipTextField = new JTextField(15);
-        ipTextField.setToolTipText("Server-IP-Adresse eingeben");
+        ipTextField.setToolTipText("Server-IP-Adresse eingeben (optional mit Port, z.B. 192.168.0.5:5000)");
+        suchenButton = new JButton("Server im LAN suchen");
+        serverListe = new JComboBox<>();
+        serverListe.setVisible(false); // erst nach einer Suche mit Ergebnissen
 
         // Initialisierung der Spielmodus-Buttons
         einfachButton = new JButton("Einfach");
         mittelButton = new JButton("Mittel");
         schwerButton = new JButton("Schwer");
+        mehrballButton = new JButton("Mehrball");
 
         // Host-Button ActionListener
         hostButton.addActionListener(new ActionListener() {
@@ -87,22 +96,30 @@ public class SpielFeld extends JPanel {
                     return;
                 }
                 
+                // Verbindungsaufbau läuft im Hintergrund, der Fortschritt kommt über verbindungsFortschritt()
                 steuerung = new SpielSteuerung(SpielFeld.this, ip);
+                Aufwaermen.starten(); // JIT aufwärmen, während der Client auf die Modusauswahl des Hosts wartet
                 versteckeButtonsLabels();
+                verbindungsLabel.setText("Verbinde mit " + ip + "...");
+                verbindungsLabel.setVisible(true);
                 repaint();
-            
-                // Dieser Timer überprüft jede Sekunde (1000ms), ob eine Verbindung zum Server hergestellt wurde.
-                // Er wird gestartet, nachdem der Benutzer auf "Als Client verbinden" geklickt hat.
-                // Sobald eine Verbindung hergestellt wurde, wird die Anzeige aktualisiert und der Timer gestoppt.
-                Timer verbindungsTimer = new Timer(1000, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        if (steuerung != null && steuerung.istVerbunden()) {
-                            ((Timer) e.getSource()).stop();
-                        }
-                    }
-                });
-                verbindungsTimer.start();
+            }
+        });
+
+        // Server-Suche: läuft in einem eigenen Thread, damit das Menü bedienbar bleibt
+        suchenButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                serverSuchen();
+            }
+        });
+        serverListe.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                ServerSuche.Eintrag eintrag = (ServerSuche.Eintrag) serverListe.getSelectedItem();
+                if (eintrag != null) {
+                    ipTextField.setText(eintrag.getZiel());
+                }
             }
         });
 
@@ -125,10 +142,31 @@ public class SpielFeld extends JPanel {
                 startSpiel(SpielModus.SCHWER);
             }
         });
+        mehrballButton.addActionListener(new ActionListener(){
+            @Override
+            public void actionPerformed(ActionEvent e){
+                startSpiel(SpielModus.MEHRBALL);
+            }
+        });
 
 
         setLayout(new GridBagLayout()); // Setzt das Layout auf GridBagLayout (= organisiert Komponenten
         // in einem Raster, wobei jede Zelle anpassbar ist (z.B. Größe, Abstände, Positionierung).
+        zeigeHauptmenue();
+    }
+
+    /**
+     * Zeigt das Hauptmenü (Host/Client-Auswahl), auch wieder nach einem gescheiterten Verbindungsaufbau
+     */
+    private void zeigeHauptmenue() {
+        removeAll();
+        titelLabel.setVisible(true);
+        hostButton.setVisible(true);
+        ipTextField.setVisible(true);
+        suchenButton.setVisible(true);
+        serverListe.setVisible(serverListe.getItemCount() > 0);
+        clientButton.setVisible(true);
+        verbindungsLabel.setVisible(true);
 
         // Layout-Constraints für Zentrierung der Komponenten
         GridBagConstraints gbc = new GridBagConstraints(); // GridBagConstraints - definiert Regeln
@@ -147,9 +185,74 @@ public class SpielFeld extends JPanel {
         gbc.gridy++;
         add(ipTextField, gbc);
         gbc.gridy++;
+        add(suchenButton, gbc);
+        gbc.gridy++;
+        add(serverListe, gbc);
+        gbc.gridy++;
         add(clientButton, gbc);
         gbc.gridy++;
         add(verbindungsLabel, gbc);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Sucht Server im LAN (siehe ServerSuche) und zeigt sie in der Auswahlliste an
+     */
+    private void serverSuchen() {
+        suchenButton.setEnabled(false);
+        verbindungsLabel.setText("Suche Server im lokalen Netz...");
+        Thread suche = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                java.util.List<ServerSuche.Eintrag> gefunden;
+                String fehler = null;
+                try {
+                    gefunden = ServerSuche.suchen(1000);
+                } catch (java.io.IOException e) {
+                    gefunden = java.util.Collections.emptyList();
+                    fehler = e.getMessage();
+                }
+                final java.util.List<ServerSuche.Eintrag> ergebnis = gefunden;
+                final String meldung = fehler != null ? "Suche fehlgeschlagen: " + fehler
+                    : ergebnis.isEmpty() ? "Kein Server gefunden" : ergebnis.size() + " Server gefunden";
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        serverListe.removeAllItems();
+                        for (ServerSuche.Eintrag eintrag : ergebnis) {
+                            serverListe.addItem(eintrag); // erster Eintrag wird ausgewählt und ins IP-Feld übernommen
+                        }
+                        serverListe.setVisible(!ergebnis.isEmpty() && suchenButton.isVisible());
+                        suchenButton.setEnabled(true);
+                        verbindungsLabel.setText(meldung);
+                        revalidate();
+                        repaint();
+                    }
+                });
+            }
+        }, "ServerSuche");
+        suche.setDaemon(true);
+        suche.start();
+    }
+
+    /**
+     * Zeigt den Fortschritt des Verbindungsaufbaus (Client). Ist er endgültig gescheitert, erscheint wieder das Hauptmenü.
+     * @param text Anzuzeigender Text
+     * @param fehlgeschlagen ob keine weiteren Versuche folgen
+     */
+    public void verbindungsFortschritt(String text, boolean fehlgeschlagen) {
+        if (spielGestartet) {
+            return;
+        }
+        if (fehlgeschlagen) {
+            if (steuerung != null) {
+                steuerung.beendeSpiel();
+                steuerung = null;
+            }
+            zeigeHauptmenue();
+        }
+        verbindungsLabel.setText(text);
     }
 
     /**
@@ -175,14 +278,18 @@ public class SpielFeld extends JPanel {
         gbc.gridy++;
         add(schwerButton, gbc);
         gbc.gridy++;
+        add(mehrballButton, gbc);
+        gbc.gridy++;
         add(verbindungsLabel, gbc);
             
         einfachButton.setVisible(true);
         mittelButton.setVisible(true);
         schwerButton.setVisible(true);
+        mehrballButton.setVisible(true);
         
         revalidate(); // Layout neu berechnen
         repaint(); // Panel neu zeichnen
+        Aufwaermen.starten(); // JIT aufwärmen, während der Host den Modus wählt
     }
 
     /**
@@ -191,10 +298,13 @@ public class SpielFeld extends JPanel {
     private void versteckeButtonsLabels() {
         hostButton.setVisible(false);
         clientButton.setVisible(false);
+        suchenButton.setVisible(false);
+        serverListe.setVisible(false);
         ipTextField.setVisible(false);
         einfachButton.setVisible(false);
         mittelButton.setVisible(false);
         schwerButton.setVisible(false);
+        mehrballButton.setVisible(false);
         titelLabel.setVisible(false);
         infoLabel.setVisible(false);
         verbindungsLabel.setVisible(false);
@@ -205,6 +315,7 @@ public class SpielFeld extends JPanel {
      */
     public void spielGestartet() {
         spielGestartet = true;
+        Aufwaermen.abbrechen(); // ab jetzt braucht die Spielschleife die CPU
         versteckeButtonsLabels();
         
         // Alle KeyListener zuvor entfernen, um Duplikate zu vermeiden
@@ -230,47 +341,103 @@ public class SpielFeld extends JPanel {
         addKeyListener(steuerung);
         requestFocusInWindow();
         
-        // Spielthread starten 
-        spielThread = new Thread(steuerung);
-        spielThread.start();
+        // Spielschleife der Steuerung aufwecken (sie läuft bereits in ihrem eigenen Thread)
+        steuerung.spielStarten();
     }
 
     /**
-     * Zeigt eine Pause-Nachricht in einer Box an, bei dem, der das Spiel nicht gestoppt hat 
+     * Zeigt eine Pause-Nachricht im Spielfeld an, bei dem, der das Spiel nicht gestoppt hat
      */
     public void zeigePauseNachricht(String nachricht) {
-        if (pauseNachrichtFrame != null) {
-            pauseNachrichtFrame.dispose();
-        }
-        
-        pauseNachrichtFrame = new JFrame("Spiel pausiert");
-        pauseNachrichtFrame.setSize(300, 100);
-        pauseNachrichtFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        pauseNachrichtFrame.setLocationRelativeTo(this);
+        overlay.nachrichtZeigen(nachricht); // nachricht: z.B. "Spieler 1 hat das Spiel pausiert"
+        repaint();
+    }
 
-        JPanel panel = new JPanel(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.gridx = 0;
-        gbc.gridy = 0;
-        gbc.insets = new Insets(10, 10, 10, 10);
+    /**
+     * Versteckt die Pause-Nachricht
+     */
+    public void versteckePauseNachricht() {
+        overlay.nachrichtVerstecken();
+        repaint();
+    }
 
-        JLabel nachrichtLabel = new JLabel(nachricht); // nachricht: "Spieler 1 hat das Spiel pausiert"
-                                                       //       oder "Spieler 2 hat das Spiel pausiert"
-        nachrichtLabel.setFont(new Font("Arial", Font.BOLD, 14));
-        panel.add(nachrichtLabel, gbc);
+    /**
+     * Zeigt das Pausenmenü im Spielfeld an (Bedienung über die Tastatur, der Fokus bleibt im Spielfeld)
+     */
+    public void zeigePausenMenue() {
+        overlay.menueOeffnen();
+        requestFocusInWindow();
+        repaint();
+    }
 
-        pauseNachrichtFrame.add(panel);
-        pauseNachrichtFrame.setVisible(true);
+    /**
+     * Versteckt das Pausenmenü
+     */
+    public void versteckePausenMenue() {
+        overlay.menueSchliessen();
+        repaint();
     }
 
     /**
-     * Versteckt die Pause-Nachricht
+     * Liefert das Overlay, das SpielSteuerung über das Spielfeld zeichnet
      */
-    public void versteckePauseNachricht() {
-        if (pauseNachrichtFrame != null) {
-            pauseNachrichtFrame.dispose();
-            pauseNachrichtFrame = null;
+    public SpielOverlay getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Blendet die Leistungsanzeige (FPS, Ticks, Netzwerk, RTT) ein bzw. aus
+     */
+    public void leistungsAnzeigeUmschalten() {
+        leistungsAnzeigeSichtbar = !leistungsAnzeigeSichtbar;
+        if (leistungsAnzeigeSichtbar) {
+            // Einmal pro Sekunde Raten berechnen und die Laufzeit zum anderen Spieler messen
+            leistungsTimer = new Timer(1000, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    steuerung.getMessung().ratenAktualisieren();
+                    steuerung.sendePing();
+                    repaint();
+                }
+            });
+            leistungsTimer.start();
+        } else if (leistungsTimer != null) {
+            leistungsTimer.stop();
+            leistungsTimer = null;
         }
+        repaint();
+    }
+
+    /**
+     * Schaltet zwischen Fenster und Vollbild um. Das Spielfeld skaliert dabei mit (siehe SpielSteuerung.zeichneSpielfeld).
+     */
+    public void vollbildUmschalten() {
+        Window fenster = SwingUtilities.getWindowAncestor(this);
+        if (!(fenster instanceof JFrame)) {
+            return;
+        }
+        JFrame rahmen = (JFrame) fenster;
+        GraphicsDevice bildschirm = rahmen.getGraphicsConfiguration().getDevice();
+
+        rahmen.dispose(); // Rahmen (Dekoration) lässt sich nur bei einem nicht angezeigten Fenster ändern
+        if (fensterVorVollbild == null) {
+            fensterVorVollbild = rahmen.getBounds();
+            rahmen.setUndecorated(true);
+            if (bildschirm.isFullScreenSupported()) {
+                bildschirm.setFullScreenWindow(rahmen);
+            } else {
+                rahmen.setBounds(rahmen.getGraphicsConfiguration().getBounds());
+            }
+        } else {
+            if (bildschirm.getFullScreenWindow() == rahmen) {
+                bildschirm.setFullScreenWindow(null);
+            }
+            rahmen.setUndecorated(false);
+            rahmen.setBounds(fensterVorVollbild);
+            fensterVorVollbild = null;
+        }
+        rahmen.setVisible(true);
+        requestFocusInWindow();
     }
 
     /**
@@ -280,11 +447,22 @@ public class SpielFeld extends JPanel {
      */
     @Override
     public void paintComponent(Graphics g) {
+        Aufzeichnung.Zeichnen ereignis = Aufzeichnung.zeichnenBeginnen();
+        long start = System.nanoTime();
         super.paintComponent(g); // Zweck: Hintergrund der Komponente vor dem Zeichnen gelöscht wird,
                                  //  füllen des Hintergrunds mit der aktuellen Hintergrundfabreusw.
         if (spielGestartet) { // Zeichnet das Spielfeld, wenn das Spiel gestartet ist
             steuerung.zeichneSpielfeld(g); 
+            if (leistungsAnzeigeSichtbar) {
+                leistungsAnzeige.zeichnen(g, steuerung.getMessung(), getWidth());
+            }
+            long ende = System.nanoTime();
+            steuerung.getMessung().frameGezeichnet(start, ende);
+            if (steuerung.getSpur() != null) {
+                steuerung.getSpur().gezeichnet(start, ende);
+            }
         }
+        Aufzeichnung.zeichnenBeenden(ereignis);
     }
 }
 
@@ -4,5 +4,6 @@
 public enum SpielModus {
     EINFACH,
     MITTEL,
-    SCHWER
+    SCHWER,
+    MEHRBALL // Mittel, aber mit vielen zusätzlichen Bällen (siehe MehrballPhysik)
 }
@@ -0,0 +1,161 @@
+import java.awt.*;
+
+/**
+ * Die Klasse SpielOverlay zeichnet Pausenmenü, Pause-Nachricht, Countdown und Siegerbildschirm direkt in das
+ * Spielfeld statt in eigene Fenster. Pausieren und Fortsetzen ändern dadurch nur ein paar Felder, der Fokus
+ * bleibt immer im Spielfeld und das Menü wird mit der Tastatur bedient (siehe SpielSteuerung.keyPressed).
+ *
+ * Der Zustand wird nur im Event-Dispatch-Thread geändert und gelesen (Ändern über SpielFeld, Zeichnen in paintComponent).
+ * Gezeichnet wird in logischen Koordinaten, also mit derselben Skalierung wie das Spielfeld.
+ */
+public class SpielOverlay {
+    public static final int FORTSETZEN = 0; // Einträge des Pausenmenüs
+    public static final int NEUSTART = 1;
+    private static final String[] MENUE_EINTRAEGE = {"Fortsetzen", "Neustart"};
+    private static final String MENUE_HINWEIS = "Pfeiltasten wählen, Enter bestätigen, Esc fortsetzen";
+    private static final long SEKUNDE_NANOS = 1_000_000_000L;
+
+    private static final Font TITEL_SCHRIFT = new Font("Arial", Font.BOLD, 40);
+    private static final Font EINTRAG_SCHRIFT = new Font("Arial", Font.BOLD, 26);
+    private static final Font TEXT_SCHRIFT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font KLEINE_SCHRIFT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font COUNTDOWN_SCHRIFT = new Font("Arial", Font.BOLD, 120);
+    private static final Color ABDUNKELN = new Color(0, 0, 0, 150);
+    private static final Color KASTEN = new Color(30, 30, 30, 230);
+    private static final Color AUSWAHL = new Color(0, 200, 255);
+
+    private boolean menueOffen = false;
+    private int auswahl = FORTSETZEN;
+    private String nachricht; // Hinweis, wenn der Gegner pausiert hat oder getrennt ist (null = keiner)
+
+    /**
+     * Öffnet das Pausenmenü, ausgewählt ist "Fortsetzen"
+     */
+    public void menueOeffnen() {
+        menueOffen = true;
+        auswahl = FORTSETZEN;
+    }
+
+    public void menueSchliessen() {
+        menueOffen = false;
+    }
+
+    public boolean istMenueOffen() {
+        return menueOffen;
+    }
+
+    /**
+     * Verschiebt die Auswahl im Pausenmenü (am Ende geht es oben weiter)
+     * @param richtung -1 nach oben, 1 nach unten
+     */
+    public void auswahlVerschieben(int richtung) {
+        auswahl = Math.floorMod(auswahl + richtung, MENUE_EINTRAEGE.length);
+    }
+
+    /**
+     * Liefert den ausgewählten Eintrag (FORTSETZEN oder NEUSTART)
+     */
+    public int getAuswahl() {
+        return auswahl;
+    }
+
+    public void nachrichtZeigen(String nachricht) {
+        this.nachricht = nachricht;
+    }
+
+    public void nachrichtVerstecken() {
+        nachricht = null;
+    }
+
+    /**
+     * Zeichnet Countdown, Pause-Nachricht und Pausenmenü über das Spielfeld
+     * @param g Das Graphics-Objekt (bereits in logische Koordinaten transformiert)
+     * @param breite Logische Breite des Spielfelds
+     * @param hoehe Logische Höhe des Spielfelds
+     * @param countdownRest Restzeit des Countdowns in Nanosekunden (0 = kein Countdown)
+     */
+    public void zeichnen(Graphics2D g, int breite, int hoehe, long countdownRest) {
+        if (countdownRest > 0) {
+            g.setColor(Color.WHITE);
+            g.setFont(COUNTDOWN_SCHRIFT);
+            mittig(g, String.valueOf((countdownRest + SEKUNDE_NANOS - 1) / SEKUNDE_NANOS), breite, hoehe / 2 + 40);
+        }
+        if (!menueOffen && nachricht == null) {
+            return;
+        }
+
+        g.setColor(ABDUNKELN);
+        g.fillRect(0, 0, breite, hoehe);
+
+        if (nachricht != null) {
+            int y = menueOffen ? hoehe / 4 - 40 : hoehe / 2;
+            g.setColor(KASTEN);
+            g.fillRect(breite / 6, y - 35, breite * 2 / 3, 55);
+            g.setColor(Color.WHITE);
+            g.setFont(TEXT_SCHRIFT);
+            mittig(g, nachricht, breite, y);
+        }
+
+        if (menueOffen) {
+            int kastenBreite = 420;
+            int kastenHoehe = 120 + MENUE_EINTRAEGE.length * 45;
+            int x = (breite - kastenBreite) / 2;
+            int y = (hoehe - kastenHoehe) / 2;
+            g.setColor(KASTEN);
+            g.fillRect(x, y, kastenBreite, kastenHoehe);
+            g.setColor(Color.WHITE);
+            g.drawRect(x, y, kastenBreite, kastenHoehe);
+
+            g.setFont(TITEL_SCHRIFT);
+            mittig(g, "Pause", breite, y + 50);
+            g.setFont(EINTRAG_SCHRIFT);
+            for (int i = 0; i < MENUE_EINTRAEGE.length; i++) {
+                int zeile = y + 100 + i * 45;
+                if (i == auswahl) {
+                    g.setColor(AUSWAHL);
+                    g.fillRect(x + 60, zeile - 30, kastenBreite - 120, 40);
+                    g.setColor(Color.BLACK);
+                } else {
+                    g.setColor(Color.WHITE);
+                }
+                mittig(g, MENUE_EINTRAEGE[i], breite, zeile);
+            }
+            g.setColor(Color.LIGHT_GRAY);
+            g.setFont(KLEINE_SCHRIFT);
+            mittig(g, MENUE_HINWEIS, breite, y + kastenHoehe - 12);
+        }
+    }
+
+    /**
+     * Zeichnet den Siegerbildschirm mit Hinweis zum Neustart und (beim Host) der Bestenliste
+     * @param g Das Graphics-Objekt (bereits in logische Koordinaten transformiert)
+     * @param breite Logische Breite des Spielfelds
+     * @param hoehe Logische Höhe des Spielfelds
+     * @param siegerText z.B. "Spieler 1 gewinnt!"
+     * @param bestenliste Zeilen der Bestenliste (null = keine)
+     */
+    public void zeichneSieg(Graphics2D g, int breite, int hoehe, String siegerText, String[] bestenliste) {
+        g.setColor(Color.WHITE);
+        g.setFont(TITEL_SCHRIFT);
+        int textHoehe = g.getFontMetrics().getHeight();
+        int y = (hoehe - textHoehe) / 2;
+        mittig(g, siegerText, breite, y);
+
+        g.setFont(TEXT_SCHRIFT);
+        mittig(g, "Drücke Enter, um neu zu starten", breite, y + 50);
+
+        if (bestenliste != null) {
+            g.setFont(KLEINE_SCHRIFT);
+            for (int i = 0; i < bestenliste.length; i++) {
+                g.drawString(bestenliste[i], breite / 4, y + 100 + i * 22);
+            }
+        }
+    }
+
+    /**
+     * Zeichnet einen Text horizontal zentriert
+     */
+    private static void mittig(Graphics2D g, String text, int breite, int y) {
+        g.drawString(text, (breite - g.getFontMetrics().stringWidth(text)) / 2, y);
+    }
+}
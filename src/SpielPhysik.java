@@ -0,0 +1,401 @@
+/**
+ * Die Klasse SpielPhysik enthält die reine Spiellogik (Ball, Schläger, Punkte) eines Spiels.
+ * Sie kommt ohne AWT/Swing aus und kann deshalb auch headless (z.B. für Simulationen) genutzt werden.
+ */
+public class SpielPhysik {
+    public static final int SCHLAEGER_BREITE = 20; // Breite der Schläger
+    public static final int STANDARD_SCHLAEGER_HOEHE = 100; // Höhe der Schläger
+    public static final int BALL_GROESSE = 20; // Durchmesser des Balls
+    public static final int SCHLAEGER_ABSTAND = 10; // Abstand des linken Schläger vom Spielfeldrand
+    public static final int STANDARD_SCHLAEGER_GESCHWINDIGKEIT = 15; // Pixel pro Tastendruck
+    public static final int SIEG_PUNKTE = 3; // Punkte, die zum Sieg benötigt werden
+    public static final int MEHRBALL_SIEG_PUNKTE = 50; // im Mehrball-Modus fallen viel mehr Punkte
+    public static final int STANDARD_BREITE = 800; // Spielfeldgröße, wenn kein Fenster die Größe vorgibt (z.B. dedizierter Server)
+    public static final int STANDARD_HOEHE = 600;
+
+    // Ereignisse, die von schritt() als Bitmaske zurückgegeben werden
+    public static final int EREIGNIS_WAND = 1; // Ball hat obere/untere Wand berührt
+    public static final int EREIGNIS_SCHLAEGER = 2; // Ball wurde von einem Schläger zurückgespielt
+    public static final int EREIGNIS_PUNKT = 4; // Ein Spieler hat einen Punkt erzielt
+
+    public static final int ZUSTAND_LAENGE = 10; // Anzahl der Werte von zustandSpeichern()
+
+    private int breite; // Breite des Spielfelds
+    private int hoehe; // Höhe des Spielfelds
+    private int schlaegerHoehe = STANDARD_SCHLAEGER_HOEHE;
+    private int schlaegerGeschwindigkeit = STANDARD_SCHLAEGER_GESCHWINDIGKEIT;
+
+    private int spieler1Y; // Y-Position des Schlägers des Spieler1
+    private int spieler2Y; // Y-Position des Schlägers des Spieler2
+    private int ballX; // X-Position des Balls
+    private int ballY; // Y-Position des Balls
+    private int ballXGeschwindigkeit; // Geschwindigkeit des Balls in x
+    private int ballYGeschwindigkeit; // Geschwindigkeit des Balls in y
+    private int spieler1Punkte = 0; // Punktestand des Spieler1
+    private int spieler2Punkte = 0; // Punktestand des Spieler2
+    private int ballwechselTreffer = 0; // Schlägertreffer im aktuellen Ballwechsel
+    private int letzterBallwechsel = 0; // Schlägertreffer des zuletzt beendeten Ballwechsels
+    private int siegPunkte = SIEG_PUNKTE; // Punkte, die im aktuellen Modus zum Sieg benötigt werden
+
+    /**
+     * Konstruktor für die SpielPhysik
+     * @param breite Breite des Spielfelds
+     * @param hoehe Höhe des Spielfelds
+     */
+    public SpielPhysik(int breite, int hoehe) {
+        this.breite = breite;
+        this.hoehe = hoehe;
+        schlaegerZentrieren();
+    }
+
+    /**
+     * Liefert die Ballgeschwindigkeit (in x und y) für den jeweiligen Spielmodus.
+     *
+     * @param modus Der jeweilige Spielmodus.
+     * @return Geschwindigkeit in Pixel pro Tick
+     */
+    public static int ballGeschwindigkeit(SpielModus modus) {
+        switch (modus) {
+            case EINFACH:
+                return 2;
+            case MITTEL:
+            case MEHRBALL:
+                return 4;
+            case SCHWER:
+                return 6;
+            default:
+                throw new IllegalArgumentException("Unbekannter Spielmodus: " + modus);
+        }
+    }
+
+    /**
+     * Initialisiert die Ballgeschwindigkeit basierend auf dem Spielmodus.
+     *
+     * @param modus Der jeweilige Spielmodus.
+     */
+    public void initialisiereModus(SpielModus modus) {
+        setBallGeschwindigkeit(ballGeschwindigkeit(modus));
+        siegPunkte = modus == SpielModus.MEHRBALL ? MEHRBALL_SIEG_PUNKTE : SIEG_PUNKTE;
+    }
+
+    /**
+     * Setzt die Ballgeschwindigkeit direkt (z.B. für Balancing-Simulationen)
+     * @param geschwindigkeit Geschwindigkeit in Pixel pro Tick
+     */
+    public void setBallGeschwindigkeit(int geschwindigkeit) {
+        ballXGeschwindigkeit = geschwindigkeit;
+        ballYGeschwindigkeit = geschwindigkeit;
+    }
+
+    /**
+     * Setzt die Spielfeldgröße
+     * @param breite Breite des Spielfelds
+     * @param hoehe Höhe des Spielfelds
+     */
+    public void setGroesse(int breite, int hoehe) {
+        this.breite = breite;
+        this.hoehe = hoehe;
+    }
+
+    /**
+     * Setzt Höhe und Geschwindigkeit der Schläger (z.B. für Balancing-Simulationen)
+     * @param schlaegerHoehe Höhe der Schläger
+     * @param schlaegerGeschwindigkeit Pixel pro Schlägerbewegung
+     */
+    public void setSchlaeger(int schlaegerHoehe, int schlaegerGeschwindigkeit) {
+        this.schlaegerHoehe = schlaegerHoehe;
+        this.schlaegerGeschwindigkeit = schlaegerGeschwindigkeit;
+    }
+
+    /**
+     * Setzt beide Schläger in die Mitte des Spielfelds
+     */
+    public void schlaegerZentrieren() {
+        spieler1Y = hoehe / 2 - schlaegerHoehe / 2;
+        spieler2Y = hoehe / 2 - schlaegerHoehe / 2;
+    }
+
+    /**
+     * Setzt Punktestand und Ball für ein neues Spiel zurück
+     */
+    public void neuesSpiel() {
+        spieler1Punkte = 0;
+        spieler2Punkte = 0;
+        ballwechselTreffer = 0;
+        letzterBallwechsel = 0;
+        ballZuruecksetzen();
+    }
+
+    /**
+     * Berechnet die x-Koordinate des rechten Schlägers auf Basis der Spielfeldbreite
+     * @return x-Koordinate des Schlägers
+     */
+    public int rechterSchlaegerX() {
+        return breite - SCHLAEGER_ABSTAND - SCHLAEGER_BREITE;
+    }
+
+    /**
+     * Bewegt den Ball um einen Tick weiter und prüft Kollisionen.
+     *
+     * @return Bitmaske der aufgetretenen Ereignisse (EREIGNIS_WAND, EREIGNIS_SCHLAEGER, EREIGNIS_PUNKT)
+     */
+    public int schritt() {
+        ballX += ballXGeschwindigkeit;
+        ballY += ballYGeschwindigkeit;
+        return kollisionPruefen();
+    }
+
+    /**
+     * Prüft die Ballkollision mit den Wänden bzw. Schlägern
+     * @return Bitmaske der aufgetretenen Ereignisse
+     */
+    private int kollisionPruefen() {
+        int ereignisse = 0;
+
+        // Ballkollision mit oberer und unterer Wand
+        if (ballY <= 0 || ballY >= hoehe - BALL_GROESSE) {
+            ballYGeschwindigkeit = -ballYGeschwindigkeit; // Richtung umkehren
+            ereignisse |= EREIGNIS_WAND;
+        }
+
+        // Ballkollision mit Schläger-Links (spieler1)
+        if (ballX <= SCHLAEGER_ABSTAND + SCHLAEGER_BREITE && ballY + BALL_GROESSE >= spieler1Y && ballY <= spieler1Y + schlaegerHoehe) {
+            if (ballXGeschwindigkeit < 0) { // Nur echte Richtungswechsel als Treffer zählen
+                ballwechselTreffer++;
+                ereignisse |= EREIGNIS_SCHLAEGER;
+            }
+            ballXGeschwindigkeit = Math.abs(ballXGeschwindigkeit);  // Ball nach rechts bewegen
+        }
+        else if (ballX <= 0) { // linke Wand berührt
+            spieler2Punkte++;
+            ballwechselBeenden();
+            ereignisse |= EREIGNIS_PUNKT;
+        }
+
+        // Ballkollision mit Schläger-Rechts (spieler2)
+        if (ballX + BALL_GROESSE >= rechterSchlaegerX() && ballY + BALL_GROESSE >= spieler2Y && ballY <= spieler2Y + schlaegerHoehe) {
+            if (ballXGeschwindigkeit > 0) {
+                ballwechselTreffer++;
+                ereignisse |= EREIGNIS_SCHLAEGER;
+            }
+            ballXGeschwindigkeit = -Math.abs(ballXGeschwindigkeit);  // Ball nach links bewegen
+        }
+        else if (ballX >= breite - BALL_GROESSE) { // rechte Wand berührt
+            spieler1Punkte++;
+            ballwechselBeenden();
+            ereignisse |= EREIGNIS_PUNKT;
+        }
+
+        return ereignisse;
+    }
+
+    /**
+     * Merkt sich die Länge des beendeten Ballwechsels und setzt den Ball zurück
+     */
+    private void ballwechselBeenden() {
+        letzterBallwechsel = ballwechselTreffer;
+        ballwechselTreffer = 0;
+        ballZuruecksetzen();
+    }
+
+    /**
+     * Vergibt einen Punkt, ohne den Ball zurückzusetzen (für zusätzliche Bälle im Mehrball-Modus)
+     * @param spieler 1 oder 2
+     */
+    public void punktHinzufuegen(int spieler) {
+        if (spieler == 1) {
+            spieler1Punkte++;
+        } else {
+            spieler2Punkte++;
+        }
+    }
+
+    /**
+     * Setzt die Ballposition zurück und bestimmt die Richtung basierend auf dem Punktestand.
+     */
+    public void ballZuruecksetzen() {
+        ballX = breite / 2 - BALL_GROESSE / 2; // Ball mittig in der x-Achse positionieren
+        ballY = hoehe / 2 - BALL_GROESSE / 2; // Ball mittig in der y-Achse positionieren
+        ballXGeschwindigkeit = Math.abs(ballXGeschwindigkeit) * (spieler1Punkte > spieler2Punkte ? -1 : 1); // Richtung
+        // basierend auf Punktestand (am Anfang: fliegt der Ball immer nach rechts, danach: -1 -> links, 1 -> rechts)
+        ballYGeschwindigkeit = Math.abs(ballYGeschwindigkeit); // Sicherstellen, dass der Ball korrekt startet (nach Unten)
+    }
+
+    /**
+     * Bewegt den Schläger von Spieler 1 um einen Schritt (wie bei einem Tastendruck)
+     * @param richtung -1 für nach oben, 1 für nach unten
+     */
+    public void bewegeSpieler1(int richtung) {
+        spieler1Y = begrenzeSchlaeger(spieler1Y + richtung * schlaegerGeschwindigkeit);
+    }
+
+    /**
+     * Bewegt den Schläger von Spieler 2 um einen Schritt (wie bei einem Tastendruck)
+     * @param richtung -1 für nach oben, 1 für nach unten
+     */
+    public void bewegeSpieler2(int richtung) {
+        spieler2Y = begrenzeSchlaeger(spieler2Y + richtung * schlaegerGeschwindigkeit);
+    }
+
+    /**
+     * Hält eine Schlägerposition innerhalb des Spielfelds
+     */
+    private int begrenzeSchlaeger(int y) {
+        if (y < 0) {
+            return 0;
+        }
+        if (y > hoehe - schlaegerHoehe) {
+            return hoehe - schlaegerHoehe;
+        }
+        return y;
+    }
+
+    /**
+     * Übernimmt einen vom Host empfangenen Spielzustand (wird vom Client genutzt)
+     */
+    public void setZustand(int ballX, int ballY, int spieler1Y, int spieler2Y, int spieler1Punkte, int spieler2Punkte) {
+        this.ballX = ballX;
+        this.ballY = ballY;
+        this.spieler1Y = spieler1Y;
+        this.spieler2Y = spieler2Y;
+        this.spieler1Punkte = spieler1Punkte;
+        this.spieler2Punkte = spieler2Punkte;
+    }
+
+    /**
+     * Schreibt den vollständigen Zustand (inkl. Geschwindigkeiten) in ein Array, z.B. für Rollback im Lockstep-Modus
+     * @param ziel Array mit mindestens offset + ZUSTAND_LAENGE Einträgen
+     * @param offset Erster Index im Array
+     */
+    public void zustandSpeichern(int[] ziel, int offset) {
+        ziel[offset] = ballX;
+        ziel[offset + 1] = ballY;
+        ziel[offset + 2] = ballXGeschwindigkeit;
+        ziel[offset + 3] = ballYGeschwindigkeit;
+        ziel[offset + 4] = spieler1Y;
+        ziel[offset + 5] = spieler2Y;
+        ziel[offset + 6] = spieler1Punkte;
+        ziel[offset + 7] = spieler2Punkte;
+        ziel[offset + 8] = ballwechselTreffer;
+        ziel[offset + 9] = letzterBallwechsel;
+    }
+
+    /**
+     * Übernimmt einen mit zustandSpeichern() gesicherten Zustand
+     * @param quelle Array mit dem Zustand
+     * @param offset Erster Index im Array
+     */
+    public void zustandLaden(int[] quelle, int offset) {
+        ballX = quelle[offset];
+        ballY = quelle[offset + 1];
+        ballXGeschwindigkeit = quelle[offset + 2];
+        ballYGeschwindigkeit = quelle[offset + 3];
+        spieler1Y = quelle[offset + 4];
+        spieler2Y = quelle[offset + 5];
+        spieler1Punkte = quelle[offset + 6];
+        spieler2Punkte = quelle[offset + 7];
+        ballwechselTreffer = quelle[offset + 8];
+        letzterBallwechsel = quelle[offset + 9];
+    }
+
+    /**
+     * Berechnet eine schnelle Prüfsumme (FNV-1a über die Werte) des Zustands, der im UPDATE übertragen wird.
+     * Host und Client berechnen sie aus denselben Werten und können so Abweichungen erkennen.
+     * @return Die Prüfsumme
+     */
+    public static int pruefsumme(long tick, int ballX, int ballY, int spieler1Y, int spieler2Y, int spieler1Punkte, int spieler2Punkte) {
+        int h = 0x811C9DC5;
+        h = (h ^ (int) tick) * 0x01000193;
+        h = (h ^ ballX) * 0x01000193;
+        h = (h ^ ballY) * 0x01000193;
+        h = (h ^ spieler1Y) * 0x01000193;
+        h = (h ^ spieler2Y) * 0x01000193;
+        h = (h ^ spieler1Punkte) * 0x01000193;
+        h = (h ^ spieler2Punkte) * 0x01000193;
+        return h;
+    }
+
+    /**
+     * Ob ein Spieler die nötigen Punkte zum Sieg erreicht hat
+     * @return true wenn das Spiel vorbei ist, sonst false
+     */
+    public boolean istSpielVorbei() {
+        return spieler1Punkte >= siegPunkte || spieler2Punkte >= siegPunkte;
+    }
+
+    public int getSiegPunkte() {
+        return siegPunkte;
+    }
+
+    public int getBreite() {
+        return breite;
+    }
+
+    public int getHoehe() {
+        return hoehe;
+    }
+
+    public int getSchlaegerHoehe() {
+        return schlaegerHoehe;
+    }
+
+    public int getSchlaegerGeschwindigkeit() {
+        return schlaegerGeschwindigkeit;
+    }
+
+    public int getSpieler1Y() {
+        return spieler1Y;
+    }
+
+    public int getSpieler2Y() {
+        return spieler2Y;
+    }
+
+    public void setSpieler2Y(int spieler2Y) {
+        this.spieler2Y = spieler2Y;
+    }
+
+    /**
+     * Setzt die Schlägerposition eines Spielers, begrenzt auf das Spielfeld (z.B. für Positionen aus dem Netzwerk)
+     * @param spieler 1 oder 2
+     * @param y Die gewünschte Y-Position
+     */
+    public void setSpielerY(int spieler, int y) {
+        if (spieler == 1) {
+            spieler1Y = begrenzeSchlaeger(y);
+        } else {
+            spieler2Y = begrenzeSchlaeger(y);
+        }
+    }
+
+    public int getBallX() {
+        return ballX;
+    }
+
+    public int getBallY() {
+        return ballY;
+    }
+
+    public int getBallXGeschwindigkeit() {
+        return ballXGeschwindigkeit;
+    }
+
+    public int getBallYGeschwindigkeit() {
+        return ballYGeschwindigkeit;
+    }
+
+    public int getSpieler1Punkte() {
+        return spieler1Punkte;
+    }
+
+    public int getSpieler2Punkte() {
+        return spieler2Punkte;
+    }
+
+    /**
+     * Anzahl der Schlägertreffer des zuletzt beendeten Ballwechsels
+     */
+    public int getLetzterBallwechsel() {
+        return letzterBallwechsel;
+    }
+}
@@ -16,11 +16,11 @@ public class SpielRahmen extends JFrame {
     private static void startGui() {
         JFrame f = new SpielRahmen();
         f.setTitle("Pong");
-        f.setSize(800, 600);
-        f.setResizable(false); // Größe des Fensters ist nicht veränderbar
+        f.setResizable(true); // Spielfeld skaliert mit der Fenstergröße, F11 schaltet auf Vollbild
         f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        f.setLocationRelativeTo(null); // Setzt die Position des Fensters in der Mitte des Bildschirms
         f.add(new SpielFeld()); // Fügt das Spielfeld zum Fenster hinzu
+        f.pack(); // Fenstergröße aus der bevorzugten Größe des Spielfelds (800x600 logische Einheiten)
+        f.setLocationRelativeTo(null); // Setzt die Position des Fensters in der Mitte des Bildschirms
         f.setVisible(true); // um das Fenster sichtbar zu machen
     }
 } 
\ No newline at end of file
@@ -0,0 +1,399 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die Klasse SpielRouter verteilt Spiele auf mehrere DedizierterServer-Prozesse (Arbeiter), damit die Kapazität
+ * mit der Anzahl der Prozesse und Rechner wächst statt durch eine JVM begrenzt zu sein.
+ *
+ * Clients verbinden sich mit dem Router wie mit einem Server. Der erste Spieler eines Spiels geht an den Arbeiter
+ * mit der geringsten Last (Auslastung der Spiele und Überlaufrate der Ticks), der zweite an denselben Arbeiter.
+ * Danach kopiert der Router nur noch die Bytes in beide Richtungen und versteht das Spielprotokoll nicht.
+ * Arbeiter melden sich über den Steuer-Port an und schicken regelmäßig ihre Last (siehe LastMelder).
+ *
+ * Aufruf: java SpielRouter [--port=5000] [--steuer-port=5100]
+ *         java DedizierterServer --port=5001 --router=localhost:5100 (beliebig viele Arbeiter)
+ */
+public class SpielRouter {
+    private static final int VERBINDEN_TIMEOUT_MS = 2000; // Verbindungsaufbau zu einem Arbeiter
+    private static final int PUFFER_GROESSE = 8192;
+    private static final double UEBERLAUF_GEWICHT = 2.0; // 10% verspätete Ticks wiegen wie 20% mehr Spiele
+    private static final long SPERRE_NANOS = 5_000_000_000L; // nicht erreichbarer Arbeiter bekommt so lange keine Spiele
+
+    private final int port;
+    private final int steuerPort;
+    private final List<Arbeiter> arbeiter = new ArrayList<>(); // angemeldete Arbeiter
+    private Weiterleitung wartend; // erster Spieler eines Spiels, dessen zweiter Spieler noch fehlt
+    private ServerSocket serverSocket;
+    private ServerSocket steuerSocket;
+    private volatile boolean isRunning = false;
+    private ServerSuche suche; // beantwortet Suchanfragen aus dem LAN
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int port = 5000;
+        int steuerPort = 5100;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--port=")) {
+                    port = Integer.parseInt(arg.substring("--port=".length()));
+                } else if (arg.startsWith("--steuer-port=")) {
+                    steuerPort = Integer.parseInt(arg.substring("--steuer-port=".length()));
+                } else {
+                    throw new IllegalArgumentException("Unbekanntes Argument: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Fehlerhafte Konfiguration: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        SpielRouter router = new SpielRouter(port, steuerPort);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                router.stoppen();
+            }
+        }));
+        try {
+            router.starten();
+        } catch (IOException e) {
+            System.out.println("Fehler beim Starten des Routers: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Konstruktor für den SpielRouter
+     * @param port Port für Clients
+     * @param steuerPort Port für die Anmeldung und Lastmeldungen der Arbeiter
+     */
+    public SpielRouter(int port, int steuerPort) {
+        this.port = port;
+        this.steuerPort = steuerPort;
+    }
+
+    /**
+     * Startet den Router und nimmt Clients an, bis er gestoppt wird (blockiert)
+     * @throws IOException wenn ein Port nicht geöffnet werden kann
+     */
+    public void starten() throws IOException {
+        steuerSocket = new ServerSocket(steuerPort);
+        serverSocket = new ServerSocket(port);
+        isRunning = true;
+        System.out.println("Router gestartet auf Port " + serverSocket.getLocalPort() + " (Steuer-Port " + steuerSocket.getLocalPort() + ")");
+
+        Thread steuerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                arbeiterAnnehmen();
+            }
+        }, "Router-Steuerung");
+        steuerThread.setDaemon(true);
+        steuerThread.start();
+        suche = ServerSuche.antworten(serverSocket.getLocalPort(), "Pong-Router", new ServerSuche.Belegung() {
+            @Override
+            public boolean hatPlatz() {
+                synchronized (SpielRouter.this) {
+                    return wartend != null || arbeiterWaehlen() != null;
+                }
+            }
+        });
+
+        while (isRunning) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (isRunning) {
+                    System.out.println("Verbindungsfehler: " + e.getMessage());
+                }
+                continue;
+            }
+            clientVerteilen(client);
+        }
+    }
+
+    /**
+     * Nimmt Steuer-Verbindungen der Arbeiter an (eigener Thread)
+     */
+    private void arbeiterAnnehmen() {
+        while (isRunning) {
+            try {
+                Socket socket = steuerSocket.accept();
+                Verbindung verbindung = new Verbindung(new SocketTransport(socket));
+                verbindung.starten(new Arbeiter(socket.getInetAddress()));
+            } catch (IOException e) {
+                if (isRunning) {
+                    System.out.println("Fehler auf dem Steuer-Port: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Verbindet einen neuen Client mit einem Arbeiter und startet die Weiterleitung
+     */
+    private void clientVerteilen(Socket client) {
+        while (true) {
+            Arbeiter ziel;
+            boolean ersterSpieler;
+            synchronized (this) {
+                if (wartend != null && !wartend.istBeendet() && wartend.arbeiter.istVerfuegbar()) {
+                    ziel = wartend.arbeiter; // zweiter Spieler zum selben Arbeiter
+                    ersterSpieler = false;
+                } else {
+                    ziel = arbeiterWaehlen();
+                    ersterSpieler = true;
+                }
+            }
+            if (ziel == null) {
+                abweisen(client, "VOLL:Kein Spielserver verfügbar");
+                return;
+            }
+
+            Socket server = new Socket();
+            try {
+                server.connect(new InetSocketAddress(ziel.adresse, ziel.port), VERBINDEN_TIMEOUT_MS);
+                server.setTcpNoDelay(true);
+                client.setTcpNoDelay(true);
+            } catch (IOException e) {
+                System.out.println("Arbeiter " + ziel + " nicht erreichbar: " + e.getMessage());
+                ziel.sperren();
+                schliessen(server);
+                continue; // anderen Arbeiter versuchen
+            }
+
+            Weiterleitung weiterleitung = new Weiterleitung(client, server, ziel);
+            synchronized (this) {
+                wartend = ersterSpieler ? weiterleitung : null;
+                if (ersterSpieler) {
+                    ziel.neueSpiele++;
+                }
+            }
+            weiterleitung.starten();
+            System.out.println("Client " + client.getRemoteSocketAddress() + " -> " + ziel
+                + (ersterSpieler ? " (neues Spiel)" : " (zweiter Spieler)"));
+            return;
+        }
+    }
+
+    /**
+     * Wählt den Arbeiter mit der geringsten Last, der noch Platz hat
+     * @return Der Arbeiter oder null, wenn keiner verfügbar ist
+     */
+    private synchronized Arbeiter arbeiterWaehlen() {
+        Arbeiter bester = null;
+        double besteLast = Double.MAX_VALUE;
+        for (Arbeiter a : arbeiter) {
+            if (!a.istVerfuegbar() || a.spiele + a.neueSpiele >= a.maxSpiele) {
+                continue;
+            }
+            double last = a.last();
+            if (last < besteLast) {
+                besteLast = last;
+                bester = a;
+            }
+        }
+        return bester;
+    }
+
+    /**
+     * Sendet einem Client eine Absage im Spielprotokoll und trennt die Verbindung
+     */
+    private static void abweisen(Socket client, String nachricht) {
+        try {
+            client.getOutputStream().write((nachricht + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Client ist ohnehin weg
+        }
+        schliessen(client);
+    }
+
+    private static void schliessen(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // bereits geschlossen
+        }
+    }
+
+    /**
+     * Entfernt eine beendete Weiterleitung (wartete sie auf den zweiten Spieler, beginnt der nächste ein neues Spiel)
+     */
+    private synchronized void weiterleitungBeendet(Weiterleitung weiterleitung) {
+        if (wartend == weiterleitung) {
+            wartend = null;
+        }
+    }
+
+    /**
+     * Stoppt den Router. Laufende Weiterleitungen bleiben bis zum Ende ihrer Spiele bestehen.
+     */
+    public void stoppen() {
+        if (!isRunning) {
+            return;
+        }
+        isRunning = false;
+        if (suche != null) {
+            suche.stoppen();
+        }
+        try {
+            if (serverSocket != null) serverSocket.close();
+            if (steuerSocket != null) steuerSocket.close();
+        } catch (IOException e) {
+            System.out.println("Fehler beim Schließen des Routers: " + e.getMessage());
+        }
+        System.out.println("Router gestoppt");
+    }
+
+    /**
+     * Ein angemeldeter Spielserver und seine zuletzt gemeldete Last
+     * (Felder werden unter der Sperre des Routers gelesen und geschrieben)
+     */
+    private class Arbeiter implements NachrichtenEmpfaenger {
+        private final InetAddress adresse;
+        private int port = 0; // 0 = noch nicht angemeldet
+        private int spiele = 0;
+        private int maxSpiele = 1;
+        private int ueberlaufPromille = 0;
+        private int neueSpiele = 0; // seit der letzten Meldung zugewiesene Spiele (noch nicht in spiele enthalten)
+        private long gesperrtBis = System.nanoTime(); // nach einem fehlgeschlagenen Verbindungsaufbau
+
+        Arbeiter(InetAddress adresse) {
+            this.adresse = adresse;
+        }
+
+        /**
+         * Last zwischen 0 (leer) und etwa 1 (voll), verspätete Ticks zählen zusätzlich
+         */
+        double last() {
+            return (double) (spiele + neueSpiele) / maxSpiele + UEBERLAUF_GEWICHT * ueberlaufPromille / 1000.0;
+        }
+
+        /**
+         * Ob der Arbeiter angemeldet und nicht gesperrt ist
+         */
+        boolean istVerfuegbar() {
+            return port != 0 && System.nanoTime() - gesperrtBis >= 0;
+        }
+
+        /**
+         * Eine Weile keine Spiele mehr zuweisen (Arbeiter war nicht erreichbar)
+         */
+        void sperren() {
+            synchronized (SpielRouter.this) {
+                gesperrtBis = System.nanoTime() + SPERRE_NANOS;
+            }
+        }
+
+        @Override
+        public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+            int trenner = nachricht.indexOf(':');
+            if (trenner < 0) {
+                return;
+            }
+            String befehl = nachricht.substring(0, trenner);
+            String[] werte = nachricht.substring(trenner + 1).split(",");
+            try {
+                synchronized (SpielRouter.this) {
+                    if (befehl.equals("ANMELDEN")) {
+                        port = Integer.parseInt(werte[0]);
+                        arbeiter.add(this);
+                        System.out.println("Arbeiter " + this + " angemeldet (" + arbeiter.size() + " insgesamt)");
+                    } else if (befehl.equals("LAST") && werte.length == 4) {
+                        spiele = Integer.parseInt(werte[0]);
+                        maxSpiele = Math.max(1, Integer.parseInt(werte[1]));
+                        ueberlaufPromille = Integer.parseInt(werte[3]);
+                        neueSpiele = 0;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Ungültige Meldung von Arbeiter " + this + ": " + nachricht);
+            }
+        }
+
+        /**
+         * Steuer-Verbindung beendet (Arbeiter gestoppt, abgestürzt oder Timeout) -> keine neuen Spiele mehr
+         */
+        @Override
+        public void verbindungGetrennt(Verbindung verbindung) {
+            synchronized (SpielRouter.this) {
+                if (arbeiter.remove(this)) {
+                    System.out.println("Arbeiter " + this + " abgemeldet (" + arbeiter.size() + " verbleibend)");
+                }
+                port = 0;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return adresse.getHostAddress() + ":" + port;
+        }
+    }
+
+    /**
+     * Kopiert die Bytes zwischen einem Client und seinem Arbeiter in beide Richtungen (je ein Thread).
+     * Endet eine Richtung, werden beide Sockets geschlossen.
+     */
+    private class Weiterleitung {
+        private final Socket client;
+        private final Socket server;
+        private final Arbeiter arbeiter;
+        private volatile boolean beendet = false;
+
+        Weiterleitung(Socket client, Socket server, Arbeiter arbeiter) {
+            this.client = client;
+            this.server = server;
+            this.arbeiter = arbeiter;
+        }
+
+        void starten() {
+            kopierThread(client, server, "Router-Hin");
+            kopierThread(server, client, "Router-Zurueck");
+        }
+
+        boolean istBeendet() {
+            return beendet;
+        }
+
+        private void kopierThread(Socket von, Socket nach, String name) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    byte[] puffer = new byte[PUFFER_GROESSE];
+                    try {
+                        InputStream ein = von.getInputStream();
+                        OutputStream aus = nach.getOutputStream();
+                        int gelesen;
+                        while ((gelesen = ein.read(puffer)) >= 0) {
+                            aus.write(puffer, 0, gelesen); // ungepuffert: jede Nachricht sofort weiter
+                        }
+                    } catch (IOException e) {
+                        // Verbindung abgebrochen -> wie Ende behandeln
+                    }
+                    beenden();
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void beenden() {
+            if (beendet) {
+                return;
+            }
+            beendet = true;
+            schliessen(client);
+            schliessen(server);
+            weiterleitungBeendet(this);
+        }
+    }
+}
@@ -1,16 +1,22 @@
 import java.io.*;
 import java.net.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Die Klasse SpielServer repräsentiert den Server für das Pong-Spiel
  */
-public class SpielServer implements Runnable {
+public class SpielServer implements Runnable, NachrichtenEmpfaenger {
     private ServerSocket serverSocket; // für die Annahme von Client-Verbindungen
-    private Socket clientSocket; // für die Verbindung zum verbundenen Client
-    private PrintWriter out; // zum Senden von Ausgaben an den Client
-    private BufferedReader in; // zum Empfangen von Eingaben vom Client
+    private volatile Verbindung verbindung; // für die Verbindung zum verbundenen Client (Lesen und Senden)
+    private volatile EingangsSchutz schutz; // Budget der Nachrichten des Clients (nur im Lese-Thread benutzt)
+    private final AtomicBoolean bewegungAusstehend = new AtomicBoolean(); // zusammengefasste Bewegung wartet auf die Spielschleife
+    private volatile int ausstehendePosition; // neueste zusammengefasste Position
     private SpielSteuerung spielSteuerung;
-    private boolean isRunning = false; // ob Server läuft
+    private volatile boolean isRunning = false; // ob Server läuft
+    private volatile SpeicherTransport angebot; // Datei, auf deren Client gewartet wird (nur gemeinsamer Speicher)
+    private Thread annahmeThread; // nimmt Clients an
+    private ServerSuche suche; // beantwortet Suchanfragen aus dem LAN (null, wenn nicht möglich)
     private static final int PORT = 5000; // Port auf dem der Server auf Verbindung von Client lauscht 
 
     /**
@@ -26,89 +32,239 @@ public class SpielServer implements Runnable {
      */
     public void startServer() {
         try {
-            serverSocket = new ServerSocket(PORT);
+            if (SpeicherTransport.AKTIV) { // Client auf demselben Rechner über gemeinsamen Speicher statt TCP
+                System.out.println("Server gestartet mit gemeinsamem Speicher " + SpeicherTransport.standardDatei(PORT));
+            } else {
+                serverSocket = new ServerSocket(PORT);
+                System.out.println("Server gestartet auf Port " + PORT);
+                suche = ServerSuche.antworten(PORT, "Pong von " + SpielSteuerung.SPIELER_NAME, new ServerSuche.Belegung() {
+                    @Override
+                    public boolean hatPlatz() {
+                        return !istClientVerbunden();
+                    }
+                });
+            }
             isRunning = true;
-            System.out.println("Server gestartet auf Port " + PORT);
             
             // Server in einem separaten Thread starten
-            Thread thread = new Thread(this);
-            thread.start();
+            annahmeThread = new Thread(this);
+            annahmeThread.start();
         } catch (IOException e) {
             System.out.println("Fehler beim Starten des Servers: " + e.getMessage());
         }
     }
 
     /**
-     * Server-Hauptschleife, die im separaten Thread läuft
+     * Wartet im separaten Thread auf den Client. Lesen und Senden übernimmt danach die Verbindung.
+     * Ist die Verbindung beendet, kann sich wieder ein Client verbinden; weitere Clients werden abgewiesen.
      */
     @Override
     public void run() {
-        try {
-            // Auf Client-Verbindung warten
-            System.out.println("Warte auf Client-Verbindung...");
-            clientSocket = serverSocket.accept();
-            System.out.println("Client verbunden: " + clientSocket.getInetAddress());
-
-            // Input/Output Streams initialisieren
-            // Der OutputStream des clientSocket wird verwendet, um Daten an den Client zu senden.
-            // Der zweite Parameter 'true' aktiviert den AutoFlush-Modus, 
-            // sodass der Puffer nach jedem Aufruf von z.B. println() automatisch geleert wird.
-            // Dies stellt sicher, dass die gesendeten Daten sofort an den Client übertragen werden.
-            out = new PrintWriter(clientSocket.getOutputStream(), true); 
-
-            // Der InputStream des clientSocket wird verwendet, um Daten vom Client zu lesen.
-            // InputStreamReader wandelt die Byte-Daten in Zeichen um, sodass sie als Text verarbeitet werden können.
-            // BufferedReader ermöglicht das effiziente Lesen von Textdaten, indem er einen Puffer verwendet,
-            // was die Leistung beim Lesen von Daten verbessert.
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-
-            // Hauptschleife für die Kommunikation
-            while (isRunning) {
-                // Nachrichten vom Client empfangen
-                String inputLine = in.readLine();
-                if (inputLine != null) {
-                    verarbeiteClientNachricht(inputLine);
+        if (SpeicherTransport.AKTIV) {
+            speicherClientsAnnehmen();
+            return;
+        }
+        while (isRunning) {
+            try {
+                // Auf Client-Verbindung warten (blockiert ohne CPU-Last)
+                System.out.println("Warte auf Client-Verbindung...");
+                Socket clientSocket = serverSocket.accept();
+                if (istClientVerbunden()) {
+                    abweisen(clientSocket);
+                    continue;
+                }
+                System.out.println("Client verbunden: " + clientSocket.getInetAddress());
+                verbindungAnnehmen(new SocketTransport(clientSocket, EingangsSchutz.MAX_ZEILE));
+            } catch (IOException e) {
+                if (isRunning) {
+                    System.out.println("Verbindungsfehler: " + e.getMessage());
                 }
             }
+        }
+    }
+
+    /**
+     * Bietet nacheinander Dateien für den gemeinsamen Speicher an. Eine neue Datei gibt es erst,
+     * wenn die Verbindung zum vorherigen Client beendet ist.
+     */
+    private void speicherClientsAnnehmen() {
+        while (isRunning) {
+            try {
+                SpeicherTransport transport = SpeicherTransport.anbieten(SpeicherTransport.standardDatei(PORT));
+                angebot = transport;
+                System.out.println("Warte auf Client-Verbindung...");
+                if (!transport.warteAufClient()) {
+                    return; // Server wurde gestoppt
+                }
+                System.out.println("Client verbunden: " + transport.getAdresse());
+                verbindungAnnehmen(transport);
+                while (isRunning && istClientVerbunden()) {
+                    LockSupport.park(this); // verbindungGetrennt() weckt auf
+                }
+            } catch (IOException e) {
+                System.out.println("Fehler beim gemeinsamen Speicher: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Übernimmt einen verbundenen Client, egal über welchen Transport (auch im selben Prozess über
+     * WarteschlangenTransport). Die Verbindung liest Nachrichten in einem eigenen Thread und sendet über einen
+     * eigenen Sende-Thread, dessen Snapshot-Rate sich an die Leitung anpasst (siehe SenderateRegler).
+     * @param transport Der verbundene Transport
+     */
+    public void verbindungAnnehmen(Transport transport) {
+        Verbindung neueVerbindung = new Verbindung(transport);
+        neueVerbindung.setMessung(spielSteuerung.getMessung());
+        schutz = new EingangsSchutz(neueVerbindung);
+        verbindung = neueVerbindung;
+        neueVerbindung.starten(this);
+        spielSteuerung.getBefehle().veroeffentlichen(spielSteuerung.getBefehle().reservieren(Befehl.VERBUNDEN));
+    }
+
+    /**
+     * Weist einen weiteren Client ab, solange ein Spiel läuft
+     */
+    private void abweisen(Socket socket) {
+        try (Socket s = socket) {
+            PrintWriter out = new PrintWriter(s.getOutputStream(), true);
+            out.println("VOLL:Es ist bereits ein Client verbunden");
         } catch (IOException e) {
-            System.out.println("Verbindungsfehler: " + e.getMessage());
-        } finally { // Der finally-Block wird immer ausgeführt, nachdem der try-Block und eventuelle catch-Blöcke abgeschlossen sind.
-                    // In diesem Fall wird der Server gestoppt und alle Ressourcen freizugeben, unabhängig davon, ob im try-Block eine 
-                    // Exception aufgetreten ist oder nicht.
-                    // Dies stellt sicher, dass der Server immer korrekt heruntergefahren wird, um mögliche Ressourcenlecks zu vermeiden.
-            stopServer();
+            System.out.println("Fehler beim Abweisen eines Clients: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wird von der Verbindung für jede Nachricht des Clients aufgerufen
+     */
+    @Override
+    public void nachrichtEmpfangen(Verbindung verbindung, String nachricht) {
+        Aufzeichnung.Nachricht ereignis = Aufzeichnung.nachrichtBeginnen();
+        spielSteuerung.getMessung().empfangen(nachricht.length() + 1, false);
+        int pruefung = schutz.pruefen(nachricht);
+        if (pruefung == EingangsSchutz.ZUSAMMENFASSEN
+                || pruefung == EingangsSchutz.ERLAUBT && bewegungAusstehend.get() && EingangsSchutz.istBewegung(nachricht)) {
+            bewegungZusammenfassen(EingangsSchutz.position(nachricht)); // nicht an einer ausstehenden Bewegung vorbei
+        } else if (pruefung == EingangsSchutz.ERLAUBT) {
+            verarbeiteClientNachricht(nachricht);
         }
+        Aufzeichnung.nachrichtBeenden(ereignis, nachricht);
     }
 
     /**
-     * Verarbeitet eingehende Nachrichten vom Client
+     * Merkt sich eine Bewegung über dem Budget nur als neueste Position. In der Befehlswarteschlange steht dafür
+     * höchstens ein Befehl, die Spielschleife holt beim Ausführen die dann neueste Position (zusammengefassteBewegung).
+     */
+    private void bewegungZusammenfassen(int position) {
+        if (position < 0) {
+            return;
+        }
+        ausstehendePosition = position;
+        if (bewegungAusstehend.compareAndSet(false, true)) {
+            spielSteuerung.getBefehle().veroeffentlichen(spielSteuerung.getBefehle().reservieren(Befehl.BEWEGUNG_ZUSAMMENGEFASST));
+        }
+    }
+
+    /**
+     * Liefert die neueste zusammengefasste Position (wird von der Spielschleife aufgerufen)
+     */
+    public int zusammengefassteBewegung() {
+        bewegungAusstehend.set(false); // vorher zurücksetzen: eine spätere Bewegung erzeugt einen neuen Befehl
+        return ausstehendePosition;
+    }
+
+    /**
+     * Wird von der Verbindung aufgerufen, wenn der Client die Verbindung beendet hat
+     */
+    @Override
+    public void verbindungGetrennt(Verbindung verbindung) {
+        System.out.println("Client-Verbindung beendet");
+        if (isRunning && verbindung == this.verbindung) {
+            spielSteuerung.verbindungGetrennt();
+        }
+        if (annahmeThread != null) {
+            LockSupport.unpark(annahmeThread); // gemeinsamer Speicher: nächste Datei anbieten
+        }
+    }
+
+    /**
+     * Verarbeitet eingehende Nachrichten vom Client. Der Lese-Thread ändert keinen Spielzustand: Nachrichten werden
+     * in Befehle zerlegt und von der Spielschleife ausgeführt (siehe SpielSteuerung.befehleAusfuehren).
+     * Nur die Laufzeitmessung wird direkt beantwortet.
      * @param nachricht Die empfangene Nachricht
      */
     private void verarbeiteClientNachricht(String nachricht) {
         // Format der Nachricht: BEFEHL:DATEN (Y-Position des 2.Spielers)
-        String[] teile = nachricht.split(":");
-    
-        String befehl = teile[0];
+        int trenner = nachricht.indexOf(':');
+        if (trenner < 0) {
+            return;
+        }
+        String befehl = nachricht.substring(0, trenner);
         
-        // Ohne dem würde die Pause-Nachricht beim Host nicht entfernt werden
-        if (befehl.equals("VERSTECKE_NACHRICHT")) {
-            // Verstecke die Pause-Nachricht beim Host
-            spielSteuerung.versteckePauseNachricht();
+        // Laufzeitmessung: PING beantworten, PONG auswerten
+        if (befehl.equals("PING")) {
+            sendeSpielZustand("PONG:" + nachricht.substring(trenner + 1));
+            return;
+        } else if (befehl.equals("PONG")) {
+            try {
+                spielSteuerung.getMessung().rttGemessen(System.nanoTime() - Long.parseLong(nachricht.substring(trenner + 1)));
+            } catch (NumberFormatException e) {
+                // fehlerhafte Antwort ignorieren, der Lese-Thread läuft weiter
+            }
             return;
-        } else if (befehl.equals("MOVE")){
-            int neuePosition = Integer.parseInt(teile[1]);
-
-            if (neuePosition == -5) { // Spezielles Signal - Pause-Nachricht beim Host anzeigen (Spiel von Client pausiert)
-                spielSteuerung.zeigePauseNachricht("Spieler 2 hat das Spiel pausiert");
-                spielSteuerung.setPausiert(true);
-            } else if (neuePosition == -1) { // Spezielles Signal - Neustart beim Host (Spiel von Client neugestartet)
-                spielSteuerung.versteckePauseNachricht();
-                spielSteuerung.spielNeustarten();
-            } else if (neuePosition == -4) { // Spezielles Signal - Fortsetzen beim Host (Spiel von Client fortgesetzt)
-                spielSteuerung.versteckePauseNachricht();
-                spielSteuerung.fortsetzenSpiel();
-            } else { // Normale Bewegung (von Spieler2)
-                spielSteuerung.updateSpieler2Position(neuePosition);
+        }
+
+        BefehlsWarteschlange befehle = spielSteuerung.getBefehle();
+        switch (befehl) {
+            case "MOVE": {
+                Befehl b = befehle.reservieren(Befehl.BEWEGUNG);
+                if (!b.zahlenLesen(nachricht, trenner + 1) || b.anzahlWerte < 1 || b.anzahlWerte > 2) {
+                    b.art = Befehl.RESYNC; // ungültige Position -> nichts bewegen, aber Zustand neu senden
+                } else if (b.anzahlWerte == 2) { // Bewegung mit Spur-ID (siehe LatenzSpur): Empfangszeit für die Host-Zeit merken
+                    b.werte[2] = System.nanoTime();
+                    b.anzahlWerte = 3;
+                } else if (b.werte[0] == -5) { // Spezielles Signal - Pause-Nachricht beim Host anzeigen (Spiel von Client pausiert)
+                    b.art = Befehl.PAUSE;
+                    b.text = "Spieler 2 hat das Spiel pausiert";
+                } else if (b.werte[0] == -1) { // Spezielles Signal - Neustart beim Host (Spiel von Client neugestartet)
+                    b.art = Befehl.NEUSTART;
+                } else if (b.werte[0] == -4) { // Spezielles Signal - Fortsetzen beim Host (Spiel von Client fortgesetzt)
+                    b.art = Befehl.FORTSETZEN;
+                } else if (b.werte[0] == -2) { // PAUSE-Signal
+                    b.art = Befehl.PAUSE_SIGNAL;
+                }
+                befehle.veroeffentlichen(b);
+                break;
+            }
+            case "VERSTECKE_NACHRICHT": // Ohne dem würde die Pause-Nachricht beim Host nicht entfernt werden
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.VERSTECKE_NACHRICHT));
+                break;
+            case "PRUEFSUMME": { // Abweichungserkennung (bzw. Prüfsumme im Lockstep-Modus)
+                Befehl b = befehle.reservieren(Befehl.PRUEFSUMME);
+                if (!b.zahlenLesen(nachricht, trenner + 1) || b.anzahlWerte != 2) {
+                    b.art = Befehl.RESYNC; // Meldung selbst beschädigt -> sicherheitshalber neu synchronisieren
+                }
+                b.text = nachricht;
+                befehle.veroeffentlichen(b);
+                break;
+            }
+            case "RESYNC":
+                befehle.veroeffentlichen(befehle.reservieren(Befehl.RESYNC));
+                break;
+            case "NAME": { // Name des Clients für die Ergebnisse
+                Befehl b = befehle.reservieren(Befehl.NAME);
+                b.text = nachricht.substring(trenner + 1);
+                befehle.veroeffentlichen(b);
+                break;
+            }
+            case "EINGABE": // Eingaben im Lockstep-Modus
+            case "TAKT":
+            case "ZUSTAND": {
+                Befehl b = befehle.reservieren(Befehl.LOCKSTEP_NACHRICHT);
+                b.text = nachricht;
+                befehle.veroeffentlichen(b);
+                break;
             }
         }
     }
@@ -118,13 +274,27 @@ public class SpielServer implements Runnable {
      * @param spielZustand Der aktuelle Spielzustand als String ("BEFEHL: ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte")
      */
     public void sendeSpielZustand(String spielZustand) {
-        if (out != null) {
+        Verbindung v = verbindung;
+        if (v != null) {
             // Bei FORTSETZEN oder NEUSTART auch die Pause-Nachricht entfernen
             // Sonst wird Pause-Nachricht beim Client nicht entfernt
             if (spielZustand.startsWith("FORTSETZEN:") || spielZustand.startsWith("NEUSTART:")) {
-                out.println("VERSTECKE_NACHRICHT:");
+                v.senden("VERSTECKE_NACHRICHT:");
             }
-            out.println(spielZustand);
+            v.senden(spielZustand);
+        }
+    }
+
+    /**
+     * Sendet einen Snapshot des Spielzustands. Normale Snapshots werden je nach Leitung seltener gesendet
+     * (nur der neueste zählt), Keyframes kommen immer und mit Vorrang an.
+     * @param spielZustand Der Spielzustand ("UPDATE:...")
+     * @param keyframe true, wenn sich z.B. der Punktestand geändert hat
+     */
+    public void sendeSnapshot(String spielZustand, boolean keyframe) {
+        Verbindung v = verbindung;
+        if (v != null) {
+            v.sendeSnapshot(spielZustand, keyframe);
         }
     }
 
@@ -133,8 +303,9 @@ public class SpielServer implements Runnable {
      * @param modus Der gewählte SpielModus
      */
     public void sendeModus(SpielModus modus) {
-        if (out != null) {
-            out.println("MODUS:" + modus.name());
+        Verbindung v = verbindung;
+        if (v != null) {
+            v.senden("MODUS:" + modus.name());
         }
     }
 
@@ -143,10 +314,17 @@ public class SpielServer implements Runnable {
      */
     public void stopServer() {
         isRunning = false;
+        if (suche != null) {
+            suche.stoppen();
+        }
+        if (verbindung != null) {
+            verbindung.schliessen();
+        }
+        SpeicherTransport a = angebot;
+        if (a != null) {
+            a.schliessen();
+        }
         try {
-            if (in != null) in.close();
-            if (out != null) out.close();
-            if (clientSocket != null) clientSocket.close();
             if (serverSocket != null) serverSocket.close();
         } catch (IOException e) {
             System.out.println("Fehler beim Schließen des Servers: " + e.getMessage());
@@ -158,7 +336,8 @@ public class SpielServer implements Runnable {
      * @return true wenn ein Client verbunden ist, sonst false
      */
     public boolean istClientVerbunden() {
-        return clientSocket != null && clientSocket.isConnected(); // isConnected (Klasse: Socket) - true wenn clientSocket mit Server verbunden
+        Verbindung v = verbindung;
+        return v != null && v.istVerbunden();
     }
 }
 
@@ -0,0 +1,189 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die Klasse SpielSicherung hält den Zustand eines ServerSpiels, aus dem ein neuer Serverprozess das Spiel
+ * fortsetzen kann: Physik inkl. Geschwindigkeiten (siehe SpielPhysik.zustandSpeichern), zusätzliche Bälle,
+ * Punktestand, Modus, Tick, Status (z.B. pausiert), Statistik, Namen und die Sitzungen der beiden Spieler.
+ * Mit ihrer Sitzung (WIEDER:sitzung) kehren die Clients nach dem Neustart in ihr Spiel zurück.
+ *
+ * Dateiformat (DataOutputStream): Kennung, Version, Anzahl der Spiele, danach je Spiel die Felder in der
+ * Reihenfolge unten. Eine Datei enthält alle Spiele eines Servers und wird über eine temporäre Datei ersetzt,
+ * damit ein Absturz beim Schreiben nie eine halbe Sicherung hinterlässt. Die temporäre Datei ist vor dem
+ * Umbenennen auf der Platte (force), sonst könnte nach einem Stromausfall die Umbenennung ohne die Daten ankommen.
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class SpielSicherung {
+    public static final String DATEI = "spiele.sicherung"; // Dateiname im Sicherungsverzeichnis
+    private static final int KENNUNG = 0x50534943; // "PSIC"
+    private static final int VERSION = 1;
+
+    public final int nummer; // Nummer des Spiels (für Log-Ausgaben)
+    public final SpielModus modus;
+    public final SpielStatus status;
+    public final long tick;
+    public final int[] physik; // SpielPhysik.zustandSpeichern()
+    public final int[] mehrball; // MehrballPhysik.zustandSpeichern() (leer ohne zusätzliche Bälle)
+    public final long[] zaehler; // BallwechselZaehler.zustandSpeichern()
+    public final String[] namen; // Namen beider Spieler
+    public final long[] sitzungen; // Sitzungen beider Spieler
+
+    public SpielSicherung(int nummer, SpielModus modus, SpielStatus status, long tick, int[] physik, int[] mehrball,
+            long[] zaehler, String[] namen, long[] sitzungen) {
+        this.nummer = nummer;
+        this.modus = modus;
+        this.status = status;
+        this.tick = tick;
+        this.physik = physik;
+        this.mehrball = mehrball;
+        this.zaehler = zaehler;
+        this.namen = namen;
+        this.sitzungen = sitzungen;
+    }
+
+    /**
+     * Belegt die Sicherungsdatei für diesen Prozess (Sperre auf datei.sperre daneben), damit nie zwei Server
+     * dieselbe Sicherung gegenseitig überschreiben. Die Sperre gilt, bis ihr Kanal geschlossen wird.
+     * @param datei Die Sicherungsdatei, das Verzeichnis wird bei Bedarf angelegt
+     * @return Die Sperre
+     * @throws IOException wenn ein anderer Prozess die Datei bereits belegt
+     */
+    public static FileLock belegen(Path datei) throws IOException {
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        Files.createDirectories(verzeichnis);
+        FileChannel kanal = FileChannel.open(verzeichnis.resolve(datei.getFileName() + ".sperre"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock sperre = kanal.tryLock();
+        if (sperre == null) {
+            kanal.close();
+            throw new IOException(datei + " wird bereits von einem anderen Server verwendet (eigenes --sicherung je Server)");
+        }
+        return sperre;
+    }
+
+    /**
+     * Schreibt alle Sicherungen in eine Datei (ersetzt sie atomar, siehe Klassenbeschreibung)
+     * @param datei Zieldatei, das Verzeichnis wird bei Bedarf angelegt
+     * @param spiele Die Sicherungen
+     */
+    public static void schreiben(Path datei, List<SpielSicherung> spiele) throws IOException {
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        Files.createDirectories(verzeichnis);
+        Path temp = verzeichnis.resolve(datei.getFileName() + ".neu");
+        try (FileChannel kanal = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream aus = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(kanal)));
+            aus.writeInt(KENNUNG);
+            aus.writeInt(VERSION);
+            aus.writeInt(spiele.size());
+            for (SpielSicherung spiel : spiele) {
+                spiel.schreiben(aus);
+            }
+            aus.flush();
+            kanal.force(true); // Daten vor der Umbenennung auf die Platte
+        }
+        Files.move(temp, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        verzeichnisSichern(verzeichnis);
+    }
+
+    /**
+     * Schreibt den Verzeichniseintrag (die Umbenennung) auf die Platte, soweit das Betriebssystem das erlaubt
+     */
+    private static void verzeichnisSichern(Path verzeichnis) {
+        try (FileChannel kanal = FileChannel.open(verzeichnis, StandardOpenOption.READ)) {
+            kanal.force(true);
+        } catch (IOException e) {
+            // z.B. Windows: Verzeichnisse lassen sich nicht öffnen, die Umbenennung ist trotzdem atomar
+        }
+    }
+
+    private void schreiben(DataOutputStream aus) throws IOException {
+        aus.writeInt(nummer);
+        aus.writeUTF(modus.name());
+        aus.writeUTF(status.name());
+        aus.writeLong(tick);
+        aus.writeShort(physik.length);
+        for (int wert : physik) {
+            aus.writeInt(wert);
+        }
+        aus.writeInt(mehrball.length);
+        for (int wert : mehrball) {
+            aus.writeInt(wert);
+        }
+        aus.writeShort(zaehler.length);
+        for (long wert : zaehler) {
+            aus.writeLong(wert);
+        }
+        for (int i = 0; i < 2; i++) {
+            aus.writeUTF(namen[i]);
+            aus.writeLong(sitzungen[i]);
+        }
+    }
+
+    /**
+     * Liest eine mit schreiben() erzeugte Datei
+     * @return Die Sicherungen (leer, wenn die Datei nicht existiert)
+     * @throws IOException wenn die Datei keine Sicherung ist oder zu früh endet
+     */
+    public static List<SpielSicherung> lesen(Path datei) throws IOException {
+        List<SpielSicherung> spiele = new ArrayList<>();
+        if (!Files.exists(datei)) {
+            return spiele;
+        }
+        try (DataInputStream ein = new DataInputStream(new BufferedInputStream(Files.newInputStream(datei)))) {
+            if (ein.readInt() != KENNUNG || ein.readInt() != VERSION) {
+                throw new IOException("Keine Spielsicherung (oder andere Version): " + datei);
+            }
+            int anzahl = ein.readInt();
+            for (int n = 0; n < anzahl; n++) {
+                try {
+                    int nummer = ein.readInt();
+                    SpielModus modus = SpielModus.valueOf(ein.readUTF());
+                    SpielStatus status = SpielStatus.valueOf(ein.readUTF());
+                    long tick = ein.readLong();
+                    int[] physik = new int[ein.readUnsignedShort()];
+                    for (int i = 0; i < physik.length; i++) {
+                        physik[i] = ein.readInt();
+                    }
+                    int baelle = ein.readInt();
+                    if (baelle < 0 || baelle > 1_000_000) {
+                        throw new IOException("Ungültige Anzahl an Ballwerten in " + datei);
+                    }
+                    int[] mehrball = new int[baelle];
+                    for (int i = 0; i < mehrball.length; i++) {
+                        mehrball[i] = ein.readInt();
+                    }
+                    long[] zaehler = new long[ein.readUnsignedShort()];
+                    for (int i = 0; i < zaehler.length; i++) {
+                        zaehler[i] = ein.readLong();
+                    }
+                    String[] namen = new String[2];
+                    long[] sitzungen = new long[2];
+                    for (int i = 0; i < 2; i++) {
+                        namen[i] = ein.readUTF();
+                        sitzungen[i] = ein.readLong();
+                    }
+                    if (physik.length != SpielPhysik.ZUSTAND_LAENGE || zaehler.length != BallwechselZaehler.ZUSTAND_LAENGE) {
+                        throw new IOException("Ungültiger Spielzustand in " + datei);
+                    }
+                    spiele.add(new SpielSicherung(nummer, modus, status, tick, physik, mehrball, zaehler, namen, sitzungen));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unbekannter Modus oder Status in " + datei);
+                }
+            }
+        }
+        return spiele;
+    }
+}
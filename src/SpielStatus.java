@@ -0,0 +1,10 @@
+/**
+ * Das Enum SpielStatus definiert die Zustände der Spielschleife
+ */
+public enum SpielStatus {
+    WARTEN,    // Spiel wurde noch nicht gestartet (Modusauswahl bzw. Warten auf den Gegner)
+    LAEUFT,    // Spiel läuft, die Spielschleife tickt
+    PAUSIERT,  // Spiel ist pausiert
+    COUNTDOWN, // Countdown nach dem Fortsetzen läuft
+    SPIELENDE  // Ein Spieler hat gewonnen, Warten auf Neustart
+}
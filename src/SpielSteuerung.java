@@ -1,43 +1,64 @@
 import java.awt.*;
 import java.awt.event.*;
-import javax.swing.JButton;
-import javax.swing.JFrame;
-import javax.swing.JPanel;
-import javax.swing.Timer;
-import java.awt.GridBagLayout;
-import java.awt.GridBagConstraints;
-import java.awt.Insets;
+import javax.swing.SwingUtilities;
+import java.awt.geom.AffineTransform;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Die Klasse SpielSteuerung steuert das Spiel (Spiellogik).
  */
 public class SpielSteuerung extends KeyAdapter implements Runnable {
     private final SpielFeld spielfeld; // Spielfeld
-    private static final int SCHLAEGER_BREITE = 20; // Breite der Schläger
-    private static final int SCHLAEGER_HOEHE = 100; // Höhe der Schläger
-    private static final int BALL_GROESSE = 20; // Durchmesser des Balls
-    private static final int SCHLAEGER_ABSTAND = 10; // Abstand des linken Schläger vom Spielfeldrand
-    private static final int SCHLAEGER_GESCHWINDIGKEIT = 15;
+    private final SpielPhysik physik; // Ball, Schläger und Punktestand
+    private volatile Lockstep lockstep; // nur im Lockstep-Modus (sonst null)
+    private volatile boolean bahnModus = false; // Ball über BAHN-Nachrichten statt UPDATE in jedem Tick
+    private final BallBahn bahn = new BallBahn(); // Host: zuletzt gesendete Bahn, Client: Bahn, aus der der Ball gerechnet wird
+    private int gesendeterSpieler1Y = -1, gesendeterSpieler2Y = -1; // Host: Schlägerpositionen der letzten Nachricht
+    private long letzterSchlaegerTick = -1; // Client: Tick der zuletzt übernommenen Schlägerpositionen
+    private Wiederholung aufnahme; // Host mit -Dpong.wiederholung: Aufnahme des laufenden Spiels (nur Spielschleife)
+    private volatile MehrballPhysik mehrball; // zusätzliche Bälle, nur im Mehrball-Modus (sonst null)
+    private final StringBuilder snapshotPuffer = new StringBuilder(); // wiederverwendet für Snapshots
+    private final LeistungsMessung messung = new LeistungsMessung(); // Messwerte für die Leistungsanzeige
+    private final LatenzSpur spur; // nur beim Client mit -Dpong.spur=true (sonst null)
+    private long spurId = 0; // Host: Spur-ID der letzten Bewegung des Clients, wird im UPDATE zurückgeschickt
+    private long spurEmpfangen; // Host: Empfangszeit dieser Bewegung (System.nanoTime())
+    private long spurTick; // Host: Tick, in dem die Bewegung übernommen wurde
+    private static final int SPUR_ECHO_TICKS = 100; // so lange wird eine Spur-ID in jedem UPDATE mitgeschickt
+    private static final String SPUR_DATEI = System.getProperty("pong.spur.datei", "pong-latenz.txt");
+    private volatile ErgebnisSpeicher ergebnisse; // Host: beendete Spiele und Bestenliste (null, solange nicht geöffnet)
+    private final BallwechselZaehler ballwechsel = new BallwechselZaehler(); // Host: Statistik für das SpielErgebnis
+    private String gegnerName = "Spieler 2"; // Host: vom Client per NAME gemeldet
+    private volatile String[] bestenlisteText; // Host: Bestenliste für den Endbildschirm
+    private final BefehlsWarteschlange befehle = new BefehlsWarteschlange(1024); // eingehende Befehle, nur die Spielschleife führt sie aus
     private static final long TASTENDRUCK_VERZOEGERUNG = 50; // 50ms Verzögerung zwischen Tastendrücken
+    private static final long TICK_NANOS = 10_000_000L; // 10ms pro Spiel-Tick
+    private static final long COUNTDOWN_NANOS = 3_000_000_000L; // 3 Sekunden Countdown beim Fortsetzen
+    private static final long SEKUNDE_NANOS = 1_000_000_000L;
+    public static final int LOGISCHE_BREITE = SpielPhysik.STANDARD_BREITE; // Auflösung der Simulation, unabhängig vom Fenster
+    public static final int LOGISCHE_HOEHE = SpielPhysik.STANDARD_HOEHE;
+    private static final boolean LOCKSTEP = Boolean.getBoolean("pong.lockstep"); // Host: nur Eingaben statt Spielzustand austauschen
+    private static final boolean BAHN = Boolean.getBoolean("pong.bahn"); // Host: Ballbahn nur bei Änderungen statt Zustand in jedem Tick senden
+    private static final int MEHRBALL_ANZAHL = Integer.getInteger("pong.mehrball.anzahl", 20); // zusätzliche Bälle im Mehrball-Modus
+    public static final String SPIELER_NAME = SpielErgebnis.nameBereinigen(System.getProperty("pong.name", System.getProperty("user.name")));
+    private static final int BESTENLISTE_ANZEIGE = 3; // Einträge der Bestenliste auf dem Endbildschirm
+    private static final Font PUNKTE_SCHRIFT = new Font("Arial", Font.BOLD, 30);
+    private static final Font MODUS_SCHRIFT = new Font("Arial", Font.PLAIN, 20); // PLAIN: normale Schrift (nicht fett, nicht kursiv)
 
-    private int spieler1Y; // Y-Position des Schlägers des Spieler1
-    private int spieler2Y; // Y-Position des Schlägers des Spieler2
-    private int ballX; // X-Position des Balls
-    private int ballY; // Y-Position des Balls
-    private int ballXGeschwindigkeit; // Geschwindigkeit des Balls in x
-    private int ballYGeschwindigkeit; // Geschwindigkeit des Balls in y
-    private int spieler1Punkte = 0; // Punktestand des Spieler1
-    private int spieler2Punkte = 0; // Punktestand des Spieler2
     private long letzterTastendruck = 0;
     private SpielModus modus; // Spielmodus
-    private JFrame pausenMenueFrame; // Pausen-Menü
-    private Thread spielThread; // Thread für Spiel
-    private boolean spielLaeuft = true;
-    public boolean istPausiert = false;
-    private boolean istPausenMenueOffen = false;
+    private final Thread spielThread; // Einziger Thread der Spielschleife, läuft solange die Steuerung existiert
+    private final AtomicReference<SpielStatus> status = new AtomicReference<>(SpielStatus.WARTEN); // Zustand der Spielschleife
+    private volatile long countdownEnde; // System.nanoTime(), zu dem der Countdown endet
+    private volatile boolean beendet = false; // beendet die Spielschleife endgültig
+    private volatile boolean keyframeFaellig = true; // nächster Snapshot muss sicher ankommen (Start, Neustart, Punkt, Abweichung)
+    private long tick = 0; // Nummer des aktuellen Spiel-Ticks (Host), wird im UPDATE mitgesendet; im Bahn-Modus auch beim Client
+    private final PruefsummenVerlauf pruefsummen = new PruefsummenVerlauf(); // Prüfsummen der gesendeten Zustände (Host)
+    private long naechstePruefung = 0; // Tick, ab dem der Client wieder eine Prüfsumme meldet
     private SpielServer server;  // für Host
     private SpielClient client;  // für Client
     private boolean istHost;     // Unterscheidung zwischen Host und Client
+    private int eigenerSpieler;  // Schläger dieses Spielers (1 = links, 2 = rechts)
 
     /**
      * Gemeinsamer Konstruktor für beide Modi
@@ -45,20 +66,28 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
     private SpielSteuerung(SpielFeld spielfeld, boolean istHost, String serverIP) {
         this.spielfeld = spielfeld;
         this.istHost = istHost;
+        this.eigenerSpieler = istHost ? 1 : 2; // Am dedizierten Server kann der Client auch Spieler 1 sein (siehe setEigenerSpieler)
+        this.spur = !istHost && LatenzSpur.AKTIV ? new LatenzSpur() : null;
         
         spielfeld.setFocusable(true);
-        spieler1Y = spielfeld.getHeight() / 2 - SCHLAEGER_HOEHE / 2; // Mitte des Spielfelds
-        spieler2Y = spielfeld.getHeight() / 2 - SCHLAEGER_HOEHE / 2; // Mitte des Spielfelds
-        spieler1Punkte = 0;
-        spieler2Punkte = 0;
+        // Die Simulation rechnet immer in der logischen Auflösung, die Darstellung skaliert auf die Fenstergröße
+        physik = new SpielPhysik(LOGISCHE_BREITE, LOGISCHE_HOEHE); // Schläger starten in der Mitte des Spielfelds
 
         if (istHost) { // Ist Host
+            ergebnisseOeffnen();
             server = new SpielServer(this); 
             server.startServer(); // Server starten
         } else { // Ist Client
             client = new SpielClient(this, serverIP);
             client.verbindeMitServer(); // Client-Verbindung starten
         }
+
+        // Die Spielschleife läuft während der ganzen Lebensdauer der Steuerung und schläft, solange nicht gespielt wird.
+        // Zustandswechsel erzeugen dadurch nie neue Threads.
+        spielThread = new Thread(this, "Spielschleife");
+        spielThread.setDaemon(true);
+        befehle.setLeser(spielThread);
+        spielThread.start();
     }
 
     /**
@@ -80,14 +109,6 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
 
     
 
-    /**
-     * Berechnet dynamisch die x-Koordinate des rechten Schlägers auf Basis der Spielfeldbreite
-     * @return x-Koordinate des Schlägers
-     */
-    private int rechterSchlaegerX() {
-        return spielfeld.getWidth() - SCHLAEGER_ABSTAND - SCHLAEGER_BREITE;
-    }
-
     /**
      * Setzt den Spielmodus und initialisiert die Spielparameter entsprechend.
      *
@@ -95,6 +116,14 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
      */
     public void setModus(SpielModus modus) {
         this.modus = modus;
+        // Lockstep nur mit verbundenem Client; der Mehrball-Modus wird nicht zurückgerollt und bleibt beim Snapshot-Verfahren
+        if (LOCKSTEP && istHost && modus != SpielModus.MEHRBALL && server != null && server.istClientVerbunden()) {
+            lockstepStarten(Lockstep.STANDARD_VERZOEGERUNG, LOGISCHE_BREITE, LOGISCHE_HOEHE);
+            server.sendeSpielZustand("LOCKSTEP:" + Lockstep.STANDARD_VERZOEGERUNG + "," + LOGISCHE_BREITE + "," + LOGISCHE_HOEHE);
+        } else if (BAHN && istHost && modus != SpielModus.MEHRBALL && server != null && server.istClientVerbunden()) {
+            bahnModus = true; // zusätzliche Bälle haben keine eigenen Bahnen, Mehrball bleibt beim Snapshot-Verfahren
+            server.sendeSpielZustand("BAHNMODUS:");
+        }
         initialisiereModus();
         ballZuruecksetzen();
         
@@ -115,177 +144,607 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
         ballZuruecksetzen();
         
         // Starte das Spiel
-        spielLaeuft = true;
-        istPausiert = false;
-        
-        // Starte den Spielthread
-        if (spielThread != null) {
-            spielThread.interrupt();
-        }
-        spielThread = new Thread(this);
-        spielThread.start();
+        setStatus(SpielStatus.LAEUFT);
         
         // Spielfeld benachrichtigen, dass das Spiel gestartet wurde
-        spielfeld.spielGestartet();
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.spielGestartet();
+            }
+        });
+    }
+
+    /**
+     * Schaltet in den Lockstep-Modus (Host in setModus, Client beim Empfang von LOCKSTEP)
+     * @param verzoegerung Eingabeverzögerung in Ticks
+     * @param breite Feste Spielfeldbreite der Simulation
+     * @param hoehe Feste Spielfeldhöhe der Simulation
+     */
+    public void lockstepStarten(int verzoegerung, int breite, int hoehe) {
+        lockstep = new Lockstep(physik, eigenerSpieler, istHost, verzoegerung, new Lockstep.Ausgang() {
+            @Override
+            public void senden(String nachricht) {
+                if (istHost) {
+                    server.sendeSpielZustand(nachricht);
+                } else {
+                    client.sendeNachricht(nachricht);
+                }
+            }
+        });
+        physik.setGroesse(breite, hoehe); // beide Seiten rechnen mit derselben festen Größe
+        System.out.println("Lockstep-Modus (Eingabeverzögerung " + verzoegerung + " Ticks, Spielfeld " + breite + "x" + hoehe + ")");
+    }
+
+    /**
+     * Startet das Spiel nach der Modusauswahl (wird vom Host aufgerufen)
+     */
+    public void spielStarten() {
+        keyframeFaellig = true;
+        ballwechsel.neuesSpiel();
+        setStatus(SpielStatus.LAEUFT);
+    }
+
+    /**
+     * Setzt den Zustand der Spielschleife und weckt sie auf
+     * @param neuerStatus Der neue Zustand
+     */
+    private void setStatus(SpielStatus neuerStatus) {
+        status.set(neuerStatus);
+        LockSupport.unpark(spielThread);
+    }
+
+    /**
+     * Ob das Spiel noch nicht beendet ist (kein Spieler hat gewonnen)
+     */
+    private boolean spielLaeuft() {
+        return status.get() != SpielStatus.SPIELENDE;
     }
 
     /**
      * Initialisiert die Ballgeschwindigkeit basierend auf dem aktuellen Spielmodus.
      */
     private void initialisiereModus() {
-        switch (modus) {
-            case EINFACH:
-                ballXGeschwindigkeit = 2;
-                ballYGeschwindigkeit = 2;
-                break;
-            case MITTEL:
-                ballXGeschwindigkeit = 4;
-                ballYGeschwindigkeit = 4;
-                break;
-            case SCHWER:
-                ballXGeschwindigkeit = 6;
-                ballYGeschwindigkeit = 6;
-                break;
+        physik.initialisiereModus(modus);
+        if (modus == SpielModus.MEHRBALL) {
+            mehrball = new MehrballPhysik(MEHRBALL_ANZAHL, SpielPhysik.BALL_GROESSE, physik.getBreite(), physik.getHoehe(),
+                SpielPhysik.ballGeschwindigkeit(modus));
+        } else {
+            mehrball = null;
         }
     }
 
     /**
      * Zeichnet das Spielfeld und die Spielobjekte.
      *
-     * @param g Das Graphics-Objekt zum Zeichnen.
-     */
-    public void zeichneSpielfeld(Graphics g) {
-        if (spieler1Punkte >= 3 || spieler2Punkte >= 3) { // Spiel beenden, wenn ein Spieler 3 Punkte erreicht und Siegertext zeichnen
-            spielLaeuft = false; // Spiel beenden
-
-            // Siegertext und Restarttext zeichnen
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 40));
-            String siegerText = spieler1Punkte >= 3 ? "Spieler 1 gewinnt!" : "Spieler 2 gewinnt!";
-            FontMetrics fm = g.getFontMetrics(); // um Informationen über die Schriftart zu erhalten
-            int textWidth = fm.stringWidth(siegerText); // Breite des Textes (je nach Schriftart) holen
-            int textHeight = fm.getHeight(); // Höhe des Textes (je nach Schriftart) holen
-            g.drawString(siegerText, (spielfeld.getWidth() - textWidth) / 2, (spielfeld.getHeight() - textHeight) / 2); // Zeichnet den Siegertext in der Mitte des Spielfelds
-
-            g.setFont(new Font("Arial", Font.PLAIN, 20));
-            String restartText = "Drücke Enter, um neu zu starten";
-            fm = g.getFontMetrics();
-            textWidth = fm.stringWidth(restartText);
-            g.drawString(restartText, (spielfeld.getWidth() - textWidth) / 2, (spielfeld.getHeight() - textHeight) / 2 + 50); // Zeichnet den Restarttext in der Mitte des Spielfelds, drawString(String str, int x, int y)
+     * @param bildschirm Das Graphics-Objekt der Komponente (in Pixeln).
+     */
+    public void zeichneSpielfeld(Graphics bildschirm) {
+        // In logischen Koordinaten zeichnen und auf die Fenstergröße skalieren (Seitenverhältnis bleibt, Rest bleibt schwarz)
+        Graphics2D g = (Graphics2D) bildschirm.create();
+        g.transform(darstellungsTransformation(spielfeld.getWidth(), spielfeld.getHeight()));
+        int breite = LOGISCHE_BREITE;
+        int hoehe = LOGISCHE_HOEHE;
+
+        if (physik.istSpielVorbei()) { // Siegerbildschirm, wenn ein Spieler 3 Punkte erreicht hat
+            String siegerText = physik.getSpieler1Punkte() >= physik.getSiegPunkte() ? "Spieler 1 gewinnt!" : "Spieler 2 gewinnt!";
+            spielfeld.getOverlay().zeichneSieg(g, breite, hoehe, siegerText, bestenlisteText); // Bestenliste nur beim Host
         }
         else { // Normales Spielfeld zeichnen
-            // Mittellinie zeichnen
-            g.setColor(Color.WHITE);
-            g.drawLine(spielfeld.getWidth() / 2, 0, spielfeld.getWidth() / 2, spielfeld.getHeight()); // drawLine(int x1, int y1, int x2, int y2)
+            zeichneFeld(g, breite, hoehe, physik, mehrball, modus);
+        }
+
+        // Countdown, Pause-Nachricht und Pausenmenü über dem Spielfeld
+        long countdownRest = status.get() == SpielStatus.COUNTDOWN ? countdownEnde - System.nanoTime() : 0;
+        spielfeld.getOverlay().zeichnen(g, breite, hoehe, countdownRest);
+        g.dispose();
+    }
 
-            // Kreis in der Mitte zeichnen
-            int kreisDurchmesser = 150;
-            int kreisX = spielfeld.getWidth() / 2 - kreisDurchmesser / 2;
-            int kreisY = spielfeld.getHeight() / 2 - kreisDurchmesser / 2;
-            g.drawOval(kreisX, kreisY, kreisDurchmesser, kreisDurchmesser); // 	drawOval(int x, int y, int width, int height)
+    /**
+     * Zeichnet Mittellinie, Schläger, Bälle, Punktestand und Modus (ohne Siegerbildschirm und Overlay).
+     * Wird auch vom WiederholungRenderer für Bilder ohne Fenster benutzt.
+     *
+     * @param g Das Graphics-Objekt (bereits in logische Koordinaten transformiert)
+     * @param breite Logische Breite des Spielfelds
+     * @param hoehe Logische Höhe des Spielfelds
+     * @param mehrball Zusätzliche Bälle (null = keine)
+     */
+    public static void zeichneFeld(Graphics2D g, int breite, int hoehe, SpielPhysik physik, MehrballPhysik mehrball, SpielModus modus) {
+        // Mittellinie zeichnen
+        g.setColor(Color.WHITE);
+        g.drawLine(breite / 2, 0, breite / 2, hoehe); // drawLine(int x1, int y1, int x2, int y2)
 
-            // Punkt in der Mitte des Kreises zeichnen
-            int punktGroesse = 10;
-            g.fillOval(spielfeld.getWidth() / 2 - punktGroesse / 2, spielfeld.getHeight() / 2 - punktGroesse / 2, punktGroesse, punktGroesse); // fillOval(int x, int y, int width, int height)
+        // Kreis in der Mitte zeichnen
+        int kreisDurchmesser = 150;
+        int kreisX = breite / 2 - kreisDurchmesser / 2;
+        int kreisY = hoehe / 2 - kreisDurchmesser / 2;
+        g.drawOval(kreisX, kreisY, kreisDurchmesser, kreisDurchmesser); // 	drawOval(int x, int y, int width, int height)
 
-            // Schläger zeichnen
-            g.fillRect(SCHLAEGER_ABSTAND, spieler1Y, SCHLAEGER_BREITE, SCHLAEGER_HOEHE); // fillRect(int x, int y, int width, int height)
-            g.fillRect(rechterSchlaegerX(), spieler2Y, SCHLAEGER_BREITE, SCHLAEGER_HOEHE);
+        // Punkt in der Mitte des Kreises zeichnen
+        int punktGroesse = 10;
+        g.fillOval(breite / 2 - punktGroesse / 2, hoehe / 2 - punktGroesse / 2, punktGroesse, punktGroesse); // fillOval(int x, int y, int width, int height)
 
+        // Schläger zeichnen
+        int schlaegerHoehe = physik.getSchlaegerHoehe();
+        g.fillRect(SpielPhysik.SCHLAEGER_ABSTAND, physik.getSpieler1Y(), SpielPhysik.SCHLAEGER_BREITE, schlaegerHoehe); // fillRect(int x, int y, int width, int height)
+        g.fillRect(physik.rechterSchlaegerX(), physik.getSpieler2Y(), SpielPhysik.SCHLAEGER_BREITE, schlaegerHoehe);
 
-            // Ball zeichnen
-            g.fillOval(ballX, ballY, BALL_GROESSE, BALL_GROESSE);
 
-            // Punktestände zeichnen
-            g.setFont(new Font("Arial", Font.BOLD, 30));
-            g.drawString(String.valueOf(spieler1Punkte), spielfeld.getWidth() / 2 - 50, 50);
-            g.drawString(String.valueOf(spieler2Punkte), spielfeld.getWidth() / 2 + 30, 50);
+        // Ball zeichnen
+        g.fillOval(physik.getBallX(), physik.getBallY(), SpielPhysik.BALL_GROESSE, SpielPhysik.BALL_GROESSE);
 
-            // Aktuellen Modus anzeigen
-            g.setFont(new Font("Arial", Font.PLAIN, 20)); // Font.PLAIN - bedeutet,
-            // dass der Text in normaler Schriftart (nicht fett, nicht kursiv) dargestellt wird.
-            g.drawString("Modus: " + modus, spielfeld.getWidth() / 10, 20);
+        // Zusätzliche Bälle zeichnen (Mehrball-Modus)
+        if (mehrball != null) {
+            int groesse = mehrball.getGroesse();
+            for (int i = 0; i < mehrball.getAnzahl(); i++) {
+                g.fillOval(mehrball.getX(i), mehrball.getY(i), groesse, groesse);
+            }
         }
+
+        // Punktestände zeichnen
+        g.setFont(PUNKTE_SCHRIFT);
+        g.drawString(String.valueOf(physik.getSpieler1Punkte()), breite / 2 - 50, 50);
+        g.drawString(String.valueOf(physik.getSpieler2Punkte()), breite / 2 + 30, 50);
+
+        // Aktuellen Modus anzeigen
+        g.setFont(MODUS_SCHRIFT);
+        g.drawString("Modus: " + modus, breite / 10, 20);
+    }
+
+    /**
+     * Berechnet die Abbildung von logischen Koordinaten auf die Komponente: gleichmäßig skaliert und zentriert
+     * @param komponentenBreite Breite der Komponente in Pixeln
+     * @param komponentenHoehe Höhe der Komponente in Pixeln
+     * @return Die Transformation für das Zeichnen
+     */
+    public static AffineTransform darstellungsTransformation(int komponentenBreite, int komponentenHoehe) {
+        return darstellungsTransformation(komponentenBreite, komponentenHoehe, LOGISCHE_BREITE, LOGISCHE_HOEHE);
+    }
+
+    /**
+     * Wie darstellungsTransformation(int, int), für eine andere logische Größe (z.B. einer Wiederholung)
+     */
+    public static AffineTransform darstellungsTransformation(int komponentenBreite, int komponentenHoehe, int logischeBreite, int logischeHoehe) {
+        double skalierung = Math.min((double) komponentenBreite / logischeBreite, (double) komponentenHoehe / logischeHoehe);
+        AffineTransform transformation = new AffineTransform();
+        transformation.translate((komponentenBreite - logischeBreite * skalierung) / 2, (komponentenHoehe - logischeHoehe * skalierung) / 2);
+        transformation.scale(skalierung, skalierung);
+        return transformation;
     }
 
     /**
      * Hauptspielschleife, die das Spiel aktualisiert und pausiert.
+     * Sie läuft in einem einzigen Thread und reagiert nur auf den SpielStatus: außerhalb von LAEUFT
+     * wird der Thread geparkt (kein Aufwachen alle 10ms), der COUNTDOWN wird über eine Frist abgewartet.
+     * Vor jedem Durchlauf werden die eingegangenen Befehle ausgeführt; ein neuer Befehl weckt die Schleife auf,
+     * ohne einen zusätzlichen Tick auszulösen.
      */
     @Override
     public void run() {
-        spielLaeuft = true;
-        spielThread = Thread.currentThread();
-        
-        while (spielLaeuft && !istPausiert) {
+        long naechsterTick = System.nanoTime();
+
+        while (!beendet) {
+            befehleAusfuehren();
+            SpielStatus aktuell = status.get();
+
+            if (aktuell == SpielStatus.COUNTDOWN) {
+                long rest = countdownEnde - System.nanoTime();
+                if (rest > 0) {
+                    spielfeld.repaint(); // Countdown-Zahl im Spielfeld aktualisieren
+                    LockSupport.parkNanos(this, rest - (rest - 1) / SEKUNDE_NANOS * SEKUNDE_NANOS); // bis die Zahl wechselt
+                } else if (status.compareAndSet(SpielStatus.COUNTDOWN, SpielStatus.LAEUFT)) { // nur falls nicht erneut pausiert wurde
+                    naechsterTick = System.nanoTime();
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            spielfeld.spielGestartet();
+                        }
+                    });
+                }
+                continue;
+            }
+
+            // Nur der Host berechnet die Spiellogik, der Client erhält den Zustand über das Netzwerk
+            // (im Lockstep-Modus rechnen beide, im Bahn-Modus rechnet der Client den Ball aus der Bahn)
+            if (aktuell != SpielStatus.LAEUFT || (!istHost && lockstep == null && !bahnModus)) {
+                LockSupport.park(this); // schlafen bis setStatus() oder ein Befehl aufweckt
+                naechsterTick = System.nanoTime();
+                continue;
+            }
+
+            // Bis zum nächsten Tick warten. Feste Taktung statt sleep(10), damit sich die Wartezeit nicht mit der
+            // Rechenzeit aufaddiert. Wird die Schleife vorher durch einen Befehl geweckt, wartet sie danach weiter.
+            long warten = naechsterTick - System.nanoTime();
+            if (warten > 0) {
+                LockSupport.parkNanos(this, warten);
+                continue;
+            }
+
             // Wenn Host, wird die Spiellogik aktualisiert und der aktuelle Spielzustand an den verbundenen Client gesendet. 
             // Dies stellt sicher, dass der Client die neuesten Informationen über die Positionen der Spieler und den Ball erhält, 
             // um das Spiel synchron zu halten.
-            if (istHost) {
+            Aufzeichnung.Tick tickEreignis = Aufzeichnung.tickBeginnen();
+            if (lockstep != null) {
+                lockstepUpdate();
+            } else if (!istHost) {
+                bahnFortschreiben();
+            } else if (bahnModus) {
+                update();
+                sendeBahn();
+            } else {
                 update();
                 sendeSpielZustand(); // SpielZustand an Client senden
             }
-            // Pausiert den aktuellen Thread für 10 Millisekunden.
-            // Dies wird verwendet, um eine flüssige Ausführung der Spielschleife zu ermöglichen.
-            // Wenn der Thread unterbrochen wird (z.B. durch einen anderen Thread), wird eine InterruptedException ausgelöst.
-            // In diesem Fall wird die Methode beendet, um sicherzustellen, dass keine weiteren Aktionen ausgeführt werden.
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException ex) {
-                return;
+
+            // Liegt die Schleife weit zurück, wird nicht nachgeholt (kein Ruckeln durch Aufholen)
+            naechsterTick += TICK_NANOS;
+            long rest = naechsterTick - System.nanoTime();
+            messung.tick(rest < 0); // Tick hat länger als sein Zeitfenster gedauert -> Überlauf
+            Aufzeichnung.tickBeenden(tickEreignis, tick, -warten, rest < 0);
+            if (rest < -5 * TICK_NANOS) {
+                naechsterTick = System.nanoTime();
             }
         }
     }
 
     /**
-     * Aktualisiert die Position des Balls und überprüft Kollisionen.
+     * Führt alle eingegangenen Befehle aus (nur in der Spielschleife, damit nur ein Thread den Spielzustand ändert)
      */
-    public void update() {
-        if (spielLaeuft) {
-            ballX += ballXGeschwindigkeit;
-            ballY += ballYGeschwindigkeit;
-            kollisionPruefen();
+    private void befehleAusfuehren() {
+        Befehl b;
+        while ((b = befehle.naechster()) != null) {
+            befehlAusfuehren(b);
+            befehle.freigeben();
+        }
+    }
+
+    /**
+     * Führt einen Befehl aus. Änderungen an der Oberfläche werden an den Event-Dispatch-Thread übergeben.
+     */
+    private void befehlAusfuehren(Befehl b) {
+        switch (b.art) {
+            case Befehl.BEWEGUNG:
+                if (b.anzahlWerte == 3) { // Bewegung mit Spur-ID -> im nächsten UPDATE zurückschicken
+                    spurId = b.werte[1];
+                    spurEmpfangen = b.werte[2];
+                    spurTick = tick;
+                }
+                updateSpieler2Position((int) b.werte[0]);
+                break;
+            case Befehl.BEWEGUNG_ZUSAMMENGEFASST:
+                updateSpieler2Position(server.zusammengefassteBewegung());
+                break;
+            case Befehl.PAUSE: // Gegner hat pausiert -> nur Nachricht anzeigen
+                zeigePauseNachricht(b.text);
+                setStatus(SpielStatus.PAUSIERT);
+                break;
+            case Befehl.NEUSTART:
+                versteckePauseNachricht();
+                gegnerHatNeugestartet();
+                break;
+            case Befehl.FORTSETZEN:
+                versteckePauseNachricht();
+                gegnerHatFortgesetzt();
+                break;
+            case Befehl.PAUSE_SIGNAL:
+                if (istHost) {
+                    updateSpieler2Position(-2);
+                } else {
+                    pausieren();
+                }
+                break;
+            case Befehl.VERSTECKE_NACHRICHT:
+                versteckePauseNachricht();
+                break;
+            case Befehl.PRUEFSUMME:
+                if (lockstep != null) {
+                    lockstep.empfangen(b.text);
+                } else {
+                    pruefsummeEmpfangen(b.werte[0], (int) b.werte[1]);
+                }
+                break;
+            case Befehl.RESYNC:
+                if (istHost) {
+                    resyncAnfordern();
+                } else {
+                    client.sendeResync();
+                }
+                break;
+            case Befehl.MODUS:
+                try {
+                    setModusUndStarteSpiel(SpielModus.valueOf(b.text));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Unbekannter Spielmodus: " + b.text);
+                }
+                break;
+            case Befehl.UPDATE:
+                updateSpielZustand(b);
+                break;
+            case Befehl.ROLLE:
+                if (b.anzahlWerte > 0) {
+                    setEigenerSpieler((int) b.werte[0]);
+                }
+                break;
+            case Befehl.LOCKSTEP:
+                if (b.anzahlWerte == 3) {
+                    lockstepStarten((int) b.werte[0], (int) b.werte[1], (int) b.werte[2]);
+                }
+                break;
+            case Befehl.LOCKSTEP_NACHRICHT:
+                if (lockstep != null) {
+                    lockstep.empfangen(b.text);
+                }
+                break;
+            case Befehl.EIGENE_BEWEGUNG:
+                eigeneBewegung((int) b.werte[0], b.werte[1]);
+                break;
+            case Befehl.EIGENE_PAUSE:
+                // Ob Spiel beendet ist (ein Spieler hat 3 Punkte)
+                // Ohne dem könnte man auch wenn das Spiel fertig ist, das Spiel stoppen
+                if (!physik.istSpielVorbei()) {
+                    pausieren();
+                }
+                break;
+            case Befehl.EIGENER_NEUSTART:
+                neustarten(true);
+                break;
+            case Befehl.EIGENES_FORTSETZEN:
+                fortsetzen(true);
+                break;
+            case Befehl.GETRENNT:
+                gegnerGetrennt();
+                break;
+            case Befehl.VERBUNDEN:
+                clientVerbunden();
+                break;
+            case Befehl.NAME:
+                gegnerName = SpielErgebnis.nameBereinigen(b.text);
+                break;
+            case Befehl.BAHNMODUS:
+                bahnModus = true;
+                break;
+            case Befehl.BAHN:
+                bahnUebernehmen(b);
+                break;
+            case Befehl.SCHLAEGER:
+                schlaegerUebernehmen(b);
+                break;
+        }
+    }
+
+    /**
+     * Die Verbindung zum Gegner ist beendet: Spiel anhalten und Hinweis anzeigen (Spielschleife).
+     * Der Host wartet danach auf einen neuen Client, der Lockstep-Modus endet.
+     */
+    private void gegnerGetrennt() {
+        lockstep = null;
+        if (modus == null) { // Spiel lief noch nicht
+            return;
         }
+        setStatus(SpielStatus.PAUSIERT);
+        zeigePauseNachricht(istHost ? "Verbindung zum Client getrennt, warte auf neuen Client" : "Verbindung zum Host getrennt");
     }
 
     /**
-     * Prüft die Ballkollision mit den Wänden bzw. Schlägern
+     * Ein neuer Client hat sich mit dem Host verbunden (Spielschleife). Läuft bereits ein Spiel, bekommt er den Modus
+     * und den vollständigen Zustand, danach geht es mit dem Countdown weiter (immer mit Snapshots, nicht im Lockstep).
      */
-    private void kollisionPruefen(){
-        // Ballkollision mit oberer und unterer Wand
-        if (ballY <= 0 || ballY >= spielfeld.getHeight() - BALL_GROESSE) {
-            ballYGeschwindigkeit = -ballYGeschwindigkeit; // Richtung umkehren
+    private void clientVerbunden() {
+        if (modus == null || !istHost) { // Modus wird wie bisher beim Start gesendet
+            return;
+        }
+        if (bahnModus) {
+            server.sendeSpielZustand("BAHNMODUS:");
+        }
+        server.sendeModus(modus);
+        keyframeFaellig = true;
+        versteckePauseNachricht();
+        if (!physik.istSpielVorbei()) {
+            fortsetzen(false);
         }
+    }
 
-        // Ballkollision mit Schläger-Links (spieler1)
-        if (ballX <= SCHLAEGER_ABSTAND + SCHLAEGER_BREITE && ballY + BALL_GROESSE >= spieler1Y && ballY <= spieler1Y + SCHLAEGER_HOEHE) {
-            ballXGeschwindigkeit = Math.abs(ballXGeschwindigkeit);  // Ball nach rechts bewegen
+    /**
+     * Zeigt den Fortschritt des Verbindungsaufbaus des Clients an (aus dem Thread des Verbindungsaufbaus)
+     * @param text Anzuzeigender Text
+     * @param fehlgeschlagen ob der Verbindungsaufbau endgültig gescheitert ist
+     */
+    public void verbindungsFortschritt(String text, boolean fehlgeschlagen) {
+        if (beendet) {
+            return;
         }
-        else if (ballX <= 0) { // linke Wand berührt
-            spieler2Punkte++;
-            ballZuruecksetzen();
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.verbindungsFortschritt(text, fehlgeschlagen);
+            }
+        });
+    }
+
+    /**
+     * Meldet, dass die Verbindung zum Gegner beendet ist (aus dem Lese- oder Sende-Thread der Verbindung)
+     */
+    public void verbindungGetrennt() {
+        if (!beendet) {
+            befehle.veroeffentlichen(befehle.reservieren(Befehl.GETRENNT));
         }
+    }
 
-        // Ballkollision mit Schläger-Rechts (spieler2)
-        if (ballX + BALL_GROESSE >= rechterSchlaegerX() && ballY + BALL_GROESSE >= spieler2Y && ballY <= spieler2Y + SCHLAEGER_HOEHE) {
-            ballXGeschwindigkeit = -Math.abs(ballXGeschwindigkeit);  // Ball nach links bewegen
+    /**
+     * Bewegt den eigenen Schläger (aus der Spielschleife, Tastendruck über EIGENE_BEWEGUNG).
+     * Im Lockstep wird der Tastendruck nur an den Lockstep übergeben, der ihn verzögert anwendet.
+     * @param richtung -1 für nach oben, 1 für nach unten
+     * @param spurId Spur-ID des Tastendrucks (siehe LatenzSpur), 0 = keine
+     */
+    private void eigeneBewegung(int richtung, long spurId) {
+        if (!spielLaeuft()) {
+            return;
+        }
+        if (lockstep != null) {
+            lockstep.eingabe(richtung);
+            return;
+        }
+        if (istHost) { // Spieler 1 Steuerung (nur für Host)
+            physik.bewegeSpieler1(richtung);
+        } else if (eigenerSpieler == 1) { // Spieler 1 Steuerung für einen Client (nur am dedizierten Server)
+            physik.bewegeSpieler1(richtung);
+            client.sendeSpieler2Position(physik.getSpieler1Y(), spurId);
+        } else { // Spieler 2 Steuerung (nur für Client)
+            physik.bewegeSpieler2(richtung);
+            client.sendeSpieler2Position(physik.getSpieler2Y(), spurId);
+        }
+        if (spur != null) {
+            spur.versendet(spurId);
+        }
+        spielfeld.repaint();
+    }
+
+    /**
+     * Legt einen Befehl des lokalen Spielers in die Warteschlange (aus dem Event-Dispatch-Thread).
+     * Wartet nie: ist die Warteschlange voll, wird der Befehl verworfen, statt die Oberfläche anzuhalten.
+     */
+    private void eigenenBefehlSenden(int art) {
+        Befehl b = befehle.versuchen(art);
+        if (b == null) {
+            System.out.println("Befehlswarteschlange voll, Tastendruck verworfen");
+            return;
+        }
+        befehle.veroeffentlichen(b);
+    }
+
+    /**
+     * Wie eigenenBefehlSenden(art), mit Richtung und Spur-ID eines Tastendrucks
+     */
+    private void eigenenBefehlSenden(int art, int wert, long spurId) {
+        Befehl b = befehle.versuchen(art);
+        if (b == null) {
+            System.out.println("Befehlswarteschlange voll, Tastendruck verworfen");
+            return;
+        }
+        b.werte[0] = wert;
+        b.werte[1] = spurId;
+        b.anzahlWerte = 2;
+        befehle.veroeffentlichen(b);
+    }
+
+    /**
+     * Führt eine Änderung an der Oberfläche im Event-Dispatch-Thread aus
+     */
+    private static void aufEdt(Runnable aktion) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            aktion.run();
+        } else {
+            SwingUtilities.invokeLater(aktion);
+        }
+    }
+
+    /**
+     * Aktualisiert die Position des Balls und überprüft Kollisionen.
+     */
+    public void update() {
+        if (spielLaeuft()) {
+            tick++;
+            int ereignisse = physik.schritt();
+            ballwechsel.schritt(ereignisse, physik);
+            if (mehrball != null) {
+                ereignisse |= mehrball.schritt(physik);
+            }
+            if ((ereignisse & SpielPhysik.EREIGNIS_PUNKT) != 0) {
+                keyframeFaellig = true; // Punktestand geändert
+            }
+            if (Wiederholung.VERZEICHNIS != null) {
+                if (aufnahme == null) {
+                    aufnahme = new Wiederholung(modus, physik, mehrball);
+                }
+                aufnahme.aufnehmen(physik, mehrball);
+            }
+            if (physik.istSpielVorbei()) {
+                status.compareAndSet(SpielStatus.LAEUFT, SpielStatus.SPIELENDE); // Spiel beenden
+                ergebnisErfassen();
+                aufnahmeSpeichern();
+            }
+            spielfeld.repaint(); // Spielfeld neu zeichnen
+        }
+    }
+
+    /**
+     * Ein Tick im Lockstep-Modus. Das Spielende bestimmt der Host; der Client übernimmt es mit dem Zustand des Hosts.
+     */
+    private void lockstepUpdate() {
+        int ereignisse = lockstep.schritt();
+        ballwechsel.schritt(ereignisse, physik);
+        if (physik.istSpielVorbei()) {
+            if (istHost) {
+                lockstep.zustandSenden(); // Client bekommt den Endstand
+                status.compareAndSet(SpielStatus.LAEUFT, SpielStatus.SPIELENDE);
+                ergebnisErfassen();
+            } else if ((ereignisse & Lockstep.EREIGNIS_ZUSTAND) != 0) {
+                status.compareAndSet(SpielStatus.LAEUFT, SpielStatus.SPIELENDE);
+            }
+        }
+        spielfeld.repaint();
+    }
+
+    /**
+     * Öffnet den ErgebnisSpeicher in einem eigenen Thread (Host). Der Index wird dabei aus der ganzen Datei aufgebaut,
+     * das soll weder den Event-Dispatch-Thread noch die Spielschleife aufhalten. Bis dahin wird nichts gespeichert.
+     */
+    private void ergebnisseOeffnen() {
+        Thread laden = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ErgebnisSpeicher speicher = ErgebnisSpeicher.oeffnen(java.nio.file.Path.of(ErgebnisSpeicher.STANDARD_DATEI));
+                    ergebnisse = speicher;
+                    if (beendet) { // Spiel wurde während des Ladens beendet
+                        speicher.schliessen();
+                    }
+                } catch (java.io.IOException e) {
+                    System.out.println("Ergebnisse werden nicht gespeichert: " + e.getMessage());
+                }
+            }
+        }, "Ergebnisse-Laden");
+        laden.setDaemon(true);
+        laden.start();
+    }
+
+    /**
+     * Speichert das Ergebnis des gerade beendeten Spiels (Host). Die Datei schreibt der ErgebnisSpeicher
+     * in seinem eigenen Thread, hier wird nur der Index im Speicher aktualisiert.
+     */
+    private void ergebnisErfassen() {
+        ErgebnisSpeicher speicher = ergebnisse;
+        if (!istHost || speicher == null) {
+            return;
         }
-        else if (ballX >= spielfeld.getWidth() - BALL_GROESSE) { // rechte Wand berührt
-            spieler1Punkte++;
-            ballZuruecksetzen();
+        SpielErgebnis ergebnis = ballwechsel.ergebnis(modus, SPIELER_NAME, gegnerName, physik);
+        if (ergebnis == null) {
+            return;
         }
+        speicher.eintragen(ergebnis);
+        java.util.List<SpielerStatistik> beste = speicher.bestenliste(BESTENLISTE_ANZEIGE);
+        String[] text = new String[beste.size()];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (i + 1) + ". " + beste.get(i);
+        }
+        bestenlisteText = text;
+    }
 
-        spielfeld.repaint(); // Spielfeld neu zeichnen
+    /**
+     * Speichert die laufende Aufnahme im Hintergrund (Spielende oder Neustart); das nächste Spiel beginnt eine neue
+     */
+    private void aufnahmeSpeichern() {
+        if (aufnahme != null && aufnahme.getAnzahlBilder() > 0) {
+            aufnahme.speichernImHintergrund(java.nio.file.Path.of(Wiederholung.VERZEICHNIS));
+        }
+        aufnahme = null;
     }
 
     /**
      * Setzt die Ballposition zurück und bestimmt die Richtung basierend auf dem Punktestand.
      */
     private void ballZuruecksetzen() {
-        ballX = spielfeld.getWidth() / 2 - BALL_GROESSE / 2; // Ball mittig in der x-Achse positionieren
-        ballY = spielfeld.getHeight() / 2 - BALL_GROESSE / 2; // Ball mittig in der y-Achse positionieren
-        ballXGeschwindigkeit = Math.abs(ballXGeschwindigkeit) * (spieler1Punkte > spieler2Punkte ? -1 : 1); // Richtung
-        // basierend auf Punktestand (am Anfang: fliegt der Ball immer nach rechts, danach: -1 -> links, 1 -> rechts)
-        ballYGeschwindigkeit = Math.abs(ballYGeschwindigkeit); // Sicherstellen, dass der Ball korrekt startet (nach Unten)
+        physik.ballZuruecksetzen();
     }
 
     /**
@@ -304,72 +763,86 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
         
         letzterTastendruck = aktuelleZeit;
 
-        // Gemeinsame Tastenfunktion für Host und Client
-        if (taste == KeyEvent.VK_SPACE) {
-            
-            // Ob Spiel beendet ist (ein Spieler hat 3 Punkte)
-            // Ohne dem könnte man auch wenn das Spiel fertig ist, das Spiel stoppen
-            if (spieler1Punkte >= 3 || spieler2Punkte >= 3) {
-                return;
-            }
-            
-            pauseSpiel(); 
+        // Leistungsanzeige ein-/ausblenden
+        if (taste == KeyEvent.VK_F3) {
+            spielfeld.leistungsAnzeigeUmschalten();
+            return;
         }
 
-        if (istHost) { // Spieler 1 Steuerung (nur für Host)
-            if (taste == KeyEvent.VK_W && spieler1Y > 0 && spielLaeuft) {
-                spieler1Y -= SCHLAEGER_GESCHWINDIGKEIT;
-                if (spieler1Y < 0){
-                    spieler1Y = 0;
-                }   
-            }
-            if (taste == KeyEvent.VK_S && spieler1Y < spielfeld.getHeight() - SCHLAEGER_HOEHE && spielLaeuft) {
-                spieler1Y += SCHLAEGER_GESCHWINDIGKEIT;
-                if (spieler1Y > spielfeld.getHeight() - SCHLAEGER_HOEHE) {
-                    spieler1Y = spielfeld.getHeight() - SCHLAEGER_HOEHE;
-                }
-            }
-        } else { // Spieler 2 Steuerung (nur für Client)
-            if (taste == KeyEvent.VK_O && spieler2Y > 0 && spielLaeuft) {
-                spieler2Y -= SCHLAEGER_GESCHWINDIGKEIT;
-                if (spieler2Y < 0){
-                    spieler2Y = 0;
-                } 
-                client.sendeSpieler2Position(spieler2Y);
+        // Latenz-Histogramme speichern (nur mit -Dpong.spur=true beim Client)
+        if (taste == KeyEvent.VK_F9 && spur != null) {
+            try {
+                spur.speichern(SPUR_DATEI);
+                System.out.println("Latenz-Histogramme gespeichert: " + SPUR_DATEI);
+            } catch (java.io.IOException ex) {
+                System.out.println("Latenz-Histogramme konnten nicht gespeichert werden: " + ex.getMessage());
             }
-            if (taste == KeyEvent.VK_L && spieler2Y < spielfeld.getHeight() - SCHLAEGER_HOEHE && spielLaeuft) {
-                spieler2Y += SCHLAEGER_GESCHWINDIGKEIT;
-                if (spieler2Y > spielfeld.getHeight() - SCHLAEGER_HOEHE) {
-                    spieler2Y = spielfeld.getHeight() - SCHLAEGER_HOEHE;
-                }
-                client.sendeSpieler2Position(spieler2Y);
+            return;
+        }
+
+        // Vollbild ein-/ausschalten
+        if (taste == KeyEvent.VK_F11) {
+            spielfeld.vollbildUmschalten();
+            return;
+        }
+
+        // Offenes Pausenmenü mit der Tastatur bedienen, andere Tasten wirken solange nicht
+        SpielOverlay overlay = spielfeld.getOverlay();
+        if (overlay.istMenueOffen()) {
+            if (taste == KeyEvent.VK_UP || taste == KeyEvent.VK_W || taste == KeyEvent.VK_O) {
+                overlay.auswahlVerschieben(-1);
+                spielfeld.repaint();
+            } else if (taste == KeyEvent.VK_DOWN || taste == KeyEvent.VK_S || taste == KeyEvent.VK_L) {
+                overlay.auswahlVerschieben(1);
+                spielfeld.repaint();
+            } else if (taste == KeyEvent.VK_ENTER) {
+                menueAuswahlAusfuehren(overlay.getAuswahl());
+            } else if (taste == KeyEvent.VK_ESCAPE || taste == KeyEvent.VK_SPACE) {
+                menueAuswahlAusfuehren(SpielOverlay.FORTSETZEN);
             }
+            return;
+        }
+
+        // Gemeinsame Tastenfunktion für Host und Client
+        if (taste == KeyEvent.VK_SPACE) {
+            pauseSpiel(); // ob das Spiel schon vorbei ist, prüft die Spielschleife
+        }
+
+        // Schläger bewegt die Spielschleife (siehe eigeneBewegung), im Lockstep über den Lockstep
+        boolean hoch = eigenerSpieler == 1 ? taste == KeyEvent.VK_W : taste == KeyEvent.VK_O;
+        boolean runter = eigenerSpieler == 1 ? taste == KeyEvent.VK_S : taste == KeyEvent.VK_L;
+        if ((hoch || runter) && spielLaeuft()) {
+            long spurId = spur != null && lockstep == null ? spur.starten() : 0; // Latenz ab hier messen
+            eigenenBefehlSenden(Befehl.EIGENE_BEWEGUNG, hoch ? -1 : 1, spurId);
         }
 
         // Gemeinsame Tastenfuntkion für Host und CLient
-        if (taste == KeyEvent.VK_ENTER && !spielLaeuft) {
+        if (taste == KeyEvent.VK_ENTER && !spielLaeuft()) {
             spielNeustarten();
         }
     }
 
     /**
-     * Anhalten des Spiels und Anzeigen des Pause-Menüs
+     * Anhalten des Spiels (wird in der Spielschleife ausgeführt)
      */
-    public void pauseSpiel() {    
-        // Forciere Pause unabhängig vom Status
-        istPausiert = true;
-        
-        // Wenn der Spiel-Thread existiert und noch läuft, wird er unterbrochen
-        if (spielThread != null && spielThread.isAlive()) {
-            try {
-                spielThread.interrupt();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+    public void pauseSpiel() {
+        eigenenBefehlSenden(Befehl.EIGENE_PAUSE);
+    }
+
+    /**
+     * Anhalten des Spiels und Anzeigen des Pause-Menüs (Spielschleife)
+     */
+    private void pausieren() {
+        // Forciere Pause unabhängig vom Status, die Spielschleife schläft daraufhin
+        setStatus(SpielStatus.PAUSIERT);
         
         // Pause-Menü nur für den Spieler anzeigen, der pausiert hat
-        pausenMenueAnzeigen();
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.zeigePausenMenue();
+            }
+        });
         
         // Pause-Nachricht nur an den anderen Spieler senden
         if (istHost) {
@@ -377,196 +850,222 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
         } else {
             client.sendeSpieler2Position(-5); // -5 als Signal für Pause-Nachricht
         }
-        
-        istPausenMenueOffen = true;
     }
 
     /**
      * Zeigt eine Pause-Nachricht an
      */
-    public void zeigePauseNachricht(String nachricht) {
-        spielfeld.zeigePauseNachricht(nachricht);
-    }
-
-    /**
-     * Anzeigen des Pausenmenüs
-     */
-    private void pausenMenueAnzeigen() {
-        pausenMenueFrame = new JFrame("Pausenmenü");
-        pausenMenueFrame.setSize(300, 200);
-        pausenMenueFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        pausenMenueFrame.setLocationRelativeTo(spielfeld);
-
-        JButton neustartButton = new JButton("Neustart");
-        neustartButton.addActionListener(new ActionListener() {
+    public void zeigePauseNachricht(final String nachricht) {
+        aufEdt(new Runnable() {
             @Override
-            public void actionPerformed(ActionEvent e) {
-                pausenMenueFrame.dispose();
-                istPausenMenueOffen = false;
-                spielNeustarten();
-            }
-        });
-
-        JButton fortsetzenButton = new JButton("Fortsetzen");
-        fortsetzenButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                pausenMenueFrame.dispose();
-                istPausenMenueOffen = false;
-                fortsetzenSpiel();
+            public void run() {
+                spielfeld.zeigePauseNachricht(nachricht);
             }
         });
+    }
 
-        JPanel panel = new JPanel();
-        panel.setLayout(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.gridx = 0;
-        gbc.gridy = 0;
-        gbc.insets = new Insets(10, 0, 10, 0);
-        gbc.anchor = GridBagConstraints.CENTER;
+    /**
+     * Führt den gewählten Eintrag des Pausenmenüs aus (Event-Dispatch-Thread)
+     * @param eintrag SpielOverlay.FORTSETZEN oder SpielOverlay.NEUSTART
+     */
+    private void menueAuswahlAusfuehren(int eintrag) {
+        spielfeld.versteckePausenMenue();
+        if (eintrag == SpielOverlay.NEUSTART) {
+            spielNeustarten();
+        } else {
+            fortsetzenSpiel();
+        }
+    }
 
-        panel.add(neustartButton, gbc);
-        gbc.gridy++;
-        panel.add(fortsetzenButton, gbc);
+    /**
+     * Neustarten des Spiels (wird in der Spielschleife ausgeführt)
+     */
+    public void spielNeustarten() {
+        eigenenBefehlSenden(Befehl.EIGENER_NEUSTART);
+    }
 
-        pausenMenueFrame.add(panel);
-        pausenMenueFrame.setVisible(true);
+    /**
+     * Neustarten des Spiels, weil der andere Spieler neu gestartet hat (ohne ihn erneut zu benachrichtigen,
+     * sonst würden sich Host und Client das Neustart-Signal endlos gegenseitig zuschicken)
+     */
+    public void gegnerHatNeugestartet() {
+        neustarten(false);
     }
 
     /**
-     * Neustarten des Spiels
+     * Setzt das Spiel zurück und startet die Spielschleife
+     * @param gegnerBenachrichtigen ob der andere Spieler über den Neustart informiert wird
      */
-    public void spielNeustarten() {
+    private void neustarten(boolean gegnerBenachrichtigen) {
         // Pause-Nachricht verstecken
-        spielfeld.versteckePauseNachricht();
+        versteckePauseNachricht();
         
+        aufnahmeSpeichern(); // abgebrochenes Spiel
+
         // Spielzustand zurücksetzen
-        spieler1Punkte = 0;
-        spieler2Punkte = 0;
-        ballZuruecksetzen();
-        istPausiert = false;
-        istPausenMenueOffen = false;
-        
-        // Alten Thread beenden falls vorhanden
-        if (spielThread != null) {
-            spielThread.interrupt();
-            spielThread = null;
+        if (lockstep != null) { // Host setzt im Tick zurück und sendet den Zustand, der Client übernimmt ihn
+            if (istHost) {
+                lockstep.neustartAnfordern();
+            }
+        } else {
+            physik.neuesSpiel();
+        }
+        if (mehrball != null) {
+            mehrball.alleZuruecksetzen();
         }
+        ballwechsel.neuesSpiel();
+        keyframeFaellig = true;
         
         // Anderen Spieler benachrichtigen
-        if (istHost) {
-            server.sendeSpielZustand("NEUSTART:");
-        } else {
-            client.sendeSpieler2Position(-1); // -1 als Neustart-Signal
+        if (gegnerBenachrichtigen) {
+            if (istHost) {
+                server.sendeSpielZustand("NEUSTART:");
+            } else {
+                client.sendeSpieler2Position(-1); // -1 als Neustart-Signal
+            }
         }
         
         // Spiel neustarten
-        spielLaeuft = true;
-        spielThread = new Thread(this);
-        spielThread.start();
+        setStatus(SpielStatus.LAEUFT);
         
         // Spielfeld richtig initialisieren
-        spielfeld.spielGestartet();
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.spielGestartet();
+            }
+        });
 
         spielfeld.repaint();
     }
 
     /**
-     * Fortsetzen des Spiels
+     * Fortsetzen des Spiels (wird in der Spielschleife ausgeführt)
      */
     public void fortsetzenSpiel() {
-        if (pausenMenueFrame != null) {
-            pausenMenueFrame.dispose();
+        eigenenBefehlSenden(Befehl.EIGENES_FORTSETZEN);
+    }
+
+    /**
+     * Fortsetzen des Spiels, weil der andere Spieler fortgesetzt hat (ohne ihn erneut zu benachrichtigen)
+     */
+    public void gegnerHatFortgesetzt() {
+        fortsetzen(false);
+    }
+
+    /**
+     * Schließt das Pausenmenü und startet den Countdown. Läuft bereits ein Countdown oder das Spiel, passiert nichts.
+     * @param gegnerBenachrichtigen ob der andere Spieler über das Fortsetzen informiert wird
+     */
+    private void fortsetzen(boolean gegnerBenachrichtigen) {
+        if (status.get() == SpielStatus.COUNTDOWN || status.get() == SpielStatus.LAEUFT) {
+            return;
         }
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.versteckePausenMenue();
+            }
+        });
         
         // Pause-Nachricht verstecken
-        spielfeld.versteckePauseNachricht();
+        versteckePauseNachricht();
         
         // Anderen Spieler benachrichtigen
-        if (istHost) {
-            server.sendeSpielZustand("FORTSETZEN:");
-        } else {
-            client.sendeSpieler2Position(-4); // -4 als Signal für Fortsetzen
+        if (gegnerBenachrichtigen) {
+            if (istHost) {
+                server.sendeSpielZustand("FORTSETZEN:");
+            } else {
+                client.sendeSpieler2Position(-4); // -4 als Signal für Fortsetzen
+            }
         }
         
-        istPausenMenueOffen = false;
         countdownStarten();
     }
 
     /**
-     * Fortsetzen des Spiels mit Countdown
+     * Fortsetzen des Spiels mit Countdown (die Spielschleife wartet die Frist ab und läuft dann weiter)
      */
     private void countdownStarten() {
-        Timer timer = new Timer(1000, new ActionListener() {
-            int countdown = 3;
+        keyframeFaellig = true; // nach der Pause vollständigen Zustand bzw. Bahn senden
+        countdownEnde = System.nanoTime() + COUNTDOWN_NANOS;
+        setStatus(SpielStatus.COUNTDOWN);
+    }
 
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (countdown > 0) {
-                    countdown--;
-                } else {
-                    ((Timer) e.getSource()).stop();
-                    istPausiert = false;
-                    // Spiel-Thread neu starten
-                    if (spielThread != null) {
-                        spielThread.interrupt();
-                    }
-                    spielThread = new Thread(SpielSteuerung.this);
-                    spielThread.start();
-                    
-                    spielfeld.spielGestartet();
-                }
-            }
-        });
-        timer.start();
+    /**
+     * Aktualisiert den Spielzustand basierend auf Netzwerknachrichten (wird vom Client in der Spielschleife aufgerufen)
+     * @param zustand Bereits zerlegter UPDATE-Befehl (ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte[, tick[, spurId, hostMikros]])
+     */
+    private void updateSpielZustand(Befehl zustand) {
+        if (zustand.anzahlWerte != 6 && zustand.anzahlWerte != 7 && zustand.anzahlWerte != 9) {
+            return;
+        }
+
+        // Im Mehrball-Modus folgen nach ';' die zusätzlichen Bälle (siehe MehrballPhysik.kodieren)
+        int baelleStart = zustand.text.indexOf(';');
+        if (baelleStart >= 0) {
+            baelleUebernehmen(zustand.text, baelleStart + 1);
+        }
+
+        long[] w = zustand.werte;
+        int ballX = (int) w[0], ballY = (int) w[1], spieler1Y = (int) w[2], spieler2Y = (int) w[3];
+        int spieler1Punkte = (int) w[4], spieler2Punkte = (int) w[5];
+        long hostTick = zustand.anzahlWerte >= 7 ? w[6] : -1;
+        physik.setZustand(ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte);
+        if (spur != null && zustand.anzahlWerte == 9) {
+            spur.uebernommen(w[7]);
+        }
+
+        // Ab und zu die Prüfsumme des übernommenen Zustands an den Host melden (siehe pruefsummeEmpfangen)
+        if (hostTick >= naechstePruefung) {
+            client.sendePruefsumme(hostTick,
+                SpielPhysik.pruefsumme(hostTick, ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte));
+            naechstePruefung = hostTick + PruefsummenVerlauf.PRUEF_INTERVALL_TICKS;
+        }
+
+        // Ob das Spiel beendet ist (ein Spieler hat 3 Punkte) bzw. vom Host neu gestartet wurde
+        if (physik.istSpielVorbei()) {
+            status.set(SpielStatus.SPIELENDE);
+        } else {
+            status.compareAndSet(SpielStatus.SPIELENDE, SpielStatus.LAEUFT);
+        }
+        spielfeld.repaint();
     }
 
     /**
-     * Aktualisiert den Spielzustand basierend auf Netzwerknachrichten (wird vom Client aufgerufen)
+     * Übernimmt die Positionen der zusätzlichen Bälle aus einem Snapshot (Client)
+     * @param zustand Der Snapshot
+     * @param start Beginn der Balldaten
      */
-    public void updateSpielZustand(String zustand) {
-        String[] parts = zustand.split(":"); // Format: BEFEHL:DATEN (ballx, bally, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte)
-        if (parts.length != 2) return;
-        
-        String daten = parts[1];
-        String[] teile = daten.split(","); // Format: ballX,ballY,spieler1Y,spieler2Y,spieler1Punkte,spieler2Punkte
-       
-        if (teile.length == 6) {
-            ballX = Integer.parseInt(teile[0]);
-            ballY = Integer.parseInt(teile[1]);
-            spieler1Y = Integer.parseInt(teile[2]);
-            spieler2Y = Integer.parseInt(teile[3]);
-            spieler1Punkte = Integer.parseInt(teile[4]);
-            spieler2Punkte = Integer.parseInt(teile[5]);
-                
-            // Ob das Spiel beendet ist (ein Spieler hat 3 Punkte)
-            if (spieler1Punkte >= 3 || spieler2Punkte >= 3) {
-                spielLaeuft = false;
-            } else {
-                spielLaeuft = true;
-            }   
-            spielfeld.repaint();
+    private void baelleUebernehmen(String zustand, int start) {
+        int anzahl = MehrballPhysik.anzahlLesen(zustand, start);
+        MehrballPhysik baelle = mehrball;
+        if (baelle == null || baelle.getAnzahl() != anzahl) { // Anzahl bestimmt der Host
+            baelle = new MehrballPhysik(anzahl, SpielPhysik.BALL_GROESSE, physik.getBreite(), physik.getHoehe(), 0);
+        }
+        if (baelle.dekodieren(zustand, start)) {
+            mehrball = baelle;
         }
     }
 
     /**
-     * Aktualisiert die Position von Spieler 2 (wird vom Server aufgerufen)
+     * Aktualisiert die Position von Spieler 2 (aus der Spielschleife, Befehl vom Server)
      */
-    public void updateSpieler2Position(int position) {
+    private void updateSpieler2Position(int position) {
         if (position == -5) { // Pause-Nachricht vom Client
-            spielfeld.zeigePauseNachricht("Client hat das Spiel pausiert");
-            istPausiert = true;
+            zeigePauseNachricht("Client hat das Spiel pausiert");
+            setStatus(SpielStatus.PAUSIERT);
         } else if (position == -1) { // NEUSTART-Signal
             server.sendeSpielZustand("NEUSTART:");
-            spielNeustarten();
+            neustarten(true);
         } else if (position == -2) { // PAUSE-Signal
             server.sendeSpielZustand("PAUSE:");
-            pauseSpiel();
+            pausieren();
         } else if (position == -4) { // FORTSETZEN-Signal
             server.sendeSpielZustand("FORTSETZEN:");
-            fortsetzenSpiel();
+            fortsetzen(true);
         } else {
-            spieler2Y = position;
+            physik.setSpieler2Y(position);
             spielfeld.repaint();
         }
     }
@@ -576,17 +1075,170 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
      */
     private void sendeSpielZustand() {
         if (server != null && server.istClientVerbunden()) {
-            String zustand = String.format("%d,%d,%d,%d,%d,%d",
-                ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte); // Format der Zustands-Nachricht die an den Client gesendet wird
-            server.sendeSpielZustand("UPDATE:" + zustand);
+            // Werte einmal lesen, damit Prüfsumme und Nachricht sicher denselben Zustand beschreiben
+            // (Spieler 2 kann sich währenddessen über das Netzwerk bewegen)
+            int ballX = physik.getBallX();
+            int ballY = physik.getBallY();
+            int spieler1Y = physik.getSpieler1Y();
+            int spieler2Y = physik.getSpieler2Y();
+            int spieler1Punkte = physik.getSpieler1Punkte();
+            int spieler2Punkte = physik.getSpieler2Punkte();
+            Aufzeichnung.Snapshot ereignis = Aufzeichnung.snapshotBeginnen();
+            pruefsummen.merken(tick, SpielPhysik.pruefsumme(tick, ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte));
+            // Format der Zustands-Nachricht die an den Client gesendet wird (wiederverwendeter Puffer statt String.format)
+            snapshotPuffer.setLength(0);
+            snapshotPuffer.append("UPDATE:").append(ballX).append(',').append(ballY).append(',').append(spieler1Y)
+                .append(',').append(spieler2Y).append(',').append(spieler1Punkte).append(',').append(spieler2Punkte)
+                .append(',').append(tick);
+            if (spurId != 0 && tick - spurTick < SPUR_ECHO_TICKS) { // Spur-ID der letzten Bewegung mit der Host-Zeit zurückschicken
+                snapshotPuffer.append(',').append(spurId).append(',').append((System.nanoTime() - spurEmpfangen) / 1000);
+            }
+            if (mehrball != null) {
+                snapshotPuffer.append(';');
+                mehrball.kodieren(snapshotPuffer);
+            }
+            server.sendeSnapshot(snapshotPuffer.toString(), keyframeFaellig);
+            Aufzeichnung.snapshotBeenden(ereignis, tick, snapshotPuffer.length() + 1, keyframeFaellig);
+            keyframeFaellig = false;
+        }
+    }
+
+    /**
+     * Bahn-Modus (Host): Die Bahn des Balls wird nur gesendet, wenn sie sich ändert (Abpraller, Punkt, Neustart,
+     * Keyframe), Schlägerpositionen nur, wenn sich ein Schläger bewegt hat. Während eines Ballwechsels sind das
+     * wenige Nachrichten pro Sekunde statt 100 UPDATEs.
+     * Format: BAHN:tick,ballX,ballY,xGeschwindigkeit,yGeschwindigkeit,spieler1Y,spieler2Y,spieler1Punkte,spieler2Punkte
+     * und SCHLAEGER:tick,spieler1Y,spieler2Y
+     */
+    private void sendeBahn() {
+        int ballX = physik.getBallX();
+        int ballY = physik.getBallY();
+        int spieler1Y = physik.getSpieler1Y();
+        int spieler2Y = physik.getSpieler2Y();
+        int spieler1Punkte = physik.getSpieler1Punkte();
+        int spieler2Punkte = physik.getSpieler2Punkte();
+        // Der Client kann seine Prüfsumme zu jedem Tick melden, daher jeden Tick merken (nicht nur gesendete)
+        pruefsummen.merken(tick, SpielPhysik.pruefsumme(tick, ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte));
+        if (server == null || !server.istClientVerbunden()) {
+            return;
+        }
+        int xGeschwindigkeit = physik.getBallXGeschwindigkeit();
+        int yGeschwindigkeit = physik.getBallYGeschwindigkeit();
+        boolean neueBahn = keyframeFaellig || !bahn.liegtAufBahn(tick, ballX, ballY, xGeschwindigkeit, yGeschwindigkeit);
+        if (neueBahn) {
+            bahn.setzen(tick, ballX, ballY, xGeschwindigkeit, yGeschwindigkeit);
+            snapshotPuffer.setLength(0);
+            snapshotPuffer.append("BAHN:").append(tick).append(',').append(ballX).append(',').append(ballY)
+                .append(',').append(xGeschwindigkeit).append(',').append(yGeschwindigkeit)
+                .append(',').append(spieler1Y).append(',').append(spieler2Y)
+                .append(',').append(spieler1Punkte).append(',').append(spieler2Punkte);
+            server.sendeSnapshot(snapshotPuffer.toString(), true); // muss ankommen, der Client rechnet damit weiter
+            keyframeFaellig = false;
+        } else if (spieler1Y != gesendeterSpieler1Y || spieler2Y != gesendeterSpieler2Y) {
+            snapshotPuffer.setLength(0);
+            snapshotPuffer.append("SCHLAEGER:").append(tick).append(',').append(spieler1Y).append(',').append(spieler2Y);
+            server.sendeSnapshot(snapshotPuffer.toString(), false); // neuere Position ersetzt eine noch nicht gesendete
+        } else {
+            return;
+        }
+        gesendeterSpieler1Y = spieler1Y;
+        gesendeterSpieler2Y = spieler2Y;
+    }
+
+    /**
+     * Bahn-Modus (Client): Übernimmt eine neue Bahn des Hosts und meldet ab und zu die Prüfsumme dieses Ticks
+     * @param b BAHN-Befehl (siehe sendeBahn)
+     */
+    private void bahnUebernehmen(Befehl b) {
+        long[] w = b.werte;
+        long hostTick = w[0];
+        int ballX = (int) w[1], ballY = (int) w[2], spieler1Y = (int) w[5], spieler2Y = (int) w[6];
+        int spieler1Punkte = (int) w[7], spieler2Punkte = (int) w[8];
+        bahn.setzen(hostTick, ballX, ballY, (int) w[3], (int) w[4]);
+        // Eigener Takt läuft weiter, solange er nicht hinter dem Host liegt: der Ball wird dann über die
+        // Übertragungszeit hinaus vorausberechnet, statt bei jedem Abpraller zurückzuspringen
+        tick = Math.max(tick, hostTick);
+        letzterSchlaegerTick = hostTick;
+        physik.setZustand(ballPositionX(), ballPositionY(), spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte);
+
+        if (hostTick >= naechstePruefung) {
+            client.sendePruefsumme(hostTick,
+                SpielPhysik.pruefsumme(hostTick, ballX, ballY, spieler1Y, spieler2Y, spieler1Punkte, spieler2Punkte));
+            naechstePruefung = hostTick + PruefsummenVerlauf.PRUEF_INTERVALL_TICKS;
+        }
+        if (physik.istSpielVorbei()) {
+            status.set(SpielStatus.SPIELENDE);
+        } else {
+            status.compareAndSet(SpielStatus.SPIELENDE, SpielStatus.LAEUFT);
         }
+        spielfeld.repaint();
+    }
+
+    /**
+     * Bahn-Modus (Client): Übernimmt Schlägerpositionen, ältere als die der letzten Bahn werden ignoriert
+     * @param b SCHLAEGER-Befehl (tick, spieler1Y, spieler2Y)
+     */
+    private void schlaegerUebernehmen(Befehl b) {
+        if (b.werte[0] < letzterSchlaegerTick) {
+            return;
+        }
+        letzterSchlaegerTick = b.werte[0];
+        physik.setSpielerY(1, (int) b.werte[1]);
+        physik.setSpielerY(2, (int) b.werte[2]);
+        spielfeld.repaint();
+    }
+
+    /**
+     * Bahn-Modus (Client): Ein Tick, der Ball bewegt sich auf der zuletzt empfangenen Bahn
+     */
+    private void bahnFortschreiben() {
+        if (!bahn.istGueltig() || !spielLaeuft()) {
+            return;
+        }
+        tick++;
+        physik.setZustand(ballPositionX(), ballPositionY(), physik.getSpieler1Y(), physik.getSpieler2Y(),
+            physik.getSpieler1Punkte(), physik.getSpieler2Punkte());
+        spielfeld.repaint();
+    }
+
+    private int ballPositionX() {
+        return bahn.xBei(tick, physik.getBreite() - SpielPhysik.BALL_GROESSE);
+    }
+
+    private int ballPositionY() {
+        return bahn.yBei(tick, physik.getHoehe() - SpielPhysik.BALL_GROESSE);
+    }
+
+    /**
+     * Vergleicht die Prüfsumme des Clients mit dem Zustand, der zu diesem Tick gesendet wurde (wird vom Server aufgerufen).
+     * Weicht sie ab, bekommt der Client mit dem nächsten Snapshot den vollständigen Zustand als Keyframe.
+     * @param clientTick Tick des Zustands, den der Client zuletzt übernommen hat
+     * @param pruefsumme Prüfsumme des Clients
+     */
+    public void pruefsummeEmpfangen(long clientTick, int pruefsumme) {
+        if (!pruefsummen.stimmtUeberein(clientTick, pruefsumme)) {
+            System.out.println("Abweichung beim Client in Tick " + clientTick + ", sende vollständigen Zustand");
+            resyncAnfordern();
+        }
+    }
+
+    /**
+     * Sorgt dafür, dass der nächste Snapshot als Keyframe (sicher und mit Vorrang) gesendet wird
+     */
+    public void resyncAnfordern() {
+        keyframeFaellig = true;
     }
 
     /**
      * Beendet das Spiel und schließt die Netzwerkverbindungen
      */
     public void beendeSpiel() {
-        spielLaeuft = false;
+        beendet = true;
+        LockSupport.unpark(spielThread);
+        ErgebnisSpeicher speicher = ergebnisse;
+        if (speicher != null) {
+            speicher.schliessen(); // ausstehende Ergebnisse noch schreiben
+        }
         if (istHost && server != null) {
             server.stopServer();
         } else if (!istHost && client != null) {
@@ -609,6 +1261,31 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
         }
     }
 
+    /**
+     * Sendet eine Laufzeitmessung an den anderen Spieler (für die RTT in der Leistungsanzeige)
+     */
+    public void sendePing() {
+        if (istHost && server != null) {
+            server.sendeSpielZustand("PING:" + System.nanoTime());
+        } else if (!istHost && client != null) {
+            client.sendePing();
+        }
+    }
+
+    /**
+     * Liefert die Latenz-Spur (nur beim Client mit -Dpong.spur=true, sonst null)
+     */
+    public LatenzSpur getSpur() {
+        return spur;
+    }
+
+    /**
+     * Liefert die Messwerte für die Leistungsanzeige
+     */
+    public LeistungsMessung getMessung() {
+        return messung;
+    }
+
     /**
      * Gibt zurück, ob der aktuelle Spieler der Host ist
      * @return true wenn der Spieler der Host ist, sonst false
@@ -617,19 +1294,30 @@ public class SpielSteuerung extends KeyAdapter implements Runnable {
         return istHost;
     }
 
+    /**
+     * Legt fest, welchen Schläger der Client steuert (wird vom dedizierten Server per ROLLE-Nachricht gesetzt)
+     * @param spieler 1 für den linken, 2 für den rechten Schläger
+     */
+    public void setEigenerSpieler(int spieler) {
+        this.eigenerSpieler = spieler;
+    }
+
     /**
      * Versteckt die Pause-Nachricht
      */
     public void versteckePauseNachricht() {
-        spielfeld.versteckePauseNachricht();
+        aufEdt(new Runnable() {
+            @Override
+            public void run() {
+                spielfeld.versteckePauseNachricht();
+            }
+        });
     }
 
     /**
-    * Setzt den Pausierungsstatus des Spiels.
-    *
-    * @param pausiert true, um das Spiel zu pausieren; false, um das Spiel fortzusetzen.
-    */
-    public void setPausiert(boolean pausiert) {
-        this.istPausiert = pausiert;
+     * Liefert die Warteschlange, in die Server und Client eingehende Nachrichten als Befehle legen
+     */
+    public BefehlsWarteschlange getBefehle() {
+        return befehle;
     }
 }
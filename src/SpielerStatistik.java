@@ -0,0 +1,101 @@
+import java.util.Comparator;
+
+/**
+ * Die Klasse SpielerStatistik fasst alle Ergebnisse eines Spielers zusammen (Eintrag im Index des ErgebnisSpeicher)
+ */
+public class SpielerStatistik {
+    /**
+     * Rangfolge der Bestenliste: meiste Siege, dann beste Punktedifferenz, dann weniger Spiele, dann Name
+     */
+    public static final Comparator<SpielerStatistik> RANGFOLGE = new Comparator<SpielerStatistik>() {
+        @Override
+        public int compare(SpielerStatistik a, SpielerStatistik b) {
+            if (a.siege != b.siege) {
+                return Integer.compare(b.siege, a.siege);
+            }
+            long differenzA = a.punkte - a.gegenpunkte;
+            long differenzB = b.punkte - b.gegenpunkte;
+            if (differenzA != differenzB) {
+                return Long.compare(differenzB, differenzA);
+            }
+            if (a.spiele != b.spiele) {
+                return Integer.compare(a.spiele, b.spiele);
+            }
+            return a.name.compareTo(b.name);
+        }
+    };
+
+    private final String name;
+    private int spiele;
+    private int siege;
+    private long punkte;
+    private long gegenpunkte;
+    private int laengsterBallwechsel;
+
+    /**
+     * Konstruktor für die SpielerStatistik
+     * @param name Name des Spielers
+     */
+    public SpielerStatistik(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Kopie für Abfragen (der Index selbst wird nie herausgegeben)
+     */
+    SpielerStatistik kopie() {
+        SpielerStatistik kopie = new SpielerStatistik(name);
+        kopie.spiele = spiele;
+        kopie.siege = siege;
+        kopie.punkte = punkte;
+        kopie.gegenpunkte = gegenpunkte;
+        kopie.laengsterBallwechsel = laengsterBallwechsel;
+        return kopie;
+    }
+
+    /**
+     * Trägt ein Spiel aus Sicht dieses Spielers ein
+     */
+    void eintragen(int eigenePunkte, int gegnerPunkte, int ballwechsel) {
+        spiele++;
+        if (eigenePunkte > gegnerPunkte) {
+            siege++;
+        }
+        punkte += eigenePunkte;
+        gegenpunkte += gegnerPunkte;
+        laengsterBallwechsel = Math.max(laengsterBallwechsel, ballwechsel);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSpiele() {
+        return spiele;
+    }
+
+    public int getSiege() {
+        return siege;
+    }
+
+    public int getNiederlagen() {
+        return spiele - siege;
+    }
+
+    public long getPunkte() {
+        return punkte;
+    }
+
+    public long getGegenpunkte() {
+        return gegenpunkte;
+    }
+
+    public int getLaengsterBallwechsel() {
+        return laengsterBallwechsel;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + siege + " Siege, " + getNiederlagen() + " Niederlagen, " + punkte + ":" + gegenpunkte + ")";
+    }
+}
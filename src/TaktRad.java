@@ -0,0 +1,248 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Die Klasse TaktRad führt die Ticks vieler Spiele auf einer festen Anzahl von Arbeiter-Threads aus
+ * (Hashed Timing Wheel). Jeder Arbeiter hat ein eigenes Rad mit SLOTS Fächern zu je slotNanos; eine Aufgabe
+ * liegt in dem Fach ihrer nächsten Frist und wird mit allen anderen Aufgaben dieses Fachs in einem Durchlauf
+ * ausgeführt. Einplanen und Ausführen kosten pro Tick O(1), unabhängig von der Anzahl der Spiele.
+ *
+ * Ein Spiel bleibt für seine ganze Lebensdauer bei demselben Arbeiter (der Arbeiter mit den wenigsten Aufgaben
+ * bei der Anmeldung), seine Daten bleiben so im Cache dieses Kerns. Nur der Arbeiter greift auf sein Rad zu;
+ * neue Aufgaben kommen über eine Warteschlange, abgemeldete Aufgaben werden beim nächsten Besuch entfernt.
+ *
+ * Einstellungen: -Dpong.taktrad.slot.us=1000 (Breite eines Fachs), Anzahl der Arbeiter im Konstruktor.
+ */
+public class TaktRad {
+    public static final long STANDARD_SLOT_NANOS = Long.getLong("pong.taktrad.slot.us", 1000) * 1000L;
+    private static final int SLOTS = 512; // Zweierpotenz; längere Fristen liegen mehrere Umdrehungen im Fach
+
+    private final Arbeiter[] arbeiter;
+    private final long slotNanos;
+    private final long start = System.nanoTime(); // Fach 0 beginnt hier (gemeinsam für alle Arbeiter)
+    private volatile boolean aktiv = true;
+
+    /**
+     * Eine eingeplante Aufgabe (zum Abmelden)
+     */
+    public static class Takt {
+        private final Runnable aufgabe;
+        private final long periode; // 0 = einmalig
+        private final Arbeiter arbeiter;
+        private long frist; // nächste Ausführung (System.nanoTime()), nur vom Arbeiter benutzt
+        private long zielSlot; // absolutes Fach der Frist
+        private Takt naechster; // verkettete Liste des Fachs
+        private volatile boolean abgemeldet = false;
+
+        private Takt(Runnable aufgabe, long frist, long periode, Arbeiter arbeiter) {
+            this.aufgabe = aufgabe;
+            this.frist = frist;
+            this.periode = periode;
+            this.arbeiter = arbeiter;
+        }
+
+        /**
+         * Die Aufgabe wird nicht mehr ausgeführt (eine gerade laufende Ausführung endet noch)
+         */
+        public void abmelden() {
+            if (!abgemeldet) {
+                abgemeldet = true;
+                arbeiter.aufgaben.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Konstruktor für das TaktRad
+     * @param anzahlArbeiter Anzahl der Arbeiter-Threads (z.B. Anzahl der Kerne)
+     * @param slotNanos Breite eines Fachs (Genauigkeit der Ticks)
+     */
+    public TaktRad(int anzahlArbeiter, long slotNanos) {
+        this.slotNanos = slotNanos;
+        this.arbeiter = new Arbeiter[Math.max(1, anzahlArbeiter)];
+        for (int i = 0; i < arbeiter.length; i++) {
+            arbeiter[i] = new Arbeiter(i);
+            arbeiter[i].thread.start();
+        }
+    }
+
+    /**
+     * Führt eine Aufgabe ab jetzt alle periodeNanos aus (feste Rate wie scheduleAtFixedRate)
+     * @param aufgabe Die Aufgabe (z.B. ein Spiel-Tick)
+     * @param periodeNanos Abstand der Ausführungen
+     * @return Der Takt zum Abmelden
+     */
+    public Takt periodisch(Runnable aufgabe, long periodeNanos) {
+        return einplanen(aufgabe, periodeNanos, periodeNanos);
+    }
+
+    /**
+     * Führt eine Aufgabe einmal nach der angegebenen Verzögerung aus
+     */
+    public Takt einmal(Runnable aufgabe, long verzoegerungNanos) {
+        return einplanen(aufgabe, verzoegerungNanos, 0);
+    }
+
+    private Takt einplanen(Runnable aufgabe, long verzoegerungNanos, long periodeNanos) {
+        Arbeiter ziel = null;
+        for (Arbeiter a : arbeiter) { // lebender Arbeiter mit den wenigsten Aufgaben
+            if (a.thread.isAlive() && (ziel == null || a.aufgaben.get() < ziel.aufgaben.get())) {
+                ziel = a;
+            }
+        }
+        if (ziel == null) { // alle beendet (nach stoppen), die Aufgabe wird nie ausgeführt
+            ziel = arbeiter[0];
+        }
+        Takt takt = new Takt(aufgabe, System.nanoTime() + verzoegerungNanos, periodeNanos, ziel);
+        ziel.aufgaben.incrementAndGet();
+        ziel.eingang.add(takt);
+        LockSupport.unpark(ziel.thread); // damit eine kurze Frist nicht erst nach dem aktuellen Schlaf beachtet wird
+        return takt;
+    }
+
+    /**
+     * Anzahl der Arbeiter-Threads
+     */
+    public int getArbeiterAnzahl() {
+        return arbeiter.length;
+    }
+
+    /**
+     * Last der Arbeiter seit dem letzten Aufruf, eine Zeile pro Arbeiter
+     * (Aufgaben, Anteil der Zeit mit Ausführen, Ausführungen und davon verspätete)
+     */
+    public synchronized String bericht() {
+        StringBuilder text = new StringBuilder();
+        for (Arbeiter a : arbeiter) {
+            long jetzt = System.nanoTime();
+            long beschaeftigt = a.beschaeftigtNanos.get();
+            long ausfuehrungen = a.ausfuehrungen.get();
+            long verspaetet = a.verspaetet.get();
+            long dauer = Math.max(1, jetzt - a.berichtZeit);
+            text.append("Arbeiter ").append(a.nummer).append(": ").append(a.aufgaben.get()).append(" Aufgaben, ")
+                .append((beschaeftigt - a.berichtBeschaeftigt) * 1000 / dauer / 10.0).append(" % ausgelastet, ")
+                .append(ausfuehrungen - a.berichtAusfuehrungen).append(" Ausführungen, ")
+                .append(verspaetet - a.berichtVerspaetet).append(" verspätet\n");
+            a.berichtZeit = jetzt;
+            a.berichtBeschaeftigt = beschaeftigt;
+            a.berichtAusfuehrungen = ausfuehrungen;
+            a.berichtVerspaetet = verspaetet;
+        }
+        return text.toString();
+    }
+
+    /**
+     * Beendet alle Arbeiter (laufende Aufgaben enden noch, danach wird nichts mehr ausgeführt)
+     */
+    public void stoppen() {
+        aktiv = false;
+        for (Arbeiter a : arbeiter) {
+            LockSupport.unpark(a.thread);
+        }
+    }
+
+    /**
+     * Ein Arbeiter-Thread mit eigenem Rad
+     */
+    private class Arbeiter implements Runnable {
+        private final int nummer;
+        private final Thread thread;
+        private final Takt[] faecher = new Takt[SLOTS];
+        private final ConcurrentLinkedQueue<Takt> eingang = new ConcurrentLinkedQueue<>(); // neue Aufgaben
+        private final AtomicInteger aufgaben = new AtomicInteger(); // angemeldete Aufgaben (für die Verteilung)
+        private final AtomicLong beschaeftigtNanos = new AtomicLong(); // nur der Arbeiter schreibt
+        private final AtomicLong ausfuehrungen = new AtomicLong();
+        private final AtomicLong verspaetet = new AtomicLong(); // mehr als ein Fach nach der Frist begonnen
+        private long naechsterSlot; // erstes noch nicht ausgeführtes Fach (absolut)
+        private long berichtZeit = System.nanoTime(); // Stand beim letzten Bericht
+        private long berichtBeschaeftigt, berichtAusfuehrungen, berichtVerspaetet;
+
+        Arbeiter(int nummer) {
+            this.nummer = nummer;
+            this.naechsterSlot = (System.nanoTime() - start) / slotNanos;
+            this.thread = new Thread(this, "TaktRad-" + nummer);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (aktiv) {
+                eingangUebernehmen();
+                long jetzt = System.nanoTime();
+                long aktuellerSlot = (jetzt - start) / slotNanos;
+                while (naechsterSlot <= aktuellerSlot && aktiv) { // auch verpasste Fächer nachholen
+                    fachAusfuehren(naechsterSlot++); // vorher weiterzählen: ausgeführte Aufgaben kommen frühestens ins nächste Fach
+                }
+                long warten = start + naechsterSlot * slotNanos - System.nanoTime();
+                if (warten > 0) {
+                    LockSupport.parkNanos(this, warten);
+                }
+            }
+        }
+
+        /**
+         * Hängt neu angemeldete Aufgaben in ihr Fach
+         */
+        private void eingangUebernehmen() {
+            Takt takt;
+            while ((takt = eingang.poll()) != null) {
+                einhaengen(takt);
+            }
+        }
+
+        /**
+         * Führt alle fälligen Aufgaben eines Fachs aus und hängt sie für ihre nächste Frist wieder ein
+         */
+        private void fachAusfuehren(long slot) {
+            int index = (int) (slot & (SLOTS - 1));
+            Takt takt = faecher[index];
+            faecher[index] = null;
+            long beginn = System.nanoTime();
+            while (takt != null) {
+                Takt naechster = takt.naechster;
+                takt.naechster = null;
+                if (takt.abgemeldet) {
+                    // fällt aus dem Rad
+                } else if (takt.zielSlot > slot) { // erst in einer späteren Umdrehung fällig
+                    takt.naechster = faecher[index];
+                    faecher[index] = takt;
+                } else {
+                    ausfuehren(takt);
+                    if (takt.periode > 0 && !takt.abgemeldet) {
+                        takt.frist += takt.periode;
+                        einhaengen(takt);
+                    } else if (takt.periode == 0) {
+                        takt.abmelden();
+                    }
+                }
+                takt = naechster;
+            }
+            beschaeftigtNanos.lazySet(beschaeftigtNanos.get() + System.nanoTime() - beginn);
+        }
+
+        private void ausfuehren(Takt takt) {
+            if (System.nanoTime() - takt.frist > slotNanos) {
+                verspaetet.lazySet(verspaetet.get() + 1);
+            }
+            try {
+                takt.aufgabe.run();
+            } catch (Throwable e) { // eine fehlerhafte Aufgabe darf die anderen Spiele nicht anhalten, auch nicht mit einem Error
+                System.out.println("Fehler in " + thread.getName() + ": " + e);
+            }
+            ausfuehrungen.lazySet(ausfuehrungen.get() + 1);
+        }
+
+        /**
+         * Hängt eine Aufgabe in das Fach ihrer Frist (frühestens in das nächste noch nicht ausgeführte Fach)
+         */
+        private void einhaengen(Takt takt) {
+            long slot = Math.max(naechsterSlot, (takt.frist - start + slotNanos - 1) / slotNanos);
+            takt.zielSlot = slot;
+            int index = (int) (slot & (SLOTS - 1));
+            takt.naechster = faecher[index];
+            faecher[index] = takt;
+        }
+    }
+}
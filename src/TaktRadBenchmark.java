@@ -0,0 +1,130 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die Klasse TaktRadBenchmark lässt viele Spiele mit je 100 Ticks pro Sekunde laufen, einmal mit dem TaktRad und
+ * einmal mit einem ScheduledThreadPoolExecutor mit gleich vielen Threads, und vergleicht die Verspätung der Ticks
+ * und die verbrauchte CPU-Zeit. Ein Tick rechnet die Physik und baut den Snapshot wie ServerSpiel.tick().
+ *
+ * Aufruf: java TaktRadBenchmark [spiele=2000] [sekunden=10] [threads]
+ */
+public class TaktRadBenchmark {
+    private static final long PERIODE = 10_000_000L; // 100 Ticks pro Sekunde wie im DedizierterServer
+    private static final long AUFWAERM_NANOS = 2_000_000_000L; // Verspätungen erst danach zählen
+
+    public static void main(String[] args) throws Exception {
+        int spiele = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int sekunden = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println(spiele + " Spiele, " + sekunden + " s, " + threads + " Threads");
+        System.out.println("Taktgeber          Ticks/s    Verspätung Median  p99      max      CPU");
+
+        TaktRad rad = new TaktRad(threads, TaktRad.STANDARD_SLOT_NANOS);
+        Raum[] raeume = raeume(spiele);
+        TaktRad.Takt[] takte = new TaktRad.Takt[spiele];
+        long cpuVorher = cpuNanos();
+        long start = System.nanoTime();
+        for (int i = 0; i < spiele; i++) {
+            raeume[i].starten(start);
+            takte[i] = rad.periodisch(raeume[i], PERIODE);
+        }
+        Thread.sleep(sekunden * 1000L);
+        for (TaktRad.Takt takt : takte) {
+            takt.abmelden();
+        }
+        ausgeben("TaktRad", raeume, System.nanoTime() - start, cpuNanos() - cpuVorher);
+        System.out.print(rad.bericht());
+        rad.stoppen();
+
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(threads);
+        raeume = raeume(spiele);
+        ScheduledFuture<?>[] zukuenfte = new ScheduledFuture<?>[spiele];
+        cpuVorher = cpuNanos();
+        start = System.nanoTime();
+        for (int i = 0; i < spiele; i++) {
+            raeume[i].starten(start);
+            zukuenfte[i] = pool.scheduleAtFixedRate(raeume[i], PERIODE, PERIODE, TimeUnit.NANOSECONDS);
+        }
+        Thread.sleep(sekunden * 1000L);
+        for (ScheduledFuture<?> zukunft : zukuenfte) {
+            zukunft.cancel(false);
+        }
+        ausgeben("ScheduledExecutor", raeume, System.nanoTime() - start, cpuNanos() - cpuVorher);
+        pool.shutdownNow();
+    }
+
+    private static Raum[] raeume(int anzahl) {
+        Raum[] raeume = new Raum[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            raeume[i] = new Raum();
+        }
+        return raeume;
+    }
+
+    /**
+     * CPU-Zeit des Prozesses (alle Threads) in Nanosekunden, -1 wenn die JVM sie nicht liefert
+     */
+    private static long cpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof com.sun.management.OperatingSystemMXBean
+            ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime() : -1;
+    }
+
+    private static void ausgeben(String name, Raum[] raeume, long dauer, long cpu) {
+        LatenzHistogramm verspaetung = new LatenzHistogramm();
+        long ticks = 0;
+        for (Raum raum : raeume) {
+            verspaetung.zusammenfuehren(raum.verspaetung);
+            ticks += raum.ticks;
+        }
+        System.out.printf("%-18s %-10d %-18s %-8s %-8s %.0f%%%n", name, ticks * 1_000_000_000L / (dauer - AUFWAERM_NANOS),
+            verspaetung.perzentil(50) + " µs", verspaetung.perzentil(99) + " µs", verspaetung.getMaximum() + " µs",
+            cpu * 100.0 / dauer);
+    }
+
+    /**
+     * Ein Spiel: Physik und Snapshot wie ServerSpiel.tick(), dazu die Verspätung gegenüber dem geplanten Tick
+     */
+    private static class Raum implements Runnable {
+        private final SpielPhysik physik = new SpielPhysik(SpielPhysik.STANDARD_BREITE, SpielPhysik.STANDARD_HOEHE);
+        private final StringBuilder puffer = new StringBuilder();
+        private final LatenzHistogramm verspaetung = new LatenzHistogramm();
+        private long naechsterTick; // geplanter Zeitpunkt dieses Ticks
+        private long aufwaermEnde;
+        private long ticks;
+        private long summe; // verhindert, dass der JIT den Snapshot wegoptimiert
+
+        Raum() {
+            physik.initialisiereModus(SpielModus.MITTEL);
+            physik.neuesSpiel();
+        }
+
+        void starten(long start) {
+            aufwaermEnde = start + AUFWAERM_NANOS;
+        }
+
+        @Override
+        public void run() {
+            long jetzt = System.nanoTime();
+            if (naechsterTick == 0) { // erster Tick legt den Plan fest (Anmelden vieler Spiele dauert selbst etwas)
+                naechsterTick = jetzt;
+            }
+            if (jetzt - aufwaermEnde > 0) {
+                verspaetung.eintragen(jetzt - naechsterTick);
+                ticks++;
+            }
+            naechsterTick += PERIODE;
+            physik.schritt();
+            if (physik.istSpielVorbei()) {
+                physik.neuesSpiel();
+            }
+            puffer.setLength(0);
+            puffer.append("UPDATE:").append(physik.getBallX()).append(',').append(physik.getBallY())
+                .append(',').append(physik.getSpieler1Y()).append(',').append(physik.getSpieler2Y());
+            summe += puffer.toString().length();
+        }
+    }
+}
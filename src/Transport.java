@@ -0,0 +1,44 @@
+import java.io.IOException;
+
+/**
+ * Das Interface Transport beschreibt, wie eine Verbindung Zeilen liest und schreibt.
+ * Umsetzungen: SocketTransport (TCP), SpeicherTransport (gemeinsamer Speicher auf demselben Rechner)
+ * und WarteschlangenTransport (im selben Prozess, z.B. für Bots und Testläufe).
+ * Lesen und Schreiben laufen jeweils in genau einem Thread (Lese- bzw. Sende-Thread der Verbindung).
+ */
+public interface Transport {
+    /**
+     * Liest die nächste Zeile (blockiert)
+     * @return Die Zeile ohne Zeilenumbruch oder null, wenn die Gegenseite geschlossen hat
+     * @throws IOException bei einem Fehler oder wenn der Transport geschlossen wurde
+     */
+    String zeileLesen() throws IOException;
+
+    /**
+     * Schreibt eine Zeile (ggf. gepuffert bis leeren())
+     * @param zeile Die Zeile ohne Zeilenumbruch
+     * @throws IOException bei einem Fehler oder wenn der Transport geschlossen wurde
+     */
+    void zeileSchreiben(String zeile) throws IOException;
+
+    /**
+     * Gibt gepufferte Zeilen an die Gegenseite weiter
+     * @throws IOException bei einem Fehler
+     */
+    void leeren() throws IOException;
+
+    /**
+     * Schließt den Transport; ein blockiertes zeileLesen() endet danach
+     */
+    void schliessen();
+
+    /**
+     * Ob schliessen() bereits aufgerufen wurde
+     */
+    boolean istGeschlossen();
+
+    /**
+     * Beschreibung der Gegenseite (für Log-Ausgaben und Thread-Namen)
+     */
+    String getAdresse();
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Die Klasse TransportBenchmark misst die Round-Trip-Time einer Zeile (Ping-Pong zwischen zwei Threads)
+ * für alle Transporte: TCP über localhost, gemeinsamer Speicher und Warteschlangen im selben Prozess.
+ *
+ * Aufruf: java TransportBenchmark [runden=200000]
+ */
+public class TransportBenchmark {
+    private static final String NACHRICHT = "UPDATE:395,295,250,250,0,0,123456";
+
+    public static void main(String[] args) throws Exception {
+        int runden = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("Transport         Median    p99        (Round-Trip, " + runden + " Runden)");
+
+        WarteschlangenTransport[] paar = WarteschlangenTransport.paar();
+        messen("Warteschlangen", paar[0], paar[1], runden);
+
+        Path datei = Files.createTempFile("pong-benchmark", ".shm");
+        SpeicherTransport host = SpeicherTransport.anbieten(datei);
+        SpeicherTransport client = SpeicherTransport.verbinden(datei);
+        messen("Speicher", host, client, runden);
+        Files.deleteIfExists(datei);
+
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Socket clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+            Socket serverSeite = serverSocket.accept();
+            messen("TCP (localhost)", new SocketTransport(serverSeite), new SocketTransport(clientSocket), runden);
+        }
+    }
+
+    /**
+     * Schickt eine Zeile von a nach b und zurück, mehrfach; die erste Hälfte der Runden dient zum Aufwärmen
+     */
+    private static void messen(String name, Transport a, final Transport b, final int runden) throws Exception {
+        Thread echo = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String zeile;
+                    while ((zeile = b.zeileLesen()) != null) {
+                        b.zeileSchreiben(zeile);
+                        b.leeren();
+                    }
+                } catch (IOException e) {
+                    // Transport geschlossen
+                }
+            }
+        });
+        echo.setDaemon(true);
+        echo.start();
+
+        long[] dauern = new long[runden];
+        for (int i = 0; i < 2 * runden; i++) {
+            long start = System.nanoTime();
+            a.zeileSchreiben(NACHRICHT);
+            a.leeren();
+            a.zeileLesen();
+            if (i >= runden) {
+                dauern[i - runden] = System.nanoTime() - start;
+            }
+        }
+        a.schliessen();
+        b.schliessen();
+
+        Arrays.sort(dauern);
+        System.out.printf("%-16s %7.2f us %7.2f us%n", name, dauern[runden / 2] / 1000.0, dauern[runden * 99 / 100] / 1000.0);
+    }
+}
@@ -0,0 +1,374 @@
+import java.io.*;
+import java.net.*;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die Klasse Verbindung kapselt eine zeilenbasierte Verbindung zur Gegenseite (Client bzw. Server).
+ * Wie die Zeilen übertragen werden, bestimmt der Transport (TCP, gemeinsamer Speicher oder im selben Prozess).
+ * Eingehende Nachrichten werden in einem eigenen Thread gelesen und an einen NachrichtenEmpfaenger weitergegeben.
+ * Ausgehende Nachrichten schreibt ein eigener Sende-Thread, damit die Spielschleife nie auf den Socket wartet:
+ * Steuer-Nachrichten und Keyframes haben Vorrang, normale Snapshots werden zusammengefasst (nur der neueste zählt)
+ * und mit der Rate des SenderateRegler gesendet.
+ * Sie kommt ohne AWT/Swing aus und wird deshalb auch vom dedizierten Server genutzt.
+ *
+ * Lebenszyklus: Ende des Streams (EOF) oder ein Fehler beendet beide Threads und meldet verbindungGetrennt() genau
+ * einmal. Wird eine Sekunde lang nichts gesendet, schickt der Sende-Thread einen HERZSCHLAG. Kommt innerhalb des
+ * Lese-Timeouts keine Zeile (auch kein Herzschlag) bzw. innerhalb des Leerlauf-Timeouts keine echte Nachricht, trennt
+ * er die Verbindung. Halb offene Verbindungen werden so nach wenigen Sekunden abgebaut, ohne dass ein Thread pollt.
+ */
+public class Verbindung implements Runnable {
+    public static final int STANDARD_MIN_SENDERATE = Integer.getInteger("pong.senderate.min", 20); // Snapshots pro Sekunde
+    public static final int STANDARD_MAX_SENDERATE = Integer.getInteger("pong.senderate.max", 100);
+    private static final int MAX_WARTESCHLANGE = 1000; // mehr wartende Nachrichten -> Client liest nicht mehr, Verbindung trennen
+    public static final String HERZSCHLAG = "HERZSCHLAG:"; // wird von der Verbindung selbst verarbeitet, nie weitergegeben
+    private static final long HERZSCHLAG_NANOS = Long.getLong("pong.herzschlag.ms", 1000) * 1_000_000L; // spätestens so oft senden
+    private static final long LESE_TIMEOUT_NANOS = Long.getLong("pong.timeout.lesen.ms", 5000) * 1_000_000L; // ohne jede Zeile -> trennen
+    private static final long LEERLAUF_TIMEOUT_NANOS = Long.getLong("pong.timeout.leerlauf.ms", 0) * 1_000_000L; // ohne echte Nachricht -> trennen (0 = aus)
+
+    private final Transport transport; // überträgt die Zeilen (Lesen nur im Lese-Thread, Schreiben nur im Sende-Thread)
+    private final SenderateRegler regler;
+    private volatile NachrichtenEmpfaenger empfaenger; // kann vom Lese-Thread gewechselt werden (siehe uebergeben)
+    private volatile LeistungsMessung messung; // optional, zählt gesendete Nachrichten für die Leistungsanzeige
+    private volatile boolean isRunning = false; // ob die Verbindung aktiv ist
+    private volatile long letzterEmpfang; // letzte empfangene Zeile inkl. Herzschlag (System.nanoTime())
+    private volatile long letzteNachricht; // letzte empfangene Nachricht ohne Herzschlag
+    private long letztesSenden; // letzte gesendete Zeile (nur Sende-Thread)
+    private final Object trennSperre = new Object(); // verbindungGetrennt() nur einmal melden
+    private boolean getrenntGemeldet = false;
+
+    private final Object sendeSperre = new Object(); // schützt Warteschlange und Snapshot
+    private final ArrayDeque<String> warteschlange = new ArrayDeque<>(); // Steuer-Nachrichten und Keyframes (Vorrang)
+    private String snapshot; // neuester noch nicht gesendeter Snapshot, ältere werden überschrieben
+    private long naechsterSnapshot = 0; // frühester Sendezeitpunkt des nächsten Snapshots (System.nanoTime())
+    private volatile String abschied; // letzte Nachricht vor dem Schließen (siehe abschliessen), null = keine
+
+    /**
+     * Konstruktor für die Verbindung mit den Standard-Senderaten (System-Properties pong.senderate.min/max)
+     * @param socket Der bereits verbundene Socket
+     * @throws IOException wenn die Streams nicht geöffnet werden können
+     */
+    public Verbindung(Socket socket) throws IOException {
+        this(socket, STANDARD_MIN_SENDERATE, STANDARD_MAX_SENDERATE);
+    }
+
+    /**
+     * Konstruktor für die Verbindung
+     * @param socket Der bereits verbundene Socket
+     * @param minSenderate Untergrenze für Snapshots pro Sekunde
+     * @param maxSenderate Obergrenze für Snapshots pro Sekunde
+     * @throws IOException wenn die Streams nicht geöffnet werden können
+     */
+    public Verbindung(Socket socket, int minSenderate, int maxSenderate) throws IOException {
+        this(new SocketTransport(socket), minSenderate, maxSenderate);
+    }
+
+    /**
+     * Konstruktor für die Verbindung über einen beliebigen Transport mit den Standard-Senderaten
+     * @param transport Der bereits verbundene Transport
+     */
+    public Verbindung(Transport transport) {
+        this(transport, STANDARD_MIN_SENDERATE, STANDARD_MAX_SENDERATE);
+    }
+
+    /**
+     * Konstruktor für die Verbindung über einen beliebigen Transport
+     * @param transport Der bereits verbundene Transport
+     * @param minSenderate Untergrenze für Snapshots pro Sekunde
+     * @param maxSenderate Obergrenze für Snapshots pro Sekunde
+     */
+    public Verbindung(Transport transport, int minSenderate, int maxSenderate) {
+        this.transport = transport;
+        this.regler = new SenderateRegler(minSenderate, maxSenderate);
+    }
+
+    /**
+     * Startet den Lese- und den Sende-Thread der Verbindung
+     * @param empfaenger Empfänger für alle eingehenden Nachrichten
+     */
+    public void starten(NachrichtenEmpfaenger empfaenger) {
+        this.empfaenger = empfaenger;
+        long jetzt = System.nanoTime();
+        letzterEmpfang = jetzt;
+        letzteNachricht = jetzt;
+        letztesSenden = jetzt;
+        isRunning = true;
+        Thread thread = new Thread(this, "Verbindung-" + transport.getAdresse());
+        thread.setDaemon(true);
+        thread.start();
+
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sendeSchleife();
+            }
+        }, "Sender-" + transport.getAdresse());
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Übergibt die Verbindung an einen anderen Empfänger, z.B. vom Anmelde-Empfänger des Servers an ein Spiel.
+     * Läuft sie noch nicht, wird sie gestartet. Aus dem Lese-Thread aufgerufen, geht schon die nächste Nachricht
+     * an den neuen Empfänger. Wurde sie inzwischen getrennt, erfährt das der neue Empfänger sofort.
+     * @param neuerEmpfaenger Empfänger für alle weiteren Nachrichten
+     */
+    public void uebergeben(NachrichtenEmpfaenger neuerEmpfaenger) {
+        if (empfaenger == null) {
+            starten(neuerEmpfaenger);
+            return;
+        }
+        boolean schonGetrennt;
+        synchronized (trennSperre) {
+            empfaenger = neuerEmpfaenger;
+            schonGetrennt = getrenntGemeldet;
+        }
+        if (schonGetrennt) {
+            neuerEmpfaenger.verbindungGetrennt(this);
+        }
+    }
+
+    /**
+     * Lese-Schleife, die im separaten Thread läuft
+     */
+    @Override
+    public void run() {
+        try {
+            String inputLine;
+            // zeileLesen() liefert null, sobald die Gegenseite die Verbindung geschlossen hat
+            while (isRunning && (inputLine = transport.zeileLesen()) != null) {
+                long jetzt = System.nanoTime();
+                letzterEmpfang = jetzt;
+                if (inputLine.equals(HERZSCHLAG)) {
+                    continue;
+                }
+                letzteNachricht = jetzt;
+                if (abschied != null) { // wird nach der letzten Nachricht geschlossen, nichts mehr weitergeben
+                    continue;
+                }
+                empfaenger.nachrichtEmpfangen(this, inputLine);
+            }
+        } catch (ZeilenLeser.ZeileZuLang e) {
+            EingangsSchutz.zeileZuLang();
+            System.out.println(getAdresse() + " schickt eine zu lange Zeile (" + e.getMessage() + "), Verbindung wird getrennt");
+        } catch (IOException e) {
+            if (isRunning) {
+                System.out.println("Verbindungsfehler: " + e.getMessage());
+            }
+        } finally {
+            schliessen();
+        }
+    }
+
+    /**
+     * Sende-Schleife: schreibt zuerst alle Vorrang-Nachrichten, dann höchstens einen Snapshot pro Sendeintervall
+     */
+    private void sendeSchleife() {
+        try {
+            while (isRunning) {
+                String nachricht;
+                int wartend;
+                boolean letzte;
+                synchronized (sendeSperre) {
+                    nachricht = naechsteNachricht();
+                    if (nachricht == null) {
+                        continue; // Verbindung wurde geschlossen
+                    }
+                    wartend = warteschlange.size();
+                    letzte = abschied != null && wartend == 0; // nach abschliessen() kommt nichts mehr dazu
+                }
+
+                long start = System.nanoTime();
+                transport.zeileSchreiben(nachricht);
+                transport.leeren(); // blockiert, wenn der Sendepuffer voll ist
+                long ende = System.nanoTime();
+                letztesSenden = ende;
+                regler.geschrieben(nachricht.length() + 1, ende - start, wartend, ende);
+                LeistungsMessung m = messung;
+                if (m != null) {
+                    m.gesendet(nachricht.length() + 1, nachricht.startsWith("UPDATE:"));
+                }
+                if (letzte) {
+                    schliessen();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (isRunning) {
+                System.out.println("Verbindungsfehler beim Senden: " + e.getMessage());
+            }
+            schliessen();
+        } catch (InterruptedException e) {
+            schliessen();
+        } catch (RuntimeException e) { // sonst endet der Thread und die Verbindung wirkt bis zum Timeout lebendig
+            System.out.println("Fehler beim Senden an " + getAdresse() + ": " + e);
+            schliessen();
+        }
+    }
+
+    /**
+     * Wartet auf die nächste zu sendende Nachricht (sendeSperre muss gehalten werden).
+     * Schickt einen Herzschlag, wenn länger nichts gesendet wurde, und trennt bei überschrittenen Timeouts.
+     * @return Die Nachricht oder null, wenn die Verbindung geschlossen wurde
+     */
+    private String naechsteNachricht() throws InterruptedException {
+        while (isRunning) {
+            if (!warteschlange.isEmpty()) {
+                return warteschlange.poll();
+            }
+            long jetzt = System.nanoTime();
+            if (jetzt - letzterEmpfang > LESE_TIMEOUT_NANOS) {
+                System.out.println("Keine Daten von " + getAdresse() + " seit " + (jetzt - letzterEmpfang) / 1_000_000 + " ms, Verbindung wird getrennt");
+                schliessen();
+                return null;
+            }
+            if (LEERLAUF_TIMEOUT_NANOS > 0 && jetzt - letzteNachricht > LEERLAUF_TIMEOUT_NANOS) {
+                System.out.println(getAdresse() + " ist untätig, Verbindung wird getrennt");
+                schliessen();
+                return null;
+            }
+            if (jetzt - letztesSenden >= HERZSCHLAG_NANOS) {
+                return HERZSCHLAG;
+            }
+
+            // Schlafen bis zum nächsten Snapshot, Herzschlag oder Timeout (was zuerst kommt)
+            long warten = Math.min(letztesSenden + HERZSCHLAG_NANOS, letzterEmpfang + LESE_TIMEOUT_NANOS) - jetzt;
+            if (LEERLAUF_TIMEOUT_NANOS > 0) {
+                warten = Math.min(warten, letzteNachricht + LEERLAUF_TIMEOUT_NANOS - jetzt);
+            }
+            if (snapshot != null) {
+                long bisSnapshot = naechsterSnapshot - jetzt;
+                if (bisSnapshot <= 0) {
+                    String naechster = snapshot;
+                    snapshot = null;
+                    naechsterSnapshot = jetzt + regler.intervallNanos();
+                    return naechster;
+                }
+                warten = Math.min(warten, bisSnapshot);
+            }
+            TimeUnit.NANOSECONDS.timedWait(sendeSperre, Math.max(1, warten));
+        }
+        return null;
+    }
+
+    /**
+     * Sendet eine Nachricht mit Vorrang (Steuer-Nachrichten wie MODUS, PAUSE, NEUSTART)
+     * @param nachricht Die Nachricht ("BEFEHL:DATEN")
+     */
+    public void senden(String nachricht) {
+        if (!isRunning) {
+            return;
+        }
+        boolean ueberlauf;
+        synchronized (sendeSperre) {
+            if (abschied != null) {
+                return;
+            }
+            warteschlange.add(nachricht);
+            ueberlauf = warteschlange.size() > MAX_WARTESCHLANGE;
+            sendeSperre.notify();
+        }
+        if (ueberlauf) {
+            System.out.println("Client " + getAdresse() + " liest nicht mehr, Verbindung wird getrennt");
+            schliessen();
+        }
+    }
+
+    /**
+     * Sendet einen Spielzustand. Keyframes (z.B. nach einem Punkt) werden wie Steuer-Nachrichten mit Vorrang
+     * gesendet, normale Snapshots ersetzen einen noch nicht gesendeten älteren Snapshot.
+     * @param nachricht Der Spielzustand ("UPDATE:...")
+     * @param keyframe ob der Zustand auf jeden Fall ankommen muss
+     */
+    public void sendeSnapshot(String nachricht, boolean keyframe) {
+        if (!isRunning) {
+            return;
+        }
+        if (keyframe) {
+            synchronized (sendeSperre) {
+                snapshot = null; // älterer Snapshot ist durch den Keyframe überholt
+            }
+            senden(nachricht);
+            return;
+        }
+        synchronized (sendeSperre) {
+            if (abschied != null) {
+                return;
+            }
+            snapshot = nachricht;
+            sendeSperre.notify();
+        }
+    }
+
+    /**
+     * Sendet eine letzte Nachricht (z.B. VOLL beim Abweisen) nach allen schon wartenden und schließt die Verbindung,
+     * sobald der Sende-Thread sie geschrieben hat. Danach wird nichts mehr gesendet oder an den Empfänger weitergegeben.
+     * Eine nie gestartete Verbindung wird sofort geschlossen.
+     * @param nachricht Die letzte Nachricht ("BEFEHL:DATEN")
+     */
+    public void abschliessen(String nachricht) {
+        if (!isRunning) {
+            schliessen();
+            return;
+        }
+        synchronized (sendeSperre) {
+            if (abschied != null) {
+                return;
+            }
+            abschied = nachricht;
+            snapshot = null;
+            warteschlange.add(nachricht);
+            sendeSperre.notify();
+        }
+    }
+
+    /**
+     * Schließt die Verbindung und meldet sie dem Empfänger einmalig als getrennt (egal, welcher Thread sie schließt)
+     */
+    public void schliessen() {
+        isRunning = false;
+        synchronized (sendeSperre) {
+            sendeSperre.notifyAll(); // Sende-Thread aufwecken, damit er sich beendet
+        }
+        transport.schliessen(); // beendet auch ein blockierendes zeileLesen()
+        NachrichtenEmpfaenger gemeldet;
+        synchronized (trennSperre) {
+            gemeldet = empfaenger;
+            if (getrenntGemeldet || gemeldet == null) {
+                return;
+            }
+            getrenntGemeldet = true;
+        }
+        gemeldet.verbindungGetrennt(this);
+    }
+
+    /**
+     * Prüft, ob die Verbindung aktiv ist
+     * @return true wenn verbunden, sonst false
+     */
+    public boolean istVerbunden() {
+        return isRunning && !transport.istGeschlossen();
+    }
+
+    /**
+     * Liefert die Adresse der Gegenseite (für Log-Ausgaben)
+     */
+    public String getAdresse() {
+        return transport.getAdresse();
+    }
+
+    /**
+     * Setzt die Messung, in der gesendete Nachrichten gezählt werden (optional)
+     * @param messung Die Messung der Leistungsanzeige
+     */
+    public void setMessung(LeistungsMessung messung) {
+        this.messung = messung;
+    }
+
+    /**
+     * Liefert den Regler mit der aktuellen Senderate und dem gemessenen Durchsatz
+     */
+    public SenderateRegler getRegler() {
+        return regler;
+    }
+}
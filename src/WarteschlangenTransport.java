@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Die Klasse WarteschlangenTransport verbindet zwei Seiten im selben Prozess über zwei einfache Warteschlangen
+ * (siehe Transport). Ohne Netzwerk und Timing-Abhängigkeiten vom Betriebssystem eignet sie sich für Bots
+ * und reproduzierbare Testläufe von Server und Client.
+ */
+public class WarteschlangenTransport implements Transport {
+    private static final String ENDE = new String("ENDE"); // Markierung für das Ende, wird über die Identität erkannt
+
+    private final LinkedBlockingQueue<String> eingang;
+    private final LinkedBlockingQueue<String> ausgang;
+    private final String name;
+    private volatile boolean geschlossen = false;
+
+    private WarteschlangenTransport(LinkedBlockingQueue<String> eingang, LinkedBlockingQueue<String> ausgang, String name) {
+        this.eingang = eingang;
+        this.ausgang = ausgang;
+        this.name = name;
+    }
+
+    /**
+     * Erzeugt zwei miteinander verbundene Enden
+     * @return [0] für den Server, [1] für den Client
+     */
+    public static WarteschlangenTransport[] paar() {
+        LinkedBlockingQueue<String> zumClient = new LinkedBlockingQueue<>();
+        LinkedBlockingQueue<String> zumServer = new LinkedBlockingQueue<>();
+        return new WarteschlangenTransport[] {
+            new WarteschlangenTransport(zumServer, zumClient, "intern:client"),
+            new WarteschlangenTransport(zumClient, zumServer, "intern:server")
+        };
+    }
+
+    @Override
+    public String zeileLesen() throws IOException {
+        String zeile;
+        try {
+            zeile = eingang.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lesen unterbrochen");
+        }
+        if (zeile == ENDE) {
+            eingang.offer(ENDE); // weitere Aufrufe enden ebenfalls
+            if (geschlossen) {
+                throw new IOException("Transport geschlossen");
+            }
+            return null;
+        }
+        return zeile;
+    }
+
+    @Override
+    public void zeileSchreiben(String zeile) throws IOException {
+        if (geschlossen) {
+            throw new IOException("Transport geschlossen");
+        }
+        ausgang.offer(zeile);
+    }
+
+    @Override
+    public void leeren() {
+        // Zeilen sind sofort sichtbar
+    }
+
+    @Override
+    public void schliessen() {
+        if (geschlossen) {
+            return;
+        }
+        geschlossen = true;
+        ausgang.offer(ENDE); // Gegenseite liest EOF
+        eingang.offer(ENDE); // eigenes zeileLesen() beenden
+    }
+
+    @Override
+    public boolean istGeschlossen() {
+        return geschlossen;
+    }
+
+    @Override
+    public String getAdresse() {
+        return name;
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Die Klasse Wiederholung hält ein aufgezeichnetes Spiel: pro Tick den vollständigen Zustand der SpielPhysik
+ * (siehe zustandSpeichern) und im Mehrball-Modus die Positionen der zusätzlichen Bälle. Alle Werte liegen in
+ * einem einzigen int-Array; ein Bild wird ohne neue Objekte in eine SpielPhysik geladen.
+ *
+ * Dateiformat (DataOutputStream): Kennung, Version, Modus, Breite, Höhe, Schlägerhöhe, Anzahl der zusätzlichen
+ * Bälle, Anzahl der Bilder, danach die Werte aller Bilder.
+ * Aufnehmen am Host mit -Dpong.wiederholung=verzeichnis, als Bildfolge ausgeben mit WiederholungRenderer.
+ * Sie kommt ohne AWT/Swing aus.
+ */
+public class Wiederholung {
+    public static final String VERZEICHNIS = System.getProperty("pong.wiederholung"); // null = keine Aufnahme
+    public static final int MAX_BILDER = 360_000; // eine Stunde bei 100 Ticks pro Sekunde, danach wird nicht weiter aufgenommen
+    private static final int KENNUNG = 0x50574448; // "PWDH"
+    private static final int VERSION = 1;
+
+    private final SpielModus modus;
+    private final int breite;
+    private final int hoehe;
+    private final int schlaegerHoehe;
+    private final int baelle; // zusätzliche Bälle (0 außer im Mehrball-Modus)
+    private final int bildLaenge; // Werte pro Bild
+    private int[] werte;
+    private int anzahlBilder = 0;
+
+    /**
+     * Konstruktor für eine neue Aufnahme
+     * @param modus Der Spielmodus
+     * @param physik Die Spielphysik (Spielfeld- und Schlägergröße)
+     * @param mehrball Die zusätzlichen Bälle (null = keine)
+     */
+    public Wiederholung(SpielModus modus, SpielPhysik physik, MehrballPhysik mehrball) {
+        this(modus, physik.getBreite(), physik.getHoehe(), physik.getSchlaegerHoehe(),
+            mehrball != null ? mehrball.getAnzahl() : 0, 1024);
+    }
+
+    private Wiederholung(SpielModus modus, int breite, int hoehe, int schlaegerHoehe, int baelle, int bilder) {
+        this.modus = modus;
+        this.breite = breite;
+        this.hoehe = hoehe;
+        this.schlaegerHoehe = schlaegerHoehe;
+        this.baelle = baelle;
+        this.bildLaenge = SpielPhysik.ZUSTAND_LAENGE + 2 * baelle;
+        this.werte = new int[bilder * bildLaenge];
+    }
+
+    /**
+     * Hängt den aktuellen Zustand als nächstes Bild an
+     * @return false, wenn die Aufnahme schon MAX_BILDER Bilder hat
+     */
+    public boolean aufnehmen(SpielPhysik physik, MehrballPhysik mehrball) {
+        if (anzahlBilder >= MAX_BILDER) {
+            return false;
+        }
+        int offset = anzahlBilder * bildLaenge;
+        if (offset + bildLaenge > werte.length) {
+            werte = Arrays.copyOf(werte, Math.min(werte.length * 2, MAX_BILDER * bildLaenge));
+        }
+        physik.zustandSpeichern(werte, offset);
+        if (baelle > 0 && mehrball != null) {
+            mehrball.positionenSpeichern(werte, offset + SpielPhysik.ZUSTAND_LAENGE);
+        }
+        anzahlBilder++;
+        return true;
+    }
+
+    /**
+     * Lädt ein Bild in eine Spielphysik (und die zusätzlichen Bälle)
+     * @param bild Index des Bilds
+     * @param physik Ziel, z.B. aus neuePhysik()
+     * @param mehrball Ziel für die zusätzlichen Bälle, z.B. aus neueMehrball() (null = ignorieren)
+     */
+    public void bildLaden(int bild, SpielPhysik physik, MehrballPhysik mehrball) {
+        int offset = bild * bildLaenge;
+        physik.zustandLaden(werte, offset);
+        if (mehrball != null) {
+            mehrball.positionenLaden(werte, offset + SpielPhysik.ZUSTAND_LAENGE);
+        }
+    }
+
+    /**
+     * Neue Spielphysik mit Spielfeld, Schlägern und Modus der Aufnahme (z.B. eine pro Render-Thread)
+     */
+    public SpielPhysik neuePhysik() {
+        SpielPhysik physik = new SpielPhysik(breite, hoehe);
+        physik.initialisiereModus(modus);
+        physik.setSchlaeger(schlaegerHoehe, physik.getSchlaegerGeschwindigkeit());
+        return physik;
+    }
+
+    /**
+     * Neue zusätzliche Bälle passend zur Aufnahme, null ohne zusätzliche Bälle
+     */
+    public MehrballPhysik neueMehrball() {
+        return baelle > 0 ? new MehrballPhysik(baelle, SpielPhysik.BALL_GROESSE, breite, hoehe, 0) : null;
+    }
+
+    /**
+     * Schreibt die Aufnahme in eine Datei
+     */
+    public void schreiben(Path datei) throws IOException {
+        try (DataOutputStream aus = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(datei), 1 << 16))) {
+            aus.writeInt(KENNUNG);
+            aus.writeInt(VERSION);
+            aus.writeUTF(modus.name());
+            aus.writeInt(breite);
+            aus.writeInt(hoehe);
+            aus.writeInt(schlaegerHoehe);
+            aus.writeInt(baelle);
+            aus.writeInt(anzahlBilder);
+            for (int i = 0; i < anzahlBilder * bildLaenge; i++) {
+                aus.writeInt(werte[i]);
+            }
+        }
+    }
+
+    /**
+     * Liest eine mit schreiben() erzeugte Datei
+     * @throws IOException wenn die Datei fehlt, keine Wiederholung ist oder zu früh endet
+     */
+    public static Wiederholung lesen(Path datei) throws IOException {
+        try (DataInputStream ein = new DataInputStream(new BufferedInputStream(Files.newInputStream(datei), 1 << 16))) {
+            if (ein.readInt() != KENNUNG || ein.readInt() != VERSION) {
+                throw new IOException("Keine Wiederholung (oder andere Version): " + datei);
+            }
+            SpielModus modus;
+            try {
+                modus = SpielModus.valueOf(ein.readUTF());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unbekannter Spielmodus in " + datei);
+            }
+            int breite = ein.readInt();
+            int hoehe = ein.readInt();
+            int schlaegerHoehe = ein.readInt();
+            int baelle = ein.readInt();
+            int bilder = ein.readInt();
+            if (breite <= 0 || hoehe <= 0 || baelle < 0 || baelle > 100_000 || bilder < 0 || bilder > MAX_BILDER) {
+                throw new IOException("Ungültiger Kopf in " + datei);
+            }
+            Wiederholung wiederholung = new Wiederholung(modus, breite, hoehe, schlaegerHoehe, baelle, Math.max(1, bilder));
+            for (int i = 0; i < bilder * wiederholung.bildLaenge; i++) {
+                wiederholung.werte[i] = ein.readInt();
+            }
+            wiederholung.anzahlBilder = bilder;
+            return wiederholung;
+        }
+    }
+
+    /**
+     * Schreibt die Aufnahme in einem eigenen Thread (die Spielschleife macht keine Datei-Ein-/Ausgabe).
+     * Die Aufnahme darf danach nicht mehr verändert werden.
+     * @param verzeichnis Zielverzeichnis, der Dateiname enthält die aktuelle Zeit
+     */
+    public void speichernImHintergrund(final Path verzeichnis) {
+        final Path datei = verzeichnis.resolve("pong-" + System.currentTimeMillis() + "-" + modus + ".wdh");
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Files.createDirectories(verzeichnis);
+                    schreiben(datei);
+                    System.out.println("Wiederholung gespeichert: " + datei + " (" + anzahlBilder + " Bilder)");
+                } catch (IOException e) {
+                    System.out.println("Wiederholung konnte nicht gespeichert werden: " + e.getMessage());
+                }
+            }
+        }, "Wiederholung-Schreiber");
+        thread.setDaemon(false); // die Datei soll auch beim Beenden noch fertig werden
+        thread.start();
+    }
+
+    public int getAnzahlBilder() {
+        return anzahlBilder;
+    }
+
+    public SpielModus getModus() {
+        return modus;
+    }
+
+    public int getBreite() {
+        return breite;
+    }
+
+    public int getHoehe() {
+        return hoehe;
+    }
+}
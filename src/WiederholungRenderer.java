@@ -0,0 +1,345 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Die Klasse WiederholungRenderer macht aus einer Wiederholung eine Bildfolge, ohne Bildschirm (headless).
+ * Gezeichnet wird mit SpielSteuerung.zeichneFeld in BufferedImages, parallel in einem Fork-Join-Pool. Jeder Thread
+ * hat sein eigenes Bild mit Graphics, SpielPhysik und PNG-Kodierer und benutzt sie für alle seine Bilder wieder;
+ * auch das Kodieren (der teuerste Teil) läuft so auf allen Kernen.
+ *
+ * Die fertigen Bytes schreibt ein eigener Thread auf die Platte. Die Puffer dafür kommen aus einem festen Vorrat:
+ * der Speicher bleibt begrenzt, und kommt die Platte nicht hinterher, warten die Render-Threads auf einen Puffer.
+ *
+ * Formate: png (eine Datei pro Bild, bild-000000.png) oder roh (alle Bilder hintereinander in bilder.bgr mit 3 Byte
+ * pro Pixel, z.B. für ffmpeg -f rawvideo -pixel_format bgr24 -video_size 1280x720 -framerate 100 -i bilder.bgr).
+ *
+ * Aufruf: java WiederholungRenderer datei.wdh|bot:MODUS zielverzeichnis [breite=1280] [hoehe=720] [format=png] [threads] [jedesNte=1]
+ * Mit bot:MODUS (z.B. bot:MITTEL) wird vorher ein Spiel zweier SpielBots aufgenommen.
+ */
+public class WiederholungRenderer {
+    private static final int BILDER_PRO_TEILAUFGABE = 8; // ab dieser Größe wird eine Aufgabe nicht weiter geteilt
+    private static final int PUFFER_PRO_THREAD = 4; // Vorrat an Schreibpuffern
+    private static final int MAX_BOT_TICKS = 60_000; // Schutz vor endlosen Ballwechseln bei bot:MODUS
+    private static final int BOT_MEHRBALL_ANZAHL = 20;
+
+    private final Wiederholung wiederholung;
+    private final int breite; // Bildgröße in Pixeln
+    private final int hoehe;
+    private final boolean png; // sonst roh
+    private final int jedesNte; // nur jedes n-te Bild der Wiederholung
+    private final BildSchreiber schreiber;
+
+    private final ThreadLocal<Arbeitsplatz> arbeitsplaetze = new ThreadLocal<Arbeitsplatz>() {
+        @Override
+        protected Arbeitsplatz initialValue() {
+            return new Arbeitsplatz();
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2) {
+            System.out.println("Aufruf: java WiederholungRenderer datei.wdh|bot:MODUS zielverzeichnis [breite=1280] [hoehe=720] [format=png|roh] [threads] [jedesNte=1]");
+            return;
+        }
+        Wiederholung wiederholung = args[0].startsWith("bot:")
+            ? botSpiel(SpielModus.valueOf(args[0].substring(4))) : Wiederholung.lesen(Path.of(args[0]));
+        Path ziel = Path.of(args[1]);
+        int breite = args.length > 2 ? Integer.parseInt(args[2]) : 1280;
+        int hoehe = args.length > 3 ? Integer.parseInt(args[3]) : 720;
+        boolean png = args.length <= 4 || !args[4].equals("roh");
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        int jedesNte = args.length > 6 ? Math.max(1, Integer.parseInt(args[6])) : 1;
+
+        Files.createDirectories(ziel);
+        WiederholungRenderer renderer = new WiederholungRenderer(wiederholung, ziel, breite, hoehe, png, jedesNte, threads);
+        int bilder = (wiederholung.getAnzahlBilder() + jedesNte - 1) / jedesNte;
+        System.out.println(bilder + " Bilder (" + wiederholung.getModus() + "), " + breite + "x" + hoehe + ", "
+            + (png ? "png" : "roh") + ", " + threads + " Threads -> " + ziel);
+
+        long start = System.nanoTime();
+        renderer.rendern(bilder, threads);
+        long dauer = System.nanoTime() - start;
+        System.out.printf("Fertig in %d ms (%.0f Bilder/s)%n", dauer / 1_000_000, bilder * 1e9 / Math.max(1, dauer));
+    }
+
+    /**
+     * Konstruktor für den WiederholungRenderer (startet den Schreib-Thread)
+     * @param ziel Vorhandenes Zielverzeichnis
+     * @param png true für eine PNG-Datei pro Bild, false für rohe BGR-Bilder in einer Datei
+     * @param threads Anzahl der Render-Threads (bestimmt den Vorrat an Schreibpuffern)
+     */
+    public WiederholungRenderer(Wiederholung wiederholung, Path ziel, int breite, int hoehe, boolean png, int jedesNte,
+                                int threads) throws IOException {
+        this.wiederholung = wiederholung;
+        this.breite = breite;
+        this.hoehe = hoehe;
+        this.png = png;
+        this.jedesNte = jedesNte;
+        this.schreiber = new BildSchreiber(ziel, png, (long) breite * hoehe * 3, Math.max(1, threads) * PUFFER_PRO_THREAD);
+    }
+
+    /**
+     * Zeichnet und schreibt alle Bilder und wartet, bis sie auf der Platte sind
+     * @param bilder Anzahl der auszugebenden Bilder
+     * @param threads Größe des Fork-Join-Pools
+     * @throws IOException wenn ein Bild nicht geschrieben werden konnte
+     */
+    public void rendern(int bilder, int threads) throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            pool.invoke(new BildAufgabe(0, bilder));
+        } finally {
+            pool.shutdown();
+            schreiber.beenden();
+        }
+    }
+
+    /**
+     * Ein Bereich von Bildern; wird bis BILDER_PRO_TEILAUFGABE geteilt, damit sich die Threads per Work-Stealing verteilen
+     */
+    private class BildAufgabe extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int von;
+        private final int bis;
+
+        BildAufgabe(int von, int bis) {
+            this.von = von;
+            this.bis = bis;
+        }
+
+        @Override
+        protected void compute() {
+            if (bis - von <= BILDER_PRO_TEILAUFGABE) {
+                Arbeitsplatz platz = arbeitsplaetze.get();
+                for (int i = von; i < bis; i++) {
+                    platz.bildAusgeben(i);
+                }
+                return;
+            }
+            int mitte = (von + bis) >>> 1;
+            invokeAll(new BildAufgabe(von, mitte), new BildAufgabe(mitte, bis));
+        }
+    }
+
+    /**
+     * Alles, was ein Render-Thread wiederverwendet
+     */
+    private class Arbeitsplatz {
+        private final BufferedImage bild = new BufferedImage(breite, hoehe, BufferedImage.TYPE_3BYTE_BGR);
+        private final Graphics2D g = bild.createGraphics();
+        private final SpielPhysik physik = wiederholung.neuePhysik();
+        private final MehrballPhysik mehrball = wiederholung.neueMehrball();
+        private final Kodierpuffer kodiert = new Kodierpuffer();
+        private final ImageWriter pngSchreiber;
+
+        Arbeitsplatz() {
+            // Ränder außerhalb des Spielfelds bleiben schwarz (neues Bild), danach wird nur das Spielfeld übermalt
+            g.transform(SpielSteuerung.darstellungsTransformation(breite, hoehe, wiederholung.getBreite(), wiederholung.getHoehe()));
+            Iterator<ImageWriter> kodierer = ImageIO.getImageWritersByFormatName("png");
+            pngSchreiber = png ? kodierer.next() : null;
+        }
+
+        /**
+         * Zeichnet ein Bild, kodiert es und übergibt es dem Schreib-Thread
+         * @param nummer Nummer in der Ausgabe
+         */
+        void bildAusgeben(int nummer) {
+            wiederholung.bildLaden(nummer * jedesNte, physik, mehrball);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, wiederholung.getBreite(), wiederholung.getHoehe());
+            SpielSteuerung.zeichneFeld(g, wiederholung.getBreite(), wiederholung.getHoehe(), physik, mehrball, wiederholung.getModus());
+
+            Puffer puffer = schreiber.pufferHolen();
+            if (png) {
+                kodiert.reset();
+                try (ImageOutputStream aus = new MemoryCacheImageOutputStream(kodiert)) {
+                    pngSchreiber.setOutput(aus);
+                    pngSchreiber.write(bild);
+                } catch (IOException e) { // in einen Speicherpuffer, kommt praktisch nicht vor
+                    throw new IllegalStateException("PNG konnte nicht kodiert werden", e);
+                }
+                puffer.fuellen(nummer, kodiert.daten(), kodiert.size());
+            } else {
+                byte[] pixel = ((DataBufferByte) bild.getRaster().getDataBuffer()).getData();
+                puffer.fuellen(nummer, pixel, pixel.length);
+            }
+            schreiber.schreiben(puffer);
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream, dessen Inhalt ohne Kopie gelesen werden kann
+     */
+    private static class Kodierpuffer extends ByteArrayOutputStream {
+        Kodierpuffer() {
+            super(1 << 16);
+        }
+
+        byte[] daten() {
+            return buf;
+        }
+    }
+
+    /**
+     * Ein Schreibpuffer aus dem Vorrat; wächst bei Bedarf und wird danach wiederverwendet
+     */
+    private static class Puffer {
+        private byte[] daten = new byte[0];
+        private int laenge;
+        private int nummer = -1; // -1 = Ende
+
+        void fuellen(int nummer, byte[] quelle, int laenge) {
+            if (daten.length < laenge) {
+                daten = new byte[laenge];
+            }
+            System.arraycopy(quelle, 0, daten, 0, laenge);
+            this.laenge = laenge;
+            this.nummer = nummer;
+        }
+    }
+
+    /**
+     * Schreib-Thread: nimmt fertige Puffer entgegen, schreibt sie und gibt sie an den Vorrat zurück
+     */
+    private static class BildSchreiber implements Runnable {
+        private static final Puffer ENDE = new Puffer();
+
+        private final Path ziel;
+        private final boolean png;
+        private final long bildBytes; // Größe eines rohen Bilds (Position in bilder.bgr)
+        private final FileChannel kanal; // nur für roh
+        private final ArrayBlockingQueue<Puffer> frei;
+        private final ArrayBlockingQueue<Puffer> auftraege;
+        private final Thread thread;
+        private volatile IOException fehler; // erster Schreibfehler, wird in beenden() geworfen
+
+        BildSchreiber(Path ziel, boolean png, long bildBytes, int anzahlPuffer) throws IOException {
+            this.ziel = ziel;
+            this.png = png;
+            this.bildBytes = bildBytes;
+            this.kanal = png ? null : FileChannel.open(ziel.resolve("bilder.bgr"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.frei = new ArrayBlockingQueue<>(anzahlPuffer);
+            this.auftraege = new ArrayBlockingQueue<>(anzahlPuffer + 1);
+            for (int i = 0; i < anzahlPuffer; i++) {
+                frei.add(new Puffer());
+            }
+            this.thread = new Thread(this, "Bild-Schreiber");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Wartet auf einen freien Puffer (begrenzt die Render-Threads, wenn das Schreiben nicht hinterherkommt)
+         */
+        Puffer pufferHolen() {
+            try {
+                return frei.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Unterbrochen beim Warten auf einen Schreibpuffer", e);
+            }
+        }
+
+        void schreiben(Puffer puffer) {
+            auftraege.add(puffer); // nie voll: es gibt nur anzahlPuffer Puffer
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Puffer puffer;
+                try {
+                    puffer = auftraege.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (puffer == ENDE) {
+                    return;
+                }
+                if (fehler == null) { // nach einem Fehler nur noch Puffer zurückgeben, damit niemand hängen bleibt
+                    try {
+                        schreibe(puffer);
+                    } catch (IOException e) {
+                        fehler = e;
+                    }
+                }
+                frei.add(puffer);
+            }
+        }
+
+        private void schreibe(Puffer puffer) throws IOException {
+            if (png) {
+                try (OutputStream aus = Files.newOutputStream(ziel.resolve(String.format("bild-%06d.png", puffer.nummer)))) {
+                    aus.write(puffer.daten, 0, puffer.laenge);
+                }
+            } else { // Bilder kommen in beliebiger Reihenfolge, die Position ergibt sich aus der Nummer
+                ByteBuffer daten = ByteBuffer.wrap(puffer.daten, 0, puffer.laenge);
+                long position = puffer.nummer * bildBytes;
+                while (daten.hasRemaining()) {
+                    position += kanal.write(daten, position);
+                }
+            }
+        }
+
+        /**
+         * Wartet, bis alle übergebenen Bilder geschrieben sind, und schließt die Datei
+         * @throws IOException der erste Schreibfehler
+         */
+        void beenden() throws IOException, InterruptedException {
+            auftraege.put(ENDE);
+            thread.join();
+            if (kanal != null) {
+                kanal.close();
+            }
+            if (fehler != null) {
+                throw fehler;
+            }
+        }
+    }
+
+    /**
+     * Nimmt ein Spiel zweier SpielBots auf (wie SimulationsSweep, mit festem Seed)
+     */
+    private static Wiederholung botSpiel(SpielModus modus) {
+        SpielPhysik physik = new SpielPhysik(SpielPhysik.STANDARD_BREITE, SpielPhysik.STANDARD_HOEHE);
+        physik.initialisiereModus(modus);
+        physik.neuesSpiel();
+        MehrballPhysik mehrball = modus == SpielModus.MEHRBALL ? new MehrballPhysik(BOT_MEHRBALL_ANZAHL,
+            SpielPhysik.BALL_GROESSE, physik.getBreite(), physik.getHoehe(), SpielPhysik.ballGeschwindigkeit(modus)) : null;
+        SpielBot bot1 = new SpielBot(1, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+        SpielBot bot2 = new SpielBot(2, SpielBot.STANDARD_REAKTIONS_TICKS, SpielBot.STANDARD_FEHLER_SPANNE);
+        SplittableRandom zufall = new SplittableRandom(1);
+        Wiederholung wiederholung = new Wiederholung(modus, physik, mehrball);
+        for (int tick = 0; tick < MAX_BOT_TICKS && !physik.istSpielVorbei(); tick++) {
+            bot1.steuere(physik, zufall);
+            bot2.steuere(physik, zufall);
+            physik.schritt();
+            if (mehrball != null) {
+                mehrball.schritt(physik);
+            }
+            wiederholung.aufnehmen(physik, mehrball);
+        }
+        return wiederholung;
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Die Klasse ZeilenLeser liest Zeilen aus einem InputStream wie BufferedReader.readLine(), aber mit einer
+ * Höchstlänge: eine längere Zeile wird nicht weiter gesammelt, sondern mit ZeileZuLang abgebrochen. Eine
+ * Gegenseite, die nie einen Zeilenumbruch schickt, kann so keinen beliebig großen Speicher belegen.
+ * Zeilenende ist '\n', ein '\r' davor wird entfernt.
+ */
+public class ZeilenLeser {
+    private final InputStream ein;
+    private final Charset zeichensatz;
+    private final int maxLaenge; // Bytes pro Zeile ohne Zeilenumbruch
+    private final byte[] puffer = new byte[8192];
+    private int position = 0; // nächstes ungelesenes Byte im Puffer
+    private int ende = 0; // Ende der gültigen Bytes im Puffer
+    private byte[] zeile = new byte[256]; // wächst bis maxLaenge
+
+    /**
+     * Ausnahme für eine Zeile über der Höchstlänge; die Verbindung sollte danach getrennt werden
+     */
+    public static class ZeileZuLang extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ZeileZuLang(int maxLaenge) {
+            super("Zeile länger als " + maxLaenge + " Bytes");
+        }
+    }
+
+    /**
+     * Konstruktor für den ZeilenLeser
+     * @param ein Der Stream (wird nicht zusätzlich gepuffert)
+     * @param zeichensatz Zeichensatz der Gegenseite
+     * @param maxLaenge Höchstlänge einer Zeile in Bytes
+     */
+    public ZeilenLeser(InputStream ein, Charset zeichensatz, int maxLaenge) {
+        this.ein = ein;
+        this.zeichensatz = zeichensatz;
+        this.maxLaenge = maxLaenge;
+    }
+
+    /**
+     * Liest die nächste Zeile (blockiert)
+     * @return Die Zeile ohne Zeilenumbruch oder null am Ende des Streams
+     * @throws ZeileZuLang wenn die Zeile länger als maxLaenge ist
+     */
+    public String zeileLesen() throws IOException {
+        int laenge = 0;
+        while (true) {
+            if (position == ende) {
+                int gelesen = ein.read(puffer);
+                if (gelesen < 0) { // wie readLine(): eine letzte Zeile ohne Umbruch zählt noch
+                    return laenge > 0 ? text(laenge) : null;
+                }
+                position = 0;
+                ende = gelesen;
+            }
+            int start = position;
+            while (position < ende && puffer[position] != '\n') {
+                position++;
+            }
+            int stueck = position - start;
+            if (laenge + stueck > maxLaenge) {
+                throw new ZeileZuLang(maxLaenge);
+            }
+            if (laenge + stueck > zeile.length) {
+                zeile = Arrays.copyOf(zeile, Math.min(maxLaenge, Math.max(zeile.length * 2, laenge + stueck)));
+            }
+            System.arraycopy(puffer, start, zeile, laenge, stueck);
+            laenge += stueck;
+            if (position < ende) { // Zeilenumbruch gefunden
+                position++;
+                return text(laenge);
+            }
+        }
+    }
+
+    private String text(int laenge) {
+        if (laenge > 0 && zeile[laenge - 1] == '\r') {
+            laenge--;
+        }
+        return new String(zeile, 0, laenge, zeichensatz);
+    }
+}